@@ -0,0 +1,18 @@
+package ldbc.snb.datagen.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks selected by the JMH command line options, with the gc profiler, so that the allocation rate
+ * is reported next to the time of each benchmark.
+ */
+public class Benchmarks {
+
+    public static void main( String [] args ) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build()).run();
+    }
+}
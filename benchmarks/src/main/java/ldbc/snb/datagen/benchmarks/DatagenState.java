@@ -0,0 +1,104 @@
+package ldbc.snb.datagen.benchmarks;
+
+import ldbc.snb.datagen.generator.DistanceKnowsGenerator;
+import ldbc.snb.datagen.generator.LDBCDatagen;
+import ldbc.snb.datagen.generator.PersonGenerator;
+import ldbc.snb.datagen.generator.tools.EdgeStore;
+import ldbc.snb.datagen.hadoop.HadoopFileKeyChanger;
+import ldbc.snb.datagen.hadoop.TupleKey;
+import ldbc.snb.datagen.objects.Person;
+import ldbc.snb.datagen.util.ConfigParser;
+import org.apache.hadoop.conf.Configuration;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+/**
+ * The configuration shared by all the benchmarks. The generator is configured as LDBCDatagen does, for the given
+ * scale factor and block size, with its output directories in a temporary directory of the local file system and
+ * without update streams. BTERKnowsGenerator uses the dblp clustering coefficient distribution unless another one
+ * is configured. Since the dictionaries are loaded once per JVM, every combination of parameters must run
+ * in a fork of its own, which is the default of JMH.
+ */
+@State(Scope.Benchmark)
+public class DatagenState {
+
+    public static final ArrayList<Float> PERCENTAGES = new ArrayList<Float>(Arrays.asList(0.45f, 0.45f, 0.1f));
+
+    @Param({"snb.interactive.1", "snb.interactive.10"})
+    public String scaleFactor;
+
+    @Param({"1000", "10000"})
+    public int blockSize;
+
+    public Configuration conf;
+    public File outputDir;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        outputDir = Files.createTempDirectory("datagen-benchmarks").toFile();
+        conf = ConfigParser.initialize();
+        conf.set("fs.defaultFS", "file:///");
+        String params = "ldbc.snb.datagen.generator.scaleFactor:" + scaleFactor + "\n";
+        ConfigParser.readConfig(conf, new ByteArrayInputStream(params.getBytes(StandardCharsets.UTF_8)));
+        ConfigParser.readConfig(conf, LDBCDatagen.class.getResourceAsStream("/params.ini"));
+        conf.set("ldbc.snb.datagen.generator.blockSize", Integer.toString(blockSize));
+        conf.set("ldbc.snb.datagen.serializer.updateStreams", "false");
+        if( conf.get("ldbc.snb.datagen.generator.BTERKnowsGenerator.ccDistribution") == null ) {
+            conf.set("ldbc.snb.datagen.generator.BTERKnowsGenerator.ccDistribution", "/distributions/dblp_cc.dat");
+        }
+        conf.set("ldbc.snb.datagen.serializer.outputDir", outputDir.getAbsolutePath());
+        conf.set("ldbc.snb.datagen.serializer.socialNetworkDir", outputDir.getAbsolutePath() + "/social_network");
+        conf.set("ldbc.snb.datagen.serializer.hadoopDir", outputDir.getAbsolutePath() + "/hadoop");
+        new File(outputDir, "social_network").mkdirs();
+        new File(outputDir, "hadoop").mkdirs();
+        LDBCDatagen.init(conf);
+    }
+
+    /** Generates the first block of persons, without edges.**/
+    public ArrayList<Person> generatePersons() {
+        PersonGenerator generator = new PersonGenerator(conf, conf.get("ldbc.snb.datagen.generator.distribution.degreeDistribution"));
+        return new ArrayList<Person>(Arrays.asList(generator.generateUserBlock(0, blockSize)));
+    }
+
+    /** Sorts a block of persons by the key of a key setter, as the block would be ranked before a knows step.**/
+    public static void rank( ArrayList<Person> persons, String keySetterName ) throws Exception {
+        final HadoopFileKeyChanger.KeySetter<TupleKey> keySetter = (HadoopFileKeyChanger.KeySetter) Class.forName(keySetterName).newInstance();
+        Collections.sort(persons, new Comparator<Person>() {
+            public int compare( Person a, Person b ) {
+                return keySetter.getKey(a).compareTo(keySetter.getKey(b));
+            }
+        });
+    }
+
+    /** Generates the first block of persons, with the edges of the first knows step.**/
+    public ArrayList<Person> generatePersonsWithKnows() throws Exception {
+        ArrayList<Person> persons = generatePersons();
+        rank(persons, "ldbc.snb.datagen.hadoop.UniversityKeySetter");
+        DistanceKnowsGenerator knowsGenerator = new DistanceKnowsGenerator();
+        knowsGenerator.initialize(conf);
+        EdgeStore edges = new EdgeStore(persons);
+        knowsGenerator.generateKnows(persons, edges, 0, PERCENTAGES, 0);
+        edges.materialize();
+        return persons;
+    }
+
+    public static ArrayList<Person> copy( ArrayList<Person> persons ) {
+        ArrayList<Person> copy = new ArrayList<Person>(persons.size());
+        for( Person p : persons ) {
+            copy.add(new Person(p));
+        }
+        return copy;
+    }
+}
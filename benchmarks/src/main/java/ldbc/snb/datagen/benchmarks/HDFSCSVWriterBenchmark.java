@@ -0,0 +1,84 @@
+package ldbc.snb.datagen.benchmarks;
+
+import ldbc.snb.datagen.dictionary.Dictionaries;
+import ldbc.snb.datagen.objects.Person;
+import ldbc.snb.datagen.serializer.HDFSCSVWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing the person rows of a block to a CSV file of the local file system, both from prebuilt lists of
+ * strings with writeEntry and field by field with the append methods, as CSVPersonSerializer does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class HDFSCSVWriterBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class WriterState {
+        public HDFSCSVWriter writer;
+        public ArrayList<Person> persons;
+        public ArrayList<ArrayList<String>> entries = new ArrayList<ArrayList<String>>();
+
+        @Setup(Level.Trial)
+        public void setup( DatagenState datagen ) {
+            writer = new HDFSCSVWriter(datagen.conf.get("ldbc.snb.datagen.serializer.socialNetworkDir"), "person_0", 1, false, "|", false);
+            persons = datagen.generatePersons();
+            for( Person p : persons ) {
+                ArrayList<String> entry = new ArrayList<String>();
+                entry.add(Long.toString(p.accountId()));
+                entry.add(p.firstName());
+                entry.add(p.lastName());
+                entry.add(p.gender() == 1 ? "male" : "female");
+                entry.add(Dictionaries.dates.formatDate(p.birthDay()));
+                entry.add(Dictionaries.dates.formatDateTime(p.creationDate()));
+                entry.add(p.ipAddress().toString());
+                entry.add(Dictionaries.browsers.getName(p.browserId()));
+                entries.add(entry);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            writer.close();
+        }
+    }
+
+    @Benchmark
+    public void writeEntry( WriterState state ) {
+        for( ArrayList<String> entry : state.entries ) {
+            state.writer.writeEntry(entry);
+        }
+    }
+
+    @Benchmark
+    public void append( WriterState state ) {
+        for( Person p : state.persons ) {
+            state.writer.append(p.accountId())
+                .append(p.firstName())
+                .append(p.lastName())
+                .append(p.gender() == 1 ? "male" : "female")
+                .appendDate(p.birthDay())
+                .appendDateTime(p.creationDate())
+                .append(p.ipAddress().toString())
+                .append(Dictionaries.browsers.getName(p.browserId()))
+                .endEntry();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ldbc.snb.datagen.benchmarks;
+
+import ldbc.snb.datagen.generator.KnowsGenerator;
+import ldbc.snb.datagen.generator.tools.EdgeStore;
+import ldbc.snb.datagen.objects.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of the knows edges of a block of persons, for each of the knows generators. The block is
+ * ranked by university, as in the first knows step, and each invocation works on a fresh copy of it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class KnowsGeneratorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class KnowsState {
+        @Param({"DistanceKnowsGenerator", "ClusteringKnowsGenerator", "BTERKnowsGenerator", "RandomKnowsGenerator"})
+        public String knowsGenerator;
+
+        public KnowsGenerator generator;
+        public ArrayList<Person> block;
+        public ArrayList<Person> persons;
+        public EdgeStore edges;
+
+        @Setup(Level.Trial)
+        public void setup( DatagenState datagen ) throws Exception {
+            generator = (KnowsGenerator) Class.forName("ldbc.snb.datagen.generator." + knowsGenerator).newInstance();
+            generator.initialize(datagen.conf);
+            block = datagen.generatePersons();
+            DatagenState.rank(block, "ldbc.snb.datagen.hadoop.UniversityKeySetter");
+        }
+
+        @Setup(Level.Invocation)
+        public void copyBlock() {
+            persons = DatagenState.copy(block);
+            edges = new EdgeStore(persons);
+        }
+    }
+
+    @Benchmark
+    public EdgeStore generateKnows( KnowsState state ) {
+        state.generator.generateKnows(state.persons, state.edges, 0, DatagenState.PERCENTAGES, 0);
+        return state.edges;
+    }
+}
@@ -0,0 +1,65 @@
+package ldbc.snb.datagen.benchmarks;
+
+import ldbc.snb.datagen.generator.LDBCDatagen;
+import ldbc.snb.datagen.generator.PersonActivityGenerator;
+import ldbc.snb.datagen.objects.Person;
+import ldbc.snb.datagen.serializer.PersonActivitySerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of the activity of a block of persons with their first step of knows edges, serialized
+ * with the configured person activity serializer to the local file system.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class PersonActivityGeneratorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ActivityState {
+        public PersonActivitySerializer serializer;
+        public PersonActivityGenerator generator;
+        public ArrayList<Person> block;
+        public ArrayList<Person> persons;
+
+        @Setup(Level.Trial)
+        public void setup( DatagenState datagen ) throws Exception {
+            serializer = (PersonActivitySerializer) Class.forName(datagen.conf.get("ldbc.snb.datagen.serializer.personActivitySerializer")).newInstance();
+            serializer.initialize(datagen.conf, 0);
+            generator = new PersonActivityGenerator(LDBCDatagen.context(), serializer, null);
+            block = datagen.generatePersonsWithKnows();
+        }
+
+        @Setup(Level.Invocation)
+        public void copyBlock() {
+            persons = DatagenState.copy(block);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            serializer.close();
+        }
+    }
+
+    @Benchmark
+    public void generateActivityForBlock( ActivityState state ) throws IOException {
+        state.generator.generateActivityForBlock(0, state.persons, null);
+    }
+}
@@ -0,0 +1,46 @@
+package ldbc.snb.datagen.benchmarks;
+
+import ldbc.snb.datagen.generator.PersonGenerator;
+import ldbc.snb.datagen.objects.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of a block of persons, as done by HadoopPersonGenerator for each of its blocks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PersonGeneratorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class GeneratorState {
+        public PersonGenerator generator;
+        public int blockSize;
+        public int seed = 0;
+
+        @Setup(Level.Trial)
+        public void setup( DatagenState datagen ) {
+            generator = new PersonGenerator(datagen.conf, datagen.conf.get("ldbc.snb.datagen.generator.distribution.degreeDistribution"));
+            blockSize = datagen.blockSize;
+        }
+    }
+
+    @Benchmark
+    public Person[] generateUserBlock( GeneratorState state ) {
+        return state.generator.generateUserBlock(state.seed++ % 64, state.blockSize);
+    }
+}
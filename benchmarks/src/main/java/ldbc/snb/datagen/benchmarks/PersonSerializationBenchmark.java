@@ -0,0 +1,72 @@
+package ldbc.snb.datagen.benchmarks;
+
+import ldbc.snb.datagen.objects.Person;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Writable serialization of a block of persons with their first step of knows edges, as they travel
+ * between the Hadoop jobs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PersonSerializationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SerializationState {
+        public ArrayList<Person> persons;
+        public DataOutputBuffer output = new DataOutputBuffer();
+        public byte [] serialized;
+        public int length;
+        public DataInputBuffer input = new DataInputBuffer();
+
+        @Setup(Level.Trial)
+        public void setup( DatagenState datagen ) throws Exception {
+            persons = datagen.generatePersonsWithKnows();
+            for( Person p : persons ) {
+                p.write(output);
+            }
+            serialized = output.getData();
+            length = output.getLength();
+            output = new DataOutputBuffer();
+        }
+    }
+
+    @Benchmark
+    public DataOutputBuffer write( SerializationState state ) throws IOException {
+        state.output.reset();
+        for( Person p : state.persons ) {
+            p.write(state.output);
+        }
+        return state.output;
+    }
+
+    @Benchmark
+    public void readFields( SerializationState state, Blackhole blackhole ) throws IOException {
+        state.input.reset(state.serialized, state.length);
+        for( int i = 0; i < state.persons.size(); ++i ) {
+            Person p = new Person();
+            p.readFields(state.input);
+            blackhole.consume(p);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ldbc.snb.datagen.benchmarks;
+
+import ldbc.snb.datagen.dictionary.Dictionaries;
+import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.objects.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of texts from the interests of a block of persons, one text per person with interests,
+ * with sizes drawn as for the posts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TagTextDictionaryBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class TextState {
+        public ArrayList<TreeSet<Integer>> tags = new ArrayList<TreeSet<Integer>>();
+        public int [] sizes;
+        public Random random = new Random(0);
+
+        @Setup(Level.Trial)
+        public void setup( DatagenState datagen ) {
+            for( Person p : datagen.generatePersons() ) {
+                if( !p.interests().isEmpty() ) {
+                    tags.add(p.interests());
+                }
+            }
+            sizes = new int[tags.size()];
+            for( int i = 0; i < sizes.length; ++i ) {
+                sizes[i] = Dictionaries.tagText.getRandomTextSize(random, random, DatagenParams.minTextSize, DatagenParams.maxTextSize);
+            }
+        }
+    }
+
+    @Benchmark
+    public void generateText( TextState state, Blackhole blackhole ) {
+        for( int i = 0; i < state.sizes.length; ++i ) {
+            blackhole.consume(Dictionaries.tagText.generateText(state.random, state.tags.get(i), state.sizes[i]));
+        }
+    }
+}
@@ -41,10 +41,11 @@ import ldbc.snb.datagen.generator.DatagenParams;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Random;
 
-public class BrowserDictionary {
+public class BrowserDictionary implements Serializable {
 
     private static final String SEPARATOR_ = "  ";
     private ArrayList<String> browsers_;
@@ -42,6 +42,7 @@ import ldbc.snb.datagen.util.RandomGeneratorFarm;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Set;
 import java.util.TreeMap;
@@ -50,7 +51,7 @@ import java.util.TreeMap;
  * This class reads the file containing the names and countries for the companies used in the ldbc socialnet generation and
  * provides access methods to get such data.
  */
-public class CompanyDictionary {
+public class CompanyDictionary implements Serializable {
 
     private static final String SEPARATOR = "  ";
     private TreeMap<Long, String> companyName;
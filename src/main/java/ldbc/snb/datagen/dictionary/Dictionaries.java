@@ -8,7 +8,15 @@ package ldbc.snb.datagen.dictionary;
 import ldbc.snb.datagen.generator.DatagenParams;
 import ldbc.snb.datagen.generator.DateGenerator;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.GregorianCalendar;
 
 /**
@@ -17,6 +25,8 @@ import java.util.GregorianCalendar;
  */
 public class Dictionaries {
 
+	private static final int SNAPSHOT_BUFFER_SIZE = 1 << 20;
+
 	public static BrowserDictionary browsers         = null;
 	public static CompanyDictionary companies       = null;
 	public static DateGenerator dates             = null;
@@ -33,10 +43,11 @@ public class Dictionaries {
 	public static FlashmobTagDictionary flashmobs = null;
 
 
+	/** Loads the dictionaries, from the snapshot named by ldbc.snb.datagen.generator.dictionarySnapshot.file if
+	 *  it is set, or from the text resources otherwise. The date generator and the flashmob tags depend on the
+	 *  configuration of the dates, so they are always built.**/
 	public static void loadDictionaries(Configuration conf) {
 		
-		browsers = new BrowserDictionary(DatagenParams.probAnotherBrowser);
-		
 		dates = new DateGenerator( conf, new GregorianCalendar(DatagenParams.startYear,
 			DatagenParams.startMonth,
 			DatagenParams.startDate),
@@ -45,7 +56,25 @@ public class Dictionaries {
 				DatagenParams.endDate),
 			DatagenParams.alpha,
 			DatagenParams.deltaTime);
+
+		String snapshot = conf.get("ldbc.snb.datagen.generator.dictionarySnapshot.file");
+		if( snapshot == null || !readSnapshot(conf, snapshot) ) {
+			loadResources();
+		}
+
+		flashmobs = new FlashmobTagDictionary(tags,
+                                 dates,
+                                 DatagenParams.flashmobTagsPerMonth,
+                                 DatagenParams.probInterestFlashmobTag,
+                                 DatagenParams.probRandomPerLevel,
+                                 DatagenParams.flashmobTagMinLevel,
+                                 DatagenParams.flashmobTagMaxLevel,
+                                 DatagenParams.flashmobTagDistExp);
+	}
+
+	private static void loadResources() {
 		
+		browsers = new BrowserDictionary(DatagenParams.probAnotherBrowser);
 		
 		emails = new EmailDictionary();
 		
@@ -77,16 +106,70 @@ public class Dictionaries {
 			DatagenParams.probTopUniv,
 			companies.getNumCompanies());
 
-		flashmobs = new FlashmobTagDictionary(tags,
-                                 dates,
-                                 DatagenParams.flashmobTagsPerMonth,
-                                 DatagenParams.probInterestFlashmobTag,
-                                 DatagenParams.probRandomPerLevel,
-                                 DatagenParams.flashmobTagMinLevel,
-                                 DatagenParams.flashmobTagMaxLevel,
-                                 DatagenParams.flashmobTagDistExp);
-
 		tagText = new TagTextDictionary(tags, DatagenParams.ratioReduceText);
 	}
+
+	/** Writes the dictionaries loaded by this JVM to a snapshot, so that the tasks of the run can read them in
+	 *  a single pass instead of parsing the text resources. The snapshot is only valid for the configuration it
+	 *  was written with.
+	 *
+	 * @param conf The configuration of the run.
+	 * @param fileName The name of the snapshot file.
+	 */
+	public static void writeSnapshot(Configuration conf, String fileName) throws IOException {
+		FileSystem fs = FileSystem.get(conf);
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(fs.create(new Path(fileName), true), SNAPSHOT_BUFFER_SIZE));
+		try {
+			out.writeObject(browsers);
+			out.writeObject(emails);
+			out.writeObject(places);
+			out.writeObject(ips);
+			out.writeObject(languages);
+			out.writeObject(names);
+			out.writeObject(popularPlaces);
+			out.writeObject(tags);
+			out.writeObject(tagMatrix);
+			out.writeObject(companies);
+			out.writeObject(universities);
+			out.writeObject(tagText);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static boolean readSnapshot(Configuration conf, String fileName) {
+		try {
+			FileSystem fs = FileSystem.get(conf);
+			InputStream file = fs.open(new Path(fileName));
+			ObjectInputStream in;
+			try {
+				in = new ObjectInputStream(new BufferedInputStream(file, SNAPSHOT_BUFFER_SIZE));
+			} catch (IOException e) {
+				file.close();
+				throw e;
+			}
+			try {
+				browsers = (BrowserDictionary) in.readObject();
+				emails = (EmailDictionary) in.readObject();
+				places = (PlaceDictionary) in.readObject();
+				ips = (IPAddressDictionary) in.readObject();
+				languages = (LanguageDictionary) in.readObject();
+				names = (NamesDictionary) in.readObject();
+				popularPlaces = (PopularPlacesDictionary) in.readObject();
+				tags = (TagDictionary) in.readObject();
+				tagMatrix = (TagMatrix) in.readObject();
+				companies = (CompanyDictionary) in.readObject();
+				universities = (UniversityDictionary) in.readObject();
+				tagText = (TagTextDictionary) in.readObject();
+			} finally {
+				in.close();
+			}
+			return true;
+		} catch (Exception e) {
+			System.err.println("Error reading the dictionary snapshot "+fileName+", loading the dictionaries from their resources");
+			System.err.println(e.getMessage());
+			return false;
+		}
+	}
 	
 }
@@ -41,6 +41,7 @@ import ldbc.snb.datagen.generator.DatagenParams;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Random;
 
@@ -49,7 +50,7 @@ import java.util.Random;
  * This class reads the file containing the email domain and its popularity and
  * provides access methods to get such data.
  */
-public class EmailDictionary {
+public class EmailDictionary implements Serializable {
 
     private static final String SEPARATOR = " ";
     private ArrayList<String> emails;
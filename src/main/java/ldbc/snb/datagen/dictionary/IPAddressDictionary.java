@@ -43,12 +43,13 @@ import ldbc.snb.datagen.objects.IP;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Random;
 
 
-public class IPAddressDictionary {
+public class IPAddressDictionary implements Serializable {
 
     private static final String SEPARATOR_COUNTRY = "   ";
     private static final String SEPARATOR_IP = "[.]";
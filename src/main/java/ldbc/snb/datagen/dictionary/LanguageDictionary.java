@@ -41,12 +41,13 @@ import ldbc.snb.datagen.generator.DatagenParams;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Random;
 
 
-public class LanguageDictionary {
+public class LanguageDictionary implements Serializable {
 
     private static final String SEPARATOR = "  ";
     private static final String ISO_ENGLISH_CODE = "en";
@@ -42,11 +42,13 @@ import umontreal.iro.lecuyer.probdist.GeometricDist;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Random;
 import java.util.Vector;
 
-public class NamesDictionary {
+public class NamesDictionary implements Serializable {
 	
     /**
      * Geometric probability used
@@ -61,8 +63,13 @@ public class NamesDictionary {
 	Vector<HashMap<Integer, Vector<String>>> givenNamesByLocationsMale;    // Year / Location / Names		
 	Vector<HashMap<Integer, Vector<String>>> givenNamesByLocationsFemale;
 	
-	GeometricDist geoDist;
+	transient GeometricDist geoDist;
 	
+	private void readObject( ObjectInputStream in ) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		geoDist = new GeometricDist(GEOMETRIC_RATIO);
+	}
+
 	public NamesDictionary( PlaceDictionary locationDic ) {
 		this.locationDic = locationDic;
 		geoDist = new GeometricDist(GEOMETRIC_RATIO);
@@ -38,11 +38,13 @@ package ldbc.snb.datagen.dictionary;
 
 import ldbc.snb.datagen.generator.DatagenParams;
 import ldbc.snb.datagen.objects.Place;
+import ldbc.snb.datagen.util.DiscreteSampler;
 import ldbc.snb.datagen.util.ZOrder;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Serializable;
 import java.util.*;
 
 /**
@@ -50,7 +52,7 @@ import java.util.*;
  * provides access methods to get such data.
  * Most of the users has the prerequisite of requiring a valid location id.
  */
-public class PlaceDictionary {
+public class PlaceDictionary implements Serializable {
 
     public static final int INVALID_LOCATION = -1;
     private static final String SEPARATOR = " ";
@@ -58,6 +60,7 @@ public class PlaceDictionary {
 
     private PlaceZOrder[] sortedPlace;
     private ArrayList<Float> cumulativeDistribution;
+    private DiscreteSampler countrySampler = null;
 
     private ArrayList<Integer> countries;
     /**
@@ -84,7 +87,7 @@ public class PlaceDictionary {
     /**
      * Private class used to sort countries by their z-order value.
      */
-    private class PlaceZOrder implements Comparable<PlaceZOrder> {
+    private class PlaceZOrder implements Comparable<PlaceZOrder>, Serializable {
 
         public int id;
         public Integer zvalue;
@@ -241,6 +244,9 @@ public class PlaceDictionary {
     private void load(String citiesFileName, String countriesFileName) {
 
         readCountries(countriesFileName);
+        if (DatagenParams.aliasSampling && cumulativeDistribution.size() > 1) {
+            buildCountrySampler();
+        }
         orderByZ();
         readCities(citiesFileName);
         readContinents(countriesFileName);
@@ -363,12 +369,30 @@ public class PlaceDictionary {
         }
     }
 
+    /**
+     * @brief Builds the sampler of the countries of the users, with the same distribution as the binary search of
+     * getCountryForUser, which never returns the first country.
+     */
+    private void buildCountrySampler() {
+        int size = cumulativeDistribution.size() - 1;
+        double[] cumulative = new double[size];
+        int[] values = new int[size];
+        for (int i = 0; i < size; ++i) {
+            cumulative[i] = cumulativeDistribution.get(i + 1);
+            values[i] = i + 1;
+        }
+        countrySampler = DiscreteSampler.fromUpperBounds(cumulative, values);
+    }
+
     /**
      * @param random The random number generator.
      * @return The country for the user.
      * @brief Gets a country for a user.
      */
     public int getCountryForUser(Random random) {
+        if (countrySampler != null) {
+            return countrySampler.sample(random);
+        }
         float prob = random.nextFloat();
         int minIdx = 0;
         int maxIdx = cumulativeDistribution.size();
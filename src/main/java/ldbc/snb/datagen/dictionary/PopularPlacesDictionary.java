@@ -42,12 +42,13 @@ import ldbc.snb.datagen.objects.PopularPlace;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Random;
 
 
-public class PopularPlacesDictionary {
+public class PopularPlacesDictionary implements Serializable {
 
     private PlaceDictionary placeDictionary;
     /**
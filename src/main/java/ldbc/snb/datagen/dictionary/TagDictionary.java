@@ -41,13 +41,14 @@ import ldbc.snb.datagen.generator.DatagenParams;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Random;
 import java.util.Set;
 
 
-public class TagDictionary {
+public class TagDictionary implements Serializable {
 
     private static final String SEPARATOR = "\t";
     private int numPopularTags;
@@ -37,15 +37,17 @@
 package ldbc.snb.datagen.dictionary;
 
 import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.util.DiscreteSampler;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Random;
 import java.util.TreeMap;
 import java.util.TreeSet;
 
-public class TagMatrix {
+public class TagMatrix implements Serializable {
 
     private static final String SEPARATOR = " ";
 
@@ -57,6 +59,11 @@ public class TagMatrix {
 
     private ArrayList<Integer> nonZeroTags;
 
+    private DiscreteSampler[] relatedSamplers = null;
+    /**
+     * < @brief The sampler of the related tags of each tag, indexed by tag identifier, if alias sampling is enabled.
+     */
+
     /**
      * < @brief The list of tags.
      */
@@ -93,11 +100,33 @@ public class TagMatrix {
                 nonZeroTags.add(tag);
             }
             dictionary.close();
+            if(DatagenParams.aliasSampling && !relatedTags.isEmpty()) {
+                buildSamplers();
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * @brief Builds the sampler of the related tags of each tag, with the same distribution as the binary search
+     * of getSetofTags.
+     */
+    private void buildSamplers() {
+        relatedSamplers = new DiscreteSampler[relatedTags.lastKey() + 1];
+        for(Integer tag : relatedTags.keySet()) {
+            ArrayList<Double> cum = cumulative.get(tag);
+            ArrayList<Integer> related = relatedTags.get(tag);
+            double [] probs = new double[cum.size()];
+            int [] values = new int[related.size()];
+            for(int i = 0; i < probs.length; ++i) {
+                probs[i] = cum.get(i);
+                values[i] = related.get(i);
+            }
+            relatedSamplers[tag] = DiscreteSampler.fromLowerBounds(probs, values);
+        }
+    }
+
     /**
      * @param randomTag The random tag number generator.
      * @param tag       The tag identifier.
@@ -123,6 +152,17 @@ public class TagMatrix {
     public TreeSet<Integer> getSetofTags(Random randomTopic, Random randomTag, int popularTagId, int numTags) {
         TreeSet<Integer> resultTags = new TreeSet<Integer>();
         resultTags.add(popularTagId);
+        if (relatedSamplers != null) {
+            DiscreteSampler popularSampler = popularTagId >= 0 && popularTagId < relatedSamplers.length ? relatedSamplers[popularTagId] : null;
+            while (resultTags.size() < numTags) {
+                DiscreteSampler sampler = popularSampler;
+                if (sampler == null) {
+                    sampler = relatedSamplers[nonZeroTags.get(randomTag.nextInt(nonZeroTags.size()))];
+                }
+                resultTags.add(sampler.sample(randomTag));
+            }
+            return resultTags;
+        }
         while (resultTags.size() < numTags) {
             int tagId;
             tagId = popularTagId;
@@ -39,60 +39,127 @@ package ldbc.snb.datagen.dictionary;
 import ldbc.snb.datagen.generator.DatagenParams;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.HashMap;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Random;
 import java.util.TreeSet;
 
-public class TagTextDictionary {
+public class TagTextDictionary implements Serializable {
     private static final String SEPARATOR = "  ";
     private TagDictionary tagDic;
     /**
-     * < @brief The tag dictionary. *
+     * < @brief The tag texts and the "About tag, " prefixes of the tags, one after the other, with the characters
+     * that are not allowed in the generated texts already replaced. *
      */
-    private HashMap<Integer, String> tagText;
+    private char[] arena;
+    /**
+     * < @brief The offset and length in the arena of the text of each tag, or -1 if the tag has no text. *
+     */
+    private int[] textOffset;
+    private int[] textLength;
+    /**
+     * < @brief The offset and length in the arena of the prefix of each tag. *
+     */
+    private int[] prefixOffset;
+    private int[] prefixLength;
+
     /**
      * < @brief The tag text. *
      */
     private double reducedTextRatio;
 
-    StringBuilder returnString = null;
+    /**
+     * < @brief The text buffer, one per thread. *
+     */
+    private transient ThreadLocal<StringBuilder> textBuffer;
 
     public TagTextDictionary(TagDictionary tagDic, double reducedTextRatio) {
-        this.tagText = new HashMap<Integer, String>();
         this.tagDic = tagDic;
         this.reducedTextRatio = reducedTextRatio;
-        this.returnString = new StringBuilder(1000);
+        createTextBuffer();
 	load(DatagenParams.tagTextFile);
     }
 
+    private void createTextBuffer() {
+        this.textBuffer = new ThreadLocal<StringBuilder>() {
+            @Override
+            protected StringBuilder initialValue() {
+                return new StringBuilder(1000);
+            }
+        };
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        createTextBuffer();
+    }
+
     /**
      * @param fileName The tag text dictionary file name.
-     * @brief Loads the dictionary.
+     * @brief Loads the dictionary into the arena, with the prefix of each tag after its text.
      */
     private void load(String fileName) {
+        textOffset = new int[0];
+        textLength = new int[0];
+        prefixOffset = new int[0];
+        prefixLength = new int[0];
+        StringBuilder texts = new StringBuilder();
         try {
             BufferedReader dictionary = new BufferedReader(new InputStreamReader(getClass().getResourceAsStream(fileName), "UTF-8"));
             String line;
             while ((line = dictionary.readLine()) != null) {
                 String[] data = line.split(SEPARATOR);
-                Integer id = Integer.valueOf(data[0]);
-                tagText.put(id, data[1]);
+                int id = Integer.parseInt(data[0]);
+                String name = tagDic.getName(id);
+                if (name == null) {
+                    // Texts of tags that are not in the tag dictionary are never used.
+                    continue;
+                }
+                if (id >= textOffset.length) {
+                    int size = Math.max(id + 1, 2 * textOffset.length);
+                    int previous = textOffset.length;
+                    textOffset = Arrays.copyOf(textOffset, size);
+                    textLength = Arrays.copyOf(textLength, size);
+                    prefixOffset = Arrays.copyOf(prefixOffset, size);
+                    prefixLength = Arrays.copyOf(prefixLength, size);
+                    Arrays.fill(textOffset, previous, size, -1);
+                }
+                String tagName = name.replace("_", " ");
+                tagName = tagName.replace("\"", "\\\"");
+                textOffset[id] = texts.length();
+                textLength[id] = data[1].length();
+                texts.append(data[1]);
+                prefixOffset[id] = texts.length();
+                prefixLength[id] = "About ".length() + tagName.length() + ", ".length();
+                texts.append("About ").append(tagName).append(", ");
             }
             dictionary.close();
-        } catch (Exception e) {
+        } catch (IOException e) {
             e.printStackTrace();
         }
+        arena = new char[texts.length()];
+        texts.getChars(0, texts.length(), arena, 0);
+        for (int i = 0; i < arena.length; ++i) {
+            if (arena[i] == '|') {
+                arena[i] = ' ';
+            }
+        }
     }
 
     /**
      * @param id The tag identifier.
-     * @return The tag's text.
-     * @brief Gets the text associated with the tag.
+     * @return The tag's text, or null if the tag has no text.
+     * @brief Gets the text associated with the tag, as it is used in the generated texts.
      */
     public String getTagText(int id) {
-        return tagText.get(id);
+        if (id >= textOffset.length || textOffset[id] == -1) {
+            return null;
+        }
+        return new String(arena, textOffset[id], textLength[id]);
     }
 
     /**
@@ -130,43 +197,38 @@ public class TagTextDictionary {
      * @brief Generates a text given a set of tags.
      */
     public String generateText(Random randomTextSize, TreeSet<Integer> tags, int textSize) {
+        StringBuilder returnString = textBuffer.get();
         returnString.setLength(0);
         int textSizePerTag = (int) Math.ceil(textSize / (double) tags.size());
         while (returnString.length() < textSize) {
             Iterator<Integer> it = tags.iterator();
             while (it.hasNext() && returnString.length() < textSize) {
-                Integer tag = it.next();
-                String content = getTagText(tag);
+                int tag = it.next();
+                if (tag >= textOffset.length || textOffset[tag] == -1) {
+                    throw new IllegalArgumentException("No text for tag " + tag);
+                }
+                int contentLength = textLength[tag];
                 int thisTagTextSize = Math.min(textSizePerTag, textSize - returnString.length());
-                String tagName = tagDic.getName(tag).replace("_", " ");
-                tagName = tagName.replace("\"", "\\\"");
-                String prefix = "About " + tagName + ", ";
-                thisTagTextSize+=prefix.length();
-                if (thisTagTextSize >= content.length()) {
-                    returnString.append(content);
+                thisTagTextSize += prefixLength[tag];
+                if (thisTagTextSize >= contentLength) {
+                    returnString.append(arena, textOffset[tag], contentLength);
                 } else {
-                    int startingPos = randomTextSize.nextInt(content.length() - thisTagTextSize + prefix.length());
-                    String finalString = content.substring(startingPos, startingPos + thisTagTextSize - prefix.length());
-                    returnString.append(prefix);
-                    returnString.append(finalString);
+                    int startingPos = randomTextSize.nextInt(contentLength - thisTagTextSize + prefixLength[tag]);
+                    returnString.append(arena, prefixOffset[tag], prefixLength[tag]);
+                    returnString.append(arena, textOffset[tag] + startingPos, thisTagTextSize - prefixLength[tag]);
                 }
             }
         }
 
-        if (!(returnString.charAt(returnString.length()-1) == '.')) {
-            if (returnString.length() == 1) {
-                returnString.append(".");
-            } else {
-                returnString.append(".");
-            }
+        if (returnString.charAt(returnString.length() - 1) != '.') {
+            returnString.append(".");
         }
         if (returnString.length() < textSize - 1) {
             returnString.append(" ");
         }
         if (returnString.length() > textSize) {
-            returnString.delete(textSize-1,returnString.length());
-            returnString.trimToSize();
+            returnString.setLength(textSize - 1);
         }
-        return returnString.toString().replace("|", " ");
+        return returnString.toString();
     }
 }
@@ -42,11 +42,12 @@ import ldbc.snb.datagen.util.RandomGeneratorFarm;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Set;
 import java.util.TreeMap;
 
-public class UniversityDictionary {
+public class UniversityDictionary implements Serializable {
 
     private static final String SEPARATOR = "  ";
     private TreeMap<Long, String> universityName;
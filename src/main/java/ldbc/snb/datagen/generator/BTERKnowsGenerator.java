@@ -1,8 +1,10 @@
 package ldbc.snb.datagen.generator;
 
 import javafx.util.Pair;
+import ldbc.snb.datagen.generator.tools.EdgeStore;
 import ldbc.snb.datagen.objects.Knows;
 import ldbc.snb.datagen.objects.Person;
+import ldbc.snb.datagen.util.SplitMixRandom;
 import org.apache.hadoop.conf.Configuration;
 import org.roaringbitmap.RoaringBitmap;
 
@@ -10,12 +12,54 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
 
 /**
  * Created by aprat on 12/07/16.
+ *
+ * The edges are kept in a buffer of longs, as (first << 32 | second), which is sorted and deduplicated before the
+ * edges are created, so that they are created in the order of the adjacency of each person. The stubs of the
+ * remaining edges are kept in an array of ints. With the splittable random generator, each affinity block draws
+ * its edges from a random stream of its own, and the blocks are processed in parallel.
  */
 public class BTERKnowsGenerator implements KnowsGenerator{
 
+    /** A growable buffer of edges.**/
+    private static class EdgeBuffer {
+        public long [] edges = new long[16];
+        public int size = 0;
+
+        public void add( int first, int second ) {
+            if( size == edges.length ) {
+                edges = Arrays.copyOf(edges, 2 * size);
+            }
+            edges[size++] = ((long)first << 32) | second;
+        }
+
+        public void addAll( EdgeBuffer other ) {
+            if( size + other.size > edges.length ) {
+                edges = Arrays.copyOf(edges, Math.max(2 * edges.length, size + other.size));
+            }
+            System.arraycopy(other.edges, 0, edges, size, other.size);
+            size += other.size;
+        }
+    }
+
+    /** A clustering coefficient distribution, as its sorted degrees and their coefficients.**/
+    private static class CCDistribution {
+        public long [] degrees;
+        public double [] values;
+    }
+
+    /** The clustering coefficient distributions loaded in this JVM, by resource name.**/
+    private static final ConcurrentMap<String, CCDistribution> ccDistributions_ = new ConcurrentHashMap<String, CCDistribution>();
+    /** The probabilities of the edges of the affinity blocks, by resource name, up to the largest degree requested
+     * so far. A table is replaced by a longer one when a larger degree is requested, and never modified.**/
+    private static final ConcurrentMap<String, double []> probabilities_ = new ConcurrentHashMap<String, double []>();
+
     private int graphSize = 0;
     private Random random;
     private Configuration conf;
@@ -24,19 +68,28 @@ public class BTERKnowsGenerator implements KnowsGenerator{
     private HashMap<Long,RoaringBitmap> openCommunities = new HashMap<Long,RoaringBitmap>();
     private ArrayList<RoaringBitmap>  closedCommunities = new ArrayList<RoaringBitmap>();
     private RoaringBitmap smallDegreeNodes = new RoaringBitmap();
-    private RoaringBitmap [] adjacencyMatrix;
+    private int [] degree;                                  /** The degree of each node after the affinity blocks.**/
+    private EdgeBuffer edgeBuffer;                          /** The edges, in both directions.**/
     private int count = 0;
 
-    public int BinarySearch(ArrayList<Pair<Long,Double>> array, Long degree) {
+    /** Finds the position of a degree in the sorted degrees of the clustering coefficient distribution. This is a
+     * lookup done once per degree when the probabilities are computed, not a draw, so it is not done with a
+     * DiscreteSampler.
+     *
+     * @param array The sorted degrees.
+     * @param degree The degree to look up.
+     * @return The position of the degree, or of the largest smaller degree.
+     */
+    public int BinarySearch(long [] array, long degree) {
         int min = 0;
-        int max = array.size();
+        int max = array.length;
         while(min <= max) {
             int midPoint = (max - min) / 2 + min;
-            if(midPoint >= array.size()) return array.size()-1;
+            if(midPoint >= array.length) return array.length-1;
             if(midPoint < 0) return 0;
-            if(array.get(midPoint).getKey() > degree ) {
+            if(array[midPoint] > degree ) {
                 max = midPoint - 1;
-            } else if(array.get(midPoint).getKey() < degree) {
+            } else if(array[midPoint] < degree) {
                 min = midPoint + 1;
             } else {
                 return midPoint;
@@ -45,6 +98,96 @@ public class BTERKnowsGenerator implements KnowsGenerator{
         return max;
     }
 
+    /** Loads a clustering coefficient distribution from a resource, once per JVM.
+     *
+     * @param fileName The name of the resource.
+     * @return The distribution.
+     */
+    private static CCDistribution ccDistribution(String fileName) {
+        CCDistribution distribution = ccDistributions_.get(fileName);
+        if(distribution != null) {
+            return distribution;
+        }
+        ArrayList<Pair<Long,Double>> ccDistribution = new ArrayList<Pair<Long,Double>>();
+        try {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(BTERKnowsGenerator.class.getResourceAsStream(fileName), "UTF-8"));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String data[] = line.split(" ");
+                ccDistribution.add(new Pair<Long, Double>(Long.parseLong(data[0]), Double.parseDouble(data[1])));
+            }
+            reader.close();
+        } catch( IOException e) {
+            e.printStackTrace();
+        }
+        distribution = new CCDistribution();
+        distribution.degrees = new long[ccDistribution.size()];
+        distribution.values = new double[ccDistribution.size()];
+        for(int i = 0; i < ccDistribution.size(); ++i) {
+            distribution.degrees[i] = ccDistribution.get(i).getKey();
+            distribution.values[i] = ccDistribution.get(i).getValue();
+        }
+        ccDistributions_.putIfAbsent(fileName, distribution);
+        return ccDistributions_.get(fileName);
+    }
+
+    /** Computes the probability of the edges of an affinity block of each size, from a clustering coefficient
+     * distribution. The probability of a size does not depend on the maximum degree, so a single table per
+     * distribution is kept in this JVM, and extended when a larger degree is requested. The returned array is shared
+     * and must not be modified.
+     *
+     * @param fileName The name of the resource of the distribution.
+     * @param maxExpectedDegree The maximum expected degree of the block.
+     * @return The probability of the edges of an affinity block of each size, at least up to the maximum degree.
+     */
+    private double [] probabilities(String fileName, int maxExpectedDegree) {
+        double [] p = probabilities_.get(fileName);
+        if(p != null && p.length > maxExpectedDegree) {
+            return p;
+        }
+        synchronized(probabilities_) {
+            double [] previous = probabilities_.get(fileName);
+            if(previous != null && previous.length > maxExpectedDegree) {
+                return previous;
+            }
+            int from = previous == null ? 0 : previous.length;
+            p = new double[Math.max(maxExpectedDegree + 1, 2 * from)];
+            if(previous != null) {
+                System.arraycopy(previous, 0, p, 0, from);
+            }
+            computeProbabilities(ccDistribution(fileName), p, from);
+            probabilities_.put(fileName, p);
+            return p;
+        }
+    }
+
+    /** Computes the probabilities of the edges of the affinity blocks of sizes from a given one on.
+     *
+     * @param distribution The clustering coefficient distribution.
+     * @param p The probabilities, filled from position from to its end.
+     * @param from The first size to compute.
+     */
+    private void computeProbabilities(CCDistribution distribution, double [] p, int from) {
+        long [] ccDegrees = distribution.degrees;
+        double [] ccValues = distribution.values;
+        for(int i = Math.max(2, from); i < p.length; ++i) {
+            int degree = i;
+            int pos = BinarySearch(ccDegrees,degree);
+            if(ccDegrees[pos] == degree || pos == (ccDegrees.length - 1)) {
+                p[degree] = ccValues[pos];
+            } else if( pos < ccDegrees.length - 1 ){
+                long minDegree = ccDegrees[pos];
+                long maxDegree = ccDegrees[pos+1];
+                double ratio = (degree - minDegree) / (maxDegree - minDegree);
+                double minCC = ccValues[pos];
+                double maxCC = ccValues[pos+1];
+                double cc_current = ratio * (maxCC - minCC ) + minCC;
+                p[degree] = Math.pow(cc_current,1/3.0);
+            }
+        }
+    }
+
     void generateCommunities(RoaringBitmap block) {
         Iterator<Integer> iter = block.iterator();
         while(iter.hasNext()) {
@@ -64,59 +207,104 @@ public class BTERKnowsGenerator implements KnowsGenerator{
         }
     }
 
-    void generateEdgesInCommunity(RoaringBitmap community) {
-        Iterator<Integer> iter = community.iterator();
-        while(iter.hasNext()) {
-            int nodeA = iter.next();
-            Iterator<Integer> iter2 = community.iterator();
-            while(iter2.hasNext()) {
-                int nodeB = iter2.next();
-                if(nodeA < nodeB) {
-                    double prob = random.nextDouble();
-                    if(prob < p[community.getCardinality()-1]) {
-                        adjacencyMatrix[nodeA].add(nodeB);
-                        adjacencyMatrix[nodeB].add(nodeA);
-                    }
+    /** Generates the edges of an affinity block. Every edge appears once, from its smallest node to its largest one.
+     *
+     * @param community The sorted nodes of the block.
+     * @param random The random number generator.
+     * @param edges The buffer where the edges are added.
+     */
+    void generateEdgesInCommunity(int [] community, Random random, EdgeBuffer edges) {
+        double prob = p[community.length-1];
+        for(int a = 0; a < community.length; ++a) {
+            for(int b = a + 1; b < community.length; ++b) {
+                if(random.nextDouble() < prob) {
+                    edges.add(community[a], community[b]);
+                }
+            }
+        }
+    }
+
+    /** Generates the edges of the affinity blocks, in the order of the blocks. With the splittable random generator,
+     * the blocks are processed in parallel, and each of them uses a random stream derived from the seed and its index.
+     *
+     * @param seed The seed of the knows step.
+     */
+    void generateCommunityEdges(final long seed) {
+        final int [][] communities = new int[closedCommunities.size()][];
+        for(int i = 0; i < communities.length; ++i) {
+            communities[i] = closedCommunities.get(i).toArray();
+        }
+        EdgeBuffer edges = new EdgeBuffer();
+        if(DatagenParams.splittableRandom) {
+            EdgeBuffer [] communityEdges = IntStream.range(0, communities.length).parallel().mapToObj(new IntFunction<EdgeBuffer>() {
+                public EdgeBuffer apply(int i) {
+                    EdgeBuffer buffer = new EdgeBuffer();
+                    generateEdgesInCommunity(communities[i], new SplitMixRandom(SplitMixRandom.split(seed, i)), buffer);
+                    return buffer;
                 }
+            }).toArray(new IntFunction<EdgeBuffer[]>() {
+                public EdgeBuffer[] apply(int size) {
+                    return new EdgeBuffer[size];
+                }
+            });
+            for(EdgeBuffer buffer : communityEdges) {
+                edges.addAll(buffer);
+            }
+        } else {
+            for(int [] community : communities) {
+                generateEdgesInCommunity(community, random, edges);
             }
         }
+        for(int i = 0; i < edges.size; ++i) {
+            long edge = edges.edges[i];
+            int nodeA = (int)(edge >>> 32);
+            int nodeB = (int)edge;
+            degree[nodeA]++;
+            degree[nodeB]++;
+            edgeBuffer.add(nodeA, nodeB);
+            edgeBuffer.add(nodeB, nodeA);
+        }
     }
 
+    /** Pairs the stubs of the degree that the affinity blocks did not cover. The stubs are shuffled in place with
+     * the same draws as Collections.shuffle.
+     */
     void generateRemainingEdges() {
-        LinkedList<Integer> stubs = new LinkedList<Integer>();
+        long numStubs = 0;
         for(int i = 0; i < graphSize; ++i) {
-            long difference = expectedDegree[i]-adjacencyMatrix[i].getCardinality();
-            if( difference > 0) {
-                for(int j = 0; j < difference; ++j)  {
-                    stubs.add(i);
-                }
+            numStubs += Math.max(0, expectedDegree[i]-degree[i]);
+        }
+        int [] stubs = new int[(int)numStubs];
+        int size = 0;
+        for(int i = 0; i < graphSize; ++i) {
+            long difference = expectedDegree[i]-degree[i];
+            for(int j = 0; j < difference; ++j)  {
+                stubs[size++] = i;
             }
         }
-        Collections.shuffle(stubs,random);
-        while(!stubs.isEmpty()) {
-            int node1 = stubs.get(0);
-            stubs.remove(0);
-            if(!stubs.isEmpty()) {
-                int node2 = stubs.get(0);
-                stubs.remove(0);
-                if(node1 != node2) {
-                    adjacencyMatrix[node1].add(node2);
-                    adjacencyMatrix[node2].add(node1);
-                }
+        for(int i = size; i > 1; --i) {
+            int j = random.nextInt(i);
+            int stub = stubs[i-1];
+            stubs[i-1] = stubs[j];
+            stubs[j] = stub;
+        }
+        for(int i = 0; i + 1 < size; i += 2) {
+            int node1 = stubs[i];
+            int node2 = stubs[i+1];
+            if(node1 != node2) {
+                edgeBuffer.add(node1, node2);
+                edgeBuffer.add(node2, node1);
             }
         }
     }
 
     @Override
-    public void generateKnows(ArrayList<Person> persons, int seed, ArrayList<Float> percentages, int step_index) {
+    public void generateKnows(ArrayList<Person> persons, EdgeStore edges, int seed, ArrayList<Float> percentages, int step_index) {
 
         graphSize = persons.size();
         expectedDegree = new long[graphSize];
-        adjacencyMatrix = new RoaringBitmap[graphSize];
-        p = new double[graphSize];
-        for(int i = 0; i < graphSize; ++i) {
-            adjacencyMatrix[i] = new RoaringBitmap();
-        }
+        degree = new int[graphSize];
+        edgeBuffer = new EdgeBuffer();
         random = new Random();
         random.setSeed(seed);
         openCommunities.clear();
@@ -124,44 +312,10 @@ public class BTERKnowsGenerator implements KnowsGenerator{
         smallDegreeNodes.clear();
         int maxExpectedDegree = 0;
         for(int i = 0; i < graphSize; ++i) {
-            adjacencyMatrix[i].clear();
             expectedDegree[i] = Knows.target_edges(persons.get(i),percentages,step_index);
             maxExpectedDegree = maxExpectedDegree < expectedDegree[i] ? (int)expectedDegree[i] : maxExpectedDegree;
         }
-        p = new double[maxExpectedDegree+1];
-
-        /** Initializing the array of triangles **/
-        ArrayList<Pair<Long,Double>> ccDistribution = new ArrayList<Pair<Long,Double>>();
-        try {
-            BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(getClass().getResourceAsStream(conf.get("ldbc.snb.datagen.generator.BTERKnowsGenerator.ccDistribution")), "UTF-8"));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String data[] = line.split(" ");
-                ccDistribution.add(new Pair<Long, Double>(Long.parseLong(data[0]), Double.parseDouble(data[1])));
-            }
-            reader.close();
-        } catch( IOException e) {
-            e.printStackTrace();
-        }
-
-        p[0] = 0.0;
-        p[1] = 0.0;
-        for(int i = 2; i < maxExpectedDegree+1; ++i) {
-            int degree = i;
-            int pos = BinarySearch(ccDistribution,(long)degree);
-            if(ccDistribution.get(pos).getKey() == degree || pos == (ccDistribution.size() - 1)) {
-                p[degree] = ccDistribution.get(pos).getValue();
-            } else if( pos < ccDistribution.size() - 1 ){
-                long minDegree = ccDistribution.get(pos).getKey();
-                long maxDegree = ccDistribution.get(pos+1).getKey();
-                double ratio = (degree - minDegree) / (maxDegree - minDegree);
-                double minCC = ccDistribution.get(pos).getValue();
-                double maxCC = ccDistribution.get(pos+1).getValue();
-                double cc_current = ratio * (maxCC - minCC ) + minCC;
-                p[degree] = Math.pow(cc_current,1/3.0);
-            }
-        }
+        p = probabilities(conf.get("ldbc.snb.datagen.generator.BTERKnowsGenerator.ccDistribution"), maxExpectedDegree);
 
         RoaringBitmap block = new RoaringBitmap();
         for(int i = 0; i < graphSize; ++i) {
@@ -200,19 +354,22 @@ public class BTERKnowsGenerator implements KnowsGenerator{
         }
         openCommunities.clear();
 
-        for(RoaringBitmap community : closedCommunities) {
-            generateEdgesInCommunity(community);
-        }
+        generateCommunityEdges(seed);
+        closedCommunities.clear();
 
         generateRemainingEdges();
 
-        for (int i = 0; i < graphSize; ++i) {
-            Iterator<Integer> it = adjacencyMatrix[i].iterator();
-            while (it.hasNext()) {
-                int next = it.next();
-                Knows.createKnow(random, persons.get(i), persons.get(next));
+        Arrays.sort(edgeBuffer.edges, 0, edgeBuffer.size);
+        long previous = -1;
+        for (int i = 0; i < edgeBuffer.size; ++i) {
+            long edge = edgeBuffer.edges[i];
+            if (edge != previous) {
+                edges.createKnows(random, (int)(edge >>> 32), (int)edge);
+                previous = edge;
             }
         }
+        edgeBuffer = null;
+        degree = null;
         count++;
 
     }
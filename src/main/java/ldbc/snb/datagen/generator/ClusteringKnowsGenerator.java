@@ -1,9 +1,10 @@
 package ldbc.snb.datagen.generator;
 
+import ldbc.snb.datagen.generator.tools.EdgeStore;
 import ldbc.snb.datagen.generator.tools.GraphUtils;
-import ldbc.snb.datagen.generator.tools.PersonGraph;
 import ldbc.snb.datagen.objects.Knows;
 import ldbc.snb.datagen.objects.Person;
+import ldbc.snb.datagen.util.Metrics;
 import org.apache.hadoop.conf.Configuration;
 
 import java.util.*;
@@ -416,14 +417,14 @@ public class ClusteringKnowsGenerator implements KnowsGenerator {
         return true;
     }
 
-    void createEdgesCommunityCore(ArrayList<Person> persons, Community c) {
+    void createEdgesCommunityCore(EdgeStore edges, Community c) {
         for ( PersonInfo pI : c.core_) {
             for( PersonInfo other: c.core_) {
                 if(pI.index_ < other.index_ ) {
                     float prob = rand.nextFloat();
                     if( prob <= c.p_ ) {
                         // crear aresta
-                        if(Knows.createKnow(rand, persons.get(pI.index_), persons.get(other.index_)))
+                        if(edges.createKnows(rand, pI.index_, other.index_))
                             numCoreCoreEdges++;
                         else
                             numMisses++;
@@ -433,7 +434,7 @@ public class ClusteringKnowsGenerator implements KnowsGenerator {
         }
     }
 
-    void createEdgesCommunityPeriphery(ClusteringInfo cInfo, ArrayList<Person> persons, Community c) {
+    void createEdgesCommunityPeriphery(ClusteringInfo cInfo, EdgeStore edges, Community c) {
 
         //long start = System.currentTimeMillis();
         long [] peripheryBudget = new long[c.periphery_.size()];
@@ -450,7 +451,7 @@ public class ClusteringKnowsGenerator implements KnowsGenerator {
                 if( peripheryBudget[index] != 0 && pDegree < maxDegree)  {
                     pDegree++;
                     peripheryBudget[index]--;
-                    if(Knows.createKnow(rand, persons.get(pI.index_), persons.get(c.periphery_.get(index).index_)))
+                    if(edges.createKnows(rand, pI.index_, c.periphery_.get(index).index_))
                         numCorePeripheryEdges++;
                     else
                         numMisses++;
@@ -459,7 +460,7 @@ public class ClusteringKnowsGenerator implements KnowsGenerator {
         }
 
         for( PersonInfo pI : c.periphery_ ) {
-            if(persons.get(pI.index_).knows().size() > pI.degree_ ) {
+            if(edges.degree(pI.index_) > pI.degree_ ) {
                 System.out.println("ERROR");
             }
         }
@@ -467,13 +468,13 @@ public class ClusteringKnowsGenerator implements KnowsGenerator {
         //System.out.println("Time to create core-periphery edges: "+(end-start));
     }
 
-    void fillGraphWithRemainingEdges(ClusteringInfo cInfo, ArrayList<Community> communities, ArrayList<Person> persons) {
+    void fillGraphWithRemainingEdges(ClusteringInfo cInfo, ArrayList<Community> communities, EdgeStore edges) {
         ArrayList<PersonInfo> stubs = new ArrayList<PersonInfo> ();
         LinkedList<Integer> indexes = new LinkedList<Integer>();
         Integer ii = 0;
         for ( Community c : communities ) {
             for (PersonInfo pI : c.core_ ) {
-                long diff = pI.degree_ - persons.get(pI.index_).knows().size();
+                long diff = pI.degree_ - edges.degree(pI.index_);
                 if( diff > 0 ) {
                     for( int i = 0; i < diff; ++i) {
                        stubs.add(pI);
@@ -493,11 +494,11 @@ public class ClusteringKnowsGenerator implements KnowsGenerator {
                 int index2 = indexes.pop();
                 PersonInfo second = stubs.get(index2);
                 // create edge
-                if(persons.get(first.index_) == persons.get(second.index_)) {
+                if(first.index_ == second.index_) {
                     numMisses++;
                     continue;
                 }
-                if(Knows.createKnow(rand, persons.get(first.index_), persons.get(second.index_)))
+                if(edges.createKnows(rand, first.index_, second.index_))
                     numCoreExternalEdges++;
                 else
                     numMisses++;
@@ -506,7 +507,7 @@ public class ClusteringKnowsGenerator implements KnowsGenerator {
     }
 
 
-    public void generateKnows( ArrayList<Person> persons, int seed, ArrayList<Float> percentages, int step_index )  {
+    public void generateKnows( ArrayList<Person> persons, EdgeStore edges, int seed, ArrayList<Float> percentages, int step_index )  {
 
         long start, end;
         rand.setSeed(seed);
@@ -551,7 +552,6 @@ public class ClusteringKnowsGenerator implements KnowsGenerator {
         end = System.currentTimeMillis();
         System.out.println("Time to compute the initial solution: "+(end-start));
 
-        PersonGraph graph;
         boolean iterate;
         float fakeTargetCC = targetCC;
         int numIterations = 0;
@@ -567,25 +567,27 @@ public class ClusteringKnowsGenerator implements KnowsGenerator {
 
             start = System.currentTimeMillis();
             for(Community c : communities ) {
-                createEdgesCommunityCore(persons, c);
-                createEdgesCommunityPeriphery(cInfo, persons, c);
+                createEdgesCommunityCore(edges, c);
+                createEdgesCommunityPeriphery(cInfo, edges, c);
             }
-            fillGraphWithRemainingEdges(cInfo, communities, persons);
+            fillGraphWithRemainingEdges(cInfo, communities, edges);
             end = System.currentTimeMillis();
             System.out.println("Time to generate graph: "+(end-start));
 
-            graph = new PersonGraph(persons);
             System.out.println("Computing clustering coefficient");
+            start = System.currentTimeMillis();
             double finalCC = 0;
-            ArrayList<Double> clusteringCoefficient = GraphUtils.ClusteringCoefficientList(graph);
+            double [] clusteringCoefficient = GraphUtils.ClusteringCoefficientList(edges);
             int i = 0;
             for( Person p : persons) {
-                long degree = graph.neighbors(p.accountId()).size();
+                long degree = edges.degree(i);
                 long originalDegree = p.maxNumKnows();
                 if(originalDegree > 1)
-                    finalCC += clusteringCoefficient.get(i) * degree*(degree - 1) / (originalDegree*(originalDegree-1));
+                    finalCC += clusteringCoefficient[i] * degree*(degree - 1) / (originalDegree*(originalDegree-1));
                 i++;
             }
+            end = System.currentTimeMillis();
+            System.out.println("Time to compute clustering coefficient: "+(end-start));
             finalCC /= persons.size();
             //double finalCC = GraphUtils.ClusteringCoefficient(graph);
 
@@ -593,9 +595,7 @@ public class ClusteringKnowsGenerator implements KnowsGenerator {
             double delta = targetCC - finalCC;
             if( Math.abs( delta ) > 0.001 ) {
                 resetStatistics();
-                for(Person person: persons) {
-                    person.knows().clear();
-                }
+                edges.clear();
                 if(delta > 0)
                     fakeTargetCC += Math.abs(delta)*0.5f;
                 else
@@ -616,16 +616,16 @@ public class ClusteringKnowsGenerator implements KnowsGenerator {
         for( Person p : persons ) {
             if(cInfo.is_core_.get(index)) {
                 long target = Knows.target_edges(p, percentages, step_index);
-                if (p.knows().size() > target) {
-                    sumMore += -target + p.knows().size();
+                if (edges.degree(index) > target) {
+                    sumMore += -target + edges.degree(index);
                     countMore++;
-                } else if (p.knows().size() < target) {
-                    //System.out.println(p.knows().size()+" "+target);
-                    sumLess += target - p.knows().size();
+                } else if (edges.degree(index) < target) {
+                    //System.out.println(edges.degree(index)+" "+target);
+                    sumLess += target - edges.degree(index);
                     countLess++;
                 }
             }
-            if(p.knows().size() == 0) countDegreeZero++;
+            if(edges.degree(index) == 0) countDegreeZero++;
             ++index;
         }
 
@@ -636,6 +636,10 @@ public class ClusteringKnowsGenerator implements KnowsGenerator {
         System.out.println("Sum of degree missed: "+sumLess);
         System.out.println("Number of persons with degree zero: "+countDegreeZero);
         printStatistics();
+        Metrics.add(Metrics.KNOWS, "clustering.iterations", numIterations);
+        Metrics.add(Metrics.KNOWS, "clustering.excessDegree", sumMore);
+        Metrics.add(Metrics.KNOWS, "clustering.missedDegree", sumLess);
+        Metrics.add(Metrics.KNOWS, "clustering.missedEdges", numMisses);
     }
 
     public void initialize( Configuration conf ) {
@@ -9,11 +9,10 @@ import ldbc.snb.datagen.dictionary.Dictionaries;
 import ldbc.snb.datagen.objects.*;
 import ldbc.snb.datagen.serializer.PersonActivityExporter;
 import ldbc.snb.datagen.util.RandomGeneratorFarm;
-import ldbc.snb.datagen.vocabulary.SN;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.Properties;
 import java.util.TreeSet;
 
@@ -28,6 +27,19 @@ public class CommentGenerator {
 	private LikeGenerator likeGenerator_;
     private Comment comment_;
 	/* A set of random number generator for different purposes.*/
+
+	/* The memberships of the forum being commented, sorted by join date, as (join date - forum creation date) << 23 | index.*/
+	private ArrayList<ForumMembership> indexedMemberships_ = null;
+	private int indexedSize_ = 0;
+	private long indexedBase_ = 0;
+	private long [] joinIndex_ = new long[16];
+	private static final int INDEX_BITS = 23;
+
+	/* The messages of the post being commented that can be replied, as (id, date, tags) tuples.*/
+	private int numCandidates_ = 0;
+	private long [] candidateIds_ = new long[16];
+	private long [] candidateDates_ = new long[16];
+	private int [][] candidateTags_ = new int[16][];
 	
 	public CommentGenerator(TextGenerator generator, LikeGenerator likeGenerator){
 		this.generator = generator;
@@ -35,26 +47,99 @@ public class CommentGenerator {
         this.comment_ = new Comment();
 	}
 	
-	public long createComments(RandomGeneratorFarm randomFarm, final Forum forum, final Post post, long numComments, long startId, PersonActivityExporter exporter) throws IOException {
+	/** Sorts the memberships of a forum by join date, unless they are already sorted.**/
+	private void indexMemberships( Forum forum ) {
+		ArrayList<ForumMembership> memberships = forum.memberships();
+		if( memberships == indexedMemberships_ && memberships.size() == indexedSize_ ) {
+			return;
+		}
+		indexedMemberships_ = memberships;
+		indexedSize_ = memberships.size();
+		indexedBase_ = forum.creationDate();
+		if( joinIndex_.length < indexedSize_ ) {
+			joinIndex_ = new long[Math.max(indexedSize_, 2 * joinIndex_.length)];
+		}
+		for( int i = 0; i < indexedSize_; ++i ) {
+			joinIndex_[i] = ((memberships.get(i).creationDate() - indexedBase_) << INDEX_BITS) | i;
+		}
+		Arrays.sort(joinIndex_, 0, indexedSize_);
+	}
+
+	/** Returns the number of members of the indexed forum that joined it at or before a date.**/
+	private int numMembersJoinedBy( long date ) {
+		long key = ((date - indexedBase_ + 1) << INDEX_BITS);
+		int low = 0;
+		int high = indexedSize_;
+		while( low < high ) {
+			int middle = (low + high) >>> 1;
+			if( joinIndex_[middle] < key ) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/** Returns the k-th membership, in the order of the forum, among those that joined at or before a date.**/
+	private ForumMembership kthMemberJoinedBy( ArrayList<ForumMembership> memberships, long date, int k ) {
+		for( ForumMembership fM : memberships ) {
+			if( fM.creationDate() <= date && k-- == 0 ) {
+				return fM;
+			}
+		}
+		return null;
+	}
+
+	private void addCandidate( long id, long date, TreeSet<Integer> tags ) {
+		if( numCandidates_ == candidateIds_.length ) {
+			candidateIds_ = Arrays.copyOf(candidateIds_, 2 * numCandidates_);
+			candidateDates_ = Arrays.copyOf(candidateDates_, 2 * numCandidates_);
+			candidateTags_ = Arrays.copyOf(candidateTags_, 2 * numCandidates_);
+		}
+		int [] tagArray = new int[tags.size()];
+		int index = 0;
+		for( Integer tag : tags ) {
+			tagArray[index++] = tag;
+		}
+		candidateIds_[numCandidates_] = id;
+		candidateDates_[numCandidates_] = date;
+		candidateTags_[numCandidates_] = tagArray;
+		numCandidates_++;
+	}
+
+	/** Creates the comments of a post. A comment replies to the post or to one of its long comments, and is written
+	 *  by a member that joined the forum before the replied message. With splittable random generators, the author
+	 *  is drawn among the valid members in join date order, so it is found by a binary search. Otherwise it is drawn
+	 *  in the order of the forum, as it always was, which only requires a scan when some members are not valid.**/
+	public long createComments(GeneratorContext context, RandomGeneratorFarm randomFarm, final Forum forum, final Post post, long numComments, long startId, PersonActivityExporter exporter) throws IOException {
 		long nextId = startId;
-		ArrayList<Message> replyCandidates = new ArrayList<Message>();
-		replyCandidates.add(post);
+		ArrayList<ForumMembership> memberships = forum.memberships();
+		indexMemberships(forum);
+		numCandidates_ = 0;
+		addCandidate(post.messageId(), post.creationDate(), post.tags());
 
 		Properties prop = new Properties();
 		prop.setProperty("type","comment");
 		for( int i = 0; i < numComments; ++i ) {
-			int replyIndex = randomFarm.get(RandomGeneratorFarm.Aspect.REPLY_TO).nextInt(replyCandidates.size());
-			Message replyTo = replyCandidates.get(replyIndex);
-			ArrayList<ForumMembership> validMemberships = new ArrayList<ForumMembership>();
-			for( ForumMembership fM : forum.memberships()) {
-				if (fM.creationDate()+DatagenParams.deltaTime <= replyTo.creationDate()){
-					validMemberships.add(fM);
-				}
-			}
-			if (validMemberships.size() == 0) {
+			int replyIndex = randomFarm.get(RandomGeneratorFarm.Aspect.REPLY_TO).nextInt(numCandidates_);
+			long replyToId = candidateIds_[replyIndex];
+			long replyToDate = candidateDates_[replyIndex];
+			int [] replyToTags = candidateTags_[replyIndex];
+			long joinDate = replyToDate - DatagenParams.deltaTime;
+			int numValid = numMembersJoinedBy(joinDate);
+			if (numValid == 0) {
 				return nextId;
 			}
-			ForumMembership member = validMemberships.get(randomFarm.get(RandomGeneratorFarm.Aspect.MEMBERSHIP_INDEX).nextInt(validMemberships.size()));
+			int memberIndex = randomFarm.get(RandomGeneratorFarm.Aspect.MEMBERSHIP_INDEX).nextInt(numValid);
+			ForumMembership member;
+			if( randomFarm.isSplittable() ) {
+				member = memberships.get((int) (joinIndex_[memberIndex] & ((1L << INDEX_BITS) - 1)));
+			} else if( numValid == memberships.size() ) {
+				member = memberships.get(memberIndex);
+			} else {
+				member = kthMemberJoinedBy(memberships, joinDate, memberIndex);
+			}
 			TreeSet<Integer> tags = new TreeSet<Integer>();
 			String content = "";
 			String gif = "";
@@ -63,19 +148,15 @@ public class CommentGenerator {
 			boolean isShort = false;
 			if( randomFarm.get(RandomGeneratorFarm.Aspect.REDUCED_TEXT).nextDouble() > 0.6666) {
 
-				ArrayList<Integer> currentTags = new ArrayList<Integer>();
-				Iterator<Integer> it = replyTo.tags().iterator();
-				while(it.hasNext()) {
-					Integer tag = it.next();
+				for( int tag : replyToTags ) {
 					if( randomFarm.get(RandomGeneratorFarm.Aspect.TAG).nextDouble() > 0.5) {
 						tags.add(tag);
 					}
-					currentTags.add(tag);
 				}
 				
-				for( int j = 0; j < (int)Math.ceil(replyTo.tags().size() / 2.0); ++j) {
-					int randomTag = currentTags.get(randomFarm.get(RandomGeneratorFarm.Aspect.TAG).nextInt(currentTags.size()));
-					tags.add(Dictionaries.tagMatrix.getRandomRelated(randomFarm.get(RandomGeneratorFarm.Aspect.TOPIC), randomTag));
+				for( int j = 0; j < (int)Math.ceil(replyToTags.length / 2.0); ++j) {
+					int randomTag = replyToTags[randomFarm.get(RandomGeneratorFarm.Aspect.TAG).nextInt(replyToTags.length)];
+					tags.add(context.tagMatrix.getRandomRelated(randomFarm.get(RandomGeneratorFarm.Aspect.TOPIC), randomTag));
 				}
 				content = this.generator.generateText(member.person(), tags,prop);
 			} else {
@@ -91,29 +172,28 @@ public class CommentGenerator {
 			}
 
 			
-			long creationDate = Dictionaries.dates.powerlawCommDateDay(randomFarm.get(RandomGeneratorFarm.Aspect.DATE),replyTo.creationDate()+DatagenParams.deltaTime);
+			long creationDate = context.dates.powerlawCommDateDay(randomFarm.get(RandomGeneratorFarm.Aspect.DATE),replyToDate+DatagenParams.deltaTime);
 			/*if( creationDate <= Dictionaries.dates.getEndDateTime() )*/ {
-				Comment comment = new Comment(SN.formId(SN.composeId(nextId++,creationDate)),
+				Comment comment = new Comment(context.formId(context.composeId(nextId++,creationDate)),
 					creationDate,
 					member.person(),
 					forum.id(),
 					content,
 					tags,
-					Dictionaries.ips.getIP(randomFarm.get(RandomGeneratorFarm.Aspect.IP), randomFarm.get(RandomGeneratorFarm.Aspect.DIFF_IP), randomFarm.get(RandomGeneratorFarm.Aspect.DIFF_IP_FOR_TRAVELER), member.person().ipAddress(), creationDate),
-					Dictionaries.browsers.getPostBrowserId(randomFarm.get(RandomGeneratorFarm.Aspect.DIFF_BROWSER), randomFarm.get(RandomGeneratorFarm.Aspect.BROWSER), member.person().browserId()),
+					context.ips.getIP(randomFarm.get(RandomGeneratorFarm.Aspect.IP), randomFarm.get(RandomGeneratorFarm.Aspect.DIFF_IP), randomFarm.get(RandomGeneratorFarm.Aspect.DIFF_IP_FOR_TRAVELER), member.person().ipAddress(), creationDate),
+					context.browsers.getPostBrowserId(randomFarm.get(RandomGeneratorFarm.Aspect.DIFF_BROWSER), randomFarm.get(RandomGeneratorFarm.Aspect.BROWSER), member.person().browserId()),
 					post.messageId(),
-					replyTo.messageId(),
+					replyToId,
 					gif);
 				if (randomFarm.get(RandomGeneratorFarm.Aspect.COMMENT_COUNTRY).nextDouble() > 0.02)
 				    comment.countryKnown(false);
-				if(!isShort) replyCandidates.add(new Comment(comment));
+				if(!isShort) addCandidate(comment.messageId(), comment.creationDate(), comment.tags());
 				exporter.export(comment);
 				if( comment.content().length() > 10 && randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE).nextDouble() <= 0.1 ) {
-					likeGenerator_.generateLikes(randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE), forum, comment, Like.LikeType.COMMENT, exporter);
+					likeGenerator_.generateLikes(context, randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE), forum, comment, Like.LikeType.COMMENT, exporter);
 				}
 			}
 		}
-		replyCandidates.clear();
 		return nextId;
 	}
 	
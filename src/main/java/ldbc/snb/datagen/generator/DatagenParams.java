@@ -229,6 +229,8 @@ public class DatagenParams {
     public static boolean updateStreams                    = false;
     public static boolean exportText                       = true;
     public static boolean compressed                       = false;
+    public static boolean splittableRandom                 = false; // derive independent random streams per block, entity and aspect
+    public static boolean aliasSampling                    = false; // sample cumulative distributions with alias tables
     public static int	numPartitions			   = 1;
     public static int   numUpdatePartitions         = 1;
 
@@ -314,6 +316,8 @@ public class DatagenParams {
             compressed = conf.getBoolean("ldbc.snb.datagen.serializer.compressed",false);
             numThreads = conf.getInt("ldbc.snb.datagen.generator.numThreads",1);
             updateStreams = conf.getBoolean("ldbc.snb.datagen.serializer.updateStreams",false);
+            splittableRandom = conf.get("ldbc.snb.datagen.generator.randomGenerator","compat").equals("splittable");
+            aliasSampling = conf.get("ldbc.snb.datagen.generator.sampler","compat").equals("alias");
             numPartitions = conf.getInt("ldbc.snb.datagen.serializer.numPartitions",1);
             numUpdatePartitions = conf.getInt("ldbc.snb.datagen.serializer.numUpdatePartitions",1);
             deltaTime = conf.getInt("ldbc.snb.datagen.generator.deltaTime",10000);
@@ -57,15 +57,15 @@ public class DateGenerator {
 	private long to_;
 	private long fromBirthDay_;
 	private long toBirthDay_;
-	private GregorianCalendar calendar_;
+	private static final TimeZone localTimeZone_ = TimeZone.getDefault();
 	private long deltaTime_;
 	private long updateThreshold_;
 	private PowerDistGenerator powerDist_;
     private SimpleDateFormat gmtDateFormatter_;
-	private DateFormatter dateFormatter_;
+	private ThreadLocal<DateFormatter> dateFormatter_;
 
 	// This constructor is for the case of friendship's created date generator
-	public DateGenerator(Configuration conf, GregorianCalendar from, GregorianCalendar to,
+	public DateGenerator(final Configuration conf, GregorianCalendar from, GregorianCalendar to,
 						 double alpha, long deltaTime) {
 		from_ = from.getTimeInMillis();
 		to_ = to.getTimeInMillis();
@@ -77,18 +77,24 @@ public class DateGenerator {
 		GregorianCalendar tobirthCalendar = new GregorianCalendar(1990, 1, 1);
 		fromBirthDay_ = frombirthCalendar.getTimeInMillis();
 		toBirthDay_ = tobirthCalendar.getTimeInMillis();
-		calendar_ = new GregorianCalendar();
-		calendar_.setTimeZone(TimeZone.getTimeZone("GMT"));
 		//updateThreshold_ = getMaxDateTime() - (long)((getMaxDateTime() - getStartDateTime())*(DatagenParams.updatePortion));
         updateThreshold_ = getEndDateTime() - (long)((getEndDateTime() - getStartDateTime())*(DatagenParams.updatePortion));
 
-		try {
-			dateFormatter_ = (DateFormatter) Class.forName(conf.get("ldbc.snb.datagen.serializer.dateFormatter")).newInstance();
-			dateFormatter_.initialize(conf);
-		} catch(Exception e) {
-			System.err.println("Error when initializing date formatter");
-			System.err.println(e.getMessage());
-		}
+		// The date formatter is not thread safe, so each thread gets its own copy.
+		dateFormatter_ = new ThreadLocal<DateFormatter>() {
+			@Override
+			protected DateFormatter initialValue() {
+				try {
+					DateFormatter dateFormatter = (DateFormatter) Class.forName(conf.get("ldbc.snb.datagen.serializer.dateFormatter")).newInstance();
+					dateFormatter.initialize(conf);
+					return dateFormatter;
+				} catch(Exception e) {
+					System.err.println("Error when initializing date formatter");
+					System.err.println(e.getMessage());
+				}
+				return null;
+			}
+		};
 	}
 
 	/*
@@ -96,37 +102,67 @@ public class DateGenerator {
 	 */
 	public Long randomPersonCreationDate(Random random) {
 		long date = (long) (random.nextDouble() * (to_ - from_) + from_);
-		calendar_.setTime(new Date(date));
-		return calendar_.getTimeInMillis();
+		return date;
+	}
+
+	/*
+	 * Computes the GMT calendar date of a time, as year * 10000 + month * 100 + day, with months starting at 1.
+	 */
+	private static int civilDate(long date) {
+		long z = Math.floorDiv(date, ONE_DAY) + 719468;
+		long era = Math.floorDiv(z, 146097);
+		long dayOfEra = z - era * 146097;
+		long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		long shiftedMonth = (5 * dayOfYear + 2) / 153;
+		long day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+		long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+		long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+		return (int) (year * 10000 + month * 100 + day);
 	}
 
 	/*
 	 * format the date
 	 */
 	public String formatDate(long date) {
-		return dateFormatter_.formatDate(date);
+		return dateFormatter_.get().formatDate(date);
 	}
 
 	public String formatYear(long date) {
-        calendar_.setTimeInMillis(date);
-        int year = calendar_.get(Calendar.YEAR);
-        return year + "";
+        return Integer.toString(civilDate(date) / 10000);
+	}
+
+	public int getYear(long date) {
+		return civilDate(date) / 10000;
 	}
 
 	/*
 	 * format the date with hours and minutes
 	 */
 	public String formatDateTime(long date) {
-		return dateFormatter_.formatDateTime(date);
+		return dateFormatter_.get().formatDateTime(date);
+	}
+
+	/*
+	 * format the date into a buffer, returning the number of bytes written or -1 if it does not fit
+	 */
+	public int formatDate(long date, byte [] buffer, int offset) {
+		return dateFormatter_.get().formatDate(date, buffer, offset);
+	}
+
+	/*
+	 * format the date with hours and minutes into a buffer, returning the number of bytes written or -1 if it does not fit
+	 */
+	public int formatDateTime(long date, byte [] buffer, int offset) {
+		return dateFormatter_.get().formatDateTime(date, buffer, offset);
 	}
 
 
 	public static boolean isTravelSeason(long date) {
-		GregorianCalendar c = new GregorianCalendar();
-		c.setTimeInMillis(date);
-
-		int day = c.get(Calendar.DAY_OF_MONTH);
-		int month = c.get(Calendar.MONTH) + 1;
+		// The season is computed in the default time zone.
+		int civilDate = civilDate(date + localTimeZone_.getOffset(date));
+		int day = civilDate % 100;
+		int month = (civilDate / 100) % 100;
 
 		if ((month > 5) && (month < 8)) {
 			return true;
@@ -138,9 +174,9 @@ public class DateGenerator {
 	}
 
 	public int getNumberOfMonths(long date, int startMonth, int startYear) {
-        calendar_.setTimeInMillis(date);
-		int month = calendar_.get(Calendar.MONTH) + 1;
-		int year = calendar_.get(Calendar.YEAR);
+		int civilDate = civilDate(date);
+		int month = (civilDate / 100) % 100;
+		int year = civilDate / 10000;
 		return (year - startYear) * 12 + month - startMonth;
 	}
 
@@ -197,20 +233,16 @@ public class DateGenerator {
 
 	// The birthday is fixed during 1980 --> 1990
 	public long getBirthDay(Random random, long userCreatedDate) {
-        calendar_.setTimeInMillis(((long)(random.nextDouble() * (toBirthDay_ - fromBirthDay_)) + fromBirthDay_));
-        GregorianCalendar  aux_calendar = new GregorianCalendar(calendar_.get(Calendar.YEAR),calendar_.get(Calendar.MONTH), calendar_.get(Calendar.DAY_OF_MONTH),0,0,0);
-        aux_calendar.setTimeZone(TimeZone.getTimeZone("GMT"));
-		return aux_calendar.getTimeInMillis();
+        long date = ((long)(random.nextDouble() * (toBirthDay_ - fromBirthDay_)) + fromBirthDay_);
+		return Math.floorDiv(date, ONE_DAY) * ONE_DAY;          // Midnight GMT of the day.
 	}
 
 	public int getBirthYear(long birthDay) {
-		calendar_.setTimeInMillis(birthDay);
-		return calendar_.get(GregorianCalendar.YEAR);
+		return civilDate(birthDay) / 10000;
 	}
 
 	public int getBirthMonth(long birthDay) {
-		calendar_.setTimeInMillis(birthDay);
-		return calendar_.get(GregorianCalendar.MONTH);
+		return (civilDate(birthDay) / 100) % 100 - 1;          // As GregorianCalendar.MONTH, starting at 0.
 	}
     //If do not know the birthday, first randomly guess the age of user
 	//Randomly get the age when user graduate
@@ -1,49 +1,150 @@
 package ldbc.snb.datagen.generator;
 
-import ldbc.snb.datagen.dictionary.Dictionaries;
+import ldbc.snb.datagen.generator.tools.EdgeStore;
 import ldbc.snb.datagen.objects.Knows;
 import ldbc.snb.datagen.objects.Person;
 import ldbc.snb.datagen.util.RandomGeneratorFarm;
 import org.apache.hadoop.conf.Configuration;
 
 import java.util.ArrayList;
+import java.util.Random;
 
 /**
  * Created by aprat on 11/15/14.
+ *
+ * Each person is connected to the persons after it in the block while it has degree left to generate. A candidate
+ * at distance d with degree left is accepted with probability max(baseProbCorrelated^d, limitProCorrelated). With
+ * skip sampling enabled, persons without degree left are skipped through a union-find over the block, and past the
+ * distance where the probability becomes constant the number of candidates rejected before the next accepted one is
+ * drawn from a geometric distribution. This gives the same distribution of edges as testing every candidate, in
+ * time proportional to the number of edges, but with different draws.
  */
 public class DistanceKnowsGenerator implements KnowsGenerator {
 
     private RandomGeneratorFarm randomFarm;
+    private boolean skipSampling = false;
 
     public DistanceKnowsGenerator() {
         this.randomFarm = new RandomGeneratorFarm();
     }
 
-    public void generateKnows( ArrayList<Person> persons, int seed, ArrayList<Float> percentages, int step_index )  {
+    public void generateKnows( ArrayList<Person> persons, EdgeStore edges, int seed, ArrayList<Float> percentages, int step_index )  {
         randomFarm.resetRandomGenerators(seed);
+        long [] targetDegree = new long[persons.size()];
         for( int i = 0; i < persons.size(); ++i ) {
-            Person p = persons.get(i);
-           for( int j = i+1; ( Knows.target_edges(p, percentages, step_index) > p.knows().size() ) && ( j < persons.size() ); ++j  ) {
-                if( know(p, persons.get(j), j - i, percentages, step_index)) {
-                   Knows.createKnow(randomFarm.get(RandomGeneratorFarm.Aspect.DATE), p, persons.get(j));
+            targetDegree[i] = Knows.target_edges(persons.get(i), percentages, step_index);
+        }
+        double [] prob = acceptanceProbabilities(persons.size());
+        if( skipSampling ) {
+            generateKnowsWithSkips(persons.size(), edges, targetDegree, prob);
+            return;
+        }
+        for( int i = 0; i < persons.size(); ++i ) {
+           for( int j = i+1; ( targetDegree[i] > edges.degree(i) ) && ( j < persons.size() ); ++j  ) {
+                if( know(edges, targetDegree, prob, i, j)) {
+                   edges.createKnows(randomFarm.get(RandomGeneratorFarm.Aspect.DATE), i, j);
                 }
            }
         }
     }
 
     public void initialize( Configuration conf ) {
+        skipSampling = conf.getBoolean("ldbc.snb.datagen.generator.DistanceKnowsGenerator.skipSampling", false);
+    }
 
+    /** Computes the probability of accepting a candidate at each distance, up to the first distance where it
+     * reaches limitProCorrelated, after which it stays constant.
+     *
+     * @param numPersons The number of persons of the block.
+     * @return The probability of accepting a candidate at distance d, at position d.
+     */
+    private double [] acceptanceProbabilities( int numPersons ) {
+        double [] prob = new double[Math.max(numPersons, 2)];
+        int size = 1;
+        while( size < prob.length ) {
+            double p = Math.pow(DatagenParams.baseProbCorrelated, size);
+            prob[size++] = Math.max(p, DatagenParams.limitProCorrelated);
+            if( p <= DatagenParams.limitProCorrelated ) break;
+        }
+        double [] result = new double[size];
+        System.arraycopy(prob, 0, result, 0, size);
+        return result;
     }
 
-    boolean know( Person personA, Person personB, int dist, ArrayList<Float> percentages, int step_index ) {
-        if( personA.knows().size() >= Knows.target_edges( personA, percentages, step_index) ||
-            personB.knows().size() >= Knows.target_edges( personB, percentages, step_index) ) return false;
+    boolean know( EdgeStore edges, long [] targetDegree, double [] prob, int indexA, int indexB ) {
+        int dist = indexB - indexA;
+        if( edges.degree(indexA) >= targetDegree[indexA] ||
+            edges.degree(indexB) >= targetDegree[indexB] ) return false;
         double randProb = randomFarm.get(RandomGeneratorFarm.Aspect.UNIFORM).nextDouble();
-        double prob = Math.pow(DatagenParams.baseProbCorrelated, dist);
-        if ((randProb < prob) || (randProb < DatagenParams.limitProCorrelated)) {
+        return randProb < (dist < prob.length ? prob[dist] : DatagenParams.limitProCorrelated);
+    }
+
+    /** Returns the first person from an index on with degree left to generate, compressing the paths of the
+     * union-find on the way.
+     *
+     * @param next The next person of each person that might have degree left, or itself if it has.
+     * @param index The index to start from.
+     * @return The index of the person, or the size of the block if there is none.
+     */
+    private static int find( int [] next, int index ) {
+        int root = index;
+        while( next[root] != root ) {
+            root = next[root];
+        }
+        while( next[index] != root ) {
+            int parent = next[index];
+            next[index] = root;
+            index = parent;
+        }
+        return root;
+    }
+
+    private void generateKnowsWithSkips( int numPersons, EdgeStore edges, long [] targetDegree, double [] prob ) {
+        Random uniform = randomFarm.get(RandomGeneratorFarm.Aspect.UNIFORM);
+        Random date = randomFarm.get(RandomGeneratorFarm.Aspect.DATE);
+        int [] next = new int[numPersons + 1];
+        for( int i = 0; i <= numPersons; ++i ) {
+            next[i] = i < numPersons && edges.degree(i) >= targetDegree[i] ? i + 1 : i;
+        }
+        double limit = DatagenParams.limitProCorrelated;
+        double logRejection = Math.log(1.0 - limit);
+        for( int i = 0; i < numPersons; ++i ) {
+            if( edges.degree(i) >= targetDegree[i] ) continue;
+            int j = find(next, i + 1);
+            // Candidates whose probability depends on their distance are tested one by one.
+            while( j < numPersons && j - i < prob.length ) {
+                if( uniform.nextDouble() < prob[j - i] && connect(edges, targetDegree, next, date, i, j) ) break;
+                j = find(next, j + 1);
+            }
+            if( limit <= 0.0 ) continue;
+            // Past them, the number of candidates rejected before the next accepted one is geometric.
+            while( j < numPersons && edges.degree(i) < targetDegree[i] ) {
+                long skip = limit >= 1.0 ? 0 : (long)Math.floor(Math.log(1.0 - uniform.nextDouble()) / logRejection);
+                while( skip > 0 && j < numPersons ) {
+                    j = find(next, j + 1);
+                    --skip;
+                }
+                if( j < numPersons ) {
+                    connect(edges, targetDegree, next, date, i, j);
+                    j = find(next, j + 1);
+                }
+            }
+        }
+    }
+
+    /** Creates an edge, and removes the persons without degree left from the union-find.
+     *
+     * @return True if the first person has no degree left.
+     */
+    private static boolean connect( EdgeStore edges, long [] targetDegree, int [] next, Random date, int i, int j ) {
+        edges.createKnows(date, i, j);
+        if( edges.degree(j) >= targetDegree[j] ) {
+            next[j] = j + 1;
+        }
+        if( edges.degree(i) >= targetDegree[i] ) {
+            next[i] = i + 1;
             return true;
         }
         return false;
     }
-
 }
@@ -9,6 +9,7 @@ import ldbc.snb.datagen.dictionary.Dictionaries;
 import ldbc.snb.datagen.objects.FlashmobTag;
 import ldbc.snb.datagen.objects.Forum;
 import ldbc.snb.datagen.objects.ForumMembership;
+import ldbc.snb.datagen.util.DiscreteSampler;
 import ldbc.snb.datagen.util.Distribution;
 
 import java.util.*;
@@ -22,9 +23,11 @@ import static ldbc.snb.datagen.generator.DatagenParams.maxNumTagPerFlashmobPost;
 public class FlashmobPostGenerator extends PostGenerator{
 	private Distribution dateDistribution_;
 	private FlashmobTag[] forumFlashmobTags = null;
+	private DiscreteSampler forumFlashmobSampler_ = null;
 	private long hoursToMillis_;
 	private long flashmobSpan_;
 	private long currentForum = -1;
+	private static final int MAX_REJECTIONS = 8;
 	public FlashmobPostGenerator(TextGenerator generator, CommentGenerator commentGenerator, LikeGenerator likeGenerator) {
 		super(generator, commentGenerator, likeGenerator);
 		dateDistribution_ = new Distribution(DatagenParams.flashmobDistFile);
@@ -53,6 +56,26 @@ public class FlashmobPostGenerator extends PostGenerator{
         return midPoint;
     }
 
+    /** @brief Selects a random tag from a given index with the alias table of the tags of the forum. Tags before the
+     *         index are rejected, which keeps the distribution of selectRandomTag. After too many rejections, the
+     *         tag is selected with selectRandomTag.
+     *  @param[in] randomFlashmobTag The random number generator.
+     *  @param[in] tags The array of sorted tags to select from.
+     *  @param[in] index The first tag to consider.
+     *  @return The index of a random tag.*/
+    private int sampleRandomTag( Random randomFlashmobTag, FlashmobTag[] tags, int index ) {
+        if( index == tags.length - 1 ) {
+            return index;
+        }
+        for( int i = 0; i < MAX_REJECTIONS; ++i ) {
+            int tag = forumFlashmobSampler_.sampleIndex(randomFlashmobTag);
+            if( tag >= index ) {
+                return tag;
+            }
+        }
+        return selectRandomTag(randomFlashmobTag, tags, index);
+    }
+
     /** @brief Selects the earliest flashmob tag index from a given date.
      *  @return The index to the earliest flashmob tag.*/
     private int searchEarliest( FlashmobTag[] tags, ForumMembership membership ) {
@@ -72,14 +95,14 @@ public class FlashmobPostGenerator extends PostGenerator{
         return midPoint;
     }
 
-    private void populateForumFlashmobTags( Random randomNumPost, Forum forum ) {
+    private void populateForumFlashmobTags( GeneratorContext context, Random randomNumPost, Forum forum ) {
 	    
 	    ArrayList<Integer> forumTags = forum.tags();
 	    TreeSet<Integer> tags = new TreeSet<Integer>();
 	    for( Integer tag : tags ) {
 		    tags.add(tag);
 	    }
-	    ArrayList<FlashmobTag> temp = Dictionaries.flashmobs.generateFlashmobTags( randomNumPost, tags, forum.creationDate() );
+	    ArrayList<FlashmobTag> temp = context.flashmobs.generateFlashmobTags( randomNumPost, tags, forum.creationDate() );
 	    forumFlashmobTags = new FlashmobTag[temp.size()];
 	    Iterator<FlashmobTag> it = temp.iterator();
 	    int index = 0;
@@ -98,18 +121,31 @@ public class FlashmobPostGenerator extends PostGenerator{
 		    forumFlashmobTags[i].prob = currentProb;
 		    currentProb += (double)(forumFlashmobTags[i].level) / (double)(sumLevels);
 	    }
+	    forumFlashmobSampler_ = null;
+	    if( DatagenParams.aliasSampling && size > 0 ) {
+		    // selectRandomTag never returns the last tag of a range, unless it is the only one.
+		    double [] weights = new double[size];
+		    for( int i = 0; i < size - 1; ++i ) {
+			    weights[i] = forumFlashmobTags[i+1].prob - forumFlashmobTags[i].prob;
+		    }
+		    forumFlashmobSampler_ = new DiscreteSampler(weights);
+	    }
     }
 
-    protected PostGenerator.PostInfo generatePostInfo( Random randomTag, Random randomDate, final Forum forum, final ForumMembership membership ) {
+    protected PostGenerator.PostInfo generatePostInfo( GeneratorContext context, Random randomTag, Random randomDate, final Forum forum, final ForumMembership membership ) {
 	    if( currentForum != forum.id() ) {
-		    populateForumFlashmobTags(randomTag,forum);
+		    populateForumFlashmobTags(context, randomTag,forum);
 		    currentForum = forum.id();
 	    }
 	    if( forumFlashmobTags.length < 1 ) return null;
 	    PostInfo postInfo = new PostInfo();
 	    int index = searchEarliest(forumFlashmobTags,membership);
 	    if( index < 0 ) return null;
-	    index = selectRandomTag( randomTag, forumFlashmobTags,index);
+	    if( forumFlashmobSampler_ != null ) {
+		    index = sampleRandomTag( randomTag, forumFlashmobTags, index);
+	    } else {
+		    index = selectRandomTag( randomTag, forumFlashmobTags,index);
+	    }
 	    FlashmobTag flashmobTag =  forumFlashmobTags[index];
 	    postInfo.tags.add(flashmobTag.tag);
 	    /*Set<Integer> extraTags = Dictionaries.tagMatrix.getSetofTagsCached(randomTag,randomTag,flashmobTag.tag, maxNumTagPerFlashmobPost - 1);
@@ -123,7 +159,7 @@ public class FlashmobPostGenerator extends PostGenerator{
 	    */
 		for(int i = 0; i < maxNumTagPerFlashmobPost - 1 ; ++i) {
 			if(randomTag.nextDouble() < 0.05) {
-				int tag = Dictionaries.tagMatrix.getRandomRelated(randomTag,flashmobTag.tag);
+				int tag = context.tagMatrix.getRandomRelated(randomTag,flashmobTag.tag);
 				postInfo.tags.add(tag);
 			}
 		}
@@ -7,7 +7,6 @@ import ldbc.snb.datagen.objects.ForumMembership;
 import ldbc.snb.datagen.objects.Knows;
 import ldbc.snb.datagen.objects.Person;
 import ldbc.snb.datagen.util.RandomGeneratorFarm;
-import ldbc.snb.datagen.vocabulary.SN;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -20,9 +19,9 @@ public class ForumGenerator {
 	public ForumGenerator(){
 	}
 
-	public Forum createWall(RandomGeneratorFarm randomFarm, long forumId, Person person){
+	public Forum createWall(GeneratorContext context, RandomGeneratorFarm randomFarm, long forumId, Person person){
 		int language = randomFarm.get(RandomGeneratorFarm.Aspect.LANGUAGE).nextInt(person.languages().size());
-		Forum forum = new Forum(SN.formId(SN.composeId(forumId,person.creationDate()+DatagenParams.deltaTime)), 
+		Forum forum = new Forum(context.formId(context.composeId(forumId,person.creationDate()+DatagenParams.deltaTime)), 
 				person.creationDate()+DatagenParams.deltaTime, 
 				new Person.PersonSummary(person),  
 				"Wall of " + person.firstName() + " " + person.lastName(),
@@ -45,8 +44,8 @@ public class ForumGenerator {
 		return forum;
 	}
 
-	public Forum createGroup(RandomGeneratorFarm randomFarm, long forumId, Person person, ArrayList<Person> persons){
-		long date = Dictionaries.dates.randomDate(randomFarm.get(RandomGeneratorFarm.Aspect.DATE), person.creationDate() + DatagenParams.deltaTime);
+	public Forum createGroup(GeneratorContext context, RandomGeneratorFarm randomFarm, long forumId, Person person, ArrayList<Person> persons){
+		long date = context.dates.randomDate(randomFarm.get(RandomGeneratorFarm.Aspect.DATE), person.creationDate() + DatagenParams.deltaTime);
 		//if( date > Dictionaries.dates.getEndDateTime() )  return null;
 
 		int language = randomFarm.get(RandomGeneratorFarm.Aspect.LANGUAGE).nextInt(person.languages().size());
@@ -59,10 +58,10 @@ public class ForumGenerator {
 		ArrayList<Integer> interest = new ArrayList<Integer>();
 		interest.add(interestId);
 
-		Forum forum = new Forum(SN.formId(SN.composeId(forumId,date)),
+		Forum forum = new Forum(context.formId(context.composeId(forumId,date)),
 				date, 
 				new Person.PersonSummary(person),  
-				"Group for " + Dictionaries.tags.getName(interestId).replace("\"","\\\"") + " in " + Dictionaries.places.getPlaceName(person.cityId()),
+				"Group for " + context.tags.getName(interestId).replace("\"","\\\"") + " in " + context.places.getPlaceName(person.cityId()),
 				person.cityId(),
 				language
 				);
@@ -83,7 +82,7 @@ public class ForumGenerator {
 				Knows k = friends.get(friendId);
 				if (!added.contains(k.to().accountId())) {
 					Random random = randomFarm.get(RandomGeneratorFarm.Aspect.MEMBERSHIP_INDEX);
-					date = Dictionaries.dates.randomDate(random,Math.max(forum.creationDate(), k.creationDate()+DatagenParams.deltaTime));
+					date = context.dates.randomDate(random,Math.max(forum.creationDate(), k.creationDate()+DatagenParams.deltaTime));
 					assert forum.creationDate() +DatagenParams.deltaTime <= date : "Forum creation date larger than membership date for knows based members";
 					/*if( date < Dictionaries.dates.getEndDateTime() )*/ {
 						forum.addMember(new ForumMembership(forum.id(), date, k.to()));
@@ -98,7 +97,7 @@ public class ForumGenerator {
 					if (!added.contains(member.accountId())) {
 						added.add(member.accountId());
 						Random random = randomFarm.get(RandomGeneratorFarm.Aspect.MEMBERSHIP_INDEX);
-						date = Dictionaries.dates.randomDate(random,Math.max(forum.creationDate(), member.creationDate()+DatagenParams.deltaTime));
+						date = context.dates.randomDate(random,Math.max(forum.creationDate(), member.creationDate()+DatagenParams.deltaTime));
 						/*if( date < Dictionaries.dates.getEndDateTime() )*/ {
 							assert forum.creationDate() +DatagenParams.deltaTime <= date : "Forum creation date larger than membership date for block based members";
 							forum.addMember(new ForumMembership(forum.id(), date, new Person.PersonSummary(member)));
@@ -112,11 +111,11 @@ public class ForumGenerator {
 		return forum; 
 	}
 
-	public Forum createAlbum(RandomGeneratorFarm randomFarm, long forumId, Person person,  int numAlbum) {
-		long date = Dictionaries.dates.randomDate(randomFarm.get(RandomGeneratorFarm.Aspect.DATE), person.creationDate() + DatagenParams.deltaTime);
+	public Forum createAlbum(GeneratorContext context, RandomGeneratorFarm randomFarm, long forumId, Person person,  int numAlbum) {
+		long date = context.dates.randomDate(randomFarm.get(RandomGeneratorFarm.Aspect.DATE), person.creationDate() + DatagenParams.deltaTime);
 		//if( date > Dictionaries.dates.getEndDateTime() )  return null;
 		int language = randomFarm.get(RandomGeneratorFarm.Aspect.LANGUAGE).nextInt(person.languages().size());
-		Forum forum = new Forum(SN.formId(SN.composeId(forumId,date)),
+		Forum forum = new Forum(context.formId(context.composeId(forumId,date)),
 				date, 
 				new Person.PersonSummary(person),  
 				"Album " + numAlbum + " of " + person.firstName() + " " + person.lastName(),
@@ -134,7 +133,7 @@ public class ForumGenerator {
 		interest.add(interestId);
 		forum.tags(interest);
 
-		ArrayList<Integer> countries = Dictionaries.places.getCountries();
+		ArrayList<Integer> countries = context.places.getCountries();
 		int randomCountry = randomFarm.get(RandomGeneratorFarm.Aspect.COUNTRY).nextInt(countries.size());
 		forum.place(countries.get(randomCountry));
 		ArrayList<Knows> friends = new ArrayList<Knows>();
@@ -143,7 +142,7 @@ public class ForumGenerator {
 			double prob = randomFarm.get(RandomGeneratorFarm.Aspect.ALBUM_MEMBERSHIP).nextDouble();
 			if (prob < 0.7) {
 				Random random = randomFarm.get(RandomGeneratorFarm.Aspect.MEMBERSHIP_INDEX);
-				date = Dictionaries.dates.randomDate(random,Math.max(forum.creationDate(), k.creationDate()+DatagenParams.deltaTime));
+				date = context.dates.randomDate(random,Math.max(forum.creationDate(), k.creationDate()+DatagenParams.deltaTime));
 				/*if( date < Dictionaries.dates.getEndDateTime() )*/ {
 					forum.addMember(new ForumMembership(forum.id(), date, k.to()));
 				}
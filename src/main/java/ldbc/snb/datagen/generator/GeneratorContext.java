@@ -0,0 +1,109 @@
+package ldbc.snb.datagen.generator;
+
+import ldbc.snb.datagen.dictionary.*;
+import org.apache.hadoop.conf.Configuration;
+
+/**
+ * Immutable view of everything a generator needs besides its random number generators: the configuration,
+ * the dictionaries and the composition of the ids of the entities, which depends on the block being generated.
+ * A context for a block is obtained with forBlock, so that several blocks can be generated concurrently in the
+ * same JVM without sharing any mutable state.
+ */
+public final class GeneratorContext {
+
+    public final Configuration conf;
+    public final BrowserDictionary browsers;
+    public final CompanyDictionary companies;
+    public final DateGenerator dates;
+    public final EmailDictionary emails;
+    public final IPAddressDictionary ips;
+    public final LanguageDictionary languages;
+    public final NamesDictionary names;
+    public final PlaceDictionary places;
+    public final PopularPlacesDictionary popularPlaces;
+    public final TagDictionary tags;
+    public final TagMatrix tagMatrix;
+    public final TagTextDictionary tagText;
+    public final UniversityDictionary universities;
+    public final FlashmobTagDictionary flashmobs;
+
+    private final long machineId_;      /** The block being generated, used as a suffix of the ids.**/
+    private final long numBits_;        /** The number of bits reserved for the machine id.**/
+    private final long minDate_;
+    private final long maxDate_;
+
+    /** Creates the context from the parameters and dictionaries loaded by LDBCDatagen.init.**/
+    GeneratorContext( Configuration conf ) {
+        this.conf = new Configuration(conf);
+        browsers = Dictionaries.browsers;
+        companies = Dictionaries.companies;
+        dates = Dictionaries.dates;
+        emails = Dictionaries.emails;
+        ips = Dictionaries.ips;
+        languages = Dictionaries.languages;
+        names = Dictionaries.names;
+        places = Dictionaries.places;
+        popularPlaces = Dictionaries.popularPlaces;
+        tags = Dictionaries.tags;
+        tagMatrix = Dictionaries.tagMatrix;
+        tagText = Dictionaries.tagText;
+        universities = Dictionaries.universities;
+        flashmobs = Dictionaries.flashmobs;
+        machineId_ = 0;
+        numBits_ = (int) Math.ceil(Math.log10(Math.ceil(DatagenParams.numPersons/(double)DatagenParams.blockSize)) / Math.log10(2));
+        if (numBits_ > 20) System.out.print("WARNING: Possible id overlapp");
+        minDate_ = dates.getStartDateTime();
+        maxDate_ = dates.getEndDateTime();
+    }
+
+    private GeneratorContext( GeneratorContext context, long machineId ) {
+        conf = context.conf;
+        browsers = context.browsers;
+        companies = context.companies;
+        dates = context.dates;
+        emails = context.emails;
+        ips = context.ips;
+        languages = context.languages;
+        names = context.names;
+        places = context.places;
+        popularPlaces = context.popularPlaces;
+        tags = context.tags;
+        tagMatrix = context.tagMatrix;
+        tagText = context.tagText;
+        universities = context.universities;
+        flashmobs = context.flashmobs;
+        machineId_ = machineId;
+        numBits_ = context.numBits_;
+        minDate_ = context.minDate_;
+        maxDate_ = context.maxDate_;
+    }
+
+    /** Returns the context used to generate or serialize a block.
+     *
+     * @param machineId The block, used as a suffix of the ids to make them unique among blocks.
+     * @return The context of the block.
+     */
+    public GeneratorContext forBlock( long machineId ) {
+        return new GeneratorContext(this, machineId);
+    }
+
+    public long machineId() {
+        return machineId_;
+    }
+
+    /** Inserts the machine id of this context in an id local to the block.**/
+    public long formId( long id ) {
+        long lowMask = 0x0FFFFF;                                // This mask is used to get the lowest 20 bits.
+        long lowerPart = (lowMask & id);
+        long machinePart = machineId_ << 20;
+        long upperPart = (id >> 20) << (20 + numBits_);
+        return upperPart | machinePart | lowerPart;
+    }
+
+    /** Prefixes an id with the bucket of its date, so that ids are ordered by date.**/
+    public long composeId( long id, long date ) {
+        long bucket = (long) (256 * (date - minDate_) / (double) maxDate_);
+        long idMask = ~(0xFFFFFFFFFFFFFFFFL << 36);
+        return (bucket << 36) | (id & idMask);
+    }
+}
@@ -1,5 +1,6 @@
 package ldbc.snb.datagen.generator;
 
+import ldbc.snb.datagen.generator.tools.EdgeStore;
 import ldbc.snb.datagen.objects.Person;
 import org.apache.hadoop.conf.Configuration;
 
@@ -9,7 +10,15 @@ import java.util.ArrayList;
  * Created by aprat on 11/06/15.
  */
 public interface KnowsGenerator {
-    public void generateKnows( ArrayList<Person> persons, int seed, ArrayList<Float> percentages, int step_index );
+    /** Generates the knows edges among a block of persons.
+     *
+     * @param persons The persons of the block.
+     * @param edges The store where the edges are created, indexed as persons.
+     * @param seed The seed of the block.
+     * @param percentages The percentages of edges to generate at each step.
+     * @param step_index The index of the step.
+     */
+    public void generateKnows( ArrayList<Person> persons, EdgeStore edges, int seed, ArrayList<Float> percentages, int step_index );
 
     public void initialize( Configuration  conf );
 }
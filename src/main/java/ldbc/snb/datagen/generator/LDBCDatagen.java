@@ -38,10 +38,11 @@ package ldbc.snb.datagen.generator;
 
 import ldbc.snb.datagen.dictionary.Dictionaries;
 import ldbc.snb.datagen.hadoop.*;
+import ldbc.snb.datagen.local.LocalEngine;
 import ldbc.snb.datagen.objects.Person;
 import ldbc.snb.datagen.objects.similarity.GeoDistanceSimilarity;
 import ldbc.snb.datagen.util.ConfigParser;
-import ldbc.snb.datagen.vocabulary.SN;
+import ldbc.snb.datagen.util.Metrics;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
@@ -59,11 +60,12 @@ import java.util.Properties;
 public class LDBCDatagen {
 
     static boolean initialized = false;
+    private static volatile GeneratorContext context = null;
     public static synchronized void init (Configuration conf) {
         if(!initialized) {
             DatagenParams.readConf(conf);
             Dictionaries.loadDictionaries(conf);
-            SN.initialize();
+            context = new GeneratorContext(conf);
             try {
                 Person.personSimilarity = (Person.PersonSimilarity) Class.forName(conf.get("ldbc.snb.datagen.generator.person.similarity")).newInstance();
             } catch(Exception e) {
@@ -74,6 +76,11 @@ public class LDBCDatagen {
         }
     }
 
+    /** Returns the context shared by all the generators of this JVM, built by init.**/
+    public static GeneratorContext context() {
+        return context;
+    }
+
     private void printProgress(String message) {
         System.out.println("************************************************");
         System.out.println("* " + message + " *");
@@ -92,38 +99,67 @@ public class LDBCDatagen {
         //percentages.add(1.0f);
         //percentages.add(0.1f);
 
+        // When enabled, the stages run in this JVM on a pool of numThreads workers instead of as Hadoop jobs.
+        boolean localEngine = conf.getBoolean("ldbc.snb.datagen.generator.localEngine", false);
+        LocalEngine engine = null;
+        if(localEngine) {
+            engine = new LocalEngine(conf);
+        }
+        // When enabled, the knows steps only write compact edge lists, which are merged and joined back with the persons at the end.
+        boolean fusedKnows = conf.getBoolean("ldbc.snb.datagen.generator.fusedKnows", false);
+        // When enabled, the tasks read the dictionaries loaded by this JVM from a snapshot instead of parsing them.
+        if(!localEngine && conf.getBoolean("ldbc.snb.datagen.generator.dictionarySnapshot", true)) {
+            String snapshotFile = hadoopPrefix + "/dictionaries.snapshot";
+            Dictionaries.writeSnapshot(conf, snapshotFile);
+            conf.set("ldbc.snb.datagen.generator.dictionarySnapshot.file", snapshotFile);
+        }
 
         long start = System.currentTimeMillis();
         printProgress("Starting: Person generation");
         long startPerson = System.currentTimeMillis();
-        HadoopPersonGenerator personGenerator = new HadoopPersonGenerator( conf );
-        personGenerator.run(hadoopPrefix+"/persons", "ldbc.snb.datagen.hadoop.UniversityKeySetter");
+        if(localEngine) {
+            engine.generatePersons();
+        } else {
+            HadoopPersonGenerator personGenerator = new HadoopPersonGenerator( conf );
+            personGenerator.run(hadoopPrefix+"/persons", "ldbc.snb.datagen.hadoop.UniversityKeySetter");
+        }
         long endPerson = System.currentTimeMillis();
 
         printProgress("Creating university location correlated edges");
         long startUniversity = System.currentTimeMillis();
-        HadoopKnowsGenerator knowsGenerator = new HadoopKnowsGenerator(conf,
-                                                                        "ldbc.snb.datagen.hadoop.UniversityKeySetter",
-                                                                        "ldbc.snb.datagen.hadoop.RandomKeySetter",
-                                                                        percentages,
-                                                                        0,
-                                                                        conf.get("ldbc.snb.datagen.generator.knowsGenerator"));
-
-        knowsGenerator.run(hadoopPrefix+"/persons",hadoopPrefix+"/universityEdges");
+        HadoopKnowsGenerator knowsGenerator;
+        if(localEngine) {
+            engine.generateKnows("ldbc.snb.datagen.hadoop.UniversityKeySetter", percentages, 0, conf.get("ldbc.snb.datagen.generator.knowsGenerator"));
+        } else {
+            knowsGenerator = new HadoopKnowsGenerator(conf,
+                                                      "ldbc.snb.datagen.hadoop.UniversityKeySetter",
+                                                      "ldbc.snb.datagen.hadoop.RandomKeySetter",
+                                                      percentages,
+                                                      0,
+                                                      conf.get("ldbc.snb.datagen.generator.knowsGenerator"),
+                                                      fusedKnows);
+
+            knowsGenerator.run(hadoopPrefix+"/persons",hadoopPrefix+"/universityEdges");
+        }
         long endUniversity = System.currentTimeMillis();
 
 
         printProgress("Creating main interest correlated edges");
         long startInterest= System.currentTimeMillis();
 
-        knowsGenerator = new HadoopKnowsGenerator(  conf,
-                                                    "ldbc.snb.datagen.hadoop.InterestKeySetter",
-                                                    "ldbc.snb.datagen.hadoop.RandomKeySetter",
-                                                    percentages,
-                                                    1,
-                                                    conf.get("ldbc.snb.datagen.generator.knowsGenerator"));
-
-        knowsGenerator.run(hadoopPrefix+"/persons",hadoopPrefix+"/interestEdges");
+        if(localEngine) {
+            engine.generateKnows("ldbc.snb.datagen.hadoop.InterestKeySetter", percentages, 1, conf.get("ldbc.snb.datagen.generator.knowsGenerator"));
+        } else {
+            knowsGenerator = new HadoopKnowsGenerator(  conf,
+                                                        "ldbc.snb.datagen.hadoop.InterestKeySetter",
+                                                        "ldbc.snb.datagen.hadoop.RandomKeySetter",
+                                                        percentages,
+                                                        1,
+                                                        conf.get("ldbc.snb.datagen.generator.knowsGenerator"),
+                                                        fusedKnows);
+
+            knowsGenerator.run(hadoopPrefix+"/persons",hadoopPrefix+"/interestEdges");
+        }
         long endInterest = System.currentTimeMillis();
 
 
@@ -131,29 +167,45 @@ public class LDBCDatagen {
         printProgress("Creating random correlated edges");
         long startRandom= System.currentTimeMillis();
 
-        knowsGenerator = new HadoopKnowsGenerator(  conf,
-                                                    "ldbc.snb.datagen.hadoop.RandomKeySetter",
-                                                    "ldbc.snb.datagen.hadoop.RandomKeySetter",
-                                                    percentages,
-                                                    2,
-                                                    "ldbc.snb.datagen.generator.RandomKnowsGenerator");
-
-        knowsGenerator.run(hadoopPrefix+"/persons",hadoopPrefix+"/randomEdges");
+        if(localEngine) {
+            engine.generateKnows("ldbc.snb.datagen.hadoop.RandomKeySetter", percentages, 2, "ldbc.snb.datagen.generator.RandomKnowsGenerator");
+        } else {
+            knowsGenerator = new HadoopKnowsGenerator(  conf,
+                                                        "ldbc.snb.datagen.hadoop.RandomKeySetter",
+                                                        "ldbc.snb.datagen.hadoop.RandomKeySetter",
+                                                        percentages,
+                                                        2,
+                                                        "ldbc.snb.datagen.generator.RandomKnowsGenerator",
+                                                        fusedKnows);
+
+            knowsGenerator.run(hadoopPrefix+"/persons",hadoopPrefix+"/randomEdges");
+        }
         long endRandom= System.currentTimeMillis();
 
 
 
 
 
-        fs.delete(new Path(DatagenParams.hadoopDir + "/persons"), true);
+        if(!fusedKnows || localEngine) {
+            fs.delete(new Path(DatagenParams.hadoopDir + "/persons"), true);
+        }
         printProgress("Merging the different edge files");
-        ArrayList<String> edgeFileNames = new ArrayList<String>();
-        edgeFileNames.add(hadoopPrefix+"/universityEdges");
-        edgeFileNames.add(hadoopPrefix+"/interestEdges");
-        edgeFileNames.add(hadoopPrefix+"/randomEdges");
         long startMerge = System.currentTimeMillis();
-        HadoopMergeFriendshipFiles merger = new HadoopMergeFriendshipFiles(conf,"ldbc.snb.datagen.hadoop.RandomKeySetter");
-        merger.run(hadoopPrefix+"/mergedPersons", edgeFileNames);
+        if(localEngine) {
+            engine.mergeKnows();
+        } else {
+            ArrayList<String> edgeFileNames = new ArrayList<String>();
+            edgeFileNames.add(hadoopPrefix+"/universityEdges");
+            edgeFileNames.add(hadoopPrefix+"/interestEdges");
+            edgeFileNames.add(hadoopPrefix+"/randomEdges");
+            HadoopMergeFriendshipFiles merger = new HadoopMergeFriendshipFiles(conf,"ldbc.snb.datagen.hadoop.RandomKeySetter");
+            if(fusedKnows) {
+                merger.runFused(hadoopPrefix+"/mergedPersons", hadoopPrefix+"/persons", edgeFileNames);
+                fs.delete(new Path(DatagenParams.hadoopDir + "/persons"), true);
+            } else {
+                merger.run(hadoopPrefix+"/mergedPersons", edgeFileNames);
+            }
+        }
         long endMerge = System.currentTimeMillis();
         /*printProgress("Creating edges to fill the degree gap");
         long startGap = System.currentTimeMillis();
@@ -165,7 +217,9 @@ public class LDBCDatagen {
 
         printProgress("Serializing persons");
         long startPersonSerializing= System.currentTimeMillis();
-        if(conf.getBoolean("ldbc.snb.datagen.serializer.persons.sort",false) == false) {
+        if(localEngine) {
+            engine.serializePersons(conf.getBoolean("ldbc.snb.datagen.serializer.persons.sort",false));
+        } else if(conf.getBoolean("ldbc.snb.datagen.serializer.persons.sort",false) == false) {
             HadoopPersonSerializer serializer = new HadoopPersonSerializer(conf);
             serializer.run(hadoopPrefix + "/mergedPersons");
         } else {
@@ -177,8 +231,12 @@ public class LDBCDatagen {
         long startPersonActivity= System.currentTimeMillis();
         if(conf.getBoolean("ldbc.snb.datagen.generator.activity", true)) {
             printProgress("Generating and serializing person activity");
-            HadoopPersonActivityGenerator activityGenerator = new HadoopPersonActivityGenerator(conf);
-            activityGenerator.run(hadoopPrefix+"/mergedPersons");
+            if(localEngine) {
+                engine.generateActivity();
+            } else {
+                HadoopPersonActivityGenerator activityGenerator = new HadoopPersonActivityGenerator(conf);
+                activityGenerator.run(hadoopPrefix+"/mergedPersons");
+            }
 
             int numThreads = DatagenParams.numThreads;
             int blockSize = DatagenParams.blockSize;
@@ -198,39 +256,9 @@ public class LDBCDatagen {
 
         if(conf.getBoolean("ldbc.snb.datagen.serializer.updateStreams", false)) {
 
-            printProgress("Sorting update streams ");
-
-            int blockSize = DatagenParams.blockSize;
-            int numBlocks = (int)Math.ceil(DatagenParams.numPersons / (double)blockSize);
-
-            List<String> personStreamsFileNames = new ArrayList<String>();
-            List<String> forumStreamsFileNames = new ArrayList<String>();
-            for( int i = 0; i < DatagenParams.numThreads; ++i) {
-                int numPartitions = conf.getInt("ldbc.snb.datagen.serializer.numUpdatePartitions", 1);
-                //if( i < numBlocks ) {
-                    for (int j = 0; j < numPartitions; ++j) {
-                        personStreamsFileNames.add(DatagenParams.hadoopDir + "/temp_updateStream_person_" + i + "_" + j);
-                        if( conf.getBoolean("ldbc.snb.datagen.generator.activity", false)) {
-                            forumStreamsFileNames.add(DatagenParams.hadoopDir + "/temp_updateStream_forum_" + i + "_" + j);
-                        }
-                    }
-                /*} else {
-                    for (int j = 0; j < numPartitions; ++j) {
-                        fs.delete(new Path(DatagenParams.hadoopDir + "/temp_updateStream_person_" + i + "_" + j), true);
-                        fs.delete(new Path(DatagenParams.hadoopDir + "/temp_updateStream_forum_" + i + "_" + j), true);
-                    }
-                } */
-            }
-            HadoopUpdateStreamSorterAndSerializer updateSorterAndSerializer = new HadoopUpdateStreamSorterAndSerializer(conf);
-            updateSorterAndSerializer.run(personStreamsFileNames, "person");
-            updateSorterAndSerializer.run(forumStreamsFileNames, "forum");
-            for(String file : personStreamsFileNames) {
-                fs.delete(new Path(file), true);
-            }
-
-            for(String file : forumStreamsFileNames) {
-                fs.delete(new Path(file), true);
-            }
+            // The update streams are already sorted and written by the UpdateEventSerializer of each reducer,
+            // only their properties are left to merge.
+            printProgress("Merging update stream properties ");
 
             /*for( int i = 0; i < DatagenParams.numThreads; ++i) {
                 int numPartitions = conf.getInt("ldbc.snb.datagen.serializer.numUpdatePartitions", 1);
@@ -308,6 +336,10 @@ public class LDBCDatagen {
         invariantSerializer.run();
         long endInvariantSerializing= System.currentTimeMillis();
 
+        if(localEngine) {
+            engine.close();
+        }
+
         long end = System.currentTimeMillis();
 
         System.out.println(((end - start) / 1000)
@@ -323,6 +355,18 @@ public class LDBCDatagen {
         System.out.println("Invariant schema serialization time: "+((endInvariantSerializing - startInvariantSerializing) / 1000));
         System.out.println("Total Execution time: "+((end - start) / 1000));
 
+        Metrics.add(Metrics.STAGES, "personGeneration", endPerson - startPerson);
+        Metrics.add(Metrics.STAGES, "universityKnows", endUniversity - startUniversity);
+        Metrics.add(Metrics.STAGES, "interestKnows", endInterest - startInterest);
+        Metrics.add(Metrics.STAGES, "randomKnows", endRandom - startRandom);
+        Metrics.add(Metrics.STAGES, "mergeKnows", endMerge - startMerge);
+        Metrics.add(Metrics.STAGES, "personSerialization", endPersonSerializing - startPersonSerializing);
+        Metrics.add(Metrics.STAGES, "personActivity", endPersonActivity - startPersonActivity);
+        Metrics.add(Metrics.STAGES, "updateStreams", endSortingUpdateStreams - startSortingUpdateStreams);
+        Metrics.add(Metrics.STAGES, "invariantSerialization", endInvariantSerializing - startInvariantSerializing);
+        Metrics.add(Metrics.STAGES, "total", end - start);
+        Metrics.writeReport(conf, DatagenParams.socialNetworkDir+"/runReport.json");
+
         if(conf.getBoolean("ldbc.snb.datagen.parametergenerator.parameters",false) && conf.getBoolean("ldbc.snb.datagen.generator.activity",false)) {
             System.out.println("Running Parameter Generation");
             System.out.println("Generating Interactive Parameters");
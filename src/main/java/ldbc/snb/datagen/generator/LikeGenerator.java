@@ -32,7 +32,7 @@ public class LikeGenerator {
 		this.like = new Like();
 	}
 
-	public void generateLikes(Random random, final Forum forum, final Message message, LikeType type, PersonActivityExporter exporter) throws IOException {
+	public void generateLikes(GeneratorContext context, Random random, final Forum forum, final Message message, LikeType type, PersonActivityExporter exporter) throws IOException {
 		int numMembers = forum.memberships().size();
 		int numLikes = likesGenerator_.getValue(random);
 		numLikes = numLikes >= numMembers ?  numMembers : numLikes;
@@ -45,7 +45,7 @@ public class LikeGenerator {
 			ForumMembership membership = memberships.get(startIndex+i);
 			long minDate = message.creationDate() > memberships.get(startIndex+i).creationDate() ? message.creationDate() : membership.creationDate();
 			//long date = Math.max(Dictionaries.dates.randomSevenDays(random),DatagenParams.deltaTime) + minDate;
-			long date = Dictionaries.dates.randomDate(random, minDate, Dictionaries.dates.randomSevenDays(random) + minDate);
+			long date = context.dates.randomDate(random, minDate, context.dates.randomSevenDays(random) + minDate);
 			/*if( date <= Dictionaries.dates.getEndDateTime() )*/ {
 				assert((membership.person().creationDate() + DatagenParams.deltaTime) < date);
 				like.user = membership.person().accountId();
@@ -1,21 +1,27 @@
 
 package ldbc.snb.datagen.generator;
 
-import ldbc.snb.datagen.dictionary.Dictionaries;
 import ldbc.snb.datagen.objects.*;
 import ldbc.snb.datagen.serializer.PersonActivityExporter;
+import ldbc.snb.datagen.serializer.PersonActivityRecorder;
 import ldbc.snb.datagen.serializer.PersonActivitySerializer;
 import ldbc.snb.datagen.serializer.UpdateEventSerializer;
 import ldbc.snb.datagen.util.FactorTable;
 import ldbc.snb.datagen.util.RandomGeneratorFarm;
-import ldbc.snb.datagen.vocabulary.SN;
 
 import org.apache.hadoop.mapreduce.Reducer.Context;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class PersonActivityGenerator {
 
@@ -30,27 +36,54 @@ public class PersonActivityGenerator {
 	private UpdateEventSerializer updateSerializer_ = null;
 	private long forumId = 0;
 	private long messageId = 0;
+	private GeneratorContext baseContext_;
+	private GeneratorContext context_;     /** The context of the block being generated.**/
     private FactorTable factorTable_;
     private PersonActivityExporter exporter_;
+	private int activityThreads_ = 1;      /** The number of threads generating the activity of a block.**/
+	private int idShift_;                  /** The bits of the local ids of forums and messages reserved per person.**/
+	private ExecutorService pool_ = null;
+	private ArrayBlockingQueue<PersonActivityGenerator> idleWorkers_ = null;
 
-	public PersonActivityGenerator( PersonActivitySerializer serializer, UpdateEventSerializer updateSerializer ) {
+	private static final int CHUNKS_PER_THREAD = 8;
+	private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+
+	public PersonActivityGenerator( GeneratorContext context, PersonActivitySerializer serializer, UpdateEventSerializer updateSerializer ) {
+		this(context, serializer, updateSerializer, null);
+	}
+
+	/**
+	 * @param context The context the blocks are generated in.
+	 * @param exporter The exporter receiving the generated activity. If null, the activity is exported to the
+	 *                 serializers, accounting it in the factor table of this generator.
+	 */
+	public PersonActivityGenerator( GeneratorContext context, PersonActivitySerializer serializer, UpdateEventSerializer updateSerializer, PersonActivityExporter exporter ) {
+		baseContext_ = context;
+		context_ = context;
 		randomFarm_ = new RandomGeneratorFarm();
 		personActivitySerializer_ = serializer;
 		updateSerializer_ = updateSerializer;
 		forumGenerator_ = new ForumGenerator();
-		TextGenerator generator = new LdbcSnbTextGenerator(randomFarm_.get(RandomGeneratorFarm.Aspect.LARGE_TEXT), Dictionaries.tags);
+		TextGenerator generator = new LdbcSnbTextGenerator(randomFarm_.get(RandomGeneratorFarm.Aspect.LARGE_TEXT), context.tags);
         likeGenerator_ = new LikeGenerator();
         commentGenerator_ = new CommentGenerator(generator, likeGenerator_);
 		uniformPostGenerator_ = new UniformPostGenerator(generator, commentGenerator_, likeGenerator_);
 		flashmobPostGenerator_ = new FlashmobPostGenerator(generator, commentGenerator_, likeGenerator_);
 		photoGenerator_ = new PhotoGenerator(likeGenerator_);
         factorTable_ = new FactorTable();
-        exporter_ = new PersonActivityExporter(personActivitySerializer_, updateSerializer_, factorTable_);
+        exporter_ = exporter != null ? exporter : new PersonActivityExporter(personActivitySerializer_, updateSerializer_, factorTable_);
+		// Local ids of forums and messages have 36 bits, see GeneratorContext.composeId.
+		idShift_ = 36 - (64 - Long.numberOfLeadingZeros(Math.max(1, DatagenParams.blockSize - 1)));
+		activityThreads_ = Math.max(1, context.conf.getInt("ldbc.snb.datagen.generator.activityThreads", 1));
+		if( activityThreads_ > 1 && !randomFarm_.isSplittable() ) {
+			System.out.println("Activity of a block is generated by a single thread, as it requires splittable random generators");
+			activityThreads_ = 1;
+		}
 	}
 
 	private void generateActivity( Person person, ArrayList<Person> block ) throws IOException {
         try {
-            factorTable_.extractFactors(person);
+            exporter_.extractFactors(person);
             generateWall(person, block);
             generateGroups(person, block);
             generateAlbums(person, block);
@@ -68,7 +101,7 @@ public class PersonActivityGenerator {
 
 	private void generateWall( Person person, ArrayList<Person> block ) throws IOException {
 		// generate wall
-		Forum wall = forumGenerator_.createWall(randomFarm_, forumId++, person);
+		Forum wall = forumGenerator_.createWall(context_, randomFarm_, forumId++, person);
 		exporter_.export(wall);
 		for( ForumMembership fm : wall.memberships()) {
 			exporter_.export(fm);
@@ -80,8 +113,8 @@ public class PersonActivityGenerator {
 		);
 		ArrayList<ForumMembership> fakeMembers = new ArrayList<ForumMembership>();
 		fakeMembers.add(personMembership);
-		messageId = uniformPostGenerator_.createPosts(randomFarm_, wall, fakeMembers , numPostsPerGroup(randomFarm_, wall, DatagenParams.maxNumPostPerMonth, DatagenParams.maxNumFriends), messageId, exporter_);
-		messageId = flashmobPostGenerator_.createPosts(randomFarm_, wall, fakeMembers, numPostsPerGroup(randomFarm_, wall, DatagenParams.maxNumFlashmobPostPerMonth, DatagenParams.maxNumFriends), messageId, exporter_ );
+		messageId = uniformPostGenerator_.createPosts(context_, randomFarm_, wall, fakeMembers , numPostsPerGroup(randomFarm_, wall, DatagenParams.maxNumPostPerMonth, DatagenParams.maxNumFriends), messageId, exporter_);
+		messageId = flashmobPostGenerator_.createPosts(context_, randomFarm_, wall, fakeMembers, numPostsPerGroup(randomFarm_, wall, DatagenParams.maxNumFlashmobPostPerMonth, DatagenParams.maxNumFriends), messageId, exporter_ );
 	}
 
 	private void generateGroups( Person person, ArrayList<Person> block ) throws IOException  {
@@ -90,7 +123,7 @@ public class PersonActivityGenerator {
 		if (moderatorProb <= DatagenParams.groupModeratorProb) {
 			int numGroup = randomFarm_.get(RandomGeneratorFarm.Aspect.NUM_FORUM).nextInt(DatagenParams.maxNumGroupCreatedPerUser)+1;
 			for (int j = 0; j < numGroup; j++) {
-				Forum group = forumGenerator_.createGroup(randomFarm_, forumId++, person, block);
+				Forum group = forumGenerator_.createGroup(context_, randomFarm_, forumId++, person, block);
 				exporter_.export(group);
 
 				for( ForumMembership fm : group.memberships()) {
@@ -98,8 +131,8 @@ public class PersonActivityGenerator {
 				}
 
 				// generate uniform posts/comments
-				messageId = uniformPostGenerator_.createPosts(randomFarm_, group, group.memberships(), numPostsPerGroup(randomFarm_, group, DatagenParams.maxNumGroupPostPerMonth, DatagenParams.maxNumMemberGroup), messageId, exporter_);
-				messageId = flashmobPostGenerator_.createPosts(randomFarm_, group, group.memberships(), numPostsPerGroup(randomFarm_, group, DatagenParams.maxNumGroupFlashmobPostPerMonth, DatagenParams.maxNumMemberGroup),messageId, exporter_);
+				messageId = uniformPostGenerator_.createPosts(context_, randomFarm_, group, group.memberships(), numPostsPerGroup(randomFarm_, group, DatagenParams.maxNumGroupPostPerMonth, DatagenParams.maxNumMemberGroup), messageId, exporter_);
+				messageId = flashmobPostGenerator_.createPosts(context_, randomFarm_, group, group.memberships(), numPostsPerGroup(randomFarm_, group, DatagenParams.maxNumGroupFlashmobPostPerMonth, DatagenParams.maxNumMemberGroup),messageId, exporter_);
 			}
 		}
 
@@ -107,13 +140,13 @@ public class PersonActivityGenerator {
 
 	private void generateAlbums(Person person, ArrayList<Person> block ) throws IOException {
 		// generate albums
-		int numOfmonths = (int) Dictionaries.dates.numberOfMonths(person);
+		int numOfmonths = (int) context_.dates.numberOfMonths(person);
 		int numPhotoAlbums = randomFarm_.get(RandomGeneratorFarm.Aspect.NUM_PHOTO_ALBUM).nextInt(DatagenParams.maxNumPhotoAlbumsPerMonth+1);
 		if (numOfmonths != 0) {
 			numPhotoAlbums = numOfmonths * numPhotoAlbums;
 		}
 		for (int i = 0; i < numPhotoAlbums; i++) {
-			Forum album = forumGenerator_.createAlbum(randomFarm_, forumId++, person, i);
+			Forum album = forumGenerator_.createAlbum(context_, randomFarm_, forumId++, person, i);
 			exporter_.export(album);
 
 			for( ForumMembership fm : album.memberships()) {
@@ -126,13 +159,13 @@ public class PersonActivityGenerator {
 			ArrayList<ForumMembership> fakeMembers = new ArrayList<ForumMembership>();
 			fakeMembers.add(personMembership);
 			int numPhotos = randomFarm_.get(RandomGeneratorFarm.Aspect.NUM_PHOTO).nextInt(DatagenParams.maxNumPhotoPerAlbums+1);
-			messageId = photoGenerator_.createPhotos(randomFarm_, album, fakeMembers, numPhotos, messageId, exporter_);
+			messageId = photoGenerator_.createPhotos(context_, randomFarm_, album, fakeMembers, numPhotos, messageId, exporter_);
 		}
 	}
 	
 	private int numPostsPerGroup( RandomGeneratorFarm randomFarm, Forum forum, int maxPostsPerMonth, int maxMembersPerForum ) {
 		Random random = randomFarm.get(RandomGeneratorFarm.Aspect.NUM_POST);
-		int numOfmonths = (int) Dictionaries.dates.numberOfMonths(forum.creationDate());
+		int numOfmonths = (int) context_.dates.numberOfMonths(forum.creationDate());
 		int numberPost = 0;
 		if (numOfmonths == 0) {
 			numberPost = random.nextInt(maxPostsPerMonth+1);
@@ -146,18 +179,19 @@ public class PersonActivityGenerator {
 		randomFarm_.resetRandomGenerators(seed);
 		forumId = 0;
 		messageId = 0;
-		SN.machineId = seed;
-		personActivitySerializer_.reset();
+		context_ = baseContext_.forBlock(seed);
+		exporter_.reset(context_);
+		if( activityThreads_ > 1 ) {
+			generateActivityInParallel(seed, block, context);
+			return;
+		}
 		int counter = 0;
         float personGenerationTime = 0.0f;
         long initTime = System.currentTimeMillis();
 		for( Person p : block ) {
 			long start = System.currentTimeMillis();
-			generateActivity(p, block);
-			if( DatagenParams.updateStreams ) {
-				updateSerializer_.changePartition();
-			}
-			if( counter % 1000 == 0 ) {
+			generateActivity(seed, counter, p, block);
+			if( context != null && counter % 1000 == 0 ) {
 				context.setStatus("Generating activity of person "+counter+" of block"+seed);
 				context.progress();
 			}
@@ -169,6 +203,109 @@ public class PersonActivityGenerator {
         System.out.println("Average person activity generation time "+personGenerationTime / (float)block.size());
 	}
 
+	/** Generates the activity of a person of the block. With splittable random generators, the random streams and
+	 *  the ids of the forums and messages of the person only depend on the block and on the index of the person,
+	 *  so persons can be generated in any order.**/
+	private void generateActivity( int seed, int index, Person person, ArrayList<Person> block ) throws IOException {
+		long firstId = (long) index << idShift_;
+		if( randomFarm_.isSplittable() ) {
+			randomFarm_.resetRandomGenerators(RandomGeneratorFarm.Stage.ACTIVITY, seed, index);
+			forumId = firstId;
+			messageId = firstId;
+		}
+		generateActivity(person, block);
+		if( randomFarm_.isSplittable() && Math.max(forumId, messageId) - firstId > (1L << idShift_) ) {
+			// The ids of the next person would collide with the ones of this person.
+			throw new IllegalStateException("Activity of person "+index+" of block "+seed+" exceeds its range of "+(1L << idShift_)+" ids, use a smaller block size");
+		}
+		if( DatagenParams.updateStreams ) {
+			exporter_.changePartition();
+		}
+	}
+
+	/** Generates the activity of a block in chunks of consecutive persons, which are generated concurrently by
+	 *  worker generators into recorders, and exported in the order of the block. Since every person has its own
+	 *  random streams and ids, the output is the same as the one of a single thread. Only a window of chunks is
+	 *  submitted at a time, and the next one is submitted when the first of the window is exported, so that the
+	 *  recorded activity held in memory does not grow with the size of the block.**/
+	private void generateActivityInParallel( final int seed, final ArrayList<Person> block, Context context ) throws IOException {
+		if( pool_ == null ) {
+			pool_ = Executors.newFixedThreadPool(activityThreads_);
+			idleWorkers_ = new ArrayBlockingQueue<PersonActivityGenerator>(activityThreads_);
+			for( int i = 0; i < activityThreads_; ++i ) {
+				PersonActivityGenerator worker = new PersonActivityGenerator(baseContext_, null, null, new PersonActivityRecorder());
+				worker.activityThreads_ = 1;
+				idleWorkers_.add(worker);
+			}
+		}
+		int chunkSize = Math.max(1, block.size() / (activityThreads_ * CHUNKS_PER_THREAD));
+		int numChunks = (block.size() + chunkSize - 1) / chunkSize;
+		int window = activityThreads_ * CHUNKS_IN_FLIGHT_PER_THREAD;
+		ArrayDeque<Future<PersonActivityRecorder>> chunks = new ArrayDeque<Future<PersonActivityRecorder>>();
+		for( int i = 0; i < Math.min(window, numChunks); ++i ) {
+			chunks.add(submitChunk(seed, block, i * chunkSize, Math.min(block.size(), (i + 1) * chunkSize)));
+		}
+		for( int i = 0; i < numChunks; ++i ) {
+			PersonActivityRecorder recorder;
+			try {
+				recorder = chunks.poll().get();
+			} catch( InterruptedException e ) {
+				throw new IOException("Interrupted while generating activity of block "+seed, e);
+			} catch( ExecutionException e ) {
+				throw new IOException("Error generating activity of block "+seed, e.getCause());
+			}
+			recorder.replay(exporter_);
+			int next = i + window;
+			if( next < numChunks ) {
+				chunks.add(submitChunk(seed, block, next * chunkSize, Math.min(block.size(), (next + 1) * chunkSize)));
+			}
+			if( context != null ) {
+				context.setStatus("Generating activity of person "+(i * chunkSize)+" of block"+seed);
+				context.progress();
+			}
+		}
+	}
+
+	/** Submits the generation of the activity of the persons of a block in [from, to) to an idle worker.**/
+	private Future<PersonActivityRecorder> submitChunk( final int seed, final ArrayList<Person> block, final int from, final int to ) {
+		return pool_.submit(new Callable<PersonActivityRecorder>() {
+			public PersonActivityRecorder call() throws Exception {
+				PersonActivityGenerator worker = idleWorkers_.take();
+				try {
+					return worker.generateActivityForPersons(seed, block, from, to);
+				} finally {
+					idleWorkers_.add(worker);
+				}
+			}
+		});
+	}
+
+	/** Generates the activity of the persons of a block in [from, to), into a new recorder.**/
+	private PersonActivityRecorder generateActivityForPersons( int seed, ArrayList<Person> block, int from, int to ) throws IOException {
+		PersonActivityRecorder recorder = new PersonActivityRecorder();
+		exporter_ = recorder;
+		context_ = baseContext_.forBlock(seed);
+		for( int i = from; i < to; ++i ) {
+			generateActivity(seed, i, block.get(i), block);
+		}
+		return recorder;
+	}
+
+	/** Stops the threads generating activity within a block, if any.**/
+	public void close() {
+		if( pool_ != null ) {
+			pool_.shutdown();
+		}
+	}
+
+
+	/** Exports activity previously generated by another generator, as if it had been generated by this one.
+	 *
+	 * @param recorder The recorder holding the activity.
+	 */
+	public void export( PersonActivityRecorder recorder ) throws IOException {
+		recorder.replay(exporter_);
+	}
 
     public void writeActivityFactors( OutputStream writer) {
         factorTable_.writeActivityFactors(writer);
@@ -37,11 +37,9 @@
 
 package ldbc.snb.datagen.generator;
 
-import ldbc.snb.datagen.dictionary.Dictionaries;
 import ldbc.snb.datagen.objects.*;
 import ldbc.snb.datagen.serializer.PersonActivityExporter;
 import ldbc.snb.datagen.util.RandomGeneratorFarm;
-import ldbc.snb.datagen.vocabulary.SN;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -81,7 +79,7 @@ abstract public class PostGenerator {
 	}
 	
 	
-	public long createPosts(RandomGeneratorFarm randomFarm, final Forum forum, final ArrayList<ForumMembership> memberships, long numPosts, long startId, PersonActivityExporter exporter) throws IOException {
+	public long createPosts(GeneratorContext context, RandomGeneratorFarm randomFarm, final Forum forum, final ArrayList<ForumMembership> memberships, long numPosts, long startId, PersonActivityExporter exporter) throws IOException {
 		long postId = startId;
 		Properties prop = new Properties();
 		prop.setProperty("type","post");
@@ -95,38 +93,38 @@ abstract public class PostGenerator {
 				numPostsMember = Math.ceil(numPostsMember);
 			}
 			for( int i = 0; i < (int)(numPostsMember); ++i ) {
-				PostInfo postInfo = generatePostInfo(randomFarm.get(RandomGeneratorFarm.Aspect.TAG), randomFarm.get(RandomGeneratorFarm.Aspect.DATE), forum, member);
+				PostInfo postInfo = generatePostInfo(context, randomFarm.get(RandomGeneratorFarm.Aspect.TAG), randomFarm.get(RandomGeneratorFarm.Aspect.DATE), forum, member);
 				if( postInfo != null ) {
 					
 					String content = "";
 					
 					// crear properties class para passar
 					content = this.generator_.generateText(member.person(), postInfo.tags,prop);
-					post_.initialize( SN.formId(SN.composeId(postId++,postInfo.date)),
+					post_.initialize( context.formId(context.composeId(postId++,postInfo.date)),
 						postInfo.date,
 						member.person(),
 						forum.id(),
 						content,
 						postInfo.tags,
-						Dictionaries.ips.getIP(randomFarm.get(RandomGeneratorFarm.Aspect.IP), randomFarm.get(RandomGeneratorFarm.Aspect.DIFF_IP), randomFarm.get(RandomGeneratorFarm.Aspect.DIFF_IP_FOR_TRAVELER), member.person().ipAddress(), postInfo.date),
-						Dictionaries.browsers.getPostBrowserId(randomFarm.get(RandomGeneratorFarm.Aspect.DIFF_BROWSER), randomFarm.get(RandomGeneratorFarm.Aspect.BROWSER), member.person().browserId()),
+						context.ips.getIP(randomFarm.get(RandomGeneratorFarm.Aspect.IP), randomFarm.get(RandomGeneratorFarm.Aspect.DIFF_IP), randomFarm.get(RandomGeneratorFarm.Aspect.DIFF_IP_FOR_TRAVELER), member.person().ipAddress(), postInfo.date),
+						context.browsers.getPostBrowserId(randomFarm.get(RandomGeneratorFarm.Aspect.DIFF_BROWSER), randomFarm.get(RandomGeneratorFarm.Aspect.BROWSER), member.person().browserId()),
 						forum.language());
 					if (randomFarm.get(RandomGeneratorFarm.Aspect.POST_COUNTRY).nextDouble() > 0.02)
 					    post_.countryKnown(false);
 					exporter.export(post_);
 
 					if( randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE).nextDouble() <= 0.1 ) {
-						likeGenerator_.generateLikes(randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE), forum, post_, Like.LikeType.POST, exporter);
+						likeGenerator_.generateLikes(context, randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE), forum, post_, Like.LikeType.POST, exporter);
 					}
 
 					//// generate comments
 					int numComments = randomFarm.get(RandomGeneratorFarm.Aspect.NUM_COMMENT).nextInt(DatagenParams.maxNumComments+1);
-					postId = commentGenerator_.createComments(randomFarm, forum, post_, numComments, postId, exporter);
+					postId = commentGenerator_.createComments(context, randomFarm, forum, post_, numComments, postId, exporter);
 				}
 			}
 		}
 		return postId;
 	}
 	
-	protected abstract PostInfo generatePostInfo( Random randomTag, Random randomDate, final Forum forum, final ForumMembership membership );
+	protected abstract PostInfo generatePostInfo( GeneratorContext context, Random randomTag, Random randomDate, final Forum forum, final ForumMembership membership );
 }
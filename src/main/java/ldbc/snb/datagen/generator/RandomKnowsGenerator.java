@@ -1,5 +1,6 @@
 package ldbc.snb.datagen.generator;
 
+import ldbc.snb.datagen.generator.tools.EdgeStore;
 import ldbc.snb.datagen.objects.Knows;
 import ldbc.snb.datagen.objects.Person;
 import org.apache.hadoop.conf.Configuration;
@@ -24,7 +25,7 @@ public class RandomKnowsGenerator implements KnowsGenerator {
 
 
 
-    public void generateKnows( ArrayList<Person> persons, int seed, ArrayList<Float> percentages, int step_index )  {
+    public void generateKnows( ArrayList<Person> persons, EdgeStore edges, int seed, ArrayList<Float> percentages, int step_index )  {
 
         rand.setSeed(seed);
         ArrayList<Integer> stubs = new ArrayList<Integer>();
@@ -46,9 +47,7 @@ public class RandomKnowsGenerator implements KnowsGenerator {
                 int second_index = stubs.get(second);
                 stubs.remove(second);
                 if(first_index != second_index ) {
-                    Person p1 = persons.get(first_index);
-                    Person p2 = persons.get(second_index);
-                    Knows.createKnow(rand, p1, p2);
+                    edges.createKnows(rand, first_index, second_index);
                 }
             }
         }
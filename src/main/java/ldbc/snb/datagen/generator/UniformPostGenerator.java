@@ -25,7 +25,7 @@ public class UniformPostGenerator extends PostGenerator {
 	}
 
 	@Override
-    protected PostInfo generatePostInfo( Random randomTag, Random randomDate, final Forum forum, final ForumMembership membership ) {
+    protected PostInfo generatePostInfo( GeneratorContext context, Random randomTag, Random randomDate, final Forum forum, final ForumMembership membership ) {
 	    PostInfo postInfo = new PostInfo();
 	    postInfo.tags = new TreeSet<Integer>();
 	    Iterator<Integer> it = forum.tags().iterator();
@@ -39,7 +39,7 @@ public class UniformPostGenerator extends PostGenerator {
 			    }
 		    }
 	    }
-	    postInfo.date = Dictionaries.dates.randomDate(randomDate,membership.creationDate()+DatagenParams.deltaTime);
+	    postInfo.date = context.dates.randomDate(randomDate,membership.creationDate()+DatagenParams.deltaTime);
 	    //if( postInfo.date > Dictionaries.dates.getEndDateTime() ) return null;
 	    return postInfo;
     }
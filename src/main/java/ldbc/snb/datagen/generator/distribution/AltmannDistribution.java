@@ -5,7 +5,7 @@ import ldbc.snb.datagen.generator.distribution.utils.Bucket;
 import ldbc.snb.datagen.generator.distribution.utils.BucketedDistribution;
 import org.apache.hadoop.conf.Configuration;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Created by aprat on 26/02/15.
@@ -18,24 +18,33 @@ public class AltmannDistribution extends CumulativeBasedDegreeDistribution {
     private double BETA_ = 0.0162;
 
 
-    public ArrayList<CumulativeEntry> cumulativeProbability( Configuration conf ) {
+    /** The probabilities decrease with the degree, so the sums stop changing once a term is too small to change
+     * them, and no later term can change them either. Both sums stop there, which gives the same values as summing
+     * over the whole population.
+     */
+    public double [] cumulativeProbability( Configuration conf ) {
         //throw new UnsupportedOperationException("Distribution not implemented");
         ALPHA_ = conf.getDouble("ldbc.snb.datagen.generator.distribution.AltmannDistribution.alpha",ALPHA_);
         BETA_ = conf.getDouble("ldbc.snb.datagen.generator.distribution.AltmannDistribution.beta",BETA_);
 
         POPULATION_ = DatagenParams.numPersons;
+        normalization_factor_ = 0.0;
         for( int i = 1; i <= POPULATION_; ++i ) {
-            normalization_factor_+= Math.pow(i,-ALPHA_)*Math.exp(-BETA_*i);
+            double next = normalization_factor_ + Math.pow(i,-ALPHA_)*Math.exp(-BETA_*i);
+            if( next == normalization_factor_ ) break;
+            normalization_factor_ = next;
         }
-        ArrayList<CumulativeEntry> cumulative = new ArrayList<CumulativeEntry>();
+        double [] cumulative = new double[64];
+        int size = 0;
         for( int i = 1; i <= POPULATION_; ++i) {
             double prob = Math.pow(i,-ALPHA_)*Math.exp(-BETA_*i) / normalization_factor_;
-            prob += cumulative.size() > 0 ? cumulative.get(i-2).prob_ : 0.0;
-            CumulativeEntry entry = new CumulativeEntry();
-            entry.prob_ = prob;
-            entry.value_ = i;
-            cumulative.add(entry);
+            prob += size > 0 ? cumulative[size-1] : 0.0;
+            if( size > 0 && prob == cumulative[size-1] ) break;
+            if( size == cumulative.length ) {
+                cumulative = Arrays.copyOf(cumulative, size * 2);
+            }
+            cumulative[size++] = prob;
         }
-        return cumulative;
+        return Arrays.copyOf(cumulative, size);
     }
 }
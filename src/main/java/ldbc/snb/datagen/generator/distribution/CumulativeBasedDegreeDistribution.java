@@ -1,26 +1,47 @@
 package ldbc.snb.datagen.generator.distribution;
 
+import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.util.DiscreteSampler;
 import org.apache.hadoop.conf.Configuration;
 
-import java.util.ArrayList;
 import java.util.Random;
 
 /**
  * Created by aprat on 12/05/15.
+ *
+ * A degree distribution over the degrees 1 to supportSize(), sampled by inverse transform of its cumulative
+ * probabilities. Subclasses only compute the prefix of the cumulative probabilities before they stop changing, so
+ * memory and setup time depend on the shape of the distribution and not on the number of persons.
  */
 public abstract class CumulativeBasedDegreeDistribution implements DegreeDistribution{
 
-    public class CumulativeEntry {
-        double prob_;
-        int value_;
-    }
-
-    private ArrayList<CumulativeEntry> cumulativeProbability_;
+    private double [] cumulativeProbability_;
+    private int supportSize_;
+    private DiscreteSampler sampler_ = null;
     private Random random_;
 
     public void initialize( Configuration conf ) {
         cumulativeProbability_ = cumulativeProbability( conf );
+        supportSize_ = supportSize();
         random_ = new Random();
+        if( DatagenParams.aliasSampling && supportSize_ > 1 ) {
+            // The lookup never returns the last degree of the support, so it is left out of the sampler.
+            int last = lastIndex();
+            boolean truncated = last < supportSize_ - 2;
+            double [] cumulative = new double[truncated ? last + 2 : last + 1];
+            int [] values = new int[cumulative.length];
+            for( int i = 0; i <= last; ++i ) {
+                cumulative[i] = cumulativeProbability_[i];
+                values[i] = i + 1;
+            }
+            if( truncated ) {
+                // The degrees after the prefix share its last cumulative probability, so only the largest one
+                // that the lookup can return gets the remaining probability.
+                cumulative[last + 1] = cumulativeProbability_[last];
+                values[last + 1] = supportSize_ - 1;
+            }
+            sampler_ = DiscreteSampler.fromLowerBounds(cumulative, values);
+        }
     }
 
     public void reset (long seed){
@@ -28,25 +49,56 @@ public abstract class CumulativeBasedDegreeDistribution implements DegreeDistrib
     }
 
     public long nextDegree() {
+        if( sampler_ != null ) {
+            return sampler_.sample(random_);
+        }
         double prob = random_.nextDouble();
-        int index = binarySearch(cumulativeProbability_,prob);
-        return cumulativeProbability_.get(index).value_;
+        return lookup(prob) + 1;
     }
 
-    private int binarySearch( ArrayList<CumulativeEntry> cumulative, double prob ) {
-        int upperBound = cumulative.size()-1;
+    /** The last index of the prefix of cumulative probabilities that the lookup can return.**/
+    private int lastIndex() {
+        return Math.min(cumulativeProbability_.length - 1, supportSize_ - 2);
+    }
+
+    /** Finds the largest index of a degree, excluding the last one of the support, whose cumulative probability is
+     * not larger than a probability, or the first index if there is none. For non decreasing cumulative
+     * probabilities, this is what the binary search over the whole support used to return.
+     *
+     * @param prob The probability to look up.
+     * @return The index of the degree.
+     */
+    private int lookup( double prob ) {
+        if( supportSize_ < 2 ) {
+            return 0;
+        }
+        int last = lastIndex();
+        if( last < supportSize_ - 2 && cumulativeProbability_[last] <= prob ) {
+            return supportSize_ - 2;
+        }
         int lowerBound = 0;
-        int midPoint = (upperBound + lowerBound)  / 2;
-        while (upperBound > (lowerBound+1)){
-            if (cumulative.get(midPoint).prob_ > prob ){
-                upperBound = midPoint;
-            } else{
+        int upperBound = last;
+        while( lowerBound < upperBound ) {
+            int midPoint = (lowerBound + upperBound + 1) >>> 1;
+            if( cumulativeProbability_[midPoint] > prob ) {
+                upperBound = midPoint - 1;
+            } else {
                 lowerBound = midPoint;
             }
-            midPoint = (upperBound + lowerBound)  / 2;
         }
-        return midPoint;
+        return lowerBound;
+    }
+
+    /** The number of degrees of the distribution.**/
+    public int supportSize() {
+        return DatagenParams.numPersons;
     }
 
-    public abstract ArrayList<CumulativeEntry> cumulativeProbability( Configuration conf );
+    /** Computes the cumulative probabilities of the degrees, in increasing order of degree. Only a prefix needs to
+     * be returned: the cumulative probabilities of the degrees after it are taken to be equal to its last element.
+     *
+     * @param conf The configuration.
+     * @return The prefix of the cumulative probabilities, with the one of degree i at position i-1.
+     */
+    public abstract double [] cumulativeProbability( Configuration conf );
 }
@@ -6,7 +6,7 @@ import ldbc.snb.datagen.generator.distribution.utils.BucketedDistribution;
 import org.apache.commons.math3.distribution.*;
 import org.apache.hadoop.conf.Configuration;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Created by aprat on 5/03/15.
@@ -20,18 +20,23 @@ public class DiscreteWeibullDistribution extends CumulativeBasedDegreeDistributi
     //private double P_ = 0.0448;
     private double P_ = 0.0205;
 
-    public ArrayList<CumulativeEntry> cumulativeProbability( Configuration conf ) {
+    /** The cumulative probabilities do not decrease, so they stop at the first one that reaches 1, which all the
+     * later ones are equal to.
+     */
+    public double [] cumulativeProbability( Configuration conf ) {
         BETA_ = conf.getDouble("ldbc.snb.datagen.generator.distribution.DiscreteWeibullDistribution.beta",BETA_);
         P_ = conf.getDouble("ldbc.snb.datagen.generator.distribution.DiscreteWeibullDistribution.p",P_);
-        ArrayList<CumulativeEntry> cumulative = new ArrayList<CumulativeEntry>();
+        double [] cumulative = new double[64];
+        int size = 0;
         for( int i = 0; i < DatagenParams.numPersons; ++i ) {
             //double prob = Math.pow(1.0-P_,Math.pow(i,BETA_))-Math.pow((1.0-P_),Math.pow(i+1,BETA_));
             double prob = 1.0-Math.pow((1.0-P_),Math.pow(i+1,BETA_));
-            CumulativeEntry entry = new CumulativeEntry();
-            entry.prob_ = prob;
-            entry.value_ = i+1;
-            cumulative.add(entry);
+            if( size == cumulative.length ) {
+                cumulative = Arrays.copyOf(cumulative, size * 2);
+            }
+            cumulative[size++] = prob;
+            if( prob >= 1.0 ) break;
         }
-        return cumulative;
+        return Arrays.copyOf(cumulative, size);
     }
 }
@@ -0,0 +1,241 @@
+package ldbc.snb.datagen.generator.tools;
+
+import ldbc.snb.datagen.objects.Knows;
+import ldbc.snb.datagen.objects.KnowsList;
+import ldbc.snb.datagen.objects.Person;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Block-local store of the knows edges created by a KnowsGenerator. Persons are referred by their index in the block,
+ * and each undirected edge is stored once, in parallel primitive arrays with its creation date and weight.
+ * Knows objects are only materialized when the block is written.
+ */
+public class EdgeStore {
+
+    private static final long EMPTY = -1L;
+
+    private ArrayList<Person> persons_;
+    private int [] degree_;
+    private int numEdges_ = 0;
+    private int [] first_;
+    private int [] second_;
+    private long [] dates_;
+    private float [] weights_;
+    private long [] table_;             /** Open addressing set with the edges already created, as (min << 32 | max).**/
+    private int [] csrOffsets_ = null;  /** Adjacency in compressed sparse row format, built on demand.**/
+    private int [] csrNeighbors_ = null;
+    private int [] csrEdges_ = null;
+
+    public EdgeStore( ArrayList<Person> persons ) {
+        persons_ = persons;
+        degree_ = new int[persons.size()];
+        int capacity = 16;
+        first_ = new int[capacity];
+        second_ = new int[capacity];
+        dates_ = new long[capacity];
+        weights_ = new float[capacity];
+        table_ = new long[2*capacity];
+        Arrays.fill(table_, EMPTY);
+    }
+
+    public int numPersons() {
+        return degree_.length;
+    }
+
+    public int numEdges() {
+        return numEdges_;
+    }
+
+    /** Returns the sum, over all the persons, of the number of edges of a knows step that were not created.
+     *
+     * @param percentages The percentages of edges to generate at each step.
+     * @param stepIndex The index of the step.
+     */
+    public long missedDegree( ArrayList<Float> percentages, int stepIndex ) {
+        long missed = 0;
+        for( int i = 0; i < degree_.length; ++i ) {
+            missed += Math.max(0, Knows.target_edges(persons_.get(i), percentages, stepIndex) - degree_[i]);
+        }
+        return missed;
+    }
+
+    public int degree( int person ) {
+        return degree_[person];
+    }
+
+    public int first( int edge ) {
+        return first_[edge];
+    }
+
+    public int second( int edge ) {
+        return second_[edge];
+    }
+
+    public long creationDate( int edge ) {
+        return dates_[edge];
+    }
+
+    public float weight( int edge ) {
+        return weights_[edge];
+    }
+
+    /** Removes all the edges.**/
+    public void clear() {
+        Arrays.fill(degree_, 0);
+        Arrays.fill(table_, EMPTY);
+        numEdges_ = 0;
+        csrOffsets_ = null;
+    }
+
+    private static long key( int personA, int personB ) {
+        return personA < personB ? ((long)personA << 32) | personB : ((long)personB << 32) | personA;
+    }
+
+    private int slot( long key ) {
+        int mask = table_.length - 1;
+        int slot = (int)((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        while( table_[slot] != EMPTY && table_[slot] != key ) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    public boolean contains( int personA, int personB ) {
+        return table_[slot(key(personA, personB))] != EMPTY;
+    }
+
+    private void grow() {
+        int capacity = 2*first_.length;
+        first_ = Arrays.copyOf(first_, capacity);
+        second_ = Arrays.copyOf(second_, capacity);
+        dates_ = Arrays.copyOf(dates_, capacity);
+        weights_ = Arrays.copyOf(weights_, capacity);
+        long [] old = table_;
+        table_ = new long[2*capacity];
+        Arrays.fill(table_, EMPTY);
+        for( long key : old ) {
+            if( key != EMPTY ) {
+                table_[slot(key)] = key;
+            }
+        }
+    }
+
+    /** Creates an edge between two persons of the block, with the same random draws and the same outcome
+     *  as Knows.createKnow.
+     *
+     * @param random The random number generator used to draw the creation date.
+     * @param personA The index of the first person.
+     * @param personB The index of the second person.
+     * @return True if the edge did not exist and has been created.
+     */
+    public boolean createKnows( Random random, int personA, int personB ) {
+        Person a = persons_.get(personA);
+        Person b = persons_.get(personB);
+        long creationDate = Knows.knowsCreationDate(random, a, b);
+        if( personA == personB ) return false;
+        long key = key(personA, personB);
+        int slot = slot(key);
+        if( table_[slot] != EMPTY ) return false;
+        if( numEdges_ == first_.length ) {
+            grow();
+            slot = slot(key);
+        }
+        table_[slot] = key;
+        first_[numEdges_] = personA;
+        second_[numEdges_] = personB;
+        dates_[numEdges_] = creationDate;
+        weights_[numEdges_] = Person.personSimilarity.Similarity(a, b);
+        numEdges_++;
+        degree_[personA]++;
+        degree_[personB]++;
+        csrOffsets_ = null;
+        return true;
+    }
+
+    /** Builds the adjacency of the block in compressed sparse row format, with the neighbors of each person
+     *  sorted by index. The result is cached until the store is modified.**/
+    private void buildCSR() {
+        if( csrOffsets_ != null ) return;
+        int numPersons = degree_.length;
+        int [] offsets = new int[numPersons+1];
+        for( int i = 0; i < numPersons; ++i ) {
+            offsets[i+1] = offsets[i] + degree_[i];
+        }
+        long [] entries = new long[2*numEdges_];
+        int [] next = Arrays.copyOf(offsets, numPersons);
+        for( int e = 0; e < numEdges_; ++e ) {
+            entries[next[first_[e]]++] = ((long)second_[e] << 32) | e;
+            entries[next[second_[e]]++] = ((long)first_[e] << 32) | e;
+        }
+        int [] neighbors = new int[entries.length];
+        int [] edges = new int[entries.length];
+        for( int i = 0; i < numPersons; ++i ) {
+            Arrays.sort(entries, offsets[i], offsets[i+1]);
+        }
+        for( int i = 0; i < entries.length; ++i ) {
+            neighbors[i] = (int)(entries[i] >>> 32);
+            edges[i] = (int)entries[i];
+        }
+        csrOffsets_ = offsets;
+        csrNeighbors_ = neighbors;
+        csrEdges_ = edges;
+    }
+
+    /** Returns the offsets of the adjacency of each person in neighbors() and edges().**/
+    public int [] offsets() {
+        buildCSR();
+        return csrOffsets_;
+    }
+
+    /** Returns the neighbors of all the persons, those of each person sorted by index.**/
+    public int [] neighbors() {
+        buildCSR();
+        return csrNeighbors_;
+    }
+
+    /** Returns the edge corresponding to each position of neighbors().**/
+    public int [] edges() {
+        buildCSR();
+        return csrEdges_;
+    }
+
+    /** Returns the edges of a person, sorted by target account id.
+     *
+     * @param person The index of the person.
+     * @return The edges of the person.
+     */
+    public KnowsList knowsList( int person ) {
+        buildCSR();
+        int begin = csrOffsets_[person];
+        int end = csrOffsets_[person+1];
+        long [] targets = new long[end - begin];
+        int [] order = new int[end - begin];
+        for( int i = begin; i < end; ++i ) {
+            targets[i - begin] = persons_.get(csrNeighbors_[i]).accountId();
+        }
+        long [] sorted = Arrays.copyOf(targets, targets.length);
+        Arrays.sort(sorted);
+        for( int i = 0; i < targets.length; ++i ) {
+            order[Arrays.binarySearch(sorted, targets[i])] = begin + i;
+        }
+        KnowsList list = new KnowsList(persons_.get(person).accountId(), targets.length);
+        for( int i = 0; i < order.length; ++i ) {
+            int edge = csrEdges_[order[i]];
+            list.add(sorted[i], dates_[edge], weights_[edge]);
+        }
+        return list;
+    }
+
+    /** Adds a Knows object for each edge to the two persons it connects.**/
+    public void materialize() {
+        for( int e = 0; e < numEdges_; ++e ) {
+            Person a = persons_.get(first_[e]);
+            Person b = persons_.get(second_[e]);
+            b.knows().add(new Knows(a, dates_[e], weights_[e]));
+            a.knows().add(new Knows(b, dates_[e], weights_[e]));
+        }
+    }
+}
@@ -52,4 +52,63 @@ public class GraphUtils {
         }
         return CC;
     }
+
+    /** Computes the local clustering coefficient of each person of a block, indexed as in the edge store.
+     *  Each triangle is found once, from its vertex with the smallest index, by merging the sorted adjacencies
+     *  of the two endpoints of an edge, so no set is allocated.
+     *
+     * @param edges The edges of the block.
+     * @return The clustering coefficient of each person.
+     */
+    public static double [] ClusteringCoefficientList( EdgeStore edges ) {
+        int numPersons = edges.numPersons();
+        int [] offsets = edges.offsets();
+        int [] neighbors = edges.neighbors();
+        long [] triangles = new long[numPersons];
+        for( int u = 0; u < numPersons; ++u ) {
+            int endU = offsets[u+1];
+            for( int k = offsets[u]; k < endU; ++k ) {
+                int v = neighbors[k];
+                if( v <= u ) continue;
+                int endV = offsets[v+1];
+                int i = k + 1;
+                int j = upperBound(neighbors, offsets[v], endV, v);
+                while( i < endU && j < endV ) {
+                    int a = neighbors[i];
+                    int b = neighbors[j];
+                    if( a < b ) {
+                        i++;
+                    } else if( a > b ) {
+                        j++;
+                    } else {
+                        triangles[u]++;
+                        triangles[v]++;
+                        triangles[a]++;
+                        i++;
+                        j++;
+                    }
+                }
+            }
+        }
+        double [] CC = new double[numPersons];
+        for( int u = 0; u < numPersons; ++u ) {
+            long degree = edges.degree(u);
+            if(degree > 1)
+                CC[u] = 2*triangles[u] / (double)(degree*(degree-1));
+        }
+        return CC;
+    }
+
+    /** Returns the first position in [begin, end) of a sorted array holding a value greater than value.**/
+    private static int upperBound( int [] array, int begin, int end, int value ) {
+        while( begin < end ) {
+            int mid = (begin + end) >>> 1;
+            if( array[mid] <= value ) {
+                begin = mid + 1;
+            } else {
+                end = mid;
+            }
+        }
+        return begin;
+    }
 }
@@ -0,0 +1,32 @@
+package ldbc.snb.datagen.hadoop;
+
+import ldbc.snb.datagen.objects.Knows;
+import ldbc.snb.datagen.objects.KnowsList;
+import ldbc.snb.datagen.objects.Person;
+import org.apache.hadoop.io.GenericWritable;
+import org.apache.hadoop.io.Writable;
+
+/**
+ * Value of the fused friendship merge jobs: a person, the summary of a person, the edges generated for a person
+ * in one knows step, or a merged edge pointing to a person.
+ */
+public class FriendshipMergeValue extends GenericWritable {
+
+    private static Class<? extends Writable>[] CLASSES = new Class[] {
+            Person.class,
+            Person.PersonSummary.class,
+            KnowsList.class,
+            Knows.class
+    };
+
+    public FriendshipMergeValue() {
+    }
+
+    public FriendshipMergeValue( Writable instance ) {
+        set(instance);
+    }
+
+    protected Class<? extends Writable>[] getTypes() {
+        return CLASSES;
+    }
+}
@@ -2,28 +2,37 @@ package ldbc.snb.datagen.hadoop;
 
 import ldbc.snb.datagen.objects.Person;
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
 
 import java.io.IOException;
 
 /**
  * Created by aprat on 11/17/14.
  */
-public class HadoopBlockMapper extends Mapper<LongWritable, Person, BlockKey, Person> {
+public class HadoopBlockMapper extends Mapper<BlockKey, Person, BlockKey, Person> {
     int mapId;
     int blockSize = 0;
+    long rankOffsets[];     /** The global rank of the first element of each partition of the ranked file.**/
 
     @Override
     public void setup(Mapper.Context context) {
         Configuration conf = context.getConfiguration();
         mapId = context.getTaskAttemptID().getId();
         blockSize = conf.getInt("ldbc.snb.datagen.generator.blockSize", 10000);
+        try {
+            FileSplit split = (FileSplit) context.getInputSplit();
+            rankOffsets = HadoopFileRanker.readRankOffsets(conf, split.getPath().getParent(), conf.getInt("ldbc.snb.datagen.generator.numThreads", 1));
+        } catch(IOException e) {
+            // Without the offsets no person can be ranked, so the task fails instead of failing on every record.
+            throw new RuntimeException(e);
+        }
     }
 
     @Override
-    public void map(LongWritable key, Person value, Mapper.Context context)
+    public void map(BlockKey key, Person value, Mapper.Context context)
             throws IOException, InterruptedException {
-        context.write(new BlockKey(key.get() / blockSize, new TupleKey(key.get(),value.accountId())), value);
+        long rank = rankOffsets[(int)key.block] + key.tk.key;
+        context.write(new BlockKey(rank / blockSize, new TupleKey(rank,value.accountId())), value);
     }
 }
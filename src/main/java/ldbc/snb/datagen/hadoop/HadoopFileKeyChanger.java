@@ -1,5 +1,6 @@
 package ldbc.snb.datagen.hadoop;
 
+import ldbc.snb.datagen.util.Metrics;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapreduce.Job;
@@ -81,7 +82,7 @@ public class HadoopFileKeyChanger {
         job.setJarByClass(V);
         job.setInputFormatClass(SequenceFileInputFormat.class);
         job.setOutputFormatClass(SequenceFileOutputFormat.class);
-        if(!job.waitForCompletion(true)){
+        if(!Metrics.waitForCompletion(job)){
             throw new Exception();
         }
     }
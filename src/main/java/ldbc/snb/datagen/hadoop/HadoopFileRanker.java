@@ -1,13 +1,12 @@
 package ldbc.snb.datagen.hadoop;
 
 import ldbc.snb.datagen.generator.LDBCDatagen;
+import ldbc.snb.datagen.util.Metrics;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.Mapper;
-import org.apache.hadoop.mapreduce.Partitioner;
 import org.apache.hadoop.mapreduce.Reducer;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.apache.hadoop.mapreduce.lib.input.SequenceFileInputFormat;
@@ -98,7 +97,7 @@ public class HadoopFileRanker {
             Configuration conf = context.getConfiguration();
             try {
                 FileSystem fs = FileSystem.get(conf);
-                DataOutputStream output = fs.create(new Path(conf.get("ldbc.snb.datagen.serializer.hadoopDir")+"/rank_"+reducerId));
+                DataOutputStream output = fs.create(new Path(conf.get("rankedFileName"),"_rank_"+reducerId));
                 output.writeLong(counter);
                 output.close();
             } catch(IOException e) {
@@ -107,65 +106,30 @@ public class HadoopFileRanker {
         }
     }
 
-    public static class HadoopFileRankerPartitioner<V> extends Partitioner<BlockKey, V> {
-
-        public HadoopFileRankerPartitioner() {
-            super();
-        }
-
-        @Override
-        public int getPartition(BlockKey key, V value,
-                                int numReduceTasks) {
-            return (int)(key.block % numReduceTasks);
-        }
-    }
-
-    public static class HadoopFileRankerFinalReducer<BlockKey, V, T extends LongWritable>  extends Reducer<BlockKey, V, LongWritable, V> {
-
-        private int reducerId;          /** The id of the reducer. **/
-        private int numReduceTasks;     /** The number of reducer tasks.**/
-        private long counters[];        /** The number of elements processed by each reducer in the previous step.**/
-        private int i = 0;              /** The number of elements read by this reducer.**/
-
-        @Override
-        public void setup( Context context ) {
-            Configuration conf = context.getConfiguration();
-            reducerId = context.getTaskAttemptID().getTaskID().getId();
-            numReduceTasks = context.getNumReduceTasks();
-            counters = new long[numReduceTasks];
-	    LDBCDatagen.init(conf);
-            try{
-                FileSystem fs = FileSystem.get(conf);
-                for(int i = 0; i < (numReduceTasks-1); ++i ) {
-                    DataInputStream inputFile = fs.open(new Path(conf.get("ldbc.snb.datagen.serializer.hadoopDir")+"/rank_"+i));
-                    counters[i+1] = inputFile.readLong();
-                    inputFile.close();
-                }
-            } catch(IOException e) {
-                System.err.println(e.getMessage());
-                e.printStackTrace();
-            }
-
-            counters[0] = 0;
-            for(int i = 1; i < numReduceTasks;++i ) {
-                counters[i] += counters[i-1];
-            }
-        }
-
-        @Override
-        public void reduce(BlockKey key, Iterable<V> valueSet,
-                           Context context) throws IOException, InterruptedException {
-
-            for( V v : valueSet ) {
-                long rank = counters[reducerId] + i;
-                        context.write(new LongWritable(rank), v);
-                i++;
-            }
+    /** Reads the number of elements ranked by each partition of a file produced by run, and turns them into
+     *  the global rank of the first element of each partition.
+     *
+     * @param conf The configuration object.
+     * @param rankedFileName The name of the ranked file.
+     * @param numPartitions The number of partitions of the ranked file.
+     * @return The rank offset of each partition.
+     * @throws IOException
+     */
+    public static long[] readRankOffsets( Configuration conf, Path rankedFileName, int numPartitions ) throws IOException {
+        long offsets[] = new long[numPartitions];
+        FileSystem fs = FileSystem.get(conf);
+        for(int i = 0; i < (numPartitions-1); ++i ) {
+            DataInputStream inputFile = fs.open(new Path(rankedFileName, "_rank_"+i));
+            offsets[i+1] = offsets[i] + inputFile.readLong();
+            inputFile.close();
         }
+        return offsets;
     }
 
-
-    /** Sorts a hadoop sequence file
+    /** Sorts a hadoop sequence file in a single job. Each element is keyed by its partition and its rank
+     *  within the partition, and the size of each partition is stored next to the data, in hidden _rank_ files.
+     *  Global ranks are resolved by the readers of the file (see HadoopBlockMapper), which saves a second job
+     *  rewriting the whole file just to add the partition offsets.
      *
      * @param inputFileName The name of the file to sort.
      * @param outputFileName The name of the sorted file.
@@ -177,12 +141,13 @@ public class HadoopFileRanker {
         if( keySetterName != null ) {
             conf.set("keySetterClassName", keySetterName);
         }
+        conf.set("rankedFileName", outputFileName);
 
-        /** First Job to sort the key-value pairs and to count the number of elements processed by each reducer.**/
+        /** Job to sort the key-value pairs and to count the number of elements processed by each reducer.**/
         Job jobSort = Job.getInstance(conf, "Sorting "+inputFileName);
 
         FileInputFormat.setInputPaths(jobSort, new Path(inputFileName));
-        FileOutputFormat.setOutputPath(jobSort, new Path(conf.get("ldbc.snb.datagen.serializer.hadoopDir") + "/rankIntermediate"));
+        FileOutputFormat.setOutputPath(jobSort, new Path(outputFileName));
 
         if( keySetterName != null ) {
             jobSort.setMapperClass(HadoopFileRankerSortMapper.class);
@@ -200,36 +165,13 @@ public class HadoopFileRanker {
         TotalOrderPartitioner.setPartitionFile(jobSort.getConfiguration(), new Path(inputFileName + "_partition.lst"));
         InputSampler.writePartitionFile(jobSort, sampler);
         jobSort.setPartitionerClass(TotalOrderPartitioner.class);
-        if(!jobSort.waitForCompletion(true)){
-            throw new Exception();
-        }
-
-        /** Second Job to assign the rank to each element.**/
-        Job jobRank = Job.getInstance(conf, "Sorting "+inputFileName);
-        FileInputFormat.setInputPaths(jobRank, new Path(conf.get("ldbc.snb.datagen.serializer.hadoopDir")+"/rankIntermediate"));
-        FileOutputFormat.setOutputPath(jobRank, new Path(outputFileName));
-
-        jobRank.setMapOutputKeyClass(BlockKey.class);
-        jobRank.setMapOutputValueClass(V);
-        jobRank.setOutputKeyClass(LongWritable.class);
-        jobRank.setOutputValueClass(V);
-        jobRank.setSortComparatorClass(BlockKeyComparator.class);
-        jobRank.setNumReduceTasks(numThreads);
-        jobRank.setReducerClass(HadoopFileRankerFinalReducer.class);
-        jobRank.setJarByClass(V);
-        jobRank.setInputFormatClass(SequenceFileInputFormat.class);
-        jobRank.setOutputFormatClass(SequenceFileOutputFormat.class);
-        jobRank.setPartitionerClass(HadoopFileRankerPartitioner.class);
-        if(!jobRank.waitForCompletion(true)) {
+        if(!Metrics.waitForCompletion(jobSort)){
             throw new Exception();
         }
 
         try{
             FileSystem fs = FileSystem.get(conf);
-            for(int i = 0; i < numThreads;++i ) {
-                fs.delete(new Path(conf.get("ldbc.snb.datagen.serializer.hadoopDir")+"/rank_"+i),true);
-            }
-            fs.delete(new Path(conf.get("ldbc.snb.datagen.serializer.hadoopDir")+"/rankIntermediate"),true);
+            fs.delete(new Path(inputFileName + "_partition.lst"),true);
         } catch(IOException e) {
             System.err.println(e.getMessage());
         }
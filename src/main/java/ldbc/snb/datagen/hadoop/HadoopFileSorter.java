@@ -1,5 +1,6 @@
 package ldbc.snb.datagen.hadoop;
 
+import ldbc.snb.datagen.util.Metrics;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapreduce.Job;
@@ -57,7 +58,7 @@ public class HadoopFileSorter {
         TotalOrderPartitioner.setPartitionFile(job.getConfiguration(),new Path(inputFileName+"_partition.lst"));
         InputSampler.writePartitionFile(job, sampler);
         job.setPartitionerClass(TotalOrderPartitioner.class);
-        if(!job.waitForCompletion(true)) {
+        if(!Metrics.waitForCompletion(job)) {
             throw new Exception();
         }
     }
@@ -4,10 +4,14 @@ import ldbc.snb.datagen.generator.ClusteringKnowsGenerator;
 import ldbc.snb.datagen.generator.DistanceKnowsGenerator;
 import ldbc.snb.datagen.generator.KnowsGenerator;
 import ldbc.snb.datagen.generator.LDBCDatagen;
+import ldbc.snb.datagen.generator.tools.EdgeStore;
+import ldbc.snb.datagen.objects.KnowsList;
 import ldbc.snb.datagen.objects.Person;
+import ldbc.snb.datagen.util.Metrics;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.mapreduce.Reducer;
@@ -18,33 +22,52 @@ import org.apache.hadoop.mapreduce.lib.output.SequenceFileOutputFormat;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Created by aprat on 11/17/14.
  */
 public class HadoopKnowsGenerator {
 
-    public static class HadoopKnowsGeneratorReducer  extends Reducer<BlockKey, Person, TupleKey, Person> {
+    public static class HadoopKnowsGeneratorReducer  extends Reducer<BlockKey, Person, TupleKey, Writable> {
 
-        private KnowsGenerator knowsGenerator;   /** The person serializer **/
+        private KnowsGenerator [] knowsGenerators;   /** One knows generator per concurrently processed block **/
         private Configuration conf;
         private HadoopFileKeyChanger.KeySetter<TupleKey> keySetter = null;
         private ArrayList<Float> percentages;
         private int step_index;
+        private boolean edgesOnly;
         private int numGeneratedEdges = 0;
+        private int blockThreads;
+        private ExecutorService pool = null;
+        private ArrayList<Long> bufferedBlocks = new ArrayList<Long>();          /** Blocks waiting to be processed **/
+        private ArrayList<ArrayList<Person>> bufferedPersons = new ArrayList<ArrayList<Person>>();
 
         protected void setup(Context context) {
             //this.knowsGenerator = new DistanceKnowsGenerator();
             this.conf = context.getConfiguration();
             LDBCDatagen.init(conf);
+            this.blockThreads = Math.max(1, conf.getInt("ldbc.snb.datagen.generator.blockThreads", 1));
+            this.knowsGenerators = new KnowsGenerator[blockThreads];
             try {
-                this.knowsGenerator = (KnowsGenerator) Class.forName(conf.get("knowsGeneratorName")).newInstance();
-                this.knowsGenerator.initialize(conf);
+                for( int i = 0; i < blockThreads; ++i ) {
+                    this.knowsGenerators[i] = (KnowsGenerator) Class.forName(conf.get("knowsGeneratorName")).newInstance();
+                    this.knowsGenerators[i].initialize(conf);
+                }
             }catch(Exception e) {
                 System.out.println(e.getMessage());
             }
+            if(blockThreads > 1) {
+                this.pool = Executors.newFixedThreadPool(blockThreads);
+            }
             this.percentages = new ArrayList<Float>();
             this.step_index = conf.getInt("stepIndex",0);
+            this.edgesOnly = conf.getBoolean("knowsEdgesOnly",false);
             float p = conf.getFloat("percentage0",0.0f);
             int index = 1;
             while(p != 0.0f) {
@@ -67,16 +90,75 @@ public class HadoopKnowsGenerator {
             for( Person p : valueSet ) {
                 persons.add(new Person(p));
             }
-            this.knowsGenerator.generateKnows(persons, (int)key.block, percentages, step_index);
-            for( Person p : persons ) {
-                context.write(keySetter.getKey(p), p);
-                numGeneratedEdges+=p.knows().size();
+            if(blockThreads == 1) {
+                write(generate(0, key.block, persons), persons, context);
+                return;
+            }
+            bufferedBlocks.add(key.block);
+            bufferedPersons.add(persons);
+            if(bufferedBlocks.size() == blockThreads) {
+                flush(context);
+            }
+        }
+
+        private EdgeStore generate( int slot, long block, ArrayList<Person> persons ) {
+            EdgeStore edges = new EdgeStore(persons);
+            this.knowsGenerators[slot].generateKnows(persons, edges, (int)block, percentages, step_index);
+            return edges;
+        }
+
+        /** Generates the knows of the buffered blocks concurrently, one block per thread, and writes them in the
+         *  order the blocks were received, so the output does not depend on the number of threads.**/
+        private void flush( Context context ) throws IOException, InterruptedException {
+            ArrayList<Callable<EdgeStore>> tasks = new ArrayList<Callable<EdgeStore>>();
+            for( int i = 0; i < bufferedBlocks.size(); ++i ) {
+                final int slot = i;
+                tasks.add(new Callable<EdgeStore>() {
+                    public EdgeStore call() {
+                        return generate(slot, bufferedBlocks.get(slot), bufferedPersons.get(slot));
+                    }
+                });
+            }
+            List<Future<EdgeStore>> futures = pool.invokeAll(tasks);
+            for( int i = 0; i < futures.size(); ++i ) {
+                try {
+                    write(futures.get(i).get(), bufferedPersons.get(i), context);
+                } catch (ExecutionException e) {
+                    throw new IOException("Error generating knows of block "+bufferedBlocks.get(i), e.getCause());
+                }
+                context.progress();
             }
+            bufferedBlocks.clear();
+            bufferedPersons.clear();
+        }
+
+        private void write( EdgeStore edges, ArrayList<Person> persons, Context context ) throws IOException, InterruptedException {
+            if(!edgesOnly) {
+                edges.materialize();
+            }
+            for( int i = 0; i < persons.size(); ++i ) {
+                Person p = persons.get(i);
+                if(edgesOnly) {
+                    context.write(keySetter.getKey(p), edges.knowsList(i));
+                } else {
+                    context.write(keySetter.getKey(p), p);
+                }
+            }
+            numGeneratedEdges+=edges.numEdges();
+            Metrics.add(Metrics.KNOWS, "edges.step"+step_index, edges.numEdges());
+            Metrics.add(Metrics.KNOWS, "missedDegree.step"+step_index, edges.missedDegree(percentages, step_index));
         }
 
         @Override
-        public void cleanup(Context context) {
-            System.out.println("Number of generated edges: "+numGeneratedEdges/2);
+        public void cleanup(Context context) throws IOException, InterruptedException {
+            if(!bufferedBlocks.isEmpty()) {
+                flush(context);
+            }
+            if(pool != null) {
+                pool.shutdown();
+            }
+            System.out.println("Number of generated edges: "+numGeneratedEdges);
+            Metrics.flush(context);
         }
     }
 
@@ -86,15 +168,25 @@ public class HadoopKnowsGenerator {
     private String knowsGeneratorName;
     private ArrayList<Float> percentages;
     private int step_index;
+    private boolean edgesOnly;
 
 
     public HadoopKnowsGenerator( Configuration conf, String preKeySetterName, String postKeySetterName, ArrayList<Float> percentages, int step_index, String knowsGeneratorName  ) {
+        this(conf, preKeySetterName, postKeySetterName, percentages, step_index, knowsGeneratorName, false);
+    }
+
+    /**
+     * @param edgesOnly If true, the output contains only the KnowsList of each person instead of the whole person,
+     *                  to be merged with HadoopMergeFriendshipFiles.runFused.
+     */
+    public HadoopKnowsGenerator( Configuration conf, String preKeySetterName, String postKeySetterName, ArrayList<Float> percentages, int step_index, String knowsGeneratorName, boolean edgesOnly  ) {
         this.conf = new Configuration(conf);
         this.preKeySetterName = preKeySetterName;
         this.postKeySetterName = postKeySetterName;
         this.percentages = percentages;
         this.step_index = step_index;
         this.knowsGeneratorName = knowsGeneratorName;
+        this.edgesOnly = edgesOnly;
     }
 
     public void run( String inputFileName, String outputFileName ) throws Exception {
@@ -132,12 +224,13 @@ public class HadoopKnowsGenerator {
         }
         conf.set("postKeySetterName",postKeySetterName);
         conf.set("knowsGeneratorName", knowsGeneratorName);
+        conf.setBoolean("knowsEdgesOnly", edgesOnly);
         int numThreads = Integer.parseInt(conf.get("ldbc.snb.datagen.generator.numThreads"));
         Job job = Job.getInstance(conf, "Knows generator");
         job.setMapOutputKeyClass(BlockKey.class);
         job.setMapOutputValueClass(Person.class);
         job.setOutputKeyClass(TupleKey.class);
-        job.setOutputValueClass(Person.class);
+        job.setOutputValueClass(edgesOnly ? KnowsList.class : Person.class);
         job.setJarByClass(HadoopBlockMapper.class);
         job.setMapperClass(HadoopBlockMapper.class);
         job.setReducerClass(HadoopKnowsGeneratorReducer.class);
@@ -154,7 +247,7 @@ public class HadoopKnowsGenerator {
 
         System.out.println("Generating knows relations");
         start = System.currentTimeMillis();
-        if(!job.waitForCompletion(true) ){
+        if(!Metrics.waitForCompletion(job) ){
             throw new Exception();
         }
         System.out.println("... Time to generate knows relations: "+ (System.currentTimeMillis() - start)+" ms");
@@ -3,12 +3,18 @@ package ldbc.snb.datagen.hadoop;
 import ldbc.snb.datagen.generator.LDBCDatagen;
 import ldbc.snb.datagen.objects.Knows;
 import ldbc.snb.datagen.objects.Knows.FullComparator;
+import ldbc.snb.datagen.objects.KnowsList;
 import ldbc.snb.datagen.objects.Person;
+import ldbc.snb.datagen.util.Metrics;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.mapreduce.Reducer;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.MultipleInputs;
 import org.apache.hadoop.mapreduce.lib.input.SequenceFileInputFormat;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
 import org.apache.hadoop.mapreduce.lib.output.SequenceFileOutputFormat;
@@ -81,6 +87,122 @@ public class HadoopMergeFriendshipFiles {
 		}
     }
 
+    /**
+     * Keys the persons by account id, wrapping either their summary (edges merge) or the whole person (join).
+     */
+    public static class HadoopMergePersonMapper extends Mapper<TupleKey, Person, TupleKey, FriendshipMergeValue> {
+
+        private boolean summariesOnly;
+
+        @Override
+        protected void setup(Context context) {
+            summariesOnly = context.getConfiguration().getBoolean("mergeSummariesOnly", false);
+        }
+
+        @Override
+        public void map(TupleKey key, Person value, Context context)
+                throws IOException, InterruptedException {
+            TupleKey accountKey = new TupleKey(value.accountId(), value.accountId());
+            if(summariesOnly) {
+                context.write(accountKey, new FriendshipMergeValue(new Person.PersonSummary(value)));
+            } else {
+                context.write(accountKey, new FriendshipMergeValue(value));
+            }
+        }
+    }
+
+    public static class HadoopMergeKnowsListMapper extends Mapper<TupleKey, KnowsList, TupleKey, FriendshipMergeValue> {
+
+        @Override
+        public void map(TupleKey key, KnowsList value, Context context)
+                throws IOException, InterruptedException {
+            context.write(new TupleKey(value.accountId(), value.accountId()), new FriendshipMergeValue(value));
+        }
+    }
+
+    public static class HadoopMergeKnowsMapper extends Mapper<TupleKey, Knows, TupleKey, FriendshipMergeValue> {
+
+        @Override
+        public void map(TupleKey key, Knows value, Context context)
+                throws IOException, InterruptedException {
+            context.write(key, new FriendshipMergeValue(value));
+        }
+    }
+
+    /**
+     * Merges the KnowsLists generated for a person at every knows step. The lists are already sorted by target,
+     * so they are combined with a streaming k-way merge instead of being concatenated and sorted.
+     * Since edges are symmetric, each merged edge is emitted towards its target, carrying the summary of this person.
+     */
+    public static class HadoopMergeKnowsListsReducer  extends Reducer<TupleKey, FriendshipMergeValue, TupleKey, Knows> {
+
+        private int numRepeated = 0;
+
+        @Override
+        public void reduce(TupleKey key, Iterable<FriendshipMergeValue> valueSet,Context context)
+                throws IOException, InterruptedException {
+
+            Person.PersonSummary summary = null;
+            ArrayList<KnowsList> lists = new ArrayList<KnowsList>();
+            for ( FriendshipMergeValue value : valueSet) {
+                Writable instance = value.get();
+                if( instance instanceof Person.PersonSummary ) {
+                    summary = new Person.PersonSummary((Person.PersonSummary)instance);
+                } else {
+                    lists.add((KnowsList)instance);
+                }
+            }
+            KnowsList merged = new KnowsList(key.id, 0);
+            numRepeated += KnowsList.merge(lists, merged);
+            for( int i = 0; i < merged.size(); ++i ) {
+                long target = merged.target(i);
+                context.write(new TupleKey(target, target), new Knows(summary, merged.creationDate(i), merged.weight(i)));
+            }
+        }
+        protected void cleanup(Context context){
+            System.out.println("Number of repeated edges: "+numRepeated/2);
+        }
+    }
+
+    /**
+     * Joins each person with its merged edges.
+     */
+    public static class HadoopJoinKnowsReducer  extends Reducer<TupleKey, FriendshipMergeValue, TupleKey, Person> {
+
+        private HadoopFileKeyChanger.KeySetter<TupleKey> keySetter = null;
+
+        protected void setup(Context context) {
+            Configuration conf = context.getConfiguration();
+            LDBCDatagen.init(conf);
+            try {
+                this.keySetter = (HadoopFileKeyChanger.KeySetter) Class.forName(conf.get("postKeySetterName")).newInstance();
+            }catch(Exception e) {
+                System.out.println(e.getMessage());
+                e.printStackTrace();
+            }
+        }
+
+        @Override
+        public void reduce(TupleKey key, Iterable<FriendshipMergeValue> valueSet,Context context)
+                throws IOException, InterruptedException {
+
+            Person person = null;
+            ArrayList<Knows> knows = new ArrayList<Knows>();
+            for ( FriendshipMergeValue value : valueSet) {
+                Writable instance = value.get();
+                if( instance instanceof Person ) {
+                    person = new Person((Person)instance);
+                } else {
+                    knows.add((Knows)instance);
+                }
+            }
+            person.knows().clear();
+            person.knows().addAll(knows);
+            context.write(keySetter.getKey(person),person);
+        }
+    }
+
+
     private Configuration conf;
     private String postKeySetterName;
 
@@ -114,11 +236,77 @@ public class HadoopMergeFriendshipFiles {
 
         System.out.println("Merging edges");
         long start = System.currentTimeMillis();
-        if(!job.waitForCompletion(true) ){
+        if(!Metrics.waitForCompletion(job) ){
             throw new Exception();
         }
         System.out.println("... time to merge edges: "+ (System.currentTimeMillis() - start)+" ms");
 
 
     }
+
+    /**
+     * Merges the KnowsLists written by HadoopKnowsGenerator in edges only mode. A first job merges the lists of each
+     * person, reading only the person summaries, and a second one joins the merged edges back with the persons file,
+     * which is thus read and shuffled only once.
+     *
+     * @param outputFileName The file where the persons with the merged edges are written.
+     * @param personsFileName The file with the persons without edges.
+     * @param knowsListFileNames The files with the KnowsLists of each knows step.
+     */
+    public void runFused( String outputFileName, String personsFileName, ArrayList<String> knowsListFileNames ) throws Exception {
+
+        conf.set("postKeySetterName",postKeySetterName);
+        int numThreads = Integer.parseInt(conf.get("ldbc.snb.datagen.generator.numThreads"));
+        String mergedEdgesFileName = conf.get("ldbc.snb.datagen.serializer.hadoopDir") + "/mergedEdges";
+
+        Configuration mergeConf = new Configuration(conf);
+        mergeConf.setBoolean("mergeSummariesOnly", true);
+        Job job = Job.getInstance(mergeConf, "Fused edges merger");
+        job.setMapOutputKeyClass(TupleKey.class);
+        job.setMapOutputValueClass(FriendshipMergeValue.class);
+        job.setOutputKeyClass(TupleKey.class);
+        job.setOutputValueClass(Knows.class);
+        job.setJarByClass(HadoopBlockMapper.class);
+        job.setReducerClass(HadoopMergeKnowsListsReducer.class);
+        job.setNumReduceTasks(numThreads);
+        job.setOutputFormatClass(SequenceFileOutputFormat.class);
+        job.setPartitionerClass(HadoopTuplePartitioner.class);
+
+        MultipleInputs.addInputPath(job, new Path(personsFileName), SequenceFileInputFormat.class, HadoopMergePersonMapper.class);
+        for ( String s : knowsListFileNames ) {
+            MultipleInputs.addInputPath(job, new Path(s), SequenceFileInputFormat.class, HadoopMergeKnowsListMapper.class);
+        }
+        FileOutputFormat.setOutputPath(job, new Path(mergedEdgesFileName));
+
+        System.out.println("Merging edges");
+        long start = System.currentTimeMillis();
+        if(!Metrics.waitForCompletion(job) ){
+            throw new Exception();
+        }
+        System.out.println("... time to merge edges: "+ (System.currentTimeMillis() - start)+" ms");
+
+        job = Job.getInstance(conf, "Merged edges joiner");
+        job.setMapOutputKeyClass(TupleKey.class);
+        job.setMapOutputValueClass(FriendshipMergeValue.class);
+        job.setOutputKeyClass(TupleKey.class);
+        job.setOutputValueClass(Person.class);
+        job.setJarByClass(HadoopBlockMapper.class);
+        job.setReducerClass(HadoopJoinKnowsReducer.class);
+        job.setNumReduceTasks(numThreads);
+        job.setOutputFormatClass(SequenceFileOutputFormat.class);
+        job.setPartitionerClass(HadoopTuplePartitioner.class);
+
+        MultipleInputs.addInputPath(job, new Path(personsFileName), SequenceFileInputFormat.class, HadoopMergePersonMapper.class);
+        MultipleInputs.addInputPath(job, new Path(mergedEdgesFileName), SequenceFileInputFormat.class, HadoopMergeKnowsMapper.class);
+        FileOutputFormat.setOutputPath(job, new Path(outputFileName));
+
+        System.out.println("Joining merged edges with persons");
+        start = System.currentTimeMillis();
+        if(!Metrics.waitForCompletion(job) ){
+            throw new Exception();
+        }
+        System.out.println("... time to join edges: "+ (System.currentTimeMillis() - start)+" ms");
+
+        FileSystem.get(conf).delete(new Path(mergedEdgesFileName), true);
+    }
 }
@@ -11,8 +11,10 @@ import ldbc.snb.datagen.generator.LDBCDatagen;
 import ldbc.snb.datagen.generator.PersonActivityGenerator;
 import ldbc.snb.datagen.objects.Knows;
 import ldbc.snb.datagen.objects.Person;
+import ldbc.snb.datagen.serializer.PersonActivityRecorder;
 import ldbc.snb.datagen.serializer.PersonActivitySerializer;
 import ldbc.snb.datagen.serializer.UpdateEventSerializer;
+import ldbc.snb.datagen.util.Metrics;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -27,6 +29,12 @@ import org.apache.hadoop.mapreduce.lib.output.SequenceFileOutputFormat;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  *
@@ -44,6 +52,12 @@ public class HadoopPersonActivityGenerator {
         private OutputStream activityFactors_;
         private OutputStream friends_;
         private FileSystem fs_;
+        private int blockThreads_;
+        private ExecutorService pool_ = null;
+        private PersonActivityGenerator [] blockGenerators_;            /** One generator per concurrently processed block.**/
+        private PersonActivityRecorder [] recorders_;                   /** The activity recorded by each block generator.**/
+        private ArrayList<Long> bufferedBlocks_ = new ArrayList<Long>();
+        private ArrayList<ArrayList<Person>> bufferedPersons_ = new ArrayList<ArrayList<Person>>();
 
         protected void setup(Context context) {
             System.out.println("Setting up reducer for person activity generation");
@@ -54,9 +68,19 @@ public class HadoopPersonActivityGenerator {
                 personActivitySerializer_ = (PersonActivitySerializer) Class.forName(conf.get("ldbc.snb.datagen.serializer.personActivitySerializer")).newInstance();
                 personActivitySerializer_.initialize(conf,reducerId);
                 if(DatagenParams.updateStreams) {
-                    updateSerializer_ = new UpdateEventSerializer(conf, DatagenParams.hadoopDir + "/temp_updateStream_forum_" + reducerId, reducerId, DatagenParams.numUpdatePartitions);
+                    updateSerializer_ = new UpdateEventSerializer(conf, DatagenParams.hadoopDir + "/temp_updateStream_forum_" + reducerId, reducerId, DatagenParams.numUpdatePartitions, "forum");
+                }
+                personActivityGenerator_ = new PersonActivityGenerator(LDBCDatagen.context(), personActivitySerializer_, updateSerializer_);
+                blockThreads_ = Math.max(1, conf.getInt("ldbc.snb.datagen.generator.blockThreads", 1));
+                if(blockThreads_ > 1) {
+                    pool_ = Executors.newFixedThreadPool(blockThreads_);
+                    blockGenerators_ = new PersonActivityGenerator[blockThreads_];
+                    recorders_ = new PersonActivityRecorder[blockThreads_];
+                    for( int i = 0; i < blockThreads_; ++i ) {
+                        recorders_[i] = new PersonActivityRecorder();
+                        blockGenerators_[i] = new PersonActivityGenerator(LDBCDatagen.context(), null, null, recorders_[i]);
+                    }
                 }
-                personActivityGenerator_ = new PersonActivityGenerator(personActivitySerializer_, updateSerializer_);
 
                 fs_ = FileSystem.get(context.getConfiguration());
                 personFactors_ = fs_.create(new Path(DatagenParams.hadoopDir+"/"+ "m" + reducerId + DatagenParams.PERSON_COUNTS_FILE));
@@ -76,7 +100,57 @@ public class HadoopPersonActivityGenerator {
             ArrayList<Person> persons = new ArrayList<Person>();
             for( Person p : valueSet ) {
                 persons.add(new Person(p));
+            }
+            if(blockThreads_ == 1) {
+                exportFriends(persons);
+                System.out.println("Starting generation of block: "+key.block);
+                personActivityGenerator_.generateActivityForBlock((int)key.block, persons, context );
+                System.out.println("Writing person factors for block: "+key.block);
+                personActivityGenerator_.writePersonFactors(personFactors_);
+                return;
+            }
+            bufferedBlocks_.add(key.block);
+            bufferedPersons_.add(persons);
+            if(bufferedBlocks_.size() == blockThreads_) {
+                flush(context);
+            }
+        }
+
+        /** Generates the activity of the buffered blocks concurrently, one block per thread, and exports it
+         *  in the order the blocks were received, so the output is the same as with a single thread.**/
+        private void flush( Context context ) throws IOException, InterruptedException {
+            ArrayList<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+            for( int i = 0; i < bufferedBlocks_.size(); ++i ) {
+                final int slot = i;
+                tasks.add(new Callable<Void>() {
+                    public Void call() throws IOException {
+                        recorders_[slot].clear();
+                        blockGenerators_[slot].generateActivityForBlock(bufferedBlocks_.get(slot).intValue(), bufferedPersons_.get(slot), null);
+                        return null;
+                    }
+                });
+            }
+            System.out.println("Starting generation of blocks: "+bufferedBlocks_);
+            List<Future<Void>> futures = pool_.invokeAll(tasks);
+            for( int i = 0; i < futures.size(); ++i ) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    throw new IOException("Error generating activity of block "+bufferedBlocks_.get(i), e.getCause());
+                }
+                exportFriends(bufferedPersons_.get(i));
+                personActivityGenerator_.export(recorders_[i]);
+                recorders_[i].clear();
+                System.out.println("Writing person factors for block: "+bufferedBlocks_.get(i));
+                personActivityGenerator_.writePersonFactors(personFactors_);
+                context.progress();
+            }
+            bufferedBlocks_.clear();
+            bufferedPersons_.clear();
+        }
 
+        private void exportFriends( ArrayList<Person> persons ) throws IOException {
+            for( Person p : persons ) {
                 StringBuilder strbuf = new StringBuilder();
                 strbuf.append(p.accountId());
                 for( Knows k : p.knows() ) {
@@ -92,12 +166,19 @@ public class HadoopPersonActivityGenerator {
                 strbuf.append("\n");
                 friends_.write(strbuf.toString().getBytes("UTF8"));
             }
-            System.out.println("Starting generation of block: "+key.block);
-            personActivityGenerator_.generateActivityForBlock((int)key.block, persons, context );
-            System.out.println("Writing person factors for block: "+key.block);
-            personActivityGenerator_.writePersonFactors(personFactors_);
         }
-        protected void cleanup(Context context){
+
+        protected void cleanup(Context context) throws IOException, InterruptedException {
+            if(!bufferedBlocks_.isEmpty()) {
+                flush(context);
+            }
+            if(pool_ != null) {
+                pool_.shutdown();
+                for( PersonActivityGenerator generator : blockGenerators_ ) {
+                    generator.close();
+                }
+            }
+            personActivityGenerator_.close();
             try {
                 System.out.println("Cleaning up");
                 personActivityGenerator_.writeActivityFactors(activityFactors_);
@@ -111,6 +192,7 @@ public class HadoopPersonActivityGenerator {
             if(DatagenParams.updateStreams) {
                 updateSerializer_.close();
             }
+            Metrics.flush(context);
         }
     }
 
@@ -159,7 +241,7 @@ public class HadoopPersonActivityGenerator {
         FileOutputFormat.setOutputPath(job, new Path(conf.get("ldbc.snb.datagen.serializer.hadoopDir")+"/aux"));
         long start = System.currentTimeMillis();
         try {
-            if (!job.waitForCompletion(true)) {
+            if (!Metrics.waitForCompletion(job)) {
                 throw new Exception();
             }
         } catch (AssertionError e)  {
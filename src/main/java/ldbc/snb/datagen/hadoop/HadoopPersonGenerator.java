@@ -4,6 +4,7 @@ import ldbc.snb.datagen.generator.DatagenParams;
 import ldbc.snb.datagen.generator.LDBCDatagen;
 import ldbc.snb.datagen.generator.PersonGenerator;
 import ldbc.snb.datagen.objects.Person;
+import ldbc.snb.datagen.util.Metrics;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -29,6 +30,11 @@ public class HadoopPersonGenerator  {
 
         private HadoopFileKeyChanger.KeySetter<TupleKey> keySetter = null;
 
+        @Override
+        protected void cleanup(Context context) {
+            Metrics.flush(context);
+        }
+
         @Override
         public void map(LongWritable key, Text value, Context context)
         throws IOException, InterruptedException {
@@ -137,7 +143,7 @@ public class HadoopPersonGenerator  {
         job.setOutputFormatClass(SequenceFileOutputFormat.class);
         FileInputFormat.setInputPaths(job, new Path(tempFile));
         FileOutputFormat.setOutputPath(job, new Path(outputFileName));
-        if(!job.waitForCompletion(true)) {
+        if(!Metrics.waitForCompletion(job)) {
             throw new Exception();
         }
     }
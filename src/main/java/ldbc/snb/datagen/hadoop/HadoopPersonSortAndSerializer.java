@@ -7,7 +7,7 @@ import ldbc.snb.datagen.objects.Knows;
 import ldbc.snb.datagen.objects.Person;
 import ldbc.snb.datagen.serializer.PersonSerializer;
 import ldbc.snb.datagen.serializer.UpdateEventSerializer;
-import ldbc.snb.datagen.vocabulary.SN;
+import ldbc.snb.datagen.util.Metrics;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -41,7 +41,7 @@ public class HadoopPersonSortAndSerializer {
 				personSerializer_ = (PersonSerializer) Class.forName(conf.get("ldbc.snb.datagen.serializer.personSerializer")).newInstance();
 				personSerializer_.initialize(conf,reducerId);
 				if (DatagenParams.updateStreams) {
-					updateSerializer_ = new UpdateEventSerializer(conf, DatagenParams.hadoopDir + "/temp_updateStream_person_" + reducerId, reducerId, DatagenParams.numUpdatePartitions);
+					updateSerializer_ = new UpdateEventSerializer(conf, DatagenParams.hadoopDir + "/temp_updateStream_person_" + reducerId, reducerId, DatagenParams.numUpdatePartitions, "person");
 				}
 			} catch( Exception e ) {
 				System.err.println(e.getMessage());
@@ -52,8 +52,7 @@ public class HadoopPersonSortAndSerializer {
 		@Override
 		public void reduce(BlockKey key, Iterable<Person> valueSet,Context context)
 			throws IOException, InterruptedException {
-			SN.machineId = key.block;
-			personSerializer_.reset();
+			personSerializer_.reset(LDBCDatagen.context().forBlock(key.block));
 			for( Person p : valueSet ) {
 				if(p.creationDate()< Dictionaries.dates.getUpdateThreshold() || !DatagenParams.updateStreams  ) {
 					personSerializer_.export(p);
@@ -76,6 +75,7 @@ public class HadoopPersonSortAndSerializer {
 			if (DatagenParams.updateStreams) {
 				updateSerializer_.close();
 			}
+			Metrics.flush(context);
 		}
 	}
 
@@ -115,7 +115,7 @@ public class HadoopPersonSortAndSerializer {
 
 		FileInputFormat.setInputPaths(job, new Path(rankedFileName));
 		FileOutputFormat.setOutputPath(job, new Path(conf.get("ldbc.snb.datagen.serializer.hadoopDir")+"/aux"));
-		if(!job.waitForCompletion(true)) {
+		if(!Metrics.waitForCompletion(job)) {
             throw new Exception();
         }
 		
@@ -1,19 +1,19 @@
 package ldbc.snb.datagen.hadoop;
 
-import ldbc.snb.datagen.objects.Person;
+import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.mapreduce.Partitioner;
 
 /**
  * Created by aprat on 25/08/15.
  */
-public class HadoopTuplePartitioner extends Partitioner<TupleKey, Person> {
+public class HadoopTuplePartitioner extends Partitioner<TupleKey, Writable> {
 
     public HadoopTuplePartitioner() {
         super();
     }
 
     @Override
-    public int getPartition(TupleKey key, Person person, int numReduceTasks) {
+    public int getPartition(TupleKey key, Writable value, int numReduceTasks) {
         return (int)(key.key % numReduceTasks);
     }
 }
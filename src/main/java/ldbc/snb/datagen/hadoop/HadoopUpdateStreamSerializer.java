@@ -2,6 +2,7 @@ package ldbc.snb.datagen.hadoop;
 
 import ldbc.snb.datagen.serializer.PersonSerializer;
 import ldbc.snb.datagen.serializer.UpdateEventSerializer;
+import ldbc.snb.datagen.util.Metrics;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -93,7 +94,7 @@ public class HadoopUpdateStreamSerializer {
 		
 		FileInputFormat.setInputPaths(job, new Path(inputFileName));
 		FileOutputFormat.setOutputPath(job, new Path(conf.get("ldbc.snb.datagen.serializer.hadoopDir")+"/aux"));
-		if(!job.waitForCompletion(true)) {
+		if(!Metrics.waitForCompletion(job)) {
             throw new Exception();
         }
 		
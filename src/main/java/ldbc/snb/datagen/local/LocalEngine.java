@@ -0,0 +1,368 @@
+package ldbc.snb.datagen.local;
+
+import ldbc.snb.datagen.dictionary.Dictionaries;
+import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.generator.KnowsGenerator;
+import ldbc.snb.datagen.generator.LDBCDatagen;
+import ldbc.snb.datagen.generator.PersonActivityGenerator;
+import ldbc.snb.datagen.generator.PersonGenerator;
+import ldbc.snb.datagen.generator.tools.EdgeStore;
+import ldbc.snb.datagen.hadoop.HadoopFileKeyChanger;
+import ldbc.snb.datagen.hadoop.TupleKey;
+import ldbc.snb.datagen.objects.Knows;
+import ldbc.snb.datagen.objects.KnowsList;
+import ldbc.snb.datagen.objects.Person;
+import ldbc.snb.datagen.serializer.PersonActivitySerializer;
+import ldbc.snb.datagen.serializer.PersonSerializer;
+import ldbc.snb.datagen.serializer.UpdateEventSerializer;
+import ldbc.snb.datagen.util.Metrics;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * In-process, multi-threaded replacement of the Hadoop jobs launched by LDBCDatagen.
+ *
+ * Every stage keeps the block structure of its Hadoop counterpart: persons are ranked by the same keys,
+ * block b contains the persons with rank in [b*blockSize, (b+1)*blockSize) and it is processed by worker
+ * b % numThreads, in increasing block order. Worker i thus performs exactly the same calls, with the same
+ * seeds and the same serializer ids, as reducer i of the Hadoop job, and writes the same files.
+ * Shuffles are done in memory, so the whole person graph must fit in the heap of the JVM.
+ */
+public class LocalEngine {
+
+    private static final String RANDOM_KEY_SETTER = "ldbc.snb.datagen.hadoop.RandomKeySetter";
+
+    private Configuration conf_;
+    private int numThreads_;
+    private int blockSize_;
+    private ExecutorService pool_;
+    private Person[] persons_ = null;                                   /** The persons without edges, as generated.**/
+    private ArrayList<KnowsList[]> knowsSteps_ = new ArrayList<KnowsList[]>(); /** The edges of each knows step, indexed as persons_.**/
+    private Person[] merged_ = null;                                    /** The persons with the merged edges.**/
+
+    public LocalEngine( Configuration conf ) {
+        conf_ = new Configuration(conf);
+        LDBCDatagen.init(conf_);
+        numThreads_ = DatagenParams.numThreads;
+        blockSize_ = DatagenParams.blockSize;
+        pool_ = Executors.newFixedThreadPool(numThreads_);
+    }
+
+    private int numBlocks() {
+        return (int) (Math.ceil(DatagenParams.numPersons / (double) blockSize_));
+    }
+
+    /** Runs the tasks in the thread pool and waits for all of them, rethrowing the first failure.
+     *
+     * @param tasks The tasks to run.
+     * @throws Exception
+     */
+    private void runAll( List<Callable<Void>> tasks ) throws Exception {
+        List<Future<Void>> futures = pool_.invokeAll(tasks);
+        for( Future<Void> future : futures ) {
+            future.get();
+        }
+    }
+
+    /** Copies a person through its Writable serialization, the same way it travels between Hadoop jobs.
+     *
+     * @param person The person to copy.
+     * @return The copy.
+     * @throws IOException
+     */
+    private static Person copy( Person person ) throws IOException {
+        DataOutputBuffer output = new DataOutputBuffer();
+        person.write(output);
+        DataInputBuffer input = new DataInputBuffer();
+        input.reset(output.getData(), output.getLength());
+        Person copy = new Person();
+        copy.readFields(input);
+        return copy;
+    }
+
+    /** Ranks the persons by the key returned by the given key setter, as HadoopFileRanker does.
+     *
+     * @param persons The persons to rank.
+     * @param keySetterName The name of the key setter class.
+     * @return The indexes of the persons, sorted by rank.
+     * @throws Exception
+     */
+    private static int[] rank( Person[] persons, String keySetterName ) throws Exception {
+        HadoopFileKeyChanger.KeySetter<TupleKey> keySetter = (HadoopFileKeyChanger.KeySetter) Class.forName(keySetterName).newInstance();
+        final TupleKey[] keys = new TupleKey[persons.length];
+        Integer[] order = new Integer[persons.length];
+        for( int i = 0; i < persons.length; ++i ) {
+            keys[i] = keySetter.getKey(persons[i]);
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return keys[a].compareTo(keys[b]);
+            }
+        });
+        int[] ranks = new int[order.length];
+        for( int i = 0; i < order.length; ++i ) {
+            ranks[i] = order[i];
+        }
+        return ranks;
+    }
+
+    /** Generates the persons. Blocks are split among the workers in the same ranges HadoopPersonGenerator
+     * assigns to its mappers.
+     *
+     * @throws Exception
+     */
+    public void generatePersons() throws Exception {
+        if (DatagenParams.numPersons % DatagenParams.cellSize != 0) {
+            throw new IllegalArgumentException("Number of users should be a multiple of the cellsize");
+        }
+        final int numBlocks = numBlocks();
+        persons_ = new Person[DatagenParams.numPersons];
+        ArrayList<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for( int threadId = 0; threadId < numThreads_; ++threadId ) {
+            final int initBlock = (int) (Math.ceil((numBlocks / (double) numThreads_) * threadId));
+            final int endBlock = (int) (Math.ceil((numBlocks / (double) numThreads_) * (threadId + 1)));
+            tasks.add(new Callable<Void>() {
+                public Void call() throws Exception {
+                    PersonGenerator personGenerator = new PersonGenerator(conf_, conf_.get("ldbc.snb.datagen.generator.distribution.degreeDistribution"));
+                    for (int i = initBlock; i < endBlock; ++i) {
+                        Person[] block = personGenerator.generateUserBlock(i, blockSize_);
+                        for( int j = 0; j < block.length && blockSize_*i + j < DatagenParams.numPersons ; ++j ) {
+                            persons_[blockSize_*i + j] = copy(block[j]);
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        runAll(tasks);
+    }
+
+    /** Generates one step of knows relations, as HadoopKnowsGenerator does.
+     *
+     * @param preKeySetterName The key setter used to rank the persons.
+     * @param percentages The percentages of edges to generate at each step.
+     * @param stepIndex The index of the step.
+     * @param knowsGeneratorName The knows generator class.
+     * @throws Exception
+     */
+    public void generateKnows( String preKeySetterName, final ArrayList<Float> percentages, final int stepIndex, final String knowsGeneratorName ) throws Exception {
+        final int[] ranked = rank(persons_, preKeySetterName);
+        final KnowsList[] step = new KnowsList[persons_.length];
+        final int numBlocks = numBlocks();
+        ArrayList<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for( int reducerId = 0; reducerId < numThreads_; ++reducerId ) {
+            final int firstBlock = reducerId;
+            tasks.add(new Callable<Void>() {
+                public Void call() throws Exception {
+                    KnowsGenerator knowsGenerator = (KnowsGenerator) Class.forName(knowsGeneratorName).newInstance();
+                    knowsGenerator.initialize(conf_);
+                    for( int block = firstBlock; block < numBlocks; block += numThreads_ ) {
+                        ArrayList<Person> persons = new ArrayList<Person>();
+                        int end = Math.min((block + 1) * blockSize_, ranked.length);
+                        for( int i = block * blockSize_; i < end; ++i ) {
+                            persons.add(copy(persons_[ranked[i]]));
+                        }
+                        EdgeStore edges = new EdgeStore(persons);
+                        knowsGenerator.generateKnows(persons, edges, block, percentages, stepIndex);
+                        Metrics.add(Metrics.KNOWS, "edges.step"+stepIndex, edges.numEdges());
+                        Metrics.add(Metrics.KNOWS, "missedDegree.step"+stepIndex, edges.missedDegree(percentages, stepIndex));
+                        for( int i = block * blockSize_; i < end; ++i ) {
+                            step[ranked[i]] = edges.knowsList(i - block * blockSize_);
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        runAll(tasks);
+        knowsSteps_.add(step);
+    }
+
+    /** Merges the edges generated at each knows step with a k-way merge, as HadoopMergeFriendshipFiles does.
+     *
+     * @throws Exception
+     */
+    public void mergeKnows() throws Exception {
+        merged_ = new Person[persons_.length];
+        final HashMap<Long, Integer> indexes = new HashMap<Long, Integer>();
+        for( int i = 0; i < persons_.length; ++i ) {
+            indexes.put(persons_[i].accountId(), i);
+        }
+        ArrayList<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for( int threadId = 0; threadId < numThreads_; ++threadId ) {
+            final int first = threadId;
+            tasks.add(new Callable<Void>() {
+                public Void call() throws Exception {
+                    for( int i = first; i < merged_.length; i += numThreads_ ) {
+                        ArrayList<KnowsList> lists = new ArrayList<KnowsList>();
+                        for( KnowsList[] step : knowsSteps_ ) {
+                            lists.add(step[i]);
+                        }
+                        KnowsList merged = new KnowsList(persons_[i].accountId(), 0);
+                        KnowsList.merge(lists, merged);
+                        Person person = copy(persons_[i]);
+                        for( int j = 0; j < merged.size(); ++j ) {
+                            Person target = persons_[indexes.get(merged.target(j))];
+                            person.knows().add(new Knows(target, merged.creationDate(j), merged.weight(j)));
+                        }
+                        merged_[i] = copy(person);
+                    }
+                    return null;
+                }
+            });
+        }
+        runAll(tasks);
+        knowsSteps_.clear();
+        persons_ = null;
+    }
+
+    private static void exportPerson( Person p, PersonSerializer personSerializer, UpdateEventSerializer updateSerializer ) throws IOException {
+        if(p.creationDate()< Dictionaries.dates.getUpdateThreshold() || !DatagenParams.updateStreams  ) {
+            personSerializer.export(p);
+        } else {
+            updateSerializer.export(p);
+            updateSerializer.changePartition();
+        }
+
+        for( Knows k : p.knows() ) {
+            if( k.creationDate() < Dictionaries.dates.getUpdateThreshold() || !DatagenParams.updateStreams ) {
+                personSerializer.export(p, k);
+            }
+        }
+    }
+
+    /** Serializes the persons, as HadoopPersonSortAndSerializer (sort == true) or HadoopPersonSerializer do.
+     *
+     * @param sort True if persons are serialized by blocks of ranked persons.
+     * @throws Exception
+     */
+    public void serializePersons( final boolean sort ) throws Exception {
+        final int[] ranked = rank(merged_, RANDOM_KEY_SETTER);
+        final int numBlocks = numBlocks();
+        ArrayList<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for( int reducerId = 0; reducerId < numThreads_; ++reducerId ) {
+            final int id = reducerId;
+            tasks.add(new Callable<Void>() {
+                public Void call() throws Exception {
+                    PersonSerializer personSerializer = (PersonSerializer) Class.forName(conf_.get("ldbc.snb.datagen.serializer.personSerializer")).newInstance();
+                    personSerializer.initialize(conf_, id);
+                    UpdateEventSerializer updateSerializer = null;
+                    if (DatagenParams.updateStreams) {
+                        updateSerializer = new UpdateEventSerializer(conf_, DatagenParams.hadoopDir + "/temp_updateStream_person_" + id, id, DatagenParams.numUpdatePartitions, "person");
+                    }
+                    if( sort ) {
+                        for( int block = id; block < numBlocks; block += numThreads_ ) {
+                            personSerializer.reset(LDBCDatagen.context().forBlock(block));
+                            int end = Math.min((block + 1) * blockSize_, ranked.length);
+                            for( int i = block * blockSize_; i < end; ++i ) {
+                                exportPerson(merged_[ranked[i]], personSerializer, updateSerializer);
+                            }
+                        }
+                    } else {
+                        // Persons are partitioned by their random id, and each of them is a reduce group of its own.
+                        for( int i = 0; i < ranked.length; ++i ) {
+                            Person p = merged_[ranked[i]];
+                            if( p.randomId() % numThreads_ == id ) {
+                                personSerializer.reset(LDBCDatagen.context());
+                                exportPerson(p, personSerializer, updateSerializer);
+                            }
+                        }
+                    }
+                    personSerializer.close();
+                    if (DatagenParams.updateStreams) {
+                        updateSerializer.close();
+                    }
+                    return null;
+                }
+            });
+        }
+        runAll(tasks);
+    }
+
+    /** Generates and serializes the person activity, as HadoopPersonActivityGenerator does.
+     *
+     * @throws Exception
+     */
+    public void generateActivity() throws Exception {
+        final int[] ranked = rank(merged_, RANDOM_KEY_SETTER);
+        final int numBlocks = numBlocks();
+        ArrayList<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for( int reducerId = 0; reducerId < numThreads_; ++reducerId ) {
+            final int id = reducerId;
+            tasks.add(new Callable<Void>() {
+                public Void call() throws Exception {
+                    PersonActivitySerializer personActivitySerializer = (PersonActivitySerializer) Class.forName(conf_.get("ldbc.snb.datagen.serializer.personActivitySerializer")).newInstance();
+                    personActivitySerializer.initialize(conf_, id);
+                    UpdateEventSerializer updateSerializer = null;
+                    if(DatagenParams.updateStreams) {
+                        updateSerializer = new UpdateEventSerializer(conf_, DatagenParams.hadoopDir + "/temp_updateStream_forum_" + id, id, DatagenParams.numUpdatePartitions, "forum");
+                    }
+                    PersonActivityGenerator personActivityGenerator = new PersonActivityGenerator(LDBCDatagen.context(), personActivitySerializer, updateSerializer);
+
+                    FileSystem fs = FileSystem.get(conf_);
+                    OutputStream personFactors = fs.create(new Path(DatagenParams.hadoopDir+"/"+ "m" + id + DatagenParams.PERSON_COUNTS_FILE));
+                    OutputStream activityFactors = fs.create(new Path(DatagenParams.hadoopDir+"/"+ "m" + id + DatagenParams.ACTIVITY_FILE));
+                    OutputStream friends = fs.create(new Path(DatagenParams.hadoopDir+"/"+ "m0friendList" + id +".csv"));
+
+                    for( int block = id; block < numBlocks; block += numThreads_ ) {
+                        ArrayList<Person> persons = new ArrayList<Person>();
+                        int end = Math.min((block + 1) * blockSize_, ranked.length);
+                        for( int i = block * blockSize_; i < end; ++i ) {
+                            Person p = merged_[ranked[i]];
+                            persons.add(new Person(p));
+
+                            StringBuilder strbuf = new StringBuilder();
+                            strbuf.append(p.accountId());
+                            for( Knows k : p.knows() ) {
+                                strbuf.append(",");
+                                strbuf.append(k.to().accountId());
+                                if( k.creationDate() > Dictionaries.dates.getUpdateThreshold() && DatagenParams.updateStreams ) {
+                                    updateSerializer.export(p,k);
+                                }
+                            }
+                            if( DatagenParams.updateStreams ) {
+                                updateSerializer.changePartition();
+                            }
+                            strbuf.append("\n");
+                            friends.write(strbuf.toString().getBytes("UTF8"));
+                        }
+                        personActivityGenerator.generateActivityForBlock(block, persons, null);
+                        personActivityGenerator.writePersonFactors(personFactors);
+                    }
+
+                    personActivityGenerator.writeActivityFactors(activityFactors);
+                    personActivityGenerator.close();
+                    activityFactors.close();
+                    personFactors.close();
+                    friends.close();
+                    personActivitySerializer.close();
+                    if(DatagenParams.updateStreams) {
+                        updateSerializer.close();
+                    }
+                    return null;
+                }
+            });
+        }
+        runAll(tasks);
+    }
+
+    public void close() {
+        pool_.shutdown();
+    }
+}
@@ -41,8 +41,9 @@ import org.apache.hadoop.io.Writable;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.io.Serializable;
 
-public class IP implements Writable {
+public class IP implements Writable, Serializable {
 
     public static final int BYTE_MASK = 0xFF;
     public static final int BYTE_SIZE = 8;
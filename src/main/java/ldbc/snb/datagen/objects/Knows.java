@@ -71,6 +71,12 @@ public class Knows implements Writable, Comparable<Knows> {
         weight_ = weight;
     }
 
+    public Knows( Person.PersonSummary to, long creationDate, float weight ){
+	    to_ = new Person.PersonSummary(to);
+	    creationDate_ = creationDate;
+        weight_ = weight;
+    }
+
     public Person.PersonSummary to ( ) {
 	    return to_;
     }
@@ -134,13 +140,18 @@ public class Knows implements Writable, Comparable<Knows> {
 
     public static int num = 0;
 
-    public static boolean createKnow( Random random, Person personA, Person personB ) {
+    public static long knowsCreationDate( Random random, Person personA, Person personB ) {
         long  creationDate = Dictionaries.dates.randomKnowsCreationDate(
                 random,
                 personA,
                 personB);
         creationDate = creationDate - personA.creationDate() >= DatagenParams.deltaTime ? creationDate : creationDate + (DatagenParams.deltaTime - (creationDate - personA.creationDate()));
         creationDate = creationDate - personB.creationDate() >= DatagenParams.deltaTime ? creationDate : creationDate + (DatagenParams.deltaTime - (creationDate - personB.creationDate()));
+        return creationDate;
+    }
+
+    public static boolean createKnow( Random random, Person personA, Person personB ) {
+        long  creationDate = knowsCreationDate(random, personA, personB);
         /*if( creationDate <= Dictionaries.dates.getEndDateTime() )*/ {
             float similarity = Person.personSimilarity.Similarity(personA,personB);
             if(!personB.knows().add(new Knows(personA, creationDate, similarity))) return false;
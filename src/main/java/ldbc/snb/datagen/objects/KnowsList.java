@@ -0,0 +1,142 @@
+package ldbc.snb.datagen.objects;
+
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The edges of a person generated in one knows step, reduced to the target id, the creation date and the weight.
+ * Edges are kept sorted by target, so targets and dates are written as variable length deltas. The PersonSummary
+ * of the targets is joined back only once all the steps have been merged.
+ */
+public class KnowsList implements Writable {
+
+    private long accountId_;
+    private int size_;
+    private long [] targets_;
+    private long [] dates_;
+    private float [] weights_;
+
+    public KnowsList() {
+        this(0, 0);
+    }
+
+    public KnowsList( long accountId, int capacity ) {
+        accountId_ = accountId;
+        size_ = 0;
+        targets_ = new long[capacity];
+        dates_ = new long[capacity];
+        weights_ = new float[capacity];
+    }
+
+    public long accountId() {
+        return accountId_;
+    }
+
+    public int size() {
+        return size_;
+    }
+
+    public long target( int index ) {
+        return targets_[index];
+    }
+
+    public long creationDate( int index ) {
+        return dates_[index];
+    }
+
+    public float weight( int index ) {
+        return weights_[index];
+    }
+
+    /** Appends an edge. Edges must be appended in increasing target order.**/
+    public void add( long target, long creationDate, float weight ) {
+        if( size_ == targets_.length ) {
+            int capacity = Math.max(8, 2*size_);
+            targets_ = Arrays.copyOf(targets_, capacity);
+            dates_ = Arrays.copyOf(dates_, capacity);
+            weights_ = Arrays.copyOf(weights_, capacity);
+        }
+        targets_[size_] = target;
+        dates_[size_] = creationDate;
+        weights_[size_] = weight;
+        size_++;
+    }
+
+    /** Merges lists of edges of the same person with a streaming k-way merge.
+     *  When several lists contain an edge to the same target, only the one with the smallest creation date
+     *  is kept, ties being broken by the order of the lists.
+     *
+     * @param lists The lists to merge.
+     * @param out The list where the merged edges are appended.
+     * @return The number of discarded repeated edges.
+     */
+    public static int merge( List<KnowsList> lists, KnowsList out ) {
+        int numLists = lists.size();
+        int [] heads = new int[numLists];
+        int numRepeated = 0;
+        while(true) {
+            int min = -1;
+            for( int i = 0; i < numLists; ++i ) {
+                KnowsList list = lists.get(i);
+                if( heads[i] < list.size_ ) {
+                    if( min == -1 ) {
+                        min = i;
+                    } else {
+                        KnowsList minList = lists.get(min);
+                        long target = list.targets_[heads[i]];
+                        long minTarget = minList.targets_[heads[min]];
+                        if( target < minTarget || (target == minTarget && list.dates_[heads[i]] < minList.dates_[heads[min]]) ) {
+                            min = i;
+                        }
+                    }
+                }
+            }
+            if( min == -1 ) break;
+            KnowsList minList = lists.get(min);
+            int index = heads[min]++;
+            if( out.size_ == 0 || out.targets_[out.size_ - 1] != minList.targets_[index] ) {
+                out.add(minList.targets_[index], minList.dates_[index], minList.weights_[index]);
+            } else {
+                numRepeated++;
+            }
+        }
+        return numRepeated;
+    }
+
+    public void readFields(DataInput arg0) throws IOException {
+        accountId_ = WritableUtils.readVLong(arg0);
+        size_ = WritableUtils.readVInt(arg0);
+        targets_ = new long[size_];
+        dates_ = new long[size_];
+        weights_ = new float[size_];
+        long target = 0;
+        long date = 0;
+        for (int i = 0; i < size_; i++) {
+            target += WritableUtils.readVLong(arg0);
+            date += WritableUtils.readVLong(arg0);
+            targets_[i] = target;
+            dates_[i] = date;
+            weights_[i] = arg0.readFloat();
+        }
+    }
+
+    public void write(DataOutput arg0) throws IOException {
+        WritableUtils.writeVLong(arg0, accountId_);
+        WritableUtils.writeVInt(arg0, size_);
+        long target = 0;
+        long date = 0;
+        for (int i = 0; i < size_; i++) {
+            WritableUtils.writeVLong(arg0, targets_[i] - target);
+            WritableUtils.writeVLong(arg0, dates_[i] - date);
+            target = targets_[i];
+            date = dates_[i];
+            arg0.writeFloat(weights_[i]);
+        }
+    }
+}
@@ -49,6 +49,12 @@ public class Photo extends Message {
         super();
     }
 
+    public Photo( Photo photo ) {
+        super(photo.messageId(), photo.creationDate(), photo.author(), photo.forumId(), photo.content(), photo.tags(), photo.ipAddress(), photo.browserId());
+        latt_ = photo.latt();
+        longt_ = photo.longt();
+    }
+
     public Photo(long messageId,
                  long creationDate,
                  PersonSummary author,
@@ -36,6 +36,8 @@
  */
 package ldbc.snb.datagen.objects;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 @SuppressWarnings("serial")
@@ -66,6 +68,14 @@ public class Place implements Serializable {
     public Place() {
     }
 
+    /** The type is compared by reference with the type constants, so it is interned when read from a snapshot.**/
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (type != null) {
+            type = type.intern();
+        }
+    }
+
     public Place(int _id, String _name, double _longt, double _latt, int _population, String _type) {
         this.id = _id;
         this.name = _name;
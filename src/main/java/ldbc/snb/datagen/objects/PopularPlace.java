@@ -36,7 +36,9 @@
  */
 package ldbc.snb.datagen.objects;
 
-public class PopularPlace {
+import java.io.Serializable;
+
+public class PopularPlace implements Serializable {
 
     String name;
     double latt;
@@ -52,6 +52,11 @@ public class Post extends Message {
         super();
     }
 
+    public Post( Post post ) {
+        super(post.messageId(), post.creationDate(), post.author(), post.forumId(), post.content(), post.tags(), post.ipAddress(), post.browserId());
+        language_ = post.language();
+    }
+
     public Post(long postId,
                 long creationDate,
                 PersonSummary author,
@@ -38,11 +38,32 @@
 package ldbc.snb.datagen.objects;
 
 import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.Arrays;
 
+/**
+ * An event of the update streams. Instead of the formatted CSV line, the event keeps its fields typed: ids, dates
+ * and dictionary ids are longs, and only the free text fields (names, emails, titles, contents) are strings. The
+ * event is formatted by UpdateEventSerializer when the streams are written. The fields of each event type, in order,
+ * are:
+ *
+ * ADD_PERSON: longs id, gender, birthday, creationDate, ip, browserId, cityId, the number of languages followed by
+ * the language ids, the number of interests followed by the tag ids, the number of universities followed by
+ * (university id, class year) pairs and the number of companies followed by (company id, work from) pairs; strings
+ * firstName, lastName and the emails.
+ * ADD_LIKE_POST, ADD_LIKE_COMMENT: longs person id, message id, creationDate.
+ * ADD_FORUM: longs id, creationDate, moderator id and the tag ids; string title.
+ * ADD_FORUM_MEMBERSHIP: longs forum id, person id, joinDate.
+ * ADD_POST: longs id, creationDate, ip, browserId, languageId (-1 if none), length, author id, forum id,
+ * location id and the tag ids; strings imageFile, content.
+ * ADD_COMMENT: longs id, creationDate, ip, browserId, length, author id, location id, replied post id,
+ * replied comment id (-1 for the one that is not replied) and the tag ids; string content.
+ * ADD_FRIENDSHIP: longs person1 id, person2 id, creationDate.
+ */
 public class UpdateEvent implements Writable {
 
     public enum UpdateEventType {
@@ -59,27 +80,83 @@ public class UpdateEvent implements Writable {
 
     public long    date;
     public long    dependantDate;
-    public String eventData;
     public UpdateEventType type;
+    private long [] longs_ = new long[16];
+    private int numLongs_ = 0;
+    private String [] strings_ = new String[4];
+    private int numStrings_ = 0;
+
+    public UpdateEvent() {
+        this(-1, -1, UpdateEventType.NO_EVENT);
+    }
+
+    public UpdateEvent( long date, long dependantDate, UpdateEventType type) {
+        reset(date, dependantDate, type);
+    }
 
-    public UpdateEvent( long date, long dependantDate, UpdateEventType type, String eventData) {
+    /** Starts a new event, without fields.**/
+    public void reset( long date, long dependantDate, UpdateEventType type ) {
         this.date = date;
-        this.type = type;
-        this.eventData = eventData;
         this.dependantDate = dependantDate;
+        this.type = type;
+        numLongs_ = 0;
+        Arrays.fill(strings_, 0, numStrings_, null);
+        numStrings_ = 0;
+    }
+
+    public void addLong( long value ) {
+        if( numLongs_ == longs_.length ) {
+            longs_ = Arrays.copyOf(longs_, longs_.length * 2);
+        }
+        longs_[numLongs_++] = value;
+    }
+
+    public void addString( String value ) {
+        if( numStrings_ == strings_.length ) {
+            strings_ = Arrays.copyOf(strings_, strings_.length * 2);
+        }
+        strings_[numStrings_++] = value;
+    }
+
+    public long getLong( int index ) {
+        return longs_[index];
+    }
+
+    public String getString( int index ) {
+        return strings_[index];
+    }
+
+    public int numLongs() {
+        return numLongs_;
+    }
+
+    public int numStrings() {
+        return numStrings_;
     }
 
     public void readFields(DataInput arg0) throws IOException {
-        this.date = arg0.readLong();
-        this.dependantDate = arg0.readLong();
-        this.type = UpdateEventType.values()[arg0.readInt()];
-        this.eventData = arg0.readUTF();
+        reset(arg0.readLong(), arg0.readLong(), UpdateEventType.values()[arg0.readByte()]);
+        int numLongs = WritableUtils.readVInt(arg0);
+        for( int i = 0; i < numLongs; ++i ) {
+            addLong(WritableUtils.readVLong(arg0));
+        }
+        int numStrings = WritableUtils.readVInt(arg0);
+        for( int i = 0; i < numStrings; ++i ) {
+            addString(WritableUtils.readString(arg0));
+        }
     }
 
     public void write(DataOutput arg0) throws IOException {
         arg0.writeLong(date);
         arg0.writeLong(dependantDate);
-        arg0.writeInt(type.ordinal());
-        arg0.writeUTF(eventData);
+        arg0.writeByte(type.ordinal());
+        WritableUtils.writeVInt(arg0, numLongs_);
+        for( int i = 0; i < numLongs_; ++i ) {
+            WritableUtils.writeVLong(arg0, longs_[i]);
+        }
+        WritableUtils.writeVInt(arg0, numStrings_);
+        for( int i = 0; i < numStrings_; ++i ) {
+            WritableUtils.writeString(arg0, strings_[i]);
+        }
     }
 }
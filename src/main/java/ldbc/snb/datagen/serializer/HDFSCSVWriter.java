@@ -1,38 +1,99 @@
 package ldbc.snb.datagen.serializer;
 
-import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.fs.FileSystem;
-import org.apache.hadoop.fs.Path;
+import ldbc.snb.datagen.dictionary.Dictionaries;
 
-import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.zip.GZIPOutputStream;
 
+/**
+ * Writes CSV entries. An entry is written field by field with the append methods and finished with endEntry,
+ * the fields being encoded directly into the buffer of the current partition.
+ */
 public class HDFSCSVWriter extends HDFSWriter {
 
-    private String separator = "|";
-    private StringBuffer buffer;
+    private byte [] separator;
     private boolean endLineSeparator = true;
-
-    private OutputStream[] fileOutputStream;
+    private int numFields = 0;      /** The number of fields already written in the current entry.**/
+    private byte [] dateBuffer = new byte[64];
 
     public HDFSCSVWriter( String outputDir, String prefix, int numPartitions, boolean compressed, String separator, boolean endLineSeparator )  {
-       super(outputDir, prefix, numPartitions, compressed, "csv" );
-        this.separator = separator;
-        this.buffer = new StringBuffer(2048);
+        super(outputDir, prefix, numPartitions, compressed, "csv" );
+        this.separator = separator.getBytes(StandardCharsets.UTF_8);
+        this.endLineSeparator = endLineSeparator;
+    }
+
+    public HDFSCSVWriter( OutputStream[] fileOutputStream, String separator, boolean endLineSeparator )  {
+        super(fileOutputStream);
+        this.separator = separator.getBytes(StandardCharsets.UTF_8);
         this.endLineSeparator = endLineSeparator;
+    }
+
+    private void nextField() {
+        if( numFields++ > 0 ) {
+            writeBytes(currentPartition, separator);
+        }
+    }
+
+    public HDFSCSVWriter append( String value ) {
+        nextField();
+        writeString(currentPartition, value != null ? value : "null");     // As StringBuffer.append did.
+        return this;
+    }
+
+    /** Appends a field already encoded as UTF-8.**/
+    public HDFSCSVWriter append( byte [] value ) {
+        nextField();
+        writeBytes(currentPartition, value);
+        return this;
+    }
 
+    public HDFSCSVWriter append( long value ) {
+        nextField();
+        writeLong(currentPartition, value);
+        return this;
+    }
+
+    public HDFSCSVWriter append( int value ) {
+        return append((long) value);
+    }
+
+    /** Appends a date time with the configured date formatter.**/
+    public HDFSCSVWriter appendDateTime( long date ) {
+        int length = Dictionaries.dates.formatDateTime(date, dateBuffer, 0);
+        if( length < 0 ) {
+            return append(Dictionaries.dates.formatDateTime(date));
+        }
+        nextField();
+        writeBytes(currentPartition, dateBuffer, 0, length);
+        return this;
+    }
+
+    /** Appends a date with the configured date formatter.**/
+    public HDFSCSVWriter appendDate( long date ) {
+        int length = Dictionaries.dates.formatDate(date, dateBuffer, 0);
+        if( length < 0 ) {
+            return append(Dictionaries.dates.formatDate(date));
+        }
+        nextField();
+        writeBytes(currentPartition, dateBuffer, 0, length);
+        return this;
+    }
+
+    /** Finishes the current entry and moves to the next partition.**/
+    public void endEntry() {
+        if( endLineSeparator && numFields > 0 ) {
+            writeBytes(currentPartition, separator);
+        }
+        writeByte(currentPartition, (byte) '\n');
+        numFields = 0;
+        nextPartition();
     }
 
     public void writeEntry( ArrayList<String> entry ) {
-        buffer.setLength(0);
         for( int i = 0; i < entry.size(); ++i)  {
-            buffer.append(entry.get(i));
-            if((endLineSeparator && i == (entry.size() - 1)) || (i < entry.size() - 1))
-                buffer.append(separator);
+            append(entry.get(i));
         }
-        buffer.append("\n");
-        this.write(buffer.toString());
+        endEntry();
     }
 }
@@ -0,0 +1,114 @@
+package ldbc.snb.datagen.serializer;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.GroupWriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes entries to a Parquet file with a fixed schema. As with HDFSCSVWriter, an entry is written field by field,
+ * in the order of the schema, with the append methods and finished with endEntry. Date times are stored as
+ * int64 milliseconds (TIMESTAMP_MILLIS) and dates as int32 days (DATE), and string columns are dictionary encoded,
+ * so that the files can be loaded without parsing. As with HDFSWriter, an existing file is overwritten, so that a
+ * retried or speculative attempt of a task can write the file again. Errors from the file system are thrown as
+ * UncheckedIOException, since the serializers that use the writer do not declare IOException.
+ */
+public class HDFSParquetWriter {
+
+    private static final long ONE_DAY = 24L * 60L * 60L * 1000L;
+
+    private ParquetWriter<Group> writer;
+    private SimpleGroupFactory factory;
+    private Group entry;
+    private int numFields = 0;      /** The number of fields already written in the current entry.**/
+
+    /** Creates the writer.
+     *
+     * @param conf The configuration, with the row group size and compression codec.
+     * @param outputDir The directory of the file.
+     * @param prefix The name of the file, without extension.
+     * @param schema The schema of the entries, in the Parquet message type syntax.
+     */
+    public HDFSParquetWriter( Configuration conf, String outputDir, String prefix, String schema ) {
+        MessageType messageType = MessageTypeParser.parseMessageType(schema);
+        Configuration writerConf = new Configuration(conf);
+        GroupWriteSupport.setSchema(messageType, writerConf);
+        factory = new SimpleGroupFactory(messageType);
+        Path path = new Path(outputDir + "/" + prefix + ".parquet");
+        try {
+            writer = new ParquetWriter<Group>(path,
+                                              ParquetFileWriter.Mode.OVERWRITE,
+                                              new GroupWriteSupport(),
+                                              CompressionCodecName.valueOf(conf.get("ldbc.snb.datagen.serializer.parquet.compression", "SNAPPY")),
+                                              conf.getInt("ldbc.snb.datagen.serializer.parquet.rowGroupSize", ParquetWriter.DEFAULT_BLOCK_SIZE),
+                                              ParquetWriter.DEFAULT_PAGE_SIZE,
+                                              ParquetWriter.DEFAULT_PAGE_SIZE,
+                                              true,
+                                              false,
+                                              ParquetProperties.WriterVersion.PARQUET_1_0,
+                                              writerConf);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create the Parquet file " + path, e);
+        }
+        entry = factory.newGroup();
+    }
+
+    public HDFSParquetWriter append( String value ) {
+        entry.add(numFields++, value);
+        return this;
+    }
+
+    public HDFSParquetWriter append( long value ) {
+        entry.add(numFields++, value);
+        return this;
+    }
+
+    public HDFSParquetWriter append( int value ) {
+        entry.add(numFields++, value);
+        return this;
+    }
+
+    /** Leaves an optional field empty.**/
+    public HDFSParquetWriter appendNull() {
+        numFields++;
+        return this;
+    }
+
+    /** Appends a date time, to a TIMESTAMP_MILLIS field.**/
+    public HDFSParquetWriter appendDateTime( long date ) {
+        return append(date);
+    }
+
+    /** Appends a date, to a DATE field.**/
+    public HDFSParquetWriter appendDate( long date ) {
+        return append((int) Math.floorDiv(date, ONE_DAY));
+    }
+
+    public void endEntry() {
+        try {
+            writer.write(entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write to the Parquet file", e);
+        }
+        entry = factory.newGroup();
+        numFields = 0;
+    }
+
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close the Parquet file", e);
+        }
+    }
+}
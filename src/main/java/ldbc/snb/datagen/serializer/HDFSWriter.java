@@ -1,32 +1,34 @@
 package ldbc.snb.datagen.serializer;
 
+import ldbc.snb.datagen.util.Metrics;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 
-import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.ArrayList;
 import java.util.zip.GZIPOutputStream;
 
+/**
+ * Writes entries to a set of partition files, in round robin. Entries are encoded as UTF-8 straight into a
+ * reusable byte buffer per partition, which is written to the file in large chunks.
+ */
 public class HDFSWriter {
 
-    private String outputDir;
-    private String prefix;
+    private static final int BUFFER_SIZE = 1 << 16;
+
     private int numPartitions;
-    private int currentPartition = 0;
-    private boolean compressed;
-    private boolean firstEntry = true;
-    private StringBuffer buffer;
+    protected int currentPartition = 0;
+    private byte [][] buffers;
+    private int [] positions;
 
     private OutputStream[] fileOutputStream;
+    private String fileName = null;     /** The name the bytes written are accounted to, if any.**/
+    private long bytesWritten = 0;
 
     public HDFSWriter(String outputDir, String prefix, int numPartitions, boolean compressed, String extension) {
-        this.outputDir = outputDir;
-        this.prefix = prefix;
         this.numPartitions = numPartitions;
-        this.compressed = compressed;
+        this.fileName = prefix.replaceAll("_[0-9]+$", "");     // The files of all the reducers are accounted together.
         try {
             Configuration conf = new Configuration();
             FileSystem fs = FileSystem.get(conf);
@@ -40,44 +42,158 @@ public class HDFSWriter {
                     this.fileOutputStream[i] = fs.create(new Path(outputDir + "/" + prefix + "_" + i + "."+extension), true, 131072);
                 }
             }
-            buffer = new StringBuffer(1024);
         } catch (IOException e) {
             System.err.println(e.getMessage());
             System.exit(-1);
         }
+        allocateBuffers();
     }
 
-    public void write( String entry ) {
-        buffer.setLength(0);
-        buffer.append(entry);
+    /** Creates a writer on already opened partition streams.
+     *
+     * @param fileOutputStream The streams of the partitions.
+     */
+    public HDFSWriter(OutputStream[] fileOutputStream) {
+        this.numPartitions = fileOutputStream.length;
+        this.fileOutputStream = fileOutputStream;
+        allocateBuffers();
+    }
+
+    private void allocateBuffers() {
+        buffers = new byte[numPartitions][BUFFER_SIZE];
+        positions = new int[numPartitions];
+    }
+
+    private void flush( int partition ) {
         try {
-            fileOutputStream[currentPartition].write(buffer.toString().getBytes("UTF8"));
-            currentPartition = ++currentPartition % numPartitions;
+            fileOutputStream[partition].write(buffers[partition], 0, positions[partition]);
+            bytesWritten += positions[partition];
         }
         catch (IOException e){
             System.out.println("Cannot write to output file ");
             e.printStackTrace();
         }
+        positions[partition] = 0;
     }
 
-    public void writeAllPartitions( String entry ) {
-        try {
-            for(int i = 0; i < numPartitions;++i ) {
-                fileOutputStream[i].write(entry.getBytes("UTF8"));
+    /** Makes room for at least size bytes in the buffer of a partition.**/
+    private void reserve( int partition, int size ) {
+        if( positions[partition] + size > BUFFER_SIZE ) {
+            flush(partition);
+        }
+    }
+
+    protected void writeByte( int partition, byte value ) {
+        reserve(partition, 1);
+        buffers[partition][positions[partition]++] = value;
+    }
+
+    protected void writeBytes( int partition, byte [] value ) {
+        writeBytes(partition, value, 0, value.length);
+    }
+
+    protected void writeBytes( int partition, byte [] value, int offset, int length ) {
+        if( length > BUFFER_SIZE ) {
+            flush(partition);
+            try {
+                fileOutputStream[partition].write(value, offset, length);
+                bytesWritten += length;
             }
+            catch (IOException e){
+                System.out.println("Cannot write to output file ");
+                e.printStackTrace();
+            }
+            return;
         }
-        catch (IOException e){
-            System.out.println("Cannot write to output file ");
-            e.printStackTrace();
+        reserve(partition, length);
+        System.arraycopy(value, offset, buffers[partition], positions[partition], length);
+        positions[partition] += length;
+    }
+
+    /** Encodes a string as UTF-8 into the buffer of a partition, without intermediate copies.**/
+    protected void writeString( int partition, String value ) {
+        int length = value.length();
+        for( int i = 0; i < length; ++i ) {
+            char c = value.charAt(i);
+            if( c < 0x80 ) {
+                reserve(partition, 1);
+                buffers[partition][positions[partition]++] = (byte) c;
+            } else {
+                reserve(partition, 4);
+                byte [] buffer = buffers[partition];
+                int position = positions[partition];
+                if( c < 0x800 ) {
+                    buffer[position++] = (byte) (0xC0 | (c >> 6));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                } else if( Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i+1)) ) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if( Character.isSurrogate(c) ) {
+                    buffer[position++] = (byte) '?';                    // Unpaired surrogate, as String.getBytes does.
+                } else {
+                    buffer[position++] = (byte) (0xE0 | (c >> 12));
+                    buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                }
+                positions[partition] = position;
+            }
+        }
+    }
+
+    /** Writes the decimal representation of a number into the buffer of a partition.**/
+    protected void writeLong( int partition, long value ) {
+        if( value == Long.MIN_VALUE ) {
+            writeString(partition, Long.toString(value));
+            return;
+        }
+        reserve(partition, 20);
+        byte [] buffer = buffers[partition];
+        int position = positions[partition];
+        if( value < 0 ) {
+            buffer[position++] = (byte) '-';
+            value = -value;
+        }
+        int numDigits = 1;
+        for( long bound = 10; numDigits < 19 && value >= bound; bound *= 10 ) {
+            numDigits++;
+        }
+        int end = position + numDigits;
+        for( int i = end - 1; i >= position; --i ) {
+            buffer[i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        positions[partition] = end;
+    }
+
+    /** Moves to the next partition, once an entry has been completely written.**/
+    protected void nextPartition() {
+        currentPartition = ++currentPartition % numPartitions;
+    }
+
+    public void write( String entry ) {
+        writeString(currentPartition, entry);
+        nextPartition();
+    }
+
+    public void writeAllPartitions( String entry ) {
+        for(int i = 0; i < numPartitions;++i ) {
+            writeString(i, entry);
         }
     }
 
     public void close() {
         try {
             for (int i = 0; i < numPartitions; ++i) {
+                flush(i);
                 fileOutputStream[i].flush();
                 fileOutputStream[i].close();
             }
+            if( fileName != null ) {
+                Metrics.add(Metrics.BYTES, fileName, bytesWritten);
+            }
         } catch (IOException e) {
             System.err.println("Exception when closing a file");
             System.err.println(e.getMessage());
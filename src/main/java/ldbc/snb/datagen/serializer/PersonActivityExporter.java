@@ -2,8 +2,10 @@ package ldbc.snb.datagen.serializer;
 
 import ldbc.snb.datagen.dictionary.Dictionaries;
 import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.generator.GeneratorContext;
 import ldbc.snb.datagen.objects.*;
 import ldbc.snb.datagen.util.FactorTable;
+import ldbc.snb.datagen.util.Metrics;
 
 import java.io.IOException;
 
@@ -21,56 +23,74 @@ public class PersonActivityExporter {
         this.factorTable_ = factorTable;
     }
 
-        public void export(final Forum forum) throws IOException {
-            if(forum.creationDate() < Dictionaries.dates.getUpdateThreshold() || !DatagenParams.updateStreams ) {
-                personActivitySerializer_.export(forum);
-            } else {
-                updateSerializer_.export(forum);
-            }
+    public void reset(final GeneratorContext context) {
+        personActivitySerializer_.reset(context);
+    }
+
+    public void extractFactors(final Person person) {
+        factorTable_.extractFactors(person);
+    }
+
+    public void changePartition() {
+        updateSerializer_.changePartition();
+    }
+
+    public void export(final Forum forum) throws IOException {
+        Metrics.increment(Metrics.ENTITIES, "forums");
+        if(forum.creationDate() < Dictionaries.dates.getUpdateThreshold() || !DatagenParams.updateStreams ) {
+            personActivitySerializer_.export(forum);
+        } else {
+            updateSerializer_.export(forum);
         }
+    }
 
-        public void export(final Post post) throws IOException {
-            if(post.creationDate() < Dictionaries.dates.getUpdateThreshold() || !DatagenParams.updateStreams ) {
-                personActivitySerializer_.export(post);
-                factorTable_.extractFactors(post);
-            } else {
-                updateSerializer_.export(post);
-            }
+    public void export(final Post post) throws IOException {
+        Metrics.increment(Metrics.ENTITIES, "posts");
+        if(post.creationDate() < Dictionaries.dates.getUpdateThreshold() || !DatagenParams.updateStreams ) {
+            personActivitySerializer_.export(post);
+            factorTable_.extractFactors(post);
+        } else {
+            updateSerializer_.export(post);
         }
+    }
 
-        public void export(final Comment comment) throws IOException {
-            if(comment.creationDate() < Dictionaries.dates.getUpdateThreshold() || !DatagenParams.updateStreams ) {
-                personActivitySerializer_.export(comment);
-                factorTable_.extractFactors(comment);
-            } else {
-                updateSerializer_.export(comment);
-            }
+    public void export(final Comment comment) throws IOException {
+        Metrics.increment(Metrics.ENTITIES, "comments");
+        if(comment.creationDate() < Dictionaries.dates.getUpdateThreshold() || !DatagenParams.updateStreams ) {
+            personActivitySerializer_.export(comment);
+            factorTable_.extractFactors(comment);
+        } else {
+            updateSerializer_.export(comment);
         }
+    }
 
-        public void export(final Photo photo) throws IOException {
-            if(photo.creationDate() < Dictionaries.dates.getUpdateThreshold() || !DatagenParams.updateStreams ) {
-                personActivitySerializer_.export(photo);
-                factorTable_.extractFactors(photo);
-            } else {
-                updateSerializer_.export(photo);
-            }
+    public void export(final Photo photo) throws IOException {
+        Metrics.increment(Metrics.ENTITIES, "photos");
+        if(photo.creationDate() < Dictionaries.dates.getUpdateThreshold() || !DatagenParams.updateStreams ) {
+            personActivitySerializer_.export(photo);
+            factorTable_.extractFactors(photo);
+        } else {
+            updateSerializer_.export(photo);
         }
+    }
 
-        public void export(final ForumMembership member) throws IOException {
-            if(member.creationDate() < Dictionaries.dates.getUpdateThreshold() || !DatagenParams.updateStreams ) {
-                personActivitySerializer_.export(member);
-                factorTable_.extractFactors(member);
-            } else {
-                updateSerializer_.export(member);
-            }
+    public void export(final ForumMembership member) throws IOException {
+        Metrics.increment(Metrics.ENTITIES, "forumMemberships");
+        if(member.creationDate() < Dictionaries.dates.getUpdateThreshold() || !DatagenParams.updateStreams ) {
+            personActivitySerializer_.export(member);
+            factorTable_.extractFactors(member);
+        } else {
+            updateSerializer_.export(member);
         }
+    }
 
-        public void export(final Like like) throws IOException {
-            if(like.date < Dictionaries.dates.getUpdateThreshold() || !DatagenParams.updateStreams ) {
-                personActivitySerializer_.export(like);
-                factorTable_.extractFactors(like);
-            } else {
-                updateSerializer_.export(like);
-            }
+    public void export(final Like like) throws IOException {
+        Metrics.increment(Metrics.ENTITIES, "likes");
+        if(like.date < Dictionaries.dates.getUpdateThreshold() || !DatagenParams.updateStreams ) {
+            personActivitySerializer_.export(like);
+            factorTable_.extractFactors(like);
+        } else {
+            updateSerializer_.export(like);
         }
     }
+}
@@ -0,0 +1,104 @@
+package ldbc.snb.datagen.serializer;
+
+import ldbc.snb.datagen.generator.GeneratorContext;
+import ldbc.snb.datagen.objects.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Exporter that records the activity of a block instead of serializing it, so that blocks can be generated
+ * concurrently and later exported in block order with replay. Objects reused by the generators are copied.
+ */
+public class PersonActivityRecorder extends PersonActivityExporter {
+
+    private static final Object CHANGE_PARTITION = new Object();
+
+    private static class PersonFactors {
+        public Person person_;
+
+        public PersonFactors( Person person ) {
+            person_ = person;
+        }
+    }
+
+    private ArrayList<Object> events_ = new ArrayList<Object>();
+
+    public PersonActivityRecorder() {
+        super(null, null, null);
+    }
+
+    public void clear() {
+        events_.clear();
+    }
+
+    public void reset(final GeneratorContext context) {
+        events_.add(context);
+    }
+
+    public void extractFactors(final Person person) {
+        events_.add(new PersonFactors(person));
+    }
+
+    public void changePartition() {
+        events_.add(CHANGE_PARTITION);
+    }
+
+    public void export(final Forum forum) throws IOException {
+        events_.add(forum);
+    }
+
+    public void export(final Post post) throws IOException {
+        events_.add(new Post(post));
+    }
+
+    public void export(final Comment comment) throws IOException {
+        events_.add(new Comment(comment));
+    }
+
+    public void export(final Photo photo) throws IOException {
+        events_.add(new Photo(photo));
+    }
+
+    public void export(final ForumMembership member) throws IOException {
+        events_.add(member);
+    }
+
+    public void export(final Like like) throws IOException {
+        Like copy = new Like();
+        copy.user = like.user;
+        copy.userCreationDate = like.userCreationDate;
+        copy.messageId = like.messageId;
+        copy.date = like.date;
+        copy.type = like.type;
+        events_.add(copy);
+    }
+
+    /** Exports the recorded activity, in the order it was generated.
+     *
+     * @param exporter The exporter to send the activity to.
+     */
+    public void replay( PersonActivityExporter exporter ) throws IOException {
+        for( Object event : events_ ) {
+            if( event instanceof GeneratorContext ) {
+                exporter.reset((GeneratorContext) event);
+            } else if( event == CHANGE_PARTITION ) {
+                exporter.changePartition();
+            } else if( event instanceof PersonFactors ) {
+                exporter.extractFactors(((PersonFactors) event).person_);
+            } else if( event instanceof Forum ) {
+                exporter.export((Forum) event);
+            } else if( event instanceof Post ) {
+                exporter.export((Post) event);
+            } else if( event instanceof Comment ) {
+                exporter.export((Comment) event);
+            } else if( event instanceof Photo ) {
+                exporter.export((Photo) event);
+            } else if( event instanceof ForumMembership ) {
+                exporter.export((ForumMembership) event);
+            } else if( event instanceof Like ) {
+                exporter.export((Like) event);
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@
 */
 package ldbc.snb.datagen.serializer;
 
+import ldbc.snb.datagen.generator.GeneratorContext;
 import ldbc.snb.datagen.objects.*;
 import org.apache.hadoop.conf.Configuration;
 
@@ -14,6 +15,7 @@ import org.apache.hadoop.conf.Configuration;
  */
 abstract public class PersonActivitySerializer {
 
+protected GeneratorContext context_ = null;     /** The context of the block being serialized.**/
 
 public PersonActivitySerializer() {
 }
@@ -46,6 +48,15 @@ public void export( Like like ) {
 }
 
 
+/** Resets the serializer before serializing a block.
+ *
+ * @param context The context of the block, used to form the ids of the serialized relations.
+ */
+public void reset( GeneratorContext context ) {
+	context_ = context;
+	reset();
+}
+
 abstract public void reset();
 
 abstract public void initialize(Configuration conf, int reducerId);
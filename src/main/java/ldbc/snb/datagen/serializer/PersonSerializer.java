@@ -1,10 +1,12 @@
 package ldbc.snb.datagen.serializer;
 
 import ldbc.snb.datagen.dictionary.Dictionaries;
+import ldbc.snb.datagen.generator.GeneratorContext;
 import ldbc.snb.datagen.objects.Knows;
 import ldbc.snb.datagen.objects.Person;
 import ldbc.snb.datagen.objects.StudyAt;
 import ldbc.snb.datagen.objects.WorkAt;
+import ldbc.snb.datagen.util.Metrics;
 import org.apache.hadoop.conf.Configuration;
 
 import java.util.Iterator;
@@ -14,6 +16,8 @@ import java.util.Iterator;
  */
 abstract public class PersonSerializer {
 
+    protected GeneratorContext context_ = null;     /** The context of the block being serialized.**/
+
     public PersonSerializer() {
 	    
     }
@@ -21,6 +25,7 @@ abstract public class PersonSerializer {
     public void export(final Person person) {
 //        System.out.println(person.maxNumKnows());
 
+        Metrics.increment(Metrics.ENTITIES, "persons");
         serialize(person);
 
         long universityId = Dictionaries.universities.getUniversityFromLocation(person.universityLocationId());
@@ -46,8 +51,19 @@ abstract public class PersonSerializer {
     }
 
     public void export(final Person p, final Knows k ) {
-        if( p.accountId() < k.to().accountId())
+        if( p.accountId() < k.to().accountId()) {
+            Metrics.increment(Metrics.ENTITIES, "knows");
             serialize(p, k);
+        }
+    }
+
+    /** Resets the serializer before serializing a block.
+     *
+     * @param context The context of the block, used to form the ids of the serialized relations.
+     */
+    public void reset( GeneratorContext context ) {
+        context_ = context;
+        reset();
     }
 
     abstract public void reset();
@@ -38,25 +38,28 @@ package ldbc.snb.datagen.serializer;
 
 import ldbc.snb.datagen.dictionary.Dictionaries;
 import ldbc.snb.datagen.generator.DatagenParams;
-import ldbc.snb.datagen.hadoop.TupleKey;
-import ldbc.snb.datagen.hadoop.UpdateEventKey;
 import ldbc.snb.datagen.objects.*;
+import ldbc.snb.datagen.util.Metrics;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.*;
-import org.apache.hadoop.io.LongWritable;
-import org.apache.hadoop.io.SequenceFile;
-import org.apache.hadoop.io.SequenceFile.CompressionType;
-import org.apache.hadoop.io.Text;
-import org.apache.hadoop.io.compress.DefaultCodec;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.ArrayList;
-import java.util.EnumSet;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Properties;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Created by aprat on 3/27/14.
+ *
+ * The events are kept as typed UpdateEvents, serialized in binary form. The events of each partition are sorted by
+ * date with an UpdateStreamSorter, and written to the final updateStream_reducerId_partition_streamType files when
+ * the serializer is closed. Only then are they formatted, as CSV lines, or written as they are, as a sequence of
+ * UpdateEvent records, if ldbc.snb.datagen.serializer.updateStreams.format is binary.
  */
 public class UpdateEventSerializer {
 	
@@ -66,35 +69,32 @@ public class UpdateEventSerializer {
 		public long count_ = 0;
 	}
 	
-	private SequenceFile.Writer streamWriter_[];
-	private ArrayList<String> data_;
-	private ArrayList<String> list_;
+	private UpdateStreamSorter streamSorters_[];
 	private UpdateEvent currentEvent_;
+	private DataOutputBuffer eventBuffer_;
 	private int numPartitions_ = 1;
 	private int nextPartition_ = 0;
-	private StringBuffer stringBuffer_;
 	private long currentDependantDate_ = 0;
 	private Configuration conf_;
 	private UpdateStreamStats  stats_;
 	private String fileNamePrefix_;
 	private int reducerId_;
+	private String streamType_;
 	
-	public UpdateEventSerializer(Configuration conf, String fileNamePrefix, int reducerId, int numPartitions ) throws IOException{
+	public UpdateEventSerializer(Configuration conf, String fileNamePrefix, int reducerId, int numPartitions, String streamType ) throws IOException{
 		conf_ = conf;
 		reducerId_ = reducerId;
-		stringBuffer_ = new StringBuffer(512);
-		data_ = new ArrayList<String>();
-		list_ = new ArrayList<String>();
-		currentEvent_ = new UpdateEvent(-1,-1, UpdateEvent.UpdateEventType.NO_EVENT,new String(""));
+		currentEvent_ = new UpdateEvent();
+		eventBuffer_ = new DataOutputBuffer(512);
 		numPartitions_ = numPartitions;
 		stats_ = new UpdateStreamStats();
 		fileNamePrefix_ = fileNamePrefix;
+		streamType_ = streamType;
 		try{
-			streamWriter_ = new SequenceFile.Writer[numPartitions_];
-			FileContext fc = FileContext.getFileContext(conf);
+			streamSorters_ = new UpdateStreamSorter[numPartitions_];
+			int runSize = conf.getInt("ldbc.snb.datagen.serializer.updateStreams.runSize", 100000);
 			for( int i = 0; i < numPartitions_; ++i ) {
-				Path outFile = new Path(fileNamePrefix_+"_"+i);
-				streamWriter_[i] = SequenceFile.createWriter(fc, conf, outFile, UpdateEventKey.class, Text.class, CompressionType.NONE, new DefaultCodec(),new SequenceFile.Metadata(), EnumSet.of(CreateFlag.CREATE,CreateFlag.OVERWRITE), Options.CreateOpts.checksumParam(Options.ChecksumOpt.createDisabled()));
+				streamSorters_[i] = new UpdateStreamSorter(runSize);
 				FileSystem fs = FileSystem.get(conf);
 				Path propertiesFile = new Path(fileNamePrefix_+".properties");
 				if(fs.exists(propertiesFile)){
@@ -120,63 +120,179 @@ public class UpdateEventSerializer {
 	public void writeKeyValue( UpdateEvent event ) throws IOException {
 		try{
 			if(event.date <= Dictionaries.dates.getEndDateTime()) {
-				StringBuilder string = new StringBuilder();
-				string.append(Long.toString(event.date));
-				string.append("|");
-				string.append(Long.toString(event.dependantDate));
-				string.append("|");
-				string.append(Integer.toString(event.type.ordinal() + 1));
-				string.append("|");
-				string.append(event.eventData);
-				string.append("\n");
-				streamWriter_[nextPartition_].append(new UpdateEventKey(event.date, reducerId_, nextPartition_), new Text(string.toString()));
+				eventBuffer_.reset();
+				event.write(eventBuffer_);
+				streamSorters_[nextPartition_].add(event.date, Arrays.copyOf(eventBuffer_.getData(), eventBuffer_.getLength()));
 			}
 		} catch(IOException e){
 			throw e;
 		}
 	}
 	
-	private String formatStringArray(ArrayList<String> array, String separator) {
-		if( array.size() == 0 ) return "";
-		stringBuffer_.setLength(0);
-		for( String s : array) {
-			stringBuffer_.append(s);
-			stringBuffer_.append(separator);
-		}
-		return stringBuffer_.substring(0,stringBuffer_.length()-1);
-	}
-	
 	private void beginEvent( long date, UpdateEvent.UpdateEventType type ) {
 		stats_.minDate_ = stats_.minDate_ > date ? date : stats_.minDate_;
 		stats_.maxDate_ = stats_.maxDate_ < date ? date : stats_.maxDate_;
 		stats_.count_++;
-		currentEvent_.date = date;
-		currentEvent_.dependantDate = currentDependantDate_;
-		currentEvent_.type = type;
-		currentEvent_.eventData = null;
-		data_.clear();
+		currentEvent_.reset(date, currentDependantDate_, type);
 	}
 	
 	private void endEvent() throws IOException {
-		currentEvent_.eventData = formatStringArray(data_,"|");
 		writeKeyValue(currentEvent_);
 	}
 	
-	private void beginList() {
-		list_.clear();
+	private static void appendIP( StringBuilder line, long ip ) {
+		line.append((ip >>> IP.BYTE1_SHIFT_POSITION) & IP.BYTE_MASK).append('.');
+		line.append((ip >>> IP.BYTE2_SHIFT_POSITION) & IP.BYTE_MASK).append('.');
+		line.append((ip >>> IP.BYTE3_SHIFT_POSITION) & IP.BYTE_MASK).append('.');
+		line.append(ip & IP.BYTE_MASK);
 	}
 	
-	private void endList() {
-		data_.add(formatStringArray(list_,";"));
+	/** Appends the longs of an event from index to its end, separated by ";".**/
+	private static void appendLongList( StringBuilder line, UpdateEvent event, int index ) {
+		for( int i = index; i < event.numLongs(); ++i ) {
+			if( i > index ) line.append(';');
+			line.append(event.getLong(i));
+		}
 	}
 	
+	/** Formats an event as a line of the CSV update streams.
+	 *
+	 * @param event The event to format.
+	 * @param line The builder to append the line to.
+	 */
+	private static void formatEvent( UpdateEvent event, StringBuilder line ) {
+		line.append(event.date).append('|');
+		line.append(event.dependantDate).append('|');
+		line.append(event.type.ordinal() + 1).append('|');
+		switch( event.type ) {
+			case ADD_PERSON: {
+				line.append(event.getLong(0)).append('|');
+				line.append(event.getString(0)).append('|');
+				line.append(event.getString(1)).append('|');
+				line.append(event.getLong(1) == 1 ? "male" : "female").append('|');
+				line.append(event.getLong(2)).append('|');
+				line.append(event.getLong(3)).append('|');
+				appendIP(line, event.getLong(4));
+				line.append('|');
+				line.append(Dictionaries.browsers.getName((int) event.getLong(5))).append('|');
+				line.append(event.getLong(6)).append('|');
+				int index = 7;
+				int count = (int) event.getLong(index++);
+				for( int i = 0; i < count; ++i ) {
+					if( i > 0 ) line.append(';');
+					line.append(Dictionaries.languages.getLanguageName((int) event.getLong(index++)));
+				}
+				line.append('|');
+				for( int i = 2; i < event.numStrings(); ++i ) {
+					if( i > 2 ) line.append(';');
+					line.append(event.getString(i));
+				}
+				line.append('|');
+				count = (int) event.getLong(index++);
+				for( int i = 0; i < count; ++i ) {
+					if( i > 0 ) line.append(';');
+					line.append(event.getLong(index++));
+				}
+				line.append('|');
+				for( int j = 0; j < 2; ++j ) {
+					count = (int) event.getLong(index++);
+					for( int i = 0; i < count; ++i ) {
+						if( i > 0 ) line.append(';');
+						line.append(event.getLong(index++)).append(',');
+						line.append(Dictionaries.dates.formatYear(event.getLong(index++)));
+					}
+					if( j == 0 ) line.append('|');
+				}
+				break;
+			}
+			case ADD_POST: {
+				line.append(event.getLong(0)).append('|');
+				line.append(event.getString(0)).append('|');
+				line.append(event.getLong(1)).append('|');
+				appendIP(line, event.getLong(2));
+				line.append('|');
+				line.append(Dictionaries.browsers.getName((int) event.getLong(3))).append('|');
+				if( event.getLong(4) != -1 ) {
+					line.append(Dictionaries.languages.getLanguageName((int) event.getLong(4)));
+				}
+				line.append('|');
+				line.append(event.getString(1)).append('|');
+				for( int i = 5; i < 9; ++i ) {
+					line.append(event.getLong(i)).append('|');
+				}
+				appendLongList(line, event, 9);
+				break;
+			}
+			case ADD_COMMENT: {
+				line.append(event.getLong(0)).append('|');
+				line.append(event.getLong(1)).append('|');
+				appendIP(line, event.getLong(2));
+				line.append('|');
+				line.append(Dictionaries.browsers.getName((int) event.getLong(3))).append('|');
+				line.append(event.getString(0)).append('|');
+				for( int i = 4; i < 9; ++i ) {
+					line.append(event.getLong(i)).append('|');
+				}
+				appendLongList(line, event, 9);
+				break;
+			}
+			case ADD_FORUM: {
+				line.append(event.getLong(0)).append('|');
+				line.append(event.getString(0)).append('|');
+				line.append(event.getLong(1)).append('|');
+				line.append(event.getLong(2)).append('|');
+				appendLongList(line, event, 3);
+				break;
+			}
+			default: {
+				for( int i = 0; i < event.numLongs(); ++i ) {
+					if( i > 0 ) line.append('|');
+					line.append(event.getLong(i));
+				}
+			}
+		}
+		line.append('\n');
+	}
 	
 	public void close() {
 		try {
 			FileSystem fs = FileSystem.get(conf_);
+			boolean compressed = conf_.getBoolean("ldbc.snb.datagen.serializer.compressed", false);
+			final boolean binary = conf_.get("ldbc.snb.datagen.serializer.updateStreams.format", "csv").equals("binary");
+			String socialNetworkDir = conf_.get("ldbc.snb.datagen.serializer.socialNetworkDir");
+			final DataInputBuffer eventInput = new DataInputBuffer();
+			final StringBuilder line = new StringBuilder(512);
+			final long [] bytesWritten = new long[1];
 			for( int i = 0; i < numPartitions_; ++i ) {
-				streamWriter_[i].close();
+				if( streamSorters_[i].isEmpty() ) {
+					continue;
+				}
+				String fileName = socialNetworkDir+"/updateStream_"+reducerId_+"_"+i+"_"+streamType_+(binary ? ".bin" : ".csv");
+				final OutputStream out;
+				if( compressed ) {
+					out = new GZIPOutputStream(fs.create(new Path(fileName+".gz"), true, 131072));
+				} else {
+					out = fs.create(new Path(fileName), true, 131072);
+				}
+				streamSorters_[i].writeSorted(new UpdateStreamSorter.EventWriter() {
+					public void write( long date, byte [] data ) throws IOException {
+						if( binary ) {
+							out.write(data);
+							bytesWritten[0] += data.length;
+							return;
+						}
+						eventInput.reset(data, data.length);
+						currentEvent_.readFields(eventInput);
+						line.setLength(0);
+						formatEvent(currentEvent_, line);
+						byte [] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+						out.write(bytes);
+						bytesWritten[0] += bytes.length;
+					}
+				});
+				out.close();
 			}
+			Metrics.add(Metrics.BYTES, "updateStream_"+streamType_, bytesWritten[0]);
 			
 			if(DatagenParams.updateStreams) {
 				OutputStream output = fs.create(new Path(fileNamePrefix_+".properties"),true);
@@ -199,71 +315,58 @@ public class UpdateEventSerializer {
 	
 	public void export(Person person) throws IOException {
 		
+		Metrics.increment(Metrics.ENTITIES, "persons");
 		currentDependantDate_ = 0;
 		beginEvent(person.creationDate(), UpdateEvent.UpdateEventType.ADD_PERSON);
-		data_.add(Long.toString(person.accountId()));
-		data_.add(person.firstName());
-		data_.add(person.lastName());
-		
-		if(person.gender() == 1) {
-			data_.add("male");
-		} else {
-			data_.add("female");
-		}
-		data_.add(Long.toString(person.birthDay()));
-		data_.add(Long.toString(person.creationDate()));
-		data_.add(person.ipAddress().toString());
-		data_.add(Dictionaries.browsers.getName(person.browserId()));
-		data_.add(Integer.toString(person.cityId()));
+		currentEvent_.addLong(person.accountId());
+		currentEvent_.addString(person.firstName());
+		currentEvent_.addString(person.lastName());
+		currentEvent_.addLong(person.gender());
+		currentEvent_.addLong(person.birthDay());
+		currentEvent_.addLong(person.creationDate());
+		currentEvent_.addLong(person.ipAddress().getIp());
+		currentEvent_.addLong(person.browserId());
+		currentEvent_.addLong(person.cityId());
 		
-		beginList();
+		currentEvent_.addLong(person.languages().size());
 		for( Integer l : person.languages()) {
-			list_.add(Dictionaries.languages.getLanguageName(l));
+			currentEvent_.addLong(l);
 		}
-		endList();
 		
-		beginList();
 		for(String e : person.emails()) {
-			list_.add(e);
+			currentEvent_.addString(e);
 		}
-		endList();
 		
-		beginList();
+		currentEvent_.addLong(person.interests().size());
 		for(Integer tag : person.interests()) {
-			list_.add(Integer.toString(tag));
+			currentEvent_.addLong(tag);
 		}
-		endList();
 		
-		beginList();
 		int universityId = person.universityLocationId();
-		if ( universityId != -1){
-			if (person.classYear() != -1 ) {
-				ArrayList<String> studyAtData = new ArrayList<String>();
-				studyAtData.add(Long.toString(Dictionaries.universities.getUniversityFromLocation(universityId)));
-				studyAtData.add(Dictionaries.dates.formatYear(person.classYear()));
-				list_.add(formatStringArray(studyAtData,","));
-			}
+		if ( universityId != -1 && person.classYear() != -1 ) {
+			currentEvent_.addLong(1);
+			currentEvent_.addLong(Dictionaries.universities.getUniversityFromLocation(universityId));
+			currentEvent_.addLong(person.classYear());
+		} else {
+			currentEvent_.addLong(0);
 		}
-		endList();
 		
-		beginList();
-		for( Long companyId : person.companies().keySet()) {
-			ArrayList<String> workAtData = new ArrayList<String>();
-			workAtData.add(Long.toString(companyId));
-			workAtData.add(Dictionaries.dates.formatYear(person.companies().get(companyId)));
-			list_.add(formatStringArray(workAtData,","));
+		currentEvent_.addLong(person.companies().size());
+		for( Map.Entry<Long, Long> company : person.companies().entrySet()) {
+			currentEvent_.addLong(company.getKey());
+			currentEvent_.addLong(company.getValue());
 		}
-		endList();
 		endEvent();
 	}
 	
 	public void export(Person p, Knows k) throws IOException{
         if( p.accountId() < k.to().accountId() ) {
+            Metrics.increment(Metrics.ENTITIES, "knows");
             currentDependantDate_ = Math.max(p.creationDate(), k.to().creationDate());
             beginEvent(k.creationDate(), UpdateEvent.UpdateEventType.ADD_FRIENDSHIP);
-            data_.add(Long.toString(p.accountId()));
-            data_.add(Long.toString(k.to().accountId()));
-            data_.add(Long.toString(k.creationDate()));
+            currentEvent_.addLong(p.accountId());
+            currentEvent_.addLong(k.to().accountId());
+            currentEvent_.addLong(k.creationDate());
             endEvent();
         }
 	}
@@ -271,24 +374,21 @@ public class UpdateEventSerializer {
 	public void export(Post post) throws IOException {
 		currentDependantDate_ = post.author().creationDate();
 		beginEvent(post.creationDate(), UpdateEvent.UpdateEventType.ADD_POST);
-		String empty = "";
-		data_.add(Long.toString(post.messageId()));
-		data_.add(empty);
-		data_.add(Long.toString(post.creationDate()));
-		data_.add(post.ipAddress().toString());
-		data_.add(Dictionaries.browsers.getName(post.browserId()));
-		data_.add(Dictionaries.languages.getLanguageName(post.language()));
-		data_.add(post.content());
-		data_.add(Long.toString(post.content().length()));
-		data_.add(Long.toString(post.author().accountId()));
-		data_.add(Long.toString(post.forumId()));
-		data_.add(Long.toString(Dictionaries.ips.getLocation(post.ipAddress())));
+		currentEvent_.addLong(post.messageId());
+		currentEvent_.addString("");
+		currentEvent_.addLong(post.creationDate());
+		currentEvent_.addLong(post.ipAddress().getIp());
+		currentEvent_.addLong(post.browserId());
+		currentEvent_.addLong(post.language());
+		currentEvent_.addString(post.content());
+		currentEvent_.addLong(post.content().length());
+		currentEvent_.addLong(post.author().accountId());
+		currentEvent_.addLong(post.forumId());
+		currentEvent_.addLong(Dictionaries.ips.getLocation(post.ipAddress()));
 		
-		beginList();
 		for( int tag : post.tags()) {
-			list_.add(Integer.toString(tag));
+			currentEvent_.addLong(tag);
 		}
-		endList();
 		endEvent();
 	}
 	
@@ -299,9 +399,9 @@ public class UpdateEventSerializer {
 		} else {
 			beginEvent(like.date, UpdateEvent.UpdateEventType.ADD_LIKE_POST);
 		}
-		data_.add(Long.toString(like.user));
-		data_.add(Long.toString(like.messageId));
-		data_.add(Long.toString(like.date));
+		currentEvent_.addLong(like.user);
+		currentEvent_.addLong(like.messageId);
+		currentEvent_.addLong(like.date);
 		endEvent();
 	}
 	
@@ -309,24 +409,21 @@ public class UpdateEventSerializer {
 		
 		currentDependantDate_ = photo.author().creationDate();
 		beginEvent(photo.creationDate(), UpdateEvent.UpdateEventType.ADD_POST);
-		String empty = "";
-		data_.add(Long.toString(photo.messageId()));
-		data_.add(photo.content());
-		data_.add(Long.toString(photo.creationDate()));
-		data_.add(photo.ipAddress().toString());
-		data_.add(Dictionaries.browsers.getName(photo.browserId()));
-		data_.add(empty);
-		data_.add(empty);
-		data_.add("0");
-		data_.add(Long.toString(photo.author().accountId()));
-		data_.add(Long.toString(photo.forumId()));
-		data_.add(Long.toString(Dictionaries.ips.getLocation(photo.ipAddress())));
+		currentEvent_.addLong(photo.messageId());
+		currentEvent_.addString(photo.content());
+		currentEvent_.addLong(photo.creationDate());
+		currentEvent_.addLong(photo.ipAddress().getIp());
+		currentEvent_.addLong(photo.browserId());
+		currentEvent_.addLong(-1);
+		currentEvent_.addString("");
+		currentEvent_.addLong(0);
+		currentEvent_.addLong(photo.author().accountId());
+		currentEvent_.addLong(photo.forumId());
+		currentEvent_.addLong(Dictionaries.ips.getLocation(photo.ipAddress()));
 		
-		beginList();
 		for( int tag : photo.tags()) {
-			list_.add(Integer.toString(tag));
+			currentEvent_.addLong(tag);
 		}
-		endList();
 		endEvent();
 	}
 	
@@ -334,51 +431,47 @@ public class UpdateEventSerializer {
 		
 		currentDependantDate_ = comment.author().creationDate();
 		beginEvent(comment.creationDate(), UpdateEvent.UpdateEventType.ADD_COMMENT);
-		data_.add(Long.toString(comment.messageId()));
-		data_.add(Long.toString(comment.creationDate()));
-		data_.add(comment.ipAddress().toString());
-		data_.add(Dictionaries.browsers.getName(comment.browserId()));
-		data_.add(comment.content());
-		data_.add(Integer.toString(comment.content().length()));
-		data_.add(Long.toString(comment.author().accountId()));
-		data_.add(Long.toString(Dictionaries.ips.getLocation(comment.ipAddress())));
+		currentEvent_.addLong(comment.messageId());
+		currentEvent_.addLong(comment.creationDate());
+		currentEvent_.addLong(comment.ipAddress().getIp());
+		currentEvent_.addLong(comment.browserId());
+		currentEvent_.addString(comment.content());
+		currentEvent_.addLong(comment.content().length());
+		currentEvent_.addLong(comment.author().accountId());
+		currentEvent_.addLong(Dictionaries.ips.getLocation(comment.ipAddress()));
 		if (comment.replyOf() == comment.postId()) {
-			data_.add(Long.toString(comment.postId()));
-			data_.add("-1");
+			currentEvent_.addLong(comment.postId());
+			currentEvent_.addLong(-1);
 		} else {
-			data_.add("-1");
-			data_.add(Long.toString(comment.replyOf()));
+			currentEvent_.addLong(-1);
+			currentEvent_.addLong(comment.replyOf());
 		}
-		beginList();
 		for( int tag : comment.tags()) {
-			list_.add(Integer.toString(tag));
+			currentEvent_.addLong(tag);
 		}
-		endList();
 		endEvent();
 	}
 	
 	public void export(Forum forum) throws IOException {
 		currentDependantDate_ = forum.moderator().creationDate();
 		beginEvent(forum.creationDate(), UpdateEvent.UpdateEventType.ADD_FORUM);
-		data_.add(Long.toString(forum.id()));
-		data_.add(forum.title());
-		data_.add(Long.toString(forum.creationDate()));
-		data_.add(Long.toString(forum.moderator().accountId()));
+		currentEvent_.addLong(forum.id());
+		currentEvent_.addString(forum.title());
+		currentEvent_.addLong(forum.creationDate());
+		currentEvent_.addLong(forum.moderator().accountId());
 		
-		beginList();
 		for( int tag : forum.tags()) {
-			list_.add(Integer.toString(tag));
+			currentEvent_.addLong(tag);
 		}
-		endList();
 		endEvent();
 	}
 	
 	public void export(ForumMembership membership) throws IOException {
 		currentDependantDate_ = membership.person().creationDate();
 		beginEvent(membership.creationDate(), UpdateEvent.UpdateEventType.ADD_FORUM_MEMBERSHIP);
-		data_.add(Long.toString(membership.forumId()));
-		data_.add(Long.toString(membership.person().accountId()));
-		data_.add(Long.toString(membership.creationDate()));
+		currentEvent_.addLong(membership.forumId());
+		currentEvent_.addLong(membership.person().accountId());
+		currentEvent_.addLong(membership.creationDate());
 		endEvent();
 	}
 	
@@ -0,0 +1,216 @@
+package ldbc.snb.datagen.serializer;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts the events of an update stream by date, with bounded memory. Events are kept in a run of at most runSize
+ * events, which is sorted and spilled to a local file when it is full. Since the events of a stream are emitted
+ * almost in date order, runs are usually already sorted and few of them are needed. The stream is produced by a
+ * k-way merge of the runs. Events with the same date keep the order in which they were added.
+ */
+public class UpdateStreamSorter {
+
+    /** Receives the sorted events.**/
+    public interface EventWriter {
+        void write( long date, byte [] data ) throws IOException;
+    }
+
+    private static class Event {
+        public long date;
+        public byte [] data;
+
+        public Event( long date, byte [] data ) {
+            this.date = date;
+            this.data = data;
+        }
+    }
+
+    /** The next event of a spilled run, during the merge.**/
+    private static class RunReader {
+        public DataInputStream in;
+        public int run;
+        public int remaining;
+        public long date;
+        public byte [] data;
+
+        public boolean next() throws IOException {
+            if( remaining == 0 ) {
+                in.close();
+                return false;
+            }
+            remaining--;
+            date = in.readLong();
+            data = new byte[in.readInt()];
+            in.readFully(data);
+            return true;
+        }
+    }
+
+    private static final int MAX_RUNS = 64;                 /** The maximum number of spilled runs merged at once.**/
+
+    private static final Comparator<Event> DATE_ORDER = new Comparator<Event>() {
+        public int compare( Event a, Event b ) {
+            return Long.compare(a.date, b.date);
+        }
+    };
+
+    private int runSize_;
+    private ArrayList<Event> run_;
+    private boolean sorted_ = true;                         /** Whether the current run is already sorted.**/
+    private ArrayList<File> runFiles_ = new ArrayList<File>();
+    private ArrayList<Integer> runLengths_ = new ArrayList<Integer>();
+
+    public UpdateStreamSorter( int runSize ) {
+        runSize_ = runSize;
+        run_ = new ArrayList<Event>(Math.min(runSize, 1 << 16));
+    }
+
+    public boolean isEmpty() {
+        return run_.isEmpty() && runFiles_.isEmpty();
+    }
+
+    public void add( long date, byte [] data ) throws IOException {
+        if( run_.size() > 0 && run_.get(run_.size() - 1).date > date ) {
+            sorted_ = false;
+        }
+        run_.add(new Event(date, data));
+        if( run_.size() >= runSize_ ) {
+            spill();
+        }
+    }
+
+    private void sortRun() {
+        if( !sorted_ ) {
+            Collections.sort(run_, DATE_ORDER);                 // Stable, so ties keep their order.
+            sorted_ = true;
+        }
+    }
+
+    /** Creates the file of a spilled run. It is deleted when the run is merged, or if writing it fails.**/
+    private static File createRunFile() throws IOException {
+        return File.createTempFile("updateStream", ".run");
+    }
+
+    private static void writeEvent( DataOutputStream out, long date, byte [] data ) throws IOException {
+        out.writeLong(date);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private void spill() throws IOException {
+        sortRun();
+        File file = createRunFile();
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+            try {
+                for( Event event : run_ ) {
+                    writeEvent(out, event.date, event.data);
+                }
+            } finally {
+                out.close();
+            }
+        } catch( IOException e ) {
+            file.delete();
+            throw e;
+        }
+        runFiles_.add(file);
+        runLengths_.add(run_.size());
+        run_.clear();
+        if( runFiles_.size() >= MAX_RUNS ) {
+            // The spilled runs are merged into a single one, which precedes any later run.
+            File merged = createRunFile();
+            int length;
+            try {
+                final DataOutputStream mergedOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(merged), 1 << 16));
+                try {
+                    length = merge(new EventWriter() {
+                        public void write( long date, byte [] data ) throws IOException {
+                            writeEvent(mergedOut, date, data);
+                        }
+                    }, true);
+                } finally {
+                    mergedOut.close();
+                }
+            } catch( IOException e ) {
+                merged.delete();
+                throw e;
+            }
+            runFiles_.add(merged);
+            runLengths_.add(length);
+        }
+    }
+
+    /** Passes all the events added so far, sorted by date, to a writer, and releases the spilled runs.
+     *
+     * @param writer The writer of the events.
+     */
+    public void writeSorted( EventWriter writer ) throws IOException {
+        sortRun();
+        merge(writer, false);
+        run_.clear();
+    }
+
+    /** Merges the spilled runs, and the run in memory if they are written to the final stream, and deletes the
+     * files of the spilled runs. The run in memory takes part in the merge as the last run, so that ties are resolved
+     * in insertion order.
+     *
+     * @param writer The writer of the events.
+     * @param spill Whether the merged events form a new spilled run, in which case the run in memory is left out.
+     * @return The number of merged events.
+     */
+    private int merge( EventWriter writer, boolean spill ) throws IOException {
+        PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>(runFiles_.size() + 1, new Comparator<RunReader>() {
+            public int compare( RunReader a, RunReader b ) {
+                if( a.date != b.date ) {
+                    return Long.compare(a.date, b.date);
+                }
+                return a.run - b.run;
+            }
+        });
+        ArrayList<RunReader> readers = new ArrayList<RunReader>(runFiles_.size());
+        try {
+            for( int i = 0; i < runFiles_.size(); ++i ) {
+                RunReader reader = new RunReader();
+                reader.in = new DataInputStream(new BufferedInputStream(new FileInputStream(runFiles_.get(i)), 1 << 16));
+                readers.add(reader);
+                reader.run = i;
+                reader.remaining = runLengths_.get(i);
+                if( reader.next() ) {
+                    queue.add(reader);
+                }
+            }
+            int memorySize = spill ? 0 : run_.size();
+            int memoryIndex = 0;
+            int count = 0;
+            while( !queue.isEmpty() || memoryIndex < memorySize ) {
+                RunReader reader = queue.peek();
+                if( memoryIndex < memorySize && (reader == null || run_.get(memoryIndex).date < reader.date) ) {
+                    Event event = run_.get(memoryIndex++);
+                    writer.write(event.date, event.data);
+                } else {
+                    queue.poll();
+                    writer.write(reader.date, reader.data);
+                    if( reader.next() ) {
+                        queue.add(reader);
+                    }
+                }
+                count++;
+            }
+            return count;
+        } finally {
+            // The runs are released even if the merge fails, since the sorter cannot be used after a failure.
+            for( RunReader reader : readers ) {
+                reader.in.close();
+            }
+            for( File file : runFiles_ ) {
+                file.delete();
+            }
+            runFiles_.clear();
+            runLengths_.clear();
+        }
+    }
+}
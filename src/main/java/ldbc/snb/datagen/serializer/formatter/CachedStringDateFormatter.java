@@ -0,0 +1,224 @@
+package ldbc.snb.datagen.serializer.formatter;
+
+import org.apache.hadoop.conf.Configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * Formats dates with the same patterns, and the same output, as StringDateFormatter, without going through
+ * SimpleDateFormat for each date. For every day of the simulation window, the parts of the pattern that only depend
+ * on the day (year, month, day, time zone and literals) are formatted once, and the time of the day fields
+ * (H, k, K, h, m, s and S) are written arithmetically between them. Dates out of the window, and patterns with
+ * fields that cannot be written arithmetically, fall back to SimpleDateFormat.
+ */
+public class CachedStringDateFormatter implements DateFormatter {
+
+    private static final long ONE_DAY = 24L * 60L * 60L * 1000L;
+
+    /** A pattern compiled into the fragments that only depend on the day, for each day of the window.**/
+    private static class CompiledPattern {
+        private SimpleDateFormat formatter_;
+        private Date date_ = new Date();
+        private char [] fields_;            /** The time of the day fields, in order, null if not supported.**/
+        private int [] widths_;
+        private long firstDay_;
+        private byte [][][] fragments_;     /** For each day, the fragments before, between and after the fields.**/
+        private int [] maxLengths_;          /** For each day, the maximum number of bytes of a formatted date.**/
+        private byte [] scratch_;
+
+        public CompiledPattern( String pattern, long firstDay, long lastDay ) {
+            formatter_ = gmtFormatter(pattern);
+            ArrayList<String> runs = new ArrayList<String>();
+            ArrayList<Character> fields = new ArrayList<Character>();
+            ArrayList<Integer> widths = new ArrayList<Integer>();
+            int runStart = 0;
+            int i = 0;
+            while( i < pattern.length() ) {
+                char c = pattern.charAt(i);
+                if( c == '\'' ) {
+                    int end = i + 1;
+                    while( end < pattern.length() ) {
+                        if( pattern.charAt(end) == '\'' ) {
+                            if( end + 1 < pattern.length() && pattern.charAt(end+1) == '\'' ) {
+                                end += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        end++;
+                    }
+                    i = end + 1;
+                } else if( (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') ) {
+                    int end = i + 1;
+                    while( end < pattern.length() && pattern.charAt(end) == c ) {
+                        end++;
+                    }
+                    if( c == 'H' || c == 'k' || c == 'K' || c == 'h' || c == 'm' || c == 's' || c == 'S' ) {
+                        runs.add(pattern.substring(runStart, i));
+                        fields.add(c);
+                        widths.add(end - i);
+                        runStart = end;
+                    } else if( c == 'a' ) {
+                        return;                                 // The am/pm marker is left to SimpleDateFormat.
+                    }
+                    i = end;
+                } else {
+                    i++;
+                }
+            }
+            runs.add(pattern.substring(runStart));
+
+            fields_ = new char[fields.size()];
+            widths_ = new int[fields.size()];
+            int fieldsLength = 0;
+            for( int j = 0; j < fields_.length; ++j ) {
+                fields_[j] = fields.get(j);
+                widths_[j] = widths.get(j);
+                fieldsLength += Math.max(widths_[j], 3);
+            }
+            SimpleDateFormat [] runFormatters = new SimpleDateFormat[runs.size()];
+            for( int j = 0; j < runFormatters.length; ++j ) {
+                runFormatters[j] = gmtFormatter(runs.get(j));
+            }
+            firstDay_ = firstDay;
+            int numDays = (int) (lastDay - firstDay);
+            fragments_ = new byte[numDays][][];
+            maxLengths_ = new int[numDays];
+            int maxLength = 0;
+            for( int day = 0; day < numDays; ++day ) {
+                date_.setTime((firstDay + day) * ONE_DAY);
+                fragments_[day] = new byte[runFormatters.length][];
+                maxLengths_[day] = fieldsLength;
+                for( int j = 0; j < runFormatters.length; ++j ) {
+                    fragments_[day][j] = runFormatters[j].format(date_).getBytes(StandardCharsets.UTF_8);
+                    maxLengths_[day] += fragments_[day][j].length;
+                }
+                maxLength = Math.max(maxLength, maxLengths_[day]);
+            }
+            scratch_ = new byte[maxLength];
+        }
+
+        /** Writes the date into a buffer, returning the number of bytes written or -1 if it does not fit.**/
+        public int format( long date, byte [] buffer, int offset ) {
+            long day = Math.floorDiv(date, ONE_DAY) - firstDay_;
+            if( fields_ == null || day < 0 || day >= fragments_.length ) {
+                byte [] bytes = formatString(date).getBytes(StandardCharsets.UTF_8);
+                if( offset + bytes.length > buffer.length ) {
+                    return -1;
+                }
+                System.arraycopy(bytes, 0, buffer, offset, bytes.length);
+                return bytes.length;
+            }
+            if( offset + maxLengths_[(int) day] > buffer.length ) {
+                return -1;
+            }
+            byte [][] fragments = fragments_[(int) day];
+            int millis = (int) Math.floorMod(date, ONE_DAY);
+            int position = offset;
+            System.arraycopy(fragments[0], 0, buffer, position, fragments[0].length);
+            position += fragments[0].length;
+            for( int j = 0; j < fields_.length; ++j ) {
+                position = writeDigits(buffer, position, fieldValue(fields_[j], millis), widths_[j]);
+                System.arraycopy(fragments[j+1], 0, buffer, position, fragments[j+1].length);
+                position += fragments[j+1].length;
+            }
+            return position - offset;
+        }
+
+        public String format( long date ) {
+            long day = Math.floorDiv(date, ONE_DAY) - firstDay_;
+            if( fields_ == null || day < 0 || day >= fragments_.length ) {
+                return formatString(date);
+            }
+            int length = format(date, scratch_, 0);
+            return new String(scratch_, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private String formatString( long date ) {
+            date_.setTime(date);
+            return formatter_.format(date_);
+        }
+    }
+
+    private CompiledPattern dateTime_;
+    private CompiledPattern date_;
+
+    public void initialize( Configuration conf ) {
+        String dateTimeFormat = conf.get("ldbc.snb.datagen.serializer.formatter.StringDateFormatter.dateTimeFormat", "yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+        String dateFormat = conf.get("ldbc.snb.datagen.serializer.formatter.StringDateFormatter.dateFormat", "yyyy-MM-dd");
+        // The window covers the simulated years, plus one year for the activity generated after the end date.
+        int startYear = conf.getInt("ldbc.snb.datagen.generator.startYear", 2010);
+        int endYear = startYear + conf.getInt("ldbc.snb.datagen.generator.numYears", 3) + 1;
+        GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("GMT"));
+        calendar.clear();
+        calendar.set(startYear, GregorianCalendar.JANUARY, 1);
+        long firstDay = calendar.getTimeInMillis() / ONE_DAY;
+        calendar.set(endYear, GregorianCalendar.JANUARY, 1);
+        long lastDay = calendar.getTimeInMillis() / ONE_DAY;
+        dateTime_ = new CompiledPattern(dateTimeFormat, firstDay, lastDay);
+        date_ = new CompiledPattern(dateFormat, firstDay, lastDay);
+    }
+
+    public String formatDate( long date ) {
+        return date_.format(date);
+    }
+
+    public String formatDateTime( long date ) {
+        return dateTime_.format(date);
+    }
+
+    public int formatDate( long date, byte [] buffer, int offset ) {
+        return date_.format(date, buffer, offset);
+    }
+
+    public int formatDateTime( long date, byte [] buffer, int offset ) {
+        return dateTime_.format(date, buffer, offset);
+    }
+
+    private static SimpleDateFormat gmtFormatter( String pattern ) {
+        SimpleDateFormat formatter = new SimpleDateFormat(pattern);
+        formatter.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return formatter;
+    }
+
+    private static int fieldValue( char field, int millis ) {
+        int hour = millis / 3600000;
+        switch( field ) {
+            case 'H':
+                return hour;
+            case 'k':
+                return hour == 0 ? 24 : hour;
+            case 'K':
+                return hour % 12;
+            case 'h':
+                return hour % 12 == 0 ? 12 : hour % 12;
+            case 'm':
+                return (millis / 60000) % 60;
+            case 's':
+                return (millis / 1000) % 60;
+            default:
+                return millis % 1000;
+        }
+    }
+
+    /** Writes a number of at most three digits, padded with zeros to the given width.**/
+    private static int writeDigits( byte [] buffer, int position, int value, int width ) {
+        int numDigits = value >= 100 ? 3 : value >= 10 ? 2 : 1;
+        for( int i = numDigits; i < width; ++i ) {
+            buffer[position++] = '0';
+        }
+        if( numDigits == 3 ) {
+            buffer[position++] = (byte) ('0' + value / 100);
+        }
+        if( numDigits >= 2 ) {
+            buffer[position++] = (byte) ('0' + (value / 10) % 10);
+        }
+        buffer[position++] = (byte) ('0' + value % 10);
+        return position;
+    }
+}
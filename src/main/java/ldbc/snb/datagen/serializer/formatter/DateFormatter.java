@@ -2,6 +2,8 @@ package ldbc.snb.datagen.serializer.formatter;
 
 import org.apache.hadoop.conf.Configuration;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Created by aprat on 14/01/16.
  */
@@ -10,4 +12,29 @@ public interface DateFormatter {
     public void initialize(Configuration config);
     public String formatDate(long date);
     public String formatDateTime(long date);
+
+    /** Writes the formatted date as UTF-8 into a buffer.
+     *
+     * @return The number of bytes written, or -1 if the buffer is too small.
+     */
+    public default int formatDate(long date, byte [] buffer, int offset) {
+        return copy(formatDate(date), buffer, offset);
+    }
+
+    /** Writes the formatted date time as UTF-8 into a buffer.
+     *
+     * @return The number of bytes written, or -1 if the buffer is too small.
+     */
+    public default int formatDateTime(long date, byte [] buffer, int offset) {
+        return copy(formatDateTime(date), buffer, offset);
+    }
+
+    static int copy(String value, byte [] buffer, int offset) {
+        byte [] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if( offset + bytes.length > buffer.length ) {
+            return -1;
+        }
+        System.arraycopy(bytes, 0, buffer, offset, bytes.length);
+        return bytes.length;
+    }
 }
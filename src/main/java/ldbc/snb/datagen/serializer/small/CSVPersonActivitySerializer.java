@@ -14,7 +14,6 @@ package ldbc.snb.datagen.serializer.small;
  */
 public class CSVPersonActivitySerializer extends PersonActivitySerializer {
     private HDFSCSVWriter [] writers;
-    private ArrayList<String> arguments;
     private String empty="";
 
     private enum FileNames {
@@ -44,34 +43,16 @@ public class CSVPersonActivitySerializer extends PersonActivitySerializer {
         for( int i = 0; i < numFiles; ++i) {
             writers[i] = new HDFSCSVWriter(conf.get("ldbc.snb.datagen.serializer.socialNetworkDir"),FileNames.values()[i].toString()+"_"+reducerId,conf.getInt("ldbc.snb.datagen.numPartitions",1),conf.getBoolean("ldbc.snb.datagen.serializer.compressed",false),"|", conf.getBoolean("ldbc.snb.datagen.serializer.endlineSeparator",false));
         }
-        arguments = new ArrayList<String>();
-
-
-        arguments.add("User.id");
-        arguments.add("Message.id");
-        writers[FileNames.USER_LIKES_MESSAGE.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("id");
-        arguments.add("body");
-        arguments.add("date");
-        writers[FileNames.MESSAGE.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("User.id");
-        arguments.add("Message.id");
-        writers[FileNames.USER_CREATES_MESSAGE.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Message.id");
-        arguments.add("Tag.id");
-        writers[FileNames.MESSAGE_HASTAG_TAG.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Message.id");
-        arguments.add("Message.id");
-        writers[FileNames.MESSAGE_REPLYOF_MESSAGE.ordinal()].writeEntry(arguments);
-        arguments.clear();
+
+        writers[FileNames.USER_LIKES_MESSAGE.ordinal()].append("User.id").append("Message.id").endEntry();
+
+        writers[FileNames.MESSAGE.ordinal()].append("id").append("body").append("date").endEntry();
+
+        writers[FileNames.USER_CREATES_MESSAGE.ordinal()].append("User.id").append("Message.id").endEntry();
+
+        writers[FileNames.MESSAGE_HASTAG_TAG.ordinal()].append("Message.id").append("Tag.id").endEntry();
+
+        writers[FileNames.MESSAGE_REPLYOF_MESSAGE.ordinal()].append("Message.id").append("Message.id").endEntry();
     }
 
     @Override
@@ -88,54 +69,28 @@ public class CSVPersonActivitySerializer extends PersonActivitySerializer {
 
     protected void serialize( final Post post ) {
 
-        arguments.add(Long.toString(post.messageId()));
-        arguments.add(post.content());
-        arguments.add(Dictionaries.dates.formatDateTime(post.creationDate()));
-        writers[FileNames.MESSAGE.ordinal()].writeEntry(arguments);
-        arguments.clear();
+        writers[FileNames.MESSAGE.ordinal()].append(post.messageId()).append(post.content()).appendDateTime(post.creationDate()).endEntry();
 
-        arguments.add(Long.toString(post.author().accountId()));
-        arguments.add(Long.toString(post.messageId()));
-        writers[FileNames.USER_CREATES_MESSAGE.ordinal()].writeEntry(arguments);
-        arguments.clear();
+        writers[FileNames.USER_CREATES_MESSAGE.ordinal()].append(post.author().accountId()).append(post.messageId()).endEntry();
 
         for( Integer t : post.tags() ) {
-            arguments.add(Long.toString(post.messageId()));
-            arguments.add(Integer.toString(t));
-            writers[FileNames.MESSAGE_HASTAG_TAG.ordinal()].writeEntry(arguments);
-            arguments.clear();
+            writers[FileNames.MESSAGE_HASTAG_TAG.ordinal()].append(post.messageId()).append(t).endEntry();
         }
     }
 
     protected void serialize( final Comment comment ) {
-        arguments.add(Long.toString(comment.messageId()));
-        arguments.add(comment.content());
-        arguments.add(Dictionaries.dates.formatDateTime(comment.creationDate()));
-        writers[FileNames.MESSAGE.ordinal()].writeEntry(arguments);
-        arguments.clear();
+        writers[FileNames.MESSAGE.ordinal()].append(comment.messageId()).append(comment.content()).appendDateTime(comment.creationDate()).endEntry();
 
         if (comment.replyOf() == comment.postId()) {
-            arguments.add(Long.toString(comment.messageId()));
-            arguments.add(Long.toString(comment.postId()));
-            writers[FileNames.MESSAGE_REPLYOF_MESSAGE.ordinal()].writeEntry(arguments);
-            arguments.clear();
+            writers[FileNames.MESSAGE_REPLYOF_MESSAGE.ordinal()].append(comment.messageId()).append(comment.postId()).endEntry();
         } else {
-            arguments.add(Long.toString(comment.messageId()));
-            arguments.add(Long.toString(comment.replyOf()));
-            writers[FileNames.MESSAGE_REPLYOF_MESSAGE.ordinal()].writeEntry(arguments);
-            arguments.clear();
+            writers[FileNames.MESSAGE_REPLYOF_MESSAGE.ordinal()].append(comment.messageId()).append(comment.replyOf()).endEntry();
         }
 
-        arguments.add(Long.toString(comment.author().accountId()));
-        arguments.add(Long.toString(comment.messageId()));
-        writers[FileNames.USER_CREATES_MESSAGE.ordinal()].writeEntry(arguments);
-        arguments.clear();
+        writers[FileNames.USER_CREATES_MESSAGE.ordinal()].append(comment.author().accountId()).append(comment.messageId()).endEntry();
 
         for( Integer t : comment.tags() ) {
-            arguments.add(Long.toString(comment.messageId()));
-            arguments.add(Integer.toString(t));
-            writers[FileNames.MESSAGE_HASTAG_TAG.ordinal()].writeEntry(arguments);
-            arguments.clear();
+            writers[FileNames.MESSAGE_HASTAG_TAG.ordinal()].append(comment.messageId()).append(t).endEntry();
         }
     }
 
@@ -147,10 +102,7 @@ public class CSVPersonActivitySerializer extends PersonActivitySerializer {
     }
 
     protected void serialize( final Like like ) {
-        arguments.add(Long.toString(like.user));
-        arguments.add(Long.toString(like.messageId));
-        writers[FileNames.USER_LIKES_MESSAGE.ordinal()].writeEntry(arguments);
-        arguments.clear();
+        writers[FileNames.USER_LIKES_MESSAGE.ordinal()].append(like.user).append(like.messageId).endEntry();
     }
     public void reset() {
 
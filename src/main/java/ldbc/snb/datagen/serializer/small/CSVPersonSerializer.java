@@ -78,17 +78,10 @@ public class CSVPersonSerializer extends PersonSerializer {
             writers[i] = new HDFSCSVWriter(conf.get("ldbc.snb.datagen.serializer.socialNetworkDir"),FileNames.values()[i].toString()+"_"+reducerId,conf.getInt("ldbc.snb.datagen.numPartitions",1),conf.getBoolean("ldbc.snb.datagen.serializer.compressed",false),"|", conf.getBoolean("ldbc.snb.datagen.serializer.endlineSeparator",false));
         }
 
-        ArrayList<String> arguments = new ArrayList<String>();
-        arguments.add("id");
-        arguments.add("nickname");
-        writers[FileNames.PERSON.ordinal()].writeEntry(arguments);
-        arguments.clear();
+        writers[FileNames.PERSON.ordinal()].append("id").append("nickname").endEntry();
 
 
-        arguments.add("User.id");
-        arguments.add("User.id");
-        writers[FileNames.PERSON_KNOWS_PERSON.ordinal()].writeEntry(arguments);
-        arguments.clear();
+        writers[FileNames.PERSON_KNOWS_PERSON.ordinal()].append("User.id").append("User.id").endEntry();
 
     }
 
@@ -102,12 +95,7 @@ public class CSVPersonSerializer extends PersonSerializer {
 
     @Override
     protected void serialize(final Person p) {
-
-        ArrayList<String> arguments = new ArrayList<String>();
-
-        arguments.add(Long.toString(p.accountId()));
-        arguments.add(p.firstName()+" "+p.lastName());
-        writers[FileNames.PERSON.ordinal()].writeEntry(arguments);
+        writers[FileNames.PERSON.ordinal()].append(p.accountId()).append(p.firstName()+" "+p.lastName()).endEntry();
     }
 
     @Override
@@ -120,11 +108,7 @@ public class CSVPersonSerializer extends PersonSerializer {
 
     @Override
     protected void serialize(final Person p, Knows knows) {
-        ArrayList<String> arguments = new ArrayList<String>();
-
-        arguments.add(Long.toString(p.accountId()));
-        arguments.add(Long.toString(knows.to().accountId()));
-        writers[FileNames.PERSON_KNOWS_PERSON.ordinal()].writeEntry(arguments);
+        writers[FileNames.PERSON_KNOWS_PERSON.ordinal()].append(p.accountId()).append(knows.to().accountId()).endEntry();
     }
     public void reset() {
 
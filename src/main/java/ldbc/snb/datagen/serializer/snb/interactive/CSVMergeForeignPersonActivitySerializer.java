@@ -6,14 +6,11 @@ import ldbc.snb.datagen.serializer.HDFSCSVWriter;
 import ldbc.snb.datagen.serializer.PersonActivitySerializer;
 import org.apache.hadoop.conf.Configuration;
 
-import java.util.ArrayList;
-
 /**
  * Created by aprat on 17/02/15.
  */
 public class CSVMergeForeignPersonActivitySerializer extends PersonActivitySerializer {
     private HDFSCSVWriter[] writers;
-    private ArrayList<String> arguments;
     private String empty="";
 
     private enum FileNames {
@@ -47,75 +44,50 @@ public class CSVMergeForeignPersonActivitySerializer extends PersonActivitySeria
         for( int i = 0; i < numFiles; ++i) {
             writers[i] = new HDFSCSVWriter(conf.get("ldbc.snb.datagen.serializer.socialNetworkDir"),FileNames.values()[i].toString()+"_"+reducerId,conf.getInt("ldbc.snb.datagen.numPartitions",1),conf.getBoolean("ldbc.snb.datagen.serializer.compressed",false),"|",conf.getBoolean("ldbc.snb.datagen.serializer.endlineSeparator",false));
         }
-        arguments = new ArrayList<String>();
-
-        arguments.add("id");
-        arguments.add("title");
-        arguments.add("creationDate");
-        arguments.add("moderator");
-        writers[FileNames.FORUM.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Forum.id");
-        arguments.add("Person.id");
-        arguments.add("joinDate");
-        writers[FileNames.FORUM_HASMEMBER_PERSON.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Forum.id");
-        arguments.add("Tag.id");
-        writers[FileNames.FORUM_HASTAG_TAG.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Person.id");
-        arguments.add("Post.id");
-        arguments.add("creationDate");
-        writers[FileNames.PERSON_LIKES_POST.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Person.id");
-        arguments.add("Comment.id");
-        arguments.add("creationDate");
-        writers[FileNames.PERSON_LIKES_COMMENT.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("id");
-        arguments.add("imageFile");
-        arguments.add("creationDate");
-        arguments.add("locationIP");
-        arguments.add("browserUsed");
-        arguments.add("language");
-        arguments.add("content");
-        arguments.add("length");
-        arguments.add("creator");
-        arguments.add("Forum.id");
-        arguments.add("place");
-        writers[FileNames.POST.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Post.id");
-        arguments.add("Tag.id");
-        writers[FileNames.POST_HASTAG_TAG.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("id");
-        arguments.add("creationDate");
-        arguments.add("locationIP");
-        arguments.add("browserUsed");
-        arguments.add("content");
-	arguments.add("gifFile");
-        arguments.add("length");
-        arguments.add("creator");
-        arguments.add("place");
-        arguments.add("replyOfPost");
-        arguments.add("replyOfComment");
-        writers[FileNames.COMMENT.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Comment.id");
-        arguments.add("Tag.id");
-        writers[FileNames.COMMENT_HASTAG_TAG.ordinal()].writeEntry(arguments);
-        arguments.clear();
+
+        writers[FileNames.FORUM.ordinal()].append("id")
+            .append("title")
+            .append("creationDate")
+            .append("moderator")
+            .endEntry();
+
+        writers[FileNames.FORUM_HASMEMBER_PERSON.ordinal()].append("Forum.id").append("Person.id").append("joinDate").endEntry();
+
+        writers[FileNames.FORUM_HASTAG_TAG.ordinal()].append("Forum.id").append("Tag.id").endEntry();
+
+        writers[FileNames.PERSON_LIKES_POST.ordinal()].append("Person.id").append("Post.id").append("creationDate").endEntry();
+
+        writers[FileNames.PERSON_LIKES_COMMENT.ordinal()].append("Person.id").append("Comment.id").append("creationDate").endEntry();
+
+        writers[FileNames.POST.ordinal()].append("id")
+            .append("imageFile")
+            .append("creationDate")
+            .append("locationIP")
+            .append("browserUsed")
+            .append("language")
+            .append("content")
+            .append("length")
+            .append("creator")
+            .append("Forum.id")
+            .append("place")
+            .endEntry();
+
+        writers[FileNames.POST_HASTAG_TAG.ordinal()].append("Post.id").append("Tag.id").endEntry();
+
+        writers[FileNames.COMMENT.ordinal()].append("id")
+            .append("creationDate")
+            .append("locationIP")
+            .append("browserUsed")
+            .append("content")
+            .append("gifFile")
+            .append("length")
+            .append("creator")
+            .append("place")
+            .append("replyOfPost")
+            .append("replyOfComment")
+            .endEntry();
+
+        writers[FileNames.COMMENT_HASTAG_TAG.ordinal()].append("Comment.id").append("Tag.id").endEntry();
     }
 
     @Override
@@ -128,128 +100,104 @@ public class CSVMergeForeignPersonActivitySerializer extends PersonActivitySeria
 
     protected void serialize(final  Forum forum ) {
 
-        String dateString = Dictionaries.dates.formatDateTime(forum.creationDate());
-
-        arguments.add(Long.toString(forum.id()));
-        arguments.add(forum.title());
-        arguments.add(dateString);
-        arguments.add(Long.toString(forum.moderator().accountId()));
-        writers[FileNames.FORUM.ordinal()].writeEntry(arguments);
-        arguments.clear();
+        writers[FileNames.FORUM.ordinal()].append(forum.id())
+            .append(forum.title())
+            .appendDateTime(forum.creationDate())
+            .append(forum.moderator().accountId())
+            .endEntry();
 
         for( Integer i : forum.tags()) {
-            arguments.add(Long.toString(forum.id()));
-            arguments.add(Integer.toString(i));
-            writers[FileNames.FORUM_HASTAG_TAG.ordinal()].writeEntry(arguments);
-            arguments.clear();
+            writers[FileNames.FORUM_HASTAG_TAG.ordinal()].append(forum.id()).append(i).endEntry();
         }
 
     }
 
     protected void serialize( final Post post ) {
 
-        arguments.add(Long.toString(post.messageId()));
-        arguments.add(empty);
-        arguments.add(Dictionaries.dates.formatDateTime(post.creationDate()));
-        arguments.add(post.ipAddress().toString());
-        arguments.add(Dictionaries.browsers.getName(post.browserId()));
-        arguments.add(Dictionaries.languages.getLanguageName(post.language()));
-        arguments.add(post.content());
-        arguments.add(Integer.toString(post.content().length()));
-        arguments.add(Long.toString(post.author().accountId()));
-        arguments.add(Long.toString(post.forumId()));
+        HDFSCSVWriter writer = writers[FileNames.POST.ordinal()];
+        writer.append(post.messageId())
+            .append(empty)
+            .appendDateTime(post.creationDate())
+            .append(post.ipAddress().toString())
+            .append(Dictionaries.browsers.getName(post.browserId()))
+            .append(Dictionaries.languages.getLanguageName(post.language()))
+            .append(post.content())
+            .append(post.content().length())
+            .append(post.author().accountId())
+            .append(post.forumId());
 	if (post.countryKnown())
-	    arguments.add(Integer.toString(post.countryId()));
+	    writer.append(post.countryId());
 	else
-	    arguments.add("");
-        writers[FileNames.POST.ordinal()].writeEntry(arguments);
-        arguments.clear();
+	    writer.append("");
+        writer.endEntry();
 
         for( Integer t : post.tags() ) {
-            arguments.add(Long.toString(post.messageId()));
-            arguments.add(Integer.toString(t));
-            writers[FileNames.POST_HASTAG_TAG.ordinal()].writeEntry(arguments);
-            arguments.clear();
+            writers[FileNames.POST_HASTAG_TAG.ordinal()].append(post.messageId()).append(t).endEntry();
         }
     }
 
     protected void serialize( final Comment comment ) {
-        arguments.add(Long.toString(comment.messageId()));
-        arguments.add(Dictionaries.dates.formatDateTime(comment.creationDate()));
-        arguments.add(comment.ipAddress().toString());
-        arguments.add(Dictionaries.browsers.getName(comment.browserId()));
-        arguments.add(comment.content());
-	arguments.add(comment.gif());
-        arguments.add(Integer.toString(comment.content().length()));
-        arguments.add(Long.toString(comment.author().accountId()));
+        HDFSCSVWriter writer = writers[FileNames.COMMENT.ordinal()];
+        writer.append(comment.messageId())
+            .appendDateTime(comment.creationDate())
+            .append(comment.ipAddress().toString())
+            .append(Dictionaries.browsers.getName(comment.browserId()))
+            .append(comment.content())
+            .append(comment.gif())
+            .append(comment.content().length())
+            .append(comment.author().accountId());
 	if (comment.countryKnown())
-	    arguments.add(Integer.toString(comment.countryId()));
+	    writer.append(comment.countryId());
 	else
-	    arguments.add("");
+	    writer.append("");
         if (comment.replyOf() == comment.postId()) {
-            arguments.add(Long.toString(comment.postId()));
-            arguments.add(empty);
+            writer.append(comment.postId()).append(empty);
         } else {
-            arguments.add(empty);
-            arguments.add(Long.toString(comment.replyOf()));
+            writer.append(empty).append(comment.replyOf());
         }
-        writers[FileNames.COMMENT.ordinal()].writeEntry(arguments);
-        arguments.clear();
+        writer.endEntry();
 
         for( Integer t : comment.tags() ) {
-            arguments.add(Long.toString(comment.messageId()));
-            arguments.add(Integer.toString(t));
-            writers[FileNames.COMMENT_HASTAG_TAG.ordinal()].writeEntry(arguments);
-            arguments.clear();
+            writers[FileNames.COMMENT_HASTAG_TAG.ordinal()].append(comment.messageId()).append(t).endEntry();
         }
     }
 
     protected void serialize(final  Photo photo ) {
 
-        arguments.add(Long.toString(photo.messageId()));
-        arguments.add(photo.content());
-        arguments.add(Dictionaries.dates.formatDateTime(photo.creationDate()));
-        arguments.add(photo.ipAddress().toString());
-        arguments.add(Dictionaries.browsers.getName(photo.browserId()));
-        arguments.add(empty);
-        arguments.add(empty);
-        arguments.add(Integer.toString(0));
-        arguments.add(Long.toString(photo.author().accountId()));
-        arguments.add(Long.toString(photo.forumId()));
+        HDFSCSVWriter writer = writers[FileNames.POST.ordinal()];
+        writer.append(photo.messageId())
+            .append(photo.content())
+            .appendDateTime(photo.creationDate())
+            .append(photo.ipAddress().toString())
+            .append(Dictionaries.browsers.getName(photo.browserId()))
+            .append(empty)
+            .append(empty)
+            .append(0)
+            .append(photo.author().accountId())
+            .append(photo.forumId());
 	if (photo.countryKnown()) 
-	    arguments.add(Integer.toString(photo.countryId()));
+	    writer.append(photo.countryId());
 	else
-	    arguments.add("");
-        writers[FileNames.POST.ordinal()].writeEntry(arguments);
-        arguments.clear();
+	    writer.append("");
+        writer.endEntry();
 
         for( Integer t : photo.tags() ) {
-            arguments.add(Long.toString(photo.messageId()));
-            arguments.add(Integer.toString(t));
-            writers[FileNames.POST_HASTAG_TAG.ordinal()].writeEntry(arguments);
-            arguments.clear();
+            writers[FileNames.POST_HASTAG_TAG.ordinal()].append(photo.messageId()).append(t).endEntry();
         }
     }
 
     protected void serialize(final  ForumMembership membership ) {
-        arguments.add(Long.toString(membership.forumId()));
-        arguments.add(Long.toString(membership.person().accountId()));
-        arguments.add(Dictionaries.dates.formatDateTime(membership.creationDate()));
-        writers[FileNames.FORUM_HASMEMBER_PERSON.ordinal()].writeEntry(arguments);
-        arguments.clear();
+        writers[FileNames.FORUM_HASMEMBER_PERSON.ordinal()].append(membership.forumId()).append(membership.person().accountId()).appendDateTime(membership.creationDate()).endEntry();
     }
 
     protected void serialize( final Like like ) {
-        arguments.add(Long.toString(like.user));
-        arguments.add(Long.toString(like.messageId));
-        arguments.add(Dictionaries.dates.formatDateTime(like.date));
+        HDFSCSVWriter writer;
         if( like.type == Like.LikeType.POST || like.type == Like.LikeType.PHOTO ) {
-            writers[FileNames.PERSON_LIKES_POST.ordinal()].writeEntry(arguments);
-            arguments.clear();
+            writer = writers[FileNames.PERSON_LIKES_POST.ordinal()];
         } else {
-            writers[FileNames.PERSON_LIKES_COMMENT.ordinal()].writeEntry(arguments);
-            arguments.clear();
+            writer = writers[FileNames.PERSON_LIKES_COMMENT.ordinal()];
         }
+        writer.append(like.user).append(like.messageId).appendDateTime(like.date).endEntry();
     }
     public void reset() {
 
@@ -48,50 +48,28 @@ public class CSVMergeForeignPersonSerializer extends PersonSerializer {
             writers[i] = new HDFSCSVWriter(conf.get("ldbc.snb.datagen.serializer.socialNetworkDir"),FileNames.values()[i].toString()+"_"+reducerId,conf.getInt("ldbc.snb.datagen.numPartitions",1),conf.getBoolean("ldbc.snb.datagen.serializer.compressed",false),"|", conf.getBoolean("ldbc.snb.datagen.serializer.endlineSeparator",false));
         }
 
-        ArrayList<String> arguments = new ArrayList<String>();
-        arguments.add("id");
-        arguments.add("firstName");
-        arguments.add("lastName");
-        arguments.add("gender");
-        arguments.add("birthday");
-        arguments.add("creationDate");
-        arguments.add("locationIP");
-        arguments.add("browserUsed");
-        arguments.add("place");
-        writers[FileNames.PERSON.ordinal()].writeEntry(arguments);
-
-        arguments.clear();
-        arguments.add("Person.id");
-        arguments.add("language");
-        writers[FileNames.PERSON_SPEAKS_LANGUAGE.ordinal()].writeEntry(arguments);
-
-        arguments.clear();
-        arguments.add("Person.id");
-        arguments.add("email");
-        writers[FileNames.PERSON_HAS_EMAIL.ordinal()].writeEntry(arguments);
-
-        arguments.clear();
-        arguments.add("Person.id");
-        arguments.add("Tag.id");
-        writers[FileNames.PERSON_HAS_INTEREST_TAG.ordinal()].writeEntry(arguments);
-
-        arguments.clear();
-        arguments.add("Person.id");
-        arguments.add("Organisation.id");
-        arguments.add("workFrom");
-        writers[FileNames.PERSON_WORK_AT.ordinal()].writeEntry(arguments);
-
-        arguments.clear();
-        arguments.add("Person.id");
-        arguments.add("Organisation.id");
-        arguments.add("classYear");
-        writers[FileNames.PERSON_STUDY_AT.ordinal()].writeEntry(arguments);
-
-        arguments.clear();
-        arguments.add("Person.id");
-        arguments.add("Person.id");
-        arguments.add("creationDate");
-        writers[FileNames.PERSON_KNOWS_PERSON.ordinal()].writeEntry(arguments);
+        writers[FileNames.PERSON.ordinal()].append("id")
+            .append("firstName")
+            .append("lastName")
+            .append("gender")
+            .append("birthday")
+            .append("creationDate")
+            .append("locationIP")
+            .append("browserUsed")
+            .append("place")
+            .endEntry();
+
+        writers[FileNames.PERSON_SPEAKS_LANGUAGE.ordinal()].append("Person.id").append("language").endEntry();
+
+        writers[FileNames.PERSON_HAS_EMAIL.ordinal()].append("Person.id").append("email").endEntry();
+
+        writers[FileNames.PERSON_HAS_INTEREST_TAG.ordinal()].append("Person.id").append("Tag.id").endEntry();
+
+        writers[FileNames.PERSON_WORK_AT.ordinal()].append("Person.id").append("Organisation.id").append("workFrom").endEntry();
+
+        writers[FileNames.PERSON_STUDY_AT.ordinal()].append("Person.id").append("Organisation.id").append("classYear").endEntry();
+
+        writers[FileNames.PERSON_KNOWS_PERSON.ordinal()].append("Person.id").append("Person.id").append("creationDate").endEntry();
 
     }
 
@@ -105,83 +83,48 @@ public class CSVMergeForeignPersonSerializer extends PersonSerializer {
 
     @Override
     protected void serialize(final Person p) {
-
-        ArrayList<String> arguments = new ArrayList<String>();
-
-        arguments.add(Long.toString(p.accountId()));
-        arguments.add(p.firstName());
-        arguments.add(p.lastName());
-        if(p.gender() == 1) {
-            arguments.add("male");
-        } else {
-            arguments.add("female");
-        }
-
-        String dateString = Dictionaries.dates.formatDate(p.birthDay());
-        arguments.add(dateString);
-
-        dateString = Dictionaries.dates.formatDateTime(p.creationDate());
-        arguments.add(dateString);
-        arguments.add(p.ipAddress().toString());
-        arguments.add(Dictionaries.browsers.getName(p.browserId()));
-        arguments.add(Integer.toString(p.cityId()));
-        writers[FileNames.PERSON.ordinal()].writeEntry(arguments);
+        writers[FileNames.PERSON.ordinal()].append(p.accountId())
+            .append(p.firstName())
+            .append(p.lastName())
+            .append(p.gender() == 1 ? "male" : "female")
+            .appendDate(p.birthDay())
+            .appendDateTime(p.creationDate())
+            .append(p.ipAddress().toString())
+            .append(Dictionaries.browsers.getName(p.browserId()))
+            .append(p.cityId())
+            .endEntry();
 
         ArrayList<Integer> languages = p.languages();
         for (int i = 0; i < languages.size(); i++) {
-            arguments.clear();
-            arguments.add(Long.toString(p.accountId()));
-            arguments.add(Dictionaries.languages.getLanguageName(languages.get(i)));
-            writers[FileNames.PERSON_SPEAKS_LANGUAGE.ordinal()].writeEntry(arguments);
+            writers[FileNames.PERSON_SPEAKS_LANGUAGE.ordinal()].append(p.accountId()).append(Dictionaries.languages.getLanguageName(languages.get(i))).endEntry();
         }
 
         Iterator<String> itString = p.emails().iterator();
         while (itString.hasNext()) {
-            arguments.clear();
             String email = itString.next();
-            arguments.add(Long.toString(p.accountId()));
-            arguments.add(email);
-            writers[FileNames.PERSON_HAS_EMAIL.ordinal()].writeEntry(arguments);
+            writers[FileNames.PERSON_HAS_EMAIL.ordinal()].append(p.accountId()).append(email).endEntry();
         }
 
         Iterator<Integer> itInteger = p.interests().iterator();
         while (itInteger.hasNext()) {
-            arguments.clear();
             Integer interestIdx = itInteger.next();
-            arguments.add(Long.toString(p.accountId()));
-            arguments.add(Integer.toString(interestIdx));
-            writers[FileNames.PERSON_HAS_INTEREST_TAG.ordinal()].writeEntry(arguments);
+            writers[FileNames.PERSON_HAS_INTEREST_TAG.ordinal()].append(p.accountId()).append(interestIdx).endEntry();
         }
     }
 
     @Override
     protected void serialize(final StudyAt studyAt) {
-        ArrayList<String> arguments = new ArrayList<String>();
-        String dateString = Dictionaries.dates.formatYear(studyAt.year);
-        arguments.add(Long.toString(studyAt.user));
-        arguments.add(Long.toString(studyAt.university));
-        arguments.add(dateString);
-        writers[FileNames.PERSON_STUDY_AT.ordinal()].writeEntry(arguments);
+        writers[FileNames.PERSON_STUDY_AT.ordinal()].append(studyAt.user).append(studyAt.university).append(Dictionaries.dates.formatYear(studyAt.year)).endEntry();
     }
 
     @Override
     protected void serialize(final WorkAt workAt) {
-        ArrayList<String> arguments = new ArrayList<String>();
-        String dateString = Dictionaries.dates.formatYear(workAt.year);
-        arguments.add(Long.toString(workAt.user));
-        arguments.add(Long.toString(workAt.company));
-        arguments.add(dateString);
-        writers[FileNames.PERSON_WORK_AT.ordinal()].writeEntry(arguments);
+        writers[FileNames.PERSON_WORK_AT.ordinal()].append(workAt.user).append(workAt.company).append(Dictionaries.dates.formatYear(workAt.year)).endEntry();
     }
 
     @Override
     protected void serialize( final Person p, Knows knows) {
-        ArrayList<String> arguments = new ArrayList<String>();
-        String dateString = Dictionaries.dates.formatDateTime(knows.creationDate());
-        arguments.add(Long.toString(p.accountId()));
-        arguments.add(Long.toString(knows.to().accountId()));
-        arguments.add(dateString);
-        writers[FileNames.PERSON_KNOWS_PERSON.ordinal()].writeEntry(arguments);
+        writers[FileNames.PERSON_KNOWS_PERSON.ordinal()].append(p.accountId()).append(knows.to().accountId()).appendDateTime(knows.creationDate()).endEntry();
     }
 
     @Override
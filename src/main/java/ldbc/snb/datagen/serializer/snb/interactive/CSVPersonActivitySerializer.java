@@ -11,15 +11,12 @@ import ldbc.snb.datagen.serializer.HDFSCSVWriter;
 import ldbc.snb.datagen.serializer.PersonActivitySerializer;
 import org.apache.hadoop.conf.Configuration;
 
-import java.util.ArrayList;
-
 /**
  *
  * @author aprat
  */
 public class CSVPersonActivitySerializer extends PersonActivitySerializer {
 	private HDFSCSVWriter [] writers;
-	private ArrayList<String> arguments;
 	private String empty="";
 	
 	private enum FileNames {
@@ -61,108 +58,26 @@ public class CSVPersonActivitySerializer extends PersonActivitySerializer {
 		for( int i = 0; i < numFiles; ++i) {
 			writers[i] = new HDFSCSVWriter(conf.get("ldbc.snb.datagen.serializer.socialNetworkDir"),FileNames.values()[i].toString()+"_"+reducerId,conf.getInt("ldbc.snb.datagen.numPartitions",1),conf.getBoolean("ldbc.snb.datagen.serializer.compressed",false),"|",conf.getBoolean("ldbc.snb.datagen.serializer.endlineSeparator",false) );
 		}
-		arguments = new ArrayList<String>();
-
-        arguments.add("id");
-        arguments.add("title");
-        arguments.add("creationDate");
-        writers[FileNames.FORUM.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Forum.id");
-        arguments.add("Post.id");
-        writers[FileNames.FORUM_CONTAINEROF_POST.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Forum.id");
-        arguments.add("Person.id");
-        arguments.add("joinDate");
-        writers[FileNames.FORUM_HASMEMBER_PERSON.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Forum.id");
-        arguments.add("Person.id");
-        writers[FileNames.FORUM_HASMODERATOR_PERSON.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Forum.id");
-        arguments.add("Tag.id");
-        writers[FileNames.FORUM_HASTAG_TAG.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Person.id");
-        arguments.add("Post.id");
-        arguments.add("creationDate");
-        writers[FileNames.PERSON_LIKES_POST.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Person.id");
-        arguments.add("Comment.id");
-        arguments.add("creationDate");
-        writers[FileNames.PERSON_LIKES_COMMENT.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("id");
-        arguments.add("imageFile");
-        arguments.add("creationDate");
-        arguments.add("locationIP");
-        arguments.add("browserUsed");
-        arguments.add("language");
-        arguments.add("content");
-        arguments.add("length");
-        writers[FileNames.POST.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Post.id");
-        arguments.add("Person.id");
-        writers[FileNames.POST_HASCREATOR_PERSON.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Post.id");
-        arguments.add("Tag.id");
-        writers[FileNames.POST_HASTAG_TAG.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Post.id");
-        arguments.add("Place.id");
-        writers[FileNames.POST_ISLOCATEDIN_PLACE.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("id");
-        arguments.add("creationDate");
-        arguments.add("locationIP");
-        arguments.add("browserUsed");
-        arguments.add("content");
-	arguments.add("gifFile");
-        arguments.add("length");
-        writers[FileNames.COMMENT.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Comment.id");
-        arguments.add("Person.id");
-        writers[FileNames.COMMENT_HASCREATOR_PERSON.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Comment.id");
-        arguments.add("Tag.id");
-        writers[FileNames.COMMENT_HASTAG_TAG.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-	arguments.add("Comment.id");
-	arguments.add("Place.id");
-	writers[FileNames.COMMENT_ISLOCATEDIN_PLACE.ordinal()].writeEntry(arguments);
-	arguments.clear();
-
-        arguments.add("Comment.id");
-        arguments.add("Post.id");
-        writers[FileNames.COMMENT_REPLYOF_POST.ordinal()].writeEntry(arguments);
-        arguments.clear();
-
-        arguments.add("Comment.id");
-        arguments.add("Comment.id");
-        writers[FileNames.COMMENT_REPLYOF_COMMENT.ordinal()].writeEntry(arguments);
-        arguments.clear();
 
+        writers[FileNames.FORUM.ordinal()].append("id").append("title").append("creationDate").endEntry();
+        writers[FileNames.FORUM_CONTAINEROF_POST.ordinal()].append("Forum.id").append("Post.id").endEntry();
+        writers[FileNames.FORUM_HASMEMBER_PERSON.ordinal()].append("Forum.id").append("Person.id").append("joinDate").endEntry();
+        writers[FileNames.FORUM_HASMODERATOR_PERSON.ordinal()].append("Forum.id").append("Person.id").endEntry();
+        writers[FileNames.FORUM_HASTAG_TAG.ordinal()].append("Forum.id").append("Tag.id").endEntry();
+        writers[FileNames.PERSON_LIKES_POST.ordinal()].append("Person.id").append("Post.id").append("creationDate").endEntry();
+        writers[FileNames.PERSON_LIKES_COMMENT.ordinal()].append("Person.id").append("Comment.id").append("creationDate").endEntry();
+        writers[FileNames.POST.ordinal()].append("id").append("imageFile").append("creationDate").append("locationIP")
+            .append("browserUsed").append("language").append("content").append("length").endEntry();
+        writers[FileNames.POST_HASCREATOR_PERSON.ordinal()].append("Post.id").append("Person.id").endEntry();
+        writers[FileNames.POST_HASTAG_TAG.ordinal()].append("Post.id").append("Tag.id").endEntry();
+        writers[FileNames.POST_ISLOCATEDIN_PLACE.ordinal()].append("Post.id").append("Place.id").endEntry();
+        writers[FileNames.COMMENT.ordinal()].append("id").append("creationDate").append("locationIP").append("browserUsed")
+            .append("content").append("gifFile").append("length").endEntry();
+        writers[FileNames.COMMENT_HASCREATOR_PERSON.ordinal()].append("Comment.id").append("Person.id").endEntry();
+        writers[FileNames.COMMENT_HASTAG_TAG.ordinal()].append("Comment.id").append("Tag.id").endEntry();
+        writers[FileNames.COMMENT_ISLOCATEDIN_PLACE.ordinal()].append("Comment.id").append("Place.id").endEntry();
+        writers[FileNames.COMMENT_REPLYOF_POST.ordinal()].append("Comment.id").append("Post.id").endEntry();
+        writers[FileNames.COMMENT_REPLYOF_COMMENT.ordinal()].append("Comment.id").append("Comment.id").endEntry();
 	}
 	
 	@Override
@@ -175,168 +90,108 @@ public class CSVPersonActivitySerializer extends PersonActivitySerializer {
 	
 	protected void serialize( final Forum forum ) {
 		
-		String dateString = Dictionaries.dates.formatDateTime(forum.creationDate());
-		
-		arguments.add(Long.toString(forum.id()));
-		arguments.add(forum.title());
-		arguments.add(dateString);
-		writers[FileNames.FORUM.ordinal()].writeEntry(arguments);
-		arguments.clear();
+		writers[FileNames.FORUM.ordinal()].append(forum.id()).append(forum.title()).appendDateTime(forum.creationDate()).endEntry();
 		
-		arguments.add(Long.toString(forum.id()));
-		arguments.add(Long.toString(forum.moderator().accountId()));
-		writers[FileNames.FORUM_HASMODERATOR_PERSON.ordinal()].writeEntry(arguments);
-		arguments.clear();
+		writers[FileNames.FORUM_HASMODERATOR_PERSON.ordinal()].append(forum.id()).append(forum.moderator().accountId()).endEntry();
 		
 		for( Integer i : forum.tags()) {
-			arguments.add(Long.toString(forum.id()));
-			arguments.add(Integer.toString(i));
-			writers[FileNames.FORUM_HASTAG_TAG.ordinal()].writeEntry(arguments);
-			arguments.clear();
+			writers[FileNames.FORUM_HASTAG_TAG.ordinal()].append(forum.id()).append(i.intValue()).endEntry();
 		}
 		
 	}
 	
 	protected void serialize( final Post post ) {
 		
-		arguments.add(Long.toString(post.messageId()));
-		arguments.add(empty);
-		arguments.add(Dictionaries.dates.formatDateTime(post.creationDate()));
-		arguments.add(post.ipAddress().toString());
-		arguments.add(Dictionaries.browsers.getName(post.browserId()));
-		arguments.add(Dictionaries.languages.getLanguageName(post.language()));
-		arguments.add(post.content());
-		arguments.add(Integer.toString(post.content().length()));
-		writers[FileNames.POST.ordinal()].writeEntry(arguments);
-		arguments.clear();
+		writers[FileNames.POST.ordinal()].append(post.messageId())
+			.append(empty)
+			.appendDateTime(post.creationDate())
+			.append(post.ipAddress().toString())
+			.append(Dictionaries.browsers.getName(post.browserId()))
+			.append(Dictionaries.languages.getLanguageName(post.language()))
+			.append(post.content())
+			.append(post.content().length())
+			.endEntry();
 
 		if (post.countryKnown()) {
-		    arguments.add(Long.toString(post.messageId()));
-		    arguments.add(Integer.toString(post.countryId()));
-		    writers[FileNames.POST_ISLOCATEDIN_PLACE.ordinal()].writeEntry(arguments);
-		    arguments.clear();
+		    writers[FileNames.POST_ISLOCATEDIN_PLACE.ordinal()].append(post.messageId()).append(post.countryId()).endEntry();
 		}
 		
-		arguments.add(Long.toString(post.messageId()));
-		arguments.add(Long.toString(post.author().accountId()));
-		writers[FileNames.POST_HASCREATOR_PERSON.ordinal()].writeEntry(arguments);
-		arguments.clear();
+		writers[FileNames.POST_HASCREATOR_PERSON.ordinal()].append(post.messageId()).append(post.author().accountId()).endEntry();
 		
-		
-		arguments.add(Long.toString(post.forumId()));
-		arguments.add(Long.toString(post.messageId()));
-		writers[FileNames.FORUM_CONTAINEROF_POST.ordinal()].writeEntry(arguments);
-		arguments.clear();
+		writers[FileNames.FORUM_CONTAINEROF_POST.ordinal()].append(post.forumId()).append(post.messageId()).endEntry();
 		
 		for( Integer t : post.tags() ) {
-			arguments.add(Long.toString(post.messageId()));
-			arguments.add(Integer.toString(t));
-			writers[FileNames.POST_HASTAG_TAG.ordinal()].writeEntry(arguments);
-			arguments.clear();
+			writers[FileNames.POST_HASTAG_TAG.ordinal()].append(post.messageId()).append(t.intValue()).endEntry();
 		}
 	}
 	
 	protected void serialize( final Comment comment ) {
-		arguments.add(Long.toString(comment.messageId()));
-		arguments.add(Dictionaries.dates.formatDateTime(comment.creationDate()));
-		arguments.add(comment.ipAddress().toString());
-		arguments.add(Dictionaries.browsers.getName(comment.browserId()));
-		arguments.add(comment.content());
-		arguments.add(comment.gif());
-		arguments.add(Integer.toString(comment.content().length()));
-		writers[FileNames.COMMENT.ordinal()].writeEntry(arguments);
-		arguments.clear();
+		writers[FileNames.COMMENT.ordinal()].append(comment.messageId())
+			.appendDateTime(comment.creationDate())
+			.append(comment.ipAddress().toString())
+			.append(Dictionaries.browsers.getName(comment.browserId()))
+			.append(comment.content())
+			.append(comment.gif())
+			.append(comment.content().length())
+			.endEntry();
 		
 		if (comment.replyOf() == comment.postId()) {
-			arguments.add(Long.toString(comment.messageId()));
-			arguments.add(Long.toString(comment.postId()));
-			writers[FileNames.COMMENT_REPLYOF_POST.ordinal()].writeEntry(arguments);
-			arguments.clear();
+			writers[FileNames.COMMENT_REPLYOF_POST.ordinal()].append(comment.messageId()).append(comment.postId()).endEntry();
 		} else {
-			arguments.add(Long.toString(comment.messageId()));
-			arguments.add(Long.toString(comment.replyOf()));
-			writers[FileNames.COMMENT_REPLYOF_COMMENT.ordinal()].writeEntry(arguments);
-			arguments.clear();
+			writers[FileNames.COMMENT_REPLYOF_COMMENT.ordinal()].append(comment.messageId()).append(comment.replyOf()).endEntry();
 		}
 
 		if (comment.countryKnown()) {
-		    arguments.add(Long.toString(comment.messageId()));
-		    arguments.add(Integer.toString(comment.countryId()));
-		    writers[FileNames.COMMENT_ISLOCATEDIN_PLACE.ordinal()].writeEntry(arguments);
-		    arguments.clear();
+		    writers[FileNames.COMMENT_ISLOCATEDIN_PLACE.ordinal()].append(comment.messageId()).append(comment.countryId()).endEntry();
 		}
 		
-		arguments.add(Long.toString(comment.messageId()));
-		arguments.add(Long.toString(comment.author().accountId()));
-		writers[FileNames.COMMENT_HASCREATOR_PERSON.ordinal()].writeEntry(arguments);
-		arguments.clear();
+		writers[FileNames.COMMENT_HASCREATOR_PERSON.ordinal()].append(comment.messageId()).append(comment.author().accountId()).endEntry();
 		
 		for( Integer t : comment.tags() ) {
-			arguments.add(Long.toString(comment.messageId()));
-			arguments.add(Integer.toString(t));
-			writers[FileNames.COMMENT_HASTAG_TAG.ordinal()].writeEntry(arguments);
-			arguments.clear();
+			writers[FileNames.COMMENT_HASTAG_TAG.ordinal()].append(comment.messageId()).append(t.intValue()).endEntry();
 		}
 	}
 	
 	protected void serialize(final  Photo photo ) {
 		
-		arguments.add(Long.toString(photo.messageId()));
-		arguments.add(photo.content());
-		arguments.add(Dictionaries.dates.formatDateTime(photo.creationDate()));
-		arguments.add(photo.ipAddress().toString());
-		arguments.add(Dictionaries.browsers.getName(photo.browserId()));
-		arguments.add(empty);
-		arguments.add(empty);
-		arguments.add(Integer.toString(0));
-		writers[FileNames.POST.ordinal()].writeEntry(arguments);
-		arguments.clear();
+		writers[FileNames.POST.ordinal()].append(photo.messageId())
+			.append(photo.content())
+			.appendDateTime(photo.creationDate())
+			.append(photo.ipAddress().toString())
+			.append(Dictionaries.browsers.getName(photo.browserId()))
+			.append(empty)
+			.append(empty)
+			.append(0)
+			.endEntry();
 		
 		if (photo.countryKnown()) {
-		    arguments.add(Long.toString(photo.messageId()));
-		    arguments.add(Integer.toString(photo.countryId()));
-		    writers[FileNames.POST_ISLOCATEDIN_PLACE.ordinal()].writeEntry(arguments);
-		    arguments.clear();
+		    writers[FileNames.POST_ISLOCATEDIN_PLACE.ordinal()].append(photo.messageId()).append(photo.countryId()).endEntry();
 		}
 		
-		arguments.add(Long.toString(photo.messageId()));
-		arguments.add(Long.toString(photo.author().accountId()));
-		writers[FileNames.POST_HASCREATOR_PERSON.ordinal()].writeEntry(arguments);
-		arguments.clear();
-		
+		writers[FileNames.POST_HASCREATOR_PERSON.ordinal()].append(photo.messageId()).append(photo.author().accountId()).endEntry();
 		
-		arguments.add(Long.toString(photo.forumId()));
-		arguments.add(Long.toString(photo.messageId()));
-		writers[FileNames.FORUM_CONTAINEROF_POST.ordinal()].writeEntry(arguments);
-		arguments.clear();
+		writers[FileNames.FORUM_CONTAINEROF_POST.ordinal()].append(photo.forumId()).append(photo.messageId()).endEntry();
 		
 		for( Integer t : photo.tags() ) {
-			arguments.add(Long.toString(photo.messageId()));
-			arguments.add(Integer.toString(t));
-			writers[FileNames.POST_HASTAG_TAG.ordinal()].writeEntry(arguments);
-			arguments.clear();
+			writers[FileNames.POST_HASTAG_TAG.ordinal()].append(photo.messageId()).append(t.intValue()).endEntry();
 		}
 	}
 	
 	protected void serialize(final  ForumMembership membership ) {
-		arguments.add(Long.toString(membership.forumId()));
-		arguments.add(Long.toString(membership.person().accountId()));
-		arguments.add(Dictionaries.dates.formatDateTime(membership.creationDate()));
-		writers[FileNames.FORUM_HASMEMBER_PERSON.ordinal()].writeEntry(arguments);
-		arguments.clear();
+		writers[FileNames.FORUM_HASMEMBER_PERSON.ordinal()].append(membership.forumId())
+			.append(membership.person().accountId())
+			.appendDateTime(membership.creationDate())
+			.endEntry();
 	}
 	
 	protected void serialize( final Like like ) {
-		arguments.add(Long.toString(like.user));
-		arguments.add(Long.toString(like.messageId));
-		arguments.add(Dictionaries.dates.formatDateTime(like.date));
+		HDFSCSVWriter writer;
 		if( like.type == Like.LikeType.POST || like.type == Like.LikeType.PHOTO ) {
-			writers[FileNames.PERSON_LIKES_POST.ordinal()].writeEntry(arguments);
-			arguments.clear();
+			writer = writers[FileNames.PERSON_LIKES_POST.ordinal()];
 		} else {
-			writers[FileNames.PERSON_LIKES_COMMENT.ordinal()].writeEntry(arguments);
-			arguments.clear();
+			writer = writers[FileNames.PERSON_LIKES_COMMENT.ordinal()];
 		}
+		writer.append(like.user).append(like.messageId).appendDateTime(like.date).endEntry();
 	}
 
 	public void reset() {
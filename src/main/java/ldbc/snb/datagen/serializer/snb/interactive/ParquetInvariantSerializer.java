@@ -0,0 +1,107 @@
+package ldbc.snb.datagen.serializer.snb.interactive;
+
+import ldbc.snb.datagen.dictionary.Dictionaries;
+import ldbc.snb.datagen.objects.Organization;
+import ldbc.snb.datagen.objects.Place;
+import ldbc.snb.datagen.objects.Tag;
+import ldbc.snb.datagen.objects.TagClass;
+import ldbc.snb.datagen.serializer.HDFSParquetWriter;
+import ldbc.snb.datagen.serializer.InvariantSerializer;
+import ldbc.snb.datagen.vocabulary.DBP;
+import ldbc.snb.datagen.vocabulary.DBPOWL;
+import org.apache.hadoop.conf.Configuration;
+
+/**
+ * Serializes the same entities and relations as CSVInvariantSerializer, to one typed Parquet file per reducer and file.
+ */
+public class ParquetInvariantSerializer extends InvariantSerializer {
+
+    private HDFSParquetWriter[] writers;
+
+    private enum FileNames {
+        TAG ("tag", "required int32 id; required binary name (UTF8); required binary url (UTF8);"),
+        TAG_HAS_TYPE_TAGCLASS("tag_hasType_tagclass", "required int32 tagId; required int32 tagClassId;"),
+        TAGCLASS ("tagclass", "required int32 id; required binary name (UTF8); required binary url (UTF8);"),
+        TAGCLASS_IS_SUBCLASS_OF_TAGCLASS ("tagclass_isSubclassOf_tagclass", "required int32 tagClass1Id; required int32 tagClass2Id;"),
+        PLACE ("place", "required int32 id; required binary name (UTF8); required binary url (UTF8); required binary type (UTF8);"),
+        PLACE_IS_PART_OF_PLACE ("place_isPartOf_place", "required int32 place1Id; required int32 place2Id;"),
+        ORGANIZATION ("organisation", "required int64 id; required binary type (UTF8); required binary name (UTF8); required binary url (UTF8);"),
+        ORGANIZATION_IS_LOCATED_IN_PLACE ("organisation_isLocatedIn_place", "required int64 organisationId; required int32 placeId;");
+
+        private final String name;
+        private final String schema;
+
+        private FileNames( String name, String schema ) {
+            this.name = name;
+            this.schema = "message " + name + " { " + schema + " }";
+        }
+        public String toString() {
+            return name;
+        }
+    }
+
+    public void initialize(Configuration conf, int reducerId) {
+        int numFiles = FileNames.values().length;
+        writers = new HDFSParquetWriter[numFiles];
+        for( int i = 0; i < numFiles; ++i) {
+            FileNames file = FileNames.values()[i];
+            writers[i] = new HDFSParquetWriter(conf, conf.get("ldbc.snb.datagen.serializer.socialNetworkDir"), file.toString()+"_"+reducerId, file.schema);
+        }
+    }
+
+    public void close() {
+        int numFiles = FileNames.values().length;
+        for(int i = 0; i < numFiles; ++i) {
+            writers[i].close();
+        }
+    }
+
+    protected void serialize(final Place place) {
+        writers[FileNames.PLACE.ordinal()].append(place.getId())
+            .append(place.getName())
+            .append(DBP.getUrl(place.getName()))
+            .append(place.getType())
+            .endEntry();
+
+        if (place.getType() == Place.CITY ||
+                place.getType() == Place.COUNTRY) {
+            writers[FileNames.PLACE_IS_PART_OF_PLACE.ordinal()].append(place.getId())
+                .append(Dictionaries.places.belongsTo(place.getId()))
+                .endEntry();
+        }
+    }
+
+    protected void serialize(final Organization organization) {
+        writers[FileNames.ORGANIZATION.ordinal()].append(organization.id)
+            .append(organization.type.toString())
+            .append(organization.name)
+            .append(DBP.getUrl(organization.name))
+            .endEntry();
+
+        writers[FileNames.ORGANIZATION_IS_LOCATED_IN_PLACE.ordinal()].append(organization.id).append(organization.location).endEntry();
+    }
+
+    protected void serialize(final TagClass tagClass) {
+        writers[FileNames.TAGCLASS.ordinal()].append(tagClass.id)
+            .append(tagClass.name)
+            .append(tagClass.name.equals("Thing") ? "http://www.w3.org/2002/07/owl#Thing" : DBPOWL.getUrl(tagClass.name))
+            .endEntry();
+
+        if (tagClass.parent != -1) {
+            writers[FileNames.TAGCLASS_IS_SUBCLASS_OF_TAGCLASS.ordinal()].append(tagClass.id).append(tagClass.parent).endEntry();
+        }
+    }
+
+    protected void serialize(final Tag tag) {
+        writers[FileNames.TAG.ordinal()].append(tag.id)
+            .append(tag.name)
+            .append(DBP.getUrl(tag.name))
+            .endEntry();
+
+        writers[FileNames.TAG_HAS_TYPE_TAGCLASS.ordinal()].append(tag.id).append(tag.tagClass).endEntry();
+    }
+
+    public void reset() {
+
+    }
+}
@@ -0,0 +1,181 @@
+package ldbc.snb.datagen.serializer.snb.interactive;
+
+import ldbc.snb.datagen.dictionary.Dictionaries;
+import ldbc.snb.datagen.objects.*;
+import ldbc.snb.datagen.serializer.HDFSParquetWriter;
+import ldbc.snb.datagen.serializer.PersonActivitySerializer;
+import org.apache.hadoop.conf.Configuration;
+
+/**
+ * Serializes the same entities and relations as CSVPersonActivitySerializer, to one typed Parquet file per reducer
+ * and file. The fields that the CSV files leave empty (the image file of posts, the language and content of photos
+ * and the gif file of comments) are optional and left null.
+ */
+public class ParquetPersonActivitySerializer extends PersonActivitySerializer {
+
+    private HDFSParquetWriter [] writers;
+
+    private enum FileNames {
+        FORUM ("forum", "required int64 id; required binary title (UTF8); required int64 creationDate (TIMESTAMP_MILLIS);"),
+        FORUM_CONTAINEROF_POST ("forum_containerOf_post", "required int64 forumId; required int64 postId;"),
+        FORUM_HASMEMBER_PERSON ("forum_hasMember_person", "required int64 forumId; required int64 personId; required int64 joinDate (TIMESTAMP_MILLIS);"),
+        FORUM_HASMODERATOR_PERSON ("forum_hasModerator_person", "required int64 forumId; required int64 personId;"),
+        FORUM_HASTAG_TAG ("forum_hasTag_tag", "required int64 forumId; required int32 tagId;"),
+        PERSON_LIKES_POST ("person_likes_post", "required int64 personId; required int64 postId; required int64 creationDate (TIMESTAMP_MILLIS);"),
+        PERSON_LIKES_COMMENT ("person_likes_comment", "required int64 personId; required int64 commentId; required int64 creationDate (TIMESTAMP_MILLIS);"),
+        POST ("post", "required int64 id; optional binary imageFile (UTF8); required int64 creationDate (TIMESTAMP_MILLIS); required binary locationIP (UTF8); " +
+              "required binary browserUsed (UTF8); optional binary language (UTF8); optional binary content (UTF8); required int32 length;"),
+        POST_HASCREATOR_PERSON ("post_hasCreator_person", "required int64 postId; required int64 personId;"),
+        POST_HASTAG_TAG ("post_hasTag_tag", "required int64 postId; required int32 tagId;"),
+        POST_ISLOCATEDIN_PLACE ("post_isLocatedIn_place", "required int64 postId; required int32 placeId;"),
+        COMMENT ("comment", "required int64 id; required int64 creationDate (TIMESTAMP_MILLIS); required binary locationIP (UTF8); required binary browserUsed (UTF8); " +
+                 "required binary content (UTF8); optional binary gifFile (UTF8); required int32 length;"),
+        COMMENT_HASCREATOR_PERSON ("comment_hasCreator_person", "required int64 commentId; required int64 personId;"),
+        COMMENT_HASTAG_TAG ("comment_hasTag_tag", "required int64 commentId; required int32 tagId;"),
+        COMMENT_ISLOCATEDIN_PLACE ("comment_isLocatedIn_place", "required int64 commentId; required int32 placeId;"),
+        COMMENT_REPLYOF_POST ("comment_replyOf_post", "required int64 commentId; required int64 postId;"),
+        COMMENT_REPLYOF_COMMENT ("comment_replyOf_comment", "required int64 comment1Id; required int64 comment2Id;");
+
+        private final String name;
+        private final String schema;
+
+        private FileNames( String name, String schema ) {
+            this.name = name;
+            this.schema = "message " + name + " { " + schema + " }";
+        }
+        public String toString() {
+            return name;
+        }
+    }
+
+    public ParquetPersonActivitySerializer() {
+    }
+
+    @Override
+    public void initialize(Configuration conf, int reducerId) {
+        int numFiles = FileNames.values().length;
+        writers = new HDFSParquetWriter[numFiles];
+        for( int i = 0; i < numFiles; ++i) {
+            FileNames file = FileNames.values()[i];
+            writers[i] = new HDFSParquetWriter(conf, conf.get("ldbc.snb.datagen.serializer.socialNetworkDir"), file.toString()+"_"+reducerId, file.schema);
+        }
+    }
+
+    @Override
+    public void close() {
+        int numFiles = FileNames.values().length;
+        for(int i = 0; i < numFiles; ++i) {
+            writers[i].close();
+        }
+    }
+
+    protected void serialize( final Forum forum ) {
+        writers[FileNames.FORUM.ordinal()].append(forum.id()).append(forum.title()).appendDateTime(forum.creationDate()).endEntry();
+
+        writers[FileNames.FORUM_HASMODERATOR_PERSON.ordinal()].append(forum.id()).append(forum.moderator().accountId()).endEntry();
+
+        for( Integer i : forum.tags()) {
+            writers[FileNames.FORUM_HASTAG_TAG.ordinal()].append(forum.id()).append(i.intValue()).endEntry();
+        }
+    }
+
+    protected void serialize( final Post post ) {
+        writers[FileNames.POST.ordinal()].append(post.messageId())
+            .appendNull()
+            .appendDateTime(post.creationDate())
+            .append(post.ipAddress().toString())
+            .append(Dictionaries.browsers.getName(post.browserId()))
+            .append(Dictionaries.languages.getLanguageName(post.language()))
+            .append(post.content())
+            .append(post.content().length())
+            .endEntry();
+
+        if (post.countryKnown()) {
+            writers[FileNames.POST_ISLOCATEDIN_PLACE.ordinal()].append(post.messageId()).append(post.countryId()).endEntry();
+        }
+
+        writers[FileNames.POST_HASCREATOR_PERSON.ordinal()].append(post.messageId()).append(post.author().accountId()).endEntry();
+
+        writers[FileNames.FORUM_CONTAINEROF_POST.ordinal()].append(post.forumId()).append(post.messageId()).endEntry();
+
+        for( Integer t : post.tags() ) {
+            writers[FileNames.POST_HASTAG_TAG.ordinal()].append(post.messageId()).append(t.intValue()).endEntry();
+        }
+    }
+
+    protected void serialize( final Comment comment ) {
+        HDFSParquetWriter writer = writers[FileNames.COMMENT.ordinal()];
+        writer.append(comment.messageId())
+            .appendDateTime(comment.creationDate())
+            .append(comment.ipAddress().toString())
+            .append(Dictionaries.browsers.getName(comment.browserId()))
+            .append(comment.content());
+        if (comment.gif() == null || comment.gif().isEmpty()) {
+            writer.appendNull();
+        } else {
+            writer.append(comment.gif());
+        }
+        writer.append(comment.content().length()).endEntry();
+
+        if (comment.replyOf() == comment.postId()) {
+            writers[FileNames.COMMENT_REPLYOF_POST.ordinal()].append(comment.messageId()).append(comment.postId()).endEntry();
+        } else {
+            writers[FileNames.COMMENT_REPLYOF_COMMENT.ordinal()].append(comment.messageId()).append(comment.replyOf()).endEntry();
+        }
+
+        if (comment.countryKnown()) {
+            writers[FileNames.COMMENT_ISLOCATEDIN_PLACE.ordinal()].append(comment.messageId()).append(comment.countryId()).endEntry();
+        }
+
+        writers[FileNames.COMMENT_HASCREATOR_PERSON.ordinal()].append(comment.messageId()).append(comment.author().accountId()).endEntry();
+
+        for( Integer t : comment.tags() ) {
+            writers[FileNames.COMMENT_HASTAG_TAG.ordinal()].append(comment.messageId()).append(t.intValue()).endEntry();
+        }
+    }
+
+    protected void serialize( final Photo photo ) {
+        writers[FileNames.POST.ordinal()].append(photo.messageId())
+            .append(photo.content())
+            .appendDateTime(photo.creationDate())
+            .append(photo.ipAddress().toString())
+            .append(Dictionaries.browsers.getName(photo.browserId()))
+            .appendNull()
+            .appendNull()
+            .append(0)
+            .endEntry();
+
+        if (photo.countryKnown()) {
+            writers[FileNames.POST_ISLOCATEDIN_PLACE.ordinal()].append(photo.messageId()).append(photo.countryId()).endEntry();
+        }
+
+        writers[FileNames.POST_HASCREATOR_PERSON.ordinal()].append(photo.messageId()).append(photo.author().accountId()).endEntry();
+
+        writers[FileNames.FORUM_CONTAINEROF_POST.ordinal()].append(photo.forumId()).append(photo.messageId()).endEntry();
+
+        for( Integer t : photo.tags() ) {
+            writers[FileNames.POST_HASTAG_TAG.ordinal()].append(photo.messageId()).append(t.intValue()).endEntry();
+        }
+    }
+
+    protected void serialize( final ForumMembership membership ) {
+        writers[FileNames.FORUM_HASMEMBER_PERSON.ordinal()].append(membership.forumId())
+            .append(membership.person().accountId())
+            .appendDateTime(membership.creationDate())
+            .endEntry();
+    }
+
+    protected void serialize( final Like like ) {
+        HDFSParquetWriter writer;
+        if( like.type == Like.LikeType.POST || like.type == Like.LikeType.PHOTO ) {
+            writer = writers[FileNames.PERSON_LIKES_POST.ordinal()];
+        } else {
+            writer = writers[FileNames.PERSON_LIKES_COMMENT.ordinal()];
+        }
+        writer.append(like.user).append(like.messageId).appendDateTime(like.date).endEntry();
+    }
+
+    public void reset() {
+
+    }
+}
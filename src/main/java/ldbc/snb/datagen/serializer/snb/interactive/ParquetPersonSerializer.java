@@ -0,0 +1,122 @@
+package ldbc.snb.datagen.serializer.snb.interactive;
+
+import ldbc.snb.datagen.dictionary.Dictionaries;
+import ldbc.snb.datagen.objects.Knows;
+import ldbc.snb.datagen.objects.Person;
+import ldbc.snb.datagen.objects.StudyAt;
+import ldbc.snb.datagen.objects.WorkAt;
+import ldbc.snb.datagen.serializer.HDFSParquetWriter;
+import ldbc.snb.datagen.serializer.PersonSerializer;
+import org.apache.hadoop.conf.Configuration;
+
+import java.util.ArrayList;
+
+/**
+ * Serializes the same entities and relations as CSVPersonSerializer, to one typed Parquet file per reducer and file.
+ */
+public class ParquetPersonSerializer extends PersonSerializer {
+
+    private HDFSParquetWriter [] writers;
+
+    private enum FileNames {
+        PERSON ("person", "required int64 id; required binary firstName (UTF8); required binary lastName (UTF8); required binary gender (UTF8); " +
+                "required int32 birthday (DATE); required int64 creationDate (TIMESTAMP_MILLIS); required binary locationIP (UTF8); required binary browserUsed (UTF8);"),
+        PERSON_SPEAKS_LANGUAGE ("person_speaks_language", "required int64 personId; required binary language (UTF8);"),
+        PERSON_HAS_EMAIL ("person_email_emailaddress", "required int64 personId; required binary email (UTF8);"),
+        PERSON_LOCATED_IN_PLACE ("person_isLocatedIn_place", "required int64 personId; required int32 placeId;"),
+        PERSON_HAS_INTEREST_TAG ("person_hasInterest_tag", "required int64 personId; required int32 tagId;"),
+        PERSON_WORK_AT ("person_workAt_organisation", "required int64 personId; required int64 organisationId; required int32 workFrom;"),
+        PERSON_STUDY_AT ("person_studyAt_organisation", "required int64 personId; required int64 organisationId; required int32 classYear;"),
+        PERSON_KNOWS_PERSON("person_knows_person", "required int64 person1Id; required int64 person2Id; required int64 creationDate (TIMESTAMP_MILLIS);");
+
+        private final String name;
+        private final String schema;
+
+        private FileNames( String name, String schema ) {
+            this.name = name;
+            this.schema = "message " + name + " { " + schema + " }";
+        }
+        public String toString() {
+            return name;
+        }
+    }
+
+    public ParquetPersonSerializer() {
+    }
+
+    public void initialize(Configuration conf, int reducerId) {
+        int numFiles = FileNames.values().length;
+        writers = new HDFSParquetWriter[numFiles];
+        for( int i = 0; i < numFiles; ++i) {
+            FileNames file = FileNames.values()[i];
+            writers[i] = new HDFSParquetWriter(conf, conf.get("ldbc.snb.datagen.serializer.socialNetworkDir"), file.toString()+"_"+reducerId, file.schema);
+        }
+    }
+
+    @Override
+    public void close() {
+        int numFiles = FileNames.values().length;
+        for(int i = 0; i < numFiles; ++i) {
+            writers[i].close();
+        }
+    }
+
+    @Override
+    protected void serialize(final Person p) {
+        writers[FileNames.PERSON.ordinal()].append(p.accountId())
+            .append(p.firstName())
+            .append(p.lastName())
+            .append(p.gender() == 1 ? "male" : "female")
+            .appendDate(p.birthDay())
+            .appendDateTime(p.creationDate())
+            .append(p.ipAddress().toString())
+            .append(Dictionaries.browsers.getName(p.browserId()))
+            .endEntry();
+
+        ArrayList<Integer> languages = p.languages();
+        for (int i = 0; i < languages.size(); i++) {
+            writers[FileNames.PERSON_SPEAKS_LANGUAGE.ordinal()].append(p.accountId())
+                .append(Dictionaries.languages.getLanguageName(languages.get(i)))
+                .endEntry();
+        }
+
+        for (String email : p.emails()) {
+            writers[FileNames.PERSON_HAS_EMAIL.ordinal()].append(p.accountId()).append(email).endEntry();
+        }
+
+        writers[FileNames.PERSON_LOCATED_IN_PLACE.ordinal()].append(p.accountId()).append(p.cityId()).endEntry();
+
+        for (Integer interestIdx : p.interests()) {
+            writers[FileNames.PERSON_HAS_INTEREST_TAG.ordinal()].append(p.accountId()).append(interestIdx.intValue()).endEntry();
+        }
+    }
+
+    @Override
+    protected void serialize(final StudyAt studyAt) {
+        writers[FileNames.PERSON_STUDY_AT.ordinal()].append(studyAt.user)
+            .append(studyAt.university)
+            .append(Dictionaries.dates.getYear(studyAt.year))
+            .endEntry();
+    }
+
+    @Override
+    protected void serialize(final WorkAt workAt) {
+        writers[FileNames.PERSON_WORK_AT.ordinal()].append(workAt.user)
+            .append(workAt.company)
+            .append(Dictionaries.dates.getYear(workAt.year))
+            .endEntry();
+    }
+
+    @Override
+    protected void serialize(final Person p, Knows knows) {
+        writers[FileNames.PERSON_KNOWS_PERSON.ordinal()].append(p.accountId())
+            .append(knows.to().accountId())
+            .appendDateTime(knows.creationDate())
+            .endEntry();
+    }
+
+    @Override
+    public void reset() {
+
+    }
+}
@@ -245,7 +245,7 @@ public class TurtlePersonActivitySerializer extends PersonActivitySerializer {
 	}
 	
 	protected void serialize( final ForumMembership membership ) {
-		String memberhipPrefix = SN.getMembershipURI(SN.formId(membershipId));
+		String memberhipPrefix = SN.getMembershipURI(context_.formId(membershipId));
 		String forumPrefix = SN.getForumURI(membership.forumId());
 		StringBuffer result = new StringBuffer(19000);
 		Turtle.createTripleSPO(result, forumPrefix, SNVOC.hasMember, memberhipPrefix);
@@ -259,7 +259,7 @@ public class TurtlePersonActivitySerializer extends PersonActivitySerializer {
 	
 	protected void serialize( final Like like ) {
 		StringBuffer result = new StringBuffer(2500);
-		long id = SN.formId(likeId);
+		long id = context_.formId(likeId);
 		String likePrefix = SN.getLikeURI(id);
 		Turtle.createTripleSPO(result, SN.getPersonURI(like.user),
 				SNVOC.like, likePrefix);
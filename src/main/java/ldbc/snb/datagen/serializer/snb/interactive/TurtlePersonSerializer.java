@@ -147,7 +147,7 @@ public class TurtlePersonSerializer extends PersonSerializer {
     protected void serialize(final StudyAt studyAt) {
         String prefix = SN.getPersonURI(studyAt.user);
         StringBuffer result = new StringBuffer(19000);
-        long id = SN.formId(studyAtId);
+        long id = context_.formId(studyAtId);
         Turtle.createTripleSPO(result, prefix, SNVOC.studyAt, SN.getStudyAtURI(id));
         Turtle.createTripleSPO(result, SN.getStudyAtURI(id), SNVOC.hasOrganisation,
                 SN.getUnivURI(studyAt.university));
@@ -162,7 +162,7 @@ public class TurtlePersonSerializer extends PersonSerializer {
     protected void serialize(final WorkAt workAt) {
         String prefix = SN.getPersonURI(workAt.user);
         StringBuffer result = new StringBuffer(19000);
-        long id = SN.formId(workAtId);
+        long id = context_.formId(workAtId);
         Turtle.createTripleSPO(result, prefix, SNVOC.workAt, SN.getWorkAtURI(id));
         Turtle.createTripleSPO(result, SN.getWorkAtURI(id), SNVOC.hasOrganisation,
                 SN.getCompURI(workAt.company));
@@ -177,7 +177,7 @@ public class TurtlePersonSerializer extends PersonSerializer {
     protected void serialize(final Person p, Knows knows) {
         String prefix = SN.getPersonURI(p.accountId());
         StringBuffer result = new StringBuffer(19000);
-        long id = SN.formId(knowsId);
+        long id = context_.formId(knowsId);
         Turtle.createTripleSPO(result, prefix, SNVOC.knows, SN.getKnowsURI(id));
         Turtle.createTripleSPO(result, SN.getKnowsURI(id), SNVOC.hasPerson,
                 SN.getPersonURI(knows.to().accountId()));
@@ -43,19 +43,30 @@ public class ConfigParser {
         conf.set("ldbc.snb.datagen.serializer.updateStreams", Boolean.toString(true));
         conf.set("ldbc.snb.datagen.serializer.numPartitions", "1");
         conf.set("ldbc.snb.datagen.serializer.numUpdatePartitions", "1");
+        conf.set("ldbc.snb.datagen.serializer.updateStreams.runSize", "100000");
+        conf.set("ldbc.snb.datagen.serializer.updateStreams.format", "csv");
         conf.set("ldbc.snb.datagen.serializer.outputDir", "./");
         conf.set("ldbc.snb.datagen.serializer.socialNetworkDir", "./social_network");
         conf.set("ldbc.snb.datagen.serializer.hadoopDir", "./hadoop");
         conf.set("ldbc.snb.datagen.serializer.endlineSeparator", Boolean.toString(false));
         conf.set("ldbc.snb.datagen.generator.deltaTime", "10000");
         conf.set("ldbc.snb.datagen.generator.activity", "true");
-        conf.set("ldbc.snb.datagen.serializer.dateFormatter", "ldbc.snb.datagen.serializer.formatter.StringDateFormatter");
+        conf.set("ldbc.snb.datagen.serializer.dateFormatter", "ldbc.snb.datagen.serializer.formatter.CachedStringDateFormatter");
         conf.set("ldbc.snb.datagen.serializer.formatter.StringDateFormatter.dateTimeFormat", "yyyy-MM-dd'T'HH:mm:ss.SSSZ");
         conf.set("ldbc.snb.datagen.serializer.formatter.StringDateFormatter.dateFormat", "yyyy-MM-dd");
+        conf.set("ldbc.snb.datagen.serializer.parquet.rowGroupSize", "134217728");
+        conf.set("ldbc.snb.datagen.serializer.parquet.compression", "SNAPPY");
         conf.set("ldbc.snb.datagen.generator.person.similarity", "ldbc.snb.datagen.objects.similarity.GeoDistanceSimilarity");
         conf.set("ldbc.snb.datagen.parametergenerator.python", "python");
         conf.set("ldbc.snb.datagen.parametergenerator.parameters", "true");
         conf.set("ldbc.snb.datagen.serializer.persons.sort", "true");
+        conf.set("ldbc.snb.datagen.generator.localEngine", "false");
+        conf.set("ldbc.snb.datagen.generator.fusedKnows", "false");
+        conf.set("ldbc.snb.datagen.generator.blockThreads", "1");
+        conf.set("ldbc.snb.datagen.generator.activityThreads", "1");
+        conf.set("ldbc.snb.datagen.generator.dictionarySnapshot", "true");
+        conf.set("ldbc.snb.datagen.generator.randomGenerator", "compat");
+        conf.set("ldbc.snb.datagen.generator.sampler", "compat");
 
         /** Loading predefined Scale Factors **/
 
@@ -124,7 +135,7 @@ public class ConfigParser {
                 }
             }
 
-            if (conf.get("fs.defaultFS").compareTo("file:///") == 0) {
+            if (conf.get("fs.defaultFS").compareTo("file:///") == 0 && !conf.getBoolean("ldbc.snb.datagen.generator.localEngine", false)) {
                 System.out.println("Running in standalone mode. Setting numThreads to 1");
                 conf.set("ldbc.snb.datagen.generator.numThreads", "1");
             }
@@ -0,0 +1,147 @@
+package ldbc.snb.datagen.util;
+
+import java.io.Serializable;
+import java.util.Random;
+
+/**
+ * Samples from a discrete distribution in constant time with the alias method of Walker, built as described by Vose.
+ * The distribution is given by the weights of its outcomes, which do not need to be normalized. Outcome i is the i-th
+ * value, or i itself when no values are given. Every sample consumes a single double of the random generator: its
+ * integral part selects a column of the table and its fractional part decides between the outcome of the column and
+ * its alias.
+ */
+public class DiscreteSampler implements Serializable {
+
+    private double [] prob_;                    /** The probability of keeping the outcome of each column.**/
+    private int [] alias_;                      /** The outcome that replaces the one of each column.**/
+    private int [] values_;
+
+    public DiscreteSampler( double [] weights ) {
+        this(weights, null);
+    }
+
+    public DiscreteSampler( double [] weights, int [] values ) {
+        int n = weights.length;
+        if( n == 0 ) {
+            throw new IllegalArgumentException("A discrete sampler needs at least one outcome");
+        }
+        double total = 0.0;
+        for( double weight : weights ) {
+            total += Math.max(weight, 0.0);
+        }
+        prob_ = new double[n];
+        alias_ = new int[n];
+        values_ = values;
+        if( total <= 0.0 ) {
+            // Without any positive weight, all the outcomes are equally likely.
+            for( int i = 0; i < n; ++i ) {
+                prob_[i] = 1.0;
+                alias_[i] = i;
+            }
+            return;
+        }
+
+        double [] scaled = new double[n];
+        int [] small = new int[n];
+        int [] large = new int[n];
+        int numSmall = 0;
+        int numLarge = 0;
+        for( int i = 0; i < n; ++i ) {
+            scaled[i] = Math.max(weights[i], 0.0) * n / total;
+            if( scaled[i] < 1.0 ) {
+                small[numSmall++] = i;
+            } else {
+                large[numLarge++] = i;
+            }
+        }
+        while( numSmall > 0 && numLarge > 0 ) {
+            int less = small[--numSmall];
+            int more = large[--numLarge];
+            prob_[less] = scaled[less];
+            alias_[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if( scaled[more] < 1.0 ) {
+                small[numSmall++] = more;
+            } else {
+                large[numLarge++] = more;
+            }
+        }
+        // The columns left are full, up to rounding errors.
+        while( numLarge > 0 ) {
+            int more = large[--numLarge];
+            prob_[more] = 1.0;
+            alias_[more] = more;
+        }
+        while( numSmall > 0 ) {
+            int less = small[--numSmall];
+            prob_[less] = 1.0;
+            alias_[less] = less;
+        }
+    }
+
+    /** Builds the sampler of the outcomes selected by a lookup of a uniform draw in an array of cumulative
+     * probabilities, where outcome i is selected when the draw falls in [cumulative[i], cumulative[i+1]), the first
+     * outcome also takes the draws below cumulative[1], and the last one the draws from cumulative[n-1] on. This is
+     * what a binary search that keeps the lower bound returns.
+     *
+     * @param cumulative The cumulative probabilities, in increasing order.
+     * @param values The value of each outcome, or null.
+     * @return The sampler.
+     */
+    public static DiscreteSampler fromLowerBounds( double [] cumulative, int [] values ) {
+        int n = cumulative.length;
+        double [] weights = new double[n];
+        for( int i = 0; i < n; ++i ) {
+            double from = i == 0 ? 0.0 : cumulative[i];
+            double to = i == n - 1 ? 1.0 : cumulative[i + 1];
+            weights[i] = to - from;
+        }
+        return new DiscreteSampler(weights, values);
+    }
+
+    /** Builds the sampler of the outcomes selected by a lookup of a uniform draw in an array of cumulative
+     * probabilities, where outcome i is selected when the draw falls in (cumulative[i-1], cumulative[i]], and the
+     * first outcome takes the draws up to cumulative[0]. This is what a binary search that keeps the upper bound
+     * returns.
+     *
+     * @param cumulative The cumulative probabilities, in increasing order.
+     * @param values The value of each outcome, or null.
+     * @return The sampler.
+     */
+    public static DiscreteSampler fromUpperBounds( double [] cumulative, int [] values ) {
+        int n = cumulative.length;
+        double [] weights = new double[n];
+        for( int i = 0; i < n; ++i ) {
+            weights[i] = cumulative[i] - (i == 0 ? 0.0 : cumulative[i - 1]);
+        }
+        return new DiscreteSampler(weights, values);
+    }
+
+    public int size() {
+        return prob_.length;
+    }
+
+    /** Draws the index of an outcome.
+     *
+     * @param random The random number generator.
+     * @return The index of the outcome.
+     */
+    public int sampleIndex( Random random ) {
+        double u = random.nextDouble() * prob_.length;
+        int column = (int) u;
+        if( column >= prob_.length ) {
+            column = prob_.length - 1;
+        }
+        return u - column < prob_[column] ? column : alias_[column];
+    }
+
+    /** Draws an outcome.
+     *
+     * @param random The random number generator.
+     * @return The value of the outcome, or its index if the sampler has no values.
+     */
+    public int sample( Random random ) {
+        int index = sampleIndex(random);
+        return values_ == null ? index : values_[index];
+    }
+}
@@ -0,0 +1,146 @@
+package ldbc.snb.datagen.util;
+
+import com.google.gson.GsonBuilder;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.CounterGroup;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.TaskCounter;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of the metrics of a run, as named counters organized in groups. The counters are shared by all the
+ * threads of the JVM. Hadoop tasks move the counters they accumulated to the Hadoop counters of the task when they
+ * finish, with flush, and the driver adds the counters of each job to its own registry once the job completes, with
+ * waitForCompletion. When the stages run in the LocalEngine, the counters are accumulated directly in the registry
+ * of the driver. At the end of the run, the registry is written as a JSON report.
+ */
+public class Metrics {
+
+    public static final String STAGES = "stageMillis";          /** Duration of each stage of the run.**/
+    public static final String ENTITIES = "entities";           /** Number of entities generated, per type.**/
+    public static final String BYTES = "bytesWritten";          /** Uncompressed bytes written, per serializer file.**/
+    public static final String KNOWS = "knows";                 /** Statistics of the knows generators.**/
+    public static final String GC = "gcMillis";                 /** Time spent in garbage collection.**/
+
+    private static final String [] GROUPS = {STAGES, ENTITIES, BYTES, KNOWS, GC};
+    private static final String COUNTER_GROUP_PREFIX = "ldbc.snb.datagen.";
+
+    private static final ConcurrentMap<String, ConcurrentMap<String, AtomicLong>> groups_ = new ConcurrentHashMap<String, ConcurrentMap<String, AtomicLong>>();
+
+    private static AtomicLong counter( String group, String name ) {
+        ConcurrentMap<String, AtomicLong> counters = groups_.get(group);
+        if( counters == null ) {
+            groups_.putIfAbsent(group, new ConcurrentHashMap<String, AtomicLong>());
+            counters = groups_.get(group);
+        }
+        AtomicLong counter = counters.get(name);
+        if( counter == null ) {
+            counters.putIfAbsent(name, new AtomicLong());
+            counter = counters.get(name);
+        }
+        return counter;
+    }
+
+    public static void add( String group, String name, long value ) {
+        counter(group, name).addAndGet(value);
+    }
+
+    public static void increment( String group, String name ) {
+        add(group, name, 1);
+    }
+
+    public static long get( String group, String name ) {
+        ConcurrentMap<String, AtomicLong> counters = groups_.get(group);
+        if( counters == null || !counters.containsKey(name) ) {
+            return 0;
+        }
+        return counters.get(name).get();
+    }
+
+    /** Moves the counters accumulated in this JVM to the Hadoop counters of a task. It is called when the task
+     * finishes.
+     *
+     * @param context The context of the task.
+     */
+    public static void flush( TaskInputOutputContext context ) {
+        for( Map.Entry<String, ConcurrentMap<String, AtomicLong>> group : groups_.entrySet() ) {
+            for( Map.Entry<String, AtomicLong> counter : group.getValue().entrySet() ) {
+                long value = counter.getValue().getAndSet(0);
+                if( value != 0 ) {
+                    context.getCounter(COUNTER_GROUP_PREFIX + group.getKey(), counter.getKey()).increment(value);
+                }
+            }
+        }
+    }
+
+    /** Runs a job, and adds its counters to the registry once it completes.
+     *
+     * @param job The job to run.
+     * @return True if the job succeeded.
+     */
+    public static boolean waitForCompletion( Job job ) throws IOException, InterruptedException, ClassNotFoundException {
+        boolean success = job.waitForCompletion(true);
+        Counters counters = job.getCounters();
+        if( counters != null ) {
+            for( String group : GROUPS ) {
+                CounterGroup counterGroup = counters.getGroup(COUNTER_GROUP_PREFIX + group);
+                for( Counter counter : counterGroup ) {
+                    add(group, counter.getName(), counter.getValue());
+                }
+            }
+            add(GC, "tasks", counters.findCounter(TaskCounter.GC_TIME_MILLIS).getValue());
+        }
+        return success;
+    }
+
+    /** Writes the registry as a JSON report, with the garbage collection time of this JVM.
+     *
+     * @param conf The configuration of the run.
+     * @param fileName The name of the report file.
+     */
+    public static void writeReport( Configuration conf, String fileName ) throws IOException {
+        long gcTime = 0;
+        for( GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans() ) {
+            gcTime += Math.max(0, collector.getCollectionTime());
+        }
+        Map<String, Object> report = new LinkedHashMap<String, Object>();
+        report.put("numPersons", conf.get("ldbc.snb.datagen.generator.numPersons"));
+        report.put("startYear", conf.get("ldbc.snb.datagen.generator.startYear"));
+        report.put("numYears", conf.get("ldbc.snb.datagen.generator.numYears"));
+        report.put("numThreads", conf.get("ldbc.snb.datagen.generator.numThreads"));
+        report.put("localEngine", conf.getBoolean("ldbc.snb.datagen.generator.localEngine", false));
+        for( String group : GROUPS ) {
+            Map<String, Long> values = new TreeMap<String, Long>();
+            ConcurrentMap<String, AtomicLong> counters = groups_.get(group);
+            if( counters != null ) {
+                for( Map.Entry<String, AtomicLong> counter : counters.entrySet() ) {
+                    values.put(counter.getKey(), counter.getValue().get());
+                }
+            }
+            if( group.equals(GC) ) {
+                values.put("driver", gcTime);
+            }
+            report.put(group, values);
+        }
+        FileSystem fs = FileSystem.get(conf);
+        OutputStream output = fs.create(new Path(fileName), true);
+        output.write(new GsonBuilder().setPrettyPrinting().create().toJson(report).getBytes(StandardCharsets.UTF_8));
+        output.close();
+    }
+}
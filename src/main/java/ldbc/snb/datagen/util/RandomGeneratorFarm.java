@@ -37,12 +37,25 @@
 
 package ldbc.snb.datagen.util;
 
+import ldbc.snb.datagen.generator.DatagenParams;
+
 import java.util.Random;
 
+/**
+ * One pseudo-random number generator per aspect of the generation. In the default, compatible, mode the generators
+ * are java.util.Random instances reseeded per block from a chained java.util.Random, as the generator always did,
+ * so that existing datasets can be reproduced. When ldbc.snb.datagen.generator.randomGenerator is "splittable",
+ * the generators are SplitMixRandom instances, and the stream of each aspect is derived from the block and,
+ * optionally, from the stage and the index of an entity within the block, so that entities can be generated in any
+ * order.
+ */
 public class RandomGeneratorFarm {
 
+    private static final long SEED = 53223436L;
+
     int numRandomGenerators;
     Random[] randomGenerators;
+    private boolean splittable_;
 
     public enum Aspect {
         DATE,
@@ -117,11 +130,23 @@ public class RandomGeneratorFarm {
         NUM_ASPECT                  // This must be always the last one.
     }
 
+    /** The stages that reset the generators per entity. Each one gets its own streams, so that the entities of a
+     * block do not replay the draws of the entities with the same index in another stage.**/
+    public enum Stage {
+        PERSON,
+        ACTIVITY
+    }
+
     public RandomGeneratorFarm() {
+        this(DatagenParams.splittableRandom);
+    }
+
+    public RandomGeneratorFarm(boolean splittable) {
+        splittable_ = splittable;
         numRandomGenerators = Aspect.values().length;
         randomGenerators = new Random[numRandomGenerators];
         for (int i = 0; i < numRandomGenerators; ++i) {
-            randomGenerators[i] = new Random();
+            randomGenerators[i] = splittable ? new SplitMixRandom() : new Random();
         }
     }
 
@@ -129,10 +154,42 @@ public class RandomGeneratorFarm {
         return randomGenerators[aspect.ordinal()];
     }
 
+    /** Whether the generators can be reset per entity, with resetRandomGenerators(stage, seed, index).**/
+    public boolean isSplittable() {
+        return splittable_;
+    }
+
     public void resetRandomGenerators(long seed) {
-        Random seedRandom = new Random(53223436L + 1234567 * seed);
+        if (splittable_) {
+            setSeeds(SplitMixRandom.split(SEED, seed));
+            return;
+        }
+        Random seedRandom = new Random(SEED + 1234567 * seed);
         for (int i = 0; i < numRandomGenerators; i++) {
             randomGenerators[i].setSeed(seedRandom.nextLong());
         }
     }
+
+    /** Resets the generators to the streams of an entity of the current block, in splittable mode. The streams only
+     * depend on the stage, on the seed of the block and on the index of the entity, so entities can be generated in
+     * any order, or by different farms.
+     *
+     * @param stage The stage generating the entity.
+     * @param seed The seed of the block, as passed to resetRandomGenerators(seed).
+     * @param index The index of the entity within the block.
+     */
+    public void resetRandomGenerators(Stage stage, long seed, long index) {
+        if (!splittable_) {
+            throw new IllegalStateException("Random generators can only be reset per entity in splittable mode");
+        }
+        // Negative keys, so that the streams of a stage never match the ones of the aspects of the block.
+        long stageSeed = SplitMixRandom.split(SplitMixRandom.split(SEED, seed), -1 - stage.ordinal());
+        setSeeds(SplitMixRandom.split(stageSeed, index));
+    }
+
+    private void setSeeds(long seed) {
+        for (int i = 0; i < numRandomGenerators; i++) {
+            randomGenerators[i].setSeed(SplitMixRandom.split(seed, i));
+        }
+    }
 }
@@ -0,0 +1,94 @@
+package ldbc.snb.datagen.util;
+
+import java.util.Random;
+
+/**
+ * A java.util.Random backed by the SplitMix64 generator. Unlike java.util.Random, it keeps its state in a plain
+ * long, so it is not synchronized and must not be shared between threads, and its seeds can be derived by mixing
+ * a sequence of keys (for instance a block, the index of a person in the block and an aspect), so that every
+ * entity gets an independent stream that does not depend on the order in which entities are generated.
+ */
+public class SplitMixRandom extends Random {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long state_;
+    private double nextNextGaussian_;
+    private boolean haveNextNextGaussian_;
+
+    public SplitMixRandom() {
+        super(0);
+    }
+
+    public SplitMixRandom( long seed ) {
+        super(seed);
+    }
+
+    /** The finalizer of SplitMix64, a bijective mix of the bits of a long.**/
+    public static long mix64( long z ) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Derives the seed of a stream from the seed of its parent and a key.
+     *
+     * @param seed The seed of the parent stream.
+     * @param key The key of the stream within its parent.
+     * @return The seed of the stream.
+     */
+    public static long split( long seed, long key ) {
+        return mix64(seed + GOLDEN_GAMMA * (key + 1));
+    }
+
+    @Override
+    public void setSeed( long seed ) {
+        state_ = seed;
+        haveNextNextGaussian_ = false;
+    }
+
+    @Override
+    protected int next( int bits ) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public long nextLong() {
+        state_ += GOLDEN_GAMMA;
+        return mix64(state_);
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    @Override
+    public double nextGaussian() {
+        if( haveNextNextGaussian_ ) {
+            haveNextNextGaussian_ = false;
+            return nextNextGaussian_;
+        }
+        double v1, v2, s;
+        do {
+            v1 = 2 * nextDouble() - 1;
+            v2 = 2 * nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while( s >= 1 || s == 0 );
+        double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+        nextNextGaussian_ = v2 * multiplier;
+        haveNextNextGaussian_ = true;
+        return v1 * multiplier;
+    }
+}
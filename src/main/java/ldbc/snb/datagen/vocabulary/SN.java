@@ -36,33 +36,14 @@
  */
 package ldbc.snb.datagen.vocabulary;
 
-import ldbc.snb.datagen.dictionary.Dictionaries;
-import ldbc.snb.datagen.generator.DatagenParams;
-
 /**
  * LDBC social network data namespace used in the serialization process.
  */
 public class SN {
 
-    public static long machineId;
-    private static long numBits;
     public static final String NAMESPACE = "http://www.ldbc.eu/ldbc_socialnet/1.0/data/";
     public static final String PREFIX = "sn:";
     public static final String BLANK_NODE = "_:";
-    private static long minDate;
-    private static long maxDate;
-
-    /**
-     * Sets the machine id.
-     * Used as a suffix in some SN entities' tp create unique IDs in parallel generation.
-     */
-
-    public static void initialize() {
-        minDate = Dictionaries.dates.getStartDateTime();
-        maxDate = Dictionaries.dates.getEndDateTime();
-        numBits = (int) Math.ceil(Math.log10(Math.ceil(DatagenParams.numPersons/(double)DatagenParams.blockSize)) / Math.log10(2));
-        if (numBits > 20) System.out.print("WARNING: Possible id overlapp");
-    }
 
     /**
      * Gets the LDBC social network data prefix version of the input.
@@ -156,18 +137,4 @@ public class SN {
     public static String getTagClassURI(long id) {
         return BLANK_NODE + "tagclass" + String.format("%06d", id);
     }
-
-    public static Long formId(long id) {
-        long lowMask = 0x0FFFFF;                                // This mask is used to get the lowest 20 bits.
-        long lowerPart = (lowMask & id);
-        long machinePart = machineId << 20;
-        long upperPart = (id >> 20) << (20 + numBits);
-        return upperPart | machinePart | lowerPart;
-    }
-
-    public static long composeId(long id, long date) {
-        long bucket = (long) (256 * (date - minDate) / (double) maxDate);
-        long idMask = ~(0xFFFFFFFFFFFFFFFFL << 36);
-        return (bucket << 36) | (id & idMask);
-    }
 }
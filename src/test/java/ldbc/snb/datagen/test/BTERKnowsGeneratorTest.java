@@ -0,0 +1,327 @@
+package ldbc.snb.datagen.test;
+
+import javafx.util.Pair;
+import ldbc.snb.datagen.dictionary.Dictionaries;
+import ldbc.snb.datagen.generator.BTERKnowsGenerator;
+import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.generator.LDBCDatagen;
+import ldbc.snb.datagen.generator.tools.EdgeStore;
+import ldbc.snb.datagen.objects.Knows;
+import ldbc.snb.datagen.objects.Person;
+import ldbc.snb.datagen.util.ConfigParser;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks BTERKnowsGenerator on synthetic blocks: with the compat random generator it must create exactly the edges
+ * of the former implementation, which kept the adjacency in RoaringBitmaps and the stubs in a LinkedList, and with
+ * the splittable one its edges must not depend on how the affinity blocks are scheduled on the threads.
+ */
+public class BTERKnowsGeneratorTest {
+
+    private static final ArrayList<Float> PERCENTAGES = new ArrayList<Float>(Arrays.asList(0.45f, 0.45f, 0.1f));
+    private static final String [] CC_DISTRIBUTIONS = {"/distributions/dblp_cc.dat", "/distributions/relcollab_cc.dat"};
+
+    private static Configuration conf;
+    private boolean splittableRandom;
+
+    @BeforeClass
+    public static void initialize() {
+        conf = ConfigParser.initialize();
+        ConfigParser.readConfig(conf, "./test_params.ini");
+        ConfigParser.readConfig(conf, LDBCDatagen.class.getResourceAsStream("/params.ini"));
+        LDBCDatagen.init(conf);
+    }
+
+    @Before
+    public void saveParams() {
+        splittableRandom = DatagenParams.splittableRandom;
+    }
+
+    @After
+    public void restoreParams() {
+        DatagenParams.splittableRandom = splittableRandom;
+    }
+
+    /** A block of persons with a skewed number of friends, most of them small, as the degree distributions give.**/
+    private static ArrayList<Person> block( int numPersons, long seed ) {
+        Random random = new Random(seed);
+        ArrayList<Person> persons = new ArrayList<Person>();
+        long from = Dictionaries.dates.getStartDateTime();
+        long to = Dictionaries.dates.getEndDateTime();
+        for( int i = 0; i < numPersons; ++i ) {
+            Person person = new Person();
+            person.accountId(i);
+            person.creationDate(from + (long) (random.nextDouble() * (to - from)));
+            double u = random.nextDouble();
+            person.maxNumKnows(1 + (long) (u * u * u * 300));
+            persons.add(person);
+        }
+        return persons;
+    }
+
+    /** The former BTERKnowsGenerator.**/
+    private static class FormerBTERKnowsGenerator {
+        private int graphSize = 0;
+        private Random random;
+        private long [] expectedDegree;
+        private double [] p;
+        private HashMap<Long,RoaringBitmap> openCommunities = new HashMap<Long,RoaringBitmap>();
+        private ArrayList<RoaringBitmap> closedCommunities = new ArrayList<RoaringBitmap>();
+        private RoaringBitmap [] adjacencyMatrix;
+
+        private int BinarySearch( long [] array, long degree ) {
+            int min = 0;
+            int max = array.length;
+            while(min <= max) {
+                int midPoint = (max - min) / 2 + min;
+                if(midPoint >= array.length) return array.length-1;
+                if(midPoint < 0) return 0;
+                if(array[midPoint] > degree ) {
+                    max = midPoint - 1;
+                } else if(array[midPoint] < degree) {
+                    min = midPoint + 1;
+                } else {
+                    return midPoint;
+                }
+            }
+            return max;
+        }
+
+        private void generateCommunities( RoaringBitmap block ) {
+            Iterator<Integer> iter = block.iterator();
+            while(iter.hasNext()) {
+                int node = iter.next();
+                RoaringBitmap community = openCommunities.get(expectedDegree[node]+1);
+                if(community != null) {
+                    community.add(node);
+                    if(community.getCardinality() >= (expectedDegree[node]+1)) {
+                        openCommunities.remove(expectedDegree[node]+1);
+                        closedCommunities.add(community);
+                    }
+                } else {
+                    community = new RoaringBitmap();
+                    community.add(node);
+                    openCommunities.put(expectedDegree[node]+1,community);
+                }
+            }
+        }
+
+        private void generateEdgesInCommunity( RoaringBitmap community ) {
+            Iterator<Integer> iter = community.iterator();
+            while(iter.hasNext()) {
+                int nodeA = iter.next();
+                Iterator<Integer> iter2 = community.iterator();
+                while(iter2.hasNext()) {
+                    int nodeB = iter2.next();
+                    if(nodeA < nodeB) {
+                        double prob = random.nextDouble();
+                        if(prob < p[community.getCardinality()-1]) {
+                            adjacencyMatrix[nodeA].add(nodeB);
+                            adjacencyMatrix[nodeB].add(nodeA);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void generateRemainingEdges() {
+            LinkedList<Integer> stubs = new LinkedList<Integer>();
+            for(int i = 0; i < graphSize; ++i) {
+                long difference = expectedDegree[i]-adjacencyMatrix[i].getCardinality();
+                if( difference > 0) {
+                    for(int j = 0; j < difference; ++j)  {
+                        stubs.add(i);
+                    }
+                }
+            }
+            Collections.shuffle(stubs,random);
+            while(!stubs.isEmpty()) {
+                int node1 = stubs.get(0);
+                stubs.remove(0);
+                if(!stubs.isEmpty()) {
+                    int node2 = stubs.get(0);
+                    stubs.remove(0);
+                    if(node1 != node2) {
+                        adjacencyMatrix[node1].add(node2);
+                        adjacencyMatrix[node2].add(node1);
+                    }
+                }
+            }
+        }
+
+        public void generateKnows( ArrayList<Person> persons, EdgeStore edges, int seed, ArrayList<Float> percentages, int step_index, String ccDistributionFile ) throws IOException {
+            graphSize = persons.size();
+            expectedDegree = new long[graphSize];
+            adjacencyMatrix = new RoaringBitmap[graphSize];
+            for(int i = 0; i < graphSize; ++i) {
+                adjacencyMatrix[i] = new RoaringBitmap();
+            }
+            random = new Random();
+            random.setSeed(seed);
+            int maxExpectedDegree = 0;
+            for(int i = 0; i < graphSize; ++i) {
+                expectedDegree[i] = Knows.target_edges(persons.get(i),percentages,step_index);
+                maxExpectedDegree = maxExpectedDegree < expectedDegree[i] ? (int)expectedDegree[i] : maxExpectedDegree;
+            }
+            p = new double[maxExpectedDegree+1];
+
+            ArrayList<Pair<Long,Double>> ccDistribution = new ArrayList<Pair<Long,Double>>();
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(getClass().getResourceAsStream(ccDistributionFile), "UTF-8"));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String data[] = line.split(" ");
+                ccDistribution.add(new Pair<Long, Double>(Long.parseLong(data[0]), Double.parseDouble(data[1])));
+            }
+            reader.close();
+            long [] ccDegrees = new long[ccDistribution.size()];
+            double [] ccValues = new double[ccDistribution.size()];
+            for(int i = 0; i < ccDistribution.size(); ++i) {
+                ccDegrees[i] = ccDistribution.get(i).getKey();
+                ccValues[i] = ccDistribution.get(i).getValue();
+            }
+
+            for(int i = 2; i < maxExpectedDegree+1; ++i) {
+                int degree = i;
+                int pos = BinarySearch(ccDegrees,degree);
+                if(ccDegrees[pos] == degree || pos == (ccDegrees.length - 1)) {
+                    p[degree] = ccValues[pos];
+                } else if( pos < ccDegrees.length - 1 ){
+                    long minDegree = ccDegrees[pos];
+                    long maxDegree = ccDegrees[pos+1];
+                    double ratio = (degree - minDegree) / (maxDegree - minDegree);
+                    double minCC = ccValues[pos];
+                    double maxCC = ccValues[pos+1];
+                    double cc_current = ratio * (maxCC - minCC ) + minCC;
+                    p[degree] = Math.pow(cc_current,1/3.0);
+                }
+            }
+
+            RoaringBitmap block = new RoaringBitmap();
+            for(int i = 0; i < graphSize; ++i) {
+                if(expectedDegree[i] > 1 ) {
+                    block.add(i);
+                }
+            }
+            generateCommunities(block);
+
+            TreeMap<Long,RoaringBitmap> sortedMap = new TreeMap<Long,RoaringBitmap>(openCommunities);
+            RoaringBitmap currentCommunity = null;
+            long currentCommunitySize = 0;
+            for(HashMap.Entry<Long,RoaringBitmap> community : sortedMap.entrySet()) {
+                RoaringBitmap nextCommunity = community.getValue();
+                if(currentCommunity == null) {
+                    currentCommunity = nextCommunity;
+                    currentCommunitySize = community.getKey();
+                } else {
+                    while(currentCommunity.getCardinality()<=currentCommunitySize && nextCommunity.getCardinality() > 0) {
+                        int nextNode = nextCommunity.select(0);
+                        currentCommunity.add(nextNode);
+                        nextCommunity.remove(nextNode);
+                    }
+                    if(currentCommunity.getCardinality()>=currentCommunitySize) {
+                        closedCommunities.add(currentCommunity);
+                        currentCommunity=null;
+                        currentCommunitySize = 0;
+                        if(nextCommunity.getCardinality() > 0) {
+                            currentCommunity=nextCommunity;
+                            currentCommunitySize = community.getKey();
+                        }
+                    }
+                }
+            }
+
+            for(RoaringBitmap community : closedCommunities) {
+                generateEdgesInCommunity(community);
+            }
+
+            generateRemainingEdges();
+
+            for (int i = 0; i < graphSize; ++i) {
+                Iterator<Integer> it = adjacencyMatrix[i].iterator();
+                while (it.hasNext()) {
+                    int next = it.next();
+                    edges.createKnows(random, i, next);
+                }
+            }
+        }
+    }
+
+    private static EdgeStore generateKnows( ArrayList<Person> persons, int seed, int step, String ccDistribution ) {
+        Configuration generatorConf = new Configuration(conf);
+        generatorConf.set("ldbc.snb.datagen.generator.BTERKnowsGenerator.ccDistribution", ccDistribution);
+        BTERKnowsGenerator generator = new BTERKnowsGenerator();
+        generator.initialize(generatorConf);
+        EdgeStore edges = new EdgeStore(persons);
+        generator.generateKnows(persons, edges, seed, PERCENTAGES, step);
+        return edges;
+    }
+
+    private static void assertSameEdges( EdgeStore expected, EdgeStore actual ) {
+        assertEquals("Number of edges", expected.numEdges(), actual.numEdges());
+        for( int i = 0; i < expected.numEdges(); ++i ) {
+            assertEquals("First person of edge " + i, expected.first(i), actual.first(i));
+            assertEquals("Second person of edge " + i, expected.second(i), actual.second(i));
+            assertEquals("Creation date of edge " + i, expected.creationDate(i), actual.creationDate(i));
+        }
+    }
+
+    @Test
+    public void compatEdgesUnchanged() throws IOException {
+        DatagenParams.splittableRandom = false;
+        for( String ccDistribution : CC_DISTRIBUTIONS ) {
+            for( int seed = 0; seed < 3; ++seed ) {
+                for( int step = 0; step < PERCENTAGES.size(); ++step ) {
+                    ArrayList<Person> persons = block(5000, seed);
+                    EdgeStore expected = new EdgeStore(persons);
+                    new FormerBTERKnowsGenerator().generateKnows(persons, expected, seed, PERCENTAGES, step, ccDistribution);
+                    assertTrue(expected.numEdges() > 0);
+                    assertSameEdges(expected, generateKnows(persons, seed, step, ccDistribution));
+                }
+            }
+        }
+    }
+
+    /** Generates the edges of a block inside a pool, so that the parallel stream of the affinity blocks runs on it.**/
+    private static EdgeStore generateKnowsIn( ForkJoinPool pool, final ArrayList<Person> persons, final int seed ) throws Exception {
+        return pool.submit(new Callable<EdgeStore>() {
+            public EdgeStore call() {
+                return generateKnows(persons, seed, 0, CC_DISTRIBUTIONS[0]);
+            }
+        }).get();
+    }
+
+    @Test
+    public void splittableScheduleIndependent() throws Exception {
+        DatagenParams.splittableRandom = true;
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool several = new ForkJoinPool(4);
+        try {
+            for( int seed = 0; seed < 3; ++seed ) {
+                ArrayList<Person> persons = block(20000, seed);
+                EdgeStore expected = generateKnowsIn(single, persons, seed);
+                assertTrue(expected.numEdges() > 0);
+                assertSameEdges(expected, generateKnowsIn(several, persons, seed));
+                assertSameEdges(expected, generateKnows(persons, seed, 0, CC_DISTRIBUTIONS[0]));
+                assertSameEdges(expected, generateKnows(persons, seed, 0, CC_DISTRIBUTIONS[0]));
+            }
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+}
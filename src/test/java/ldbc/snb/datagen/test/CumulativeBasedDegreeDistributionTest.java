@@ -0,0 +1,216 @@
+package ldbc.snb.datagen.test;
+
+import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.generator.distribution.AltmannDistribution;
+import ldbc.snb.datagen.generator.distribution.CumulativeBasedDegreeDistribution;
+import ldbc.snb.datagen.generator.distribution.DiscreteWeibullDistribution;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Checks the degree distributions that only keep the prefix of their cumulative probabilities against the former
+ * ones, which kept the cumulative probabilities of the whole support and looked the draws up with a binary search.
+ * The lookup must return the same degree for every draw, including the draws equal to a cumulative probability and
+ * those past the last one of the prefix, and the alias sampler must give the same distribution.
+ */
+public class CumulativeBasedDegreeDistributionTest {
+
+    private static final int [] NUM_PERSONS = {1, 2, 3, 10, 100, 1000, 10000, 100000};
+
+    private int numPersons;
+    private boolean aliasSampling;
+
+    @Before
+    public void saveParams() {
+        numPersons = DatagenParams.numPersons;
+        aliasSampling = DatagenParams.aliasSampling;
+    }
+
+    @After
+    public void restoreParams() {
+        DatagenParams.numPersons = numPersons;
+        DatagenParams.aliasSampling = aliasSampling;
+    }
+
+    /** The former cumulative probabilities of AltmannDistribution, over the whole support.**/
+    private static double [] formerAltmann( double alpha, double beta ) {
+        double normalization = 0.0;
+        for( int i = 1; i <= DatagenParams.numPersons; ++i ) {
+            normalization += Math.pow(i,-alpha)*Math.exp(-beta*i);
+        }
+        double [] cumulative = new double[DatagenParams.numPersons];
+        for( int i = 1; i <= DatagenParams.numPersons; ++i ) {
+            double prob = Math.pow(i,-alpha)*Math.exp(-beta*i) / normalization;
+            prob += i > 1 ? cumulative[i-2] : 0.0;
+            cumulative[i-1] = prob;
+        }
+        return cumulative;
+    }
+
+    /** The former cumulative probabilities of DiscreteWeibullDistribution, over the whole support.**/
+    private static double [] formerWeibull( double beta, double p ) {
+        double [] cumulative = new double[DatagenParams.numPersons];
+        for( int i = 0; i < DatagenParams.numPersons; ++i ) {
+            cumulative[i] = 1.0-Math.pow((1.0-p),Math.pow(i+1,beta));
+        }
+        return cumulative;
+    }
+
+    /** The former binary search of CumulativeBasedDegreeDistribution, which gave the degree index + 1.**/
+    private static int formerBinarySearch( double [] cumulative, double prob ) {
+        int upperBound = cumulative.length-1;
+        int lowerBound = 0;
+        int midPoint = (upperBound + lowerBound) / 2;
+        while (upperBound > (lowerBound+1)){
+            if (cumulative[midPoint] > prob ){
+                upperBound = midPoint;
+            } else {
+                lowerBound = midPoint;
+            }
+            midPoint = (upperBound + lowerBound) / 2;
+        }
+        return midPoint;
+    }
+
+    /** A generator that gives a fixed sequence of draws.**/
+    private static class Draws extends Random {
+        private double [] draws_;
+        private int next_ = 0;
+
+        public Draws( double [] draws ) {
+            draws_ = draws;
+        }
+
+        @Override
+        public double nextDouble() {
+            return draws_[next_++];
+        }
+    }
+
+    private static void setRandom( CumulativeBasedDegreeDistribution distribution, Random random ) throws Exception {
+        Field field = CumulativeBasedDegreeDistribution.class.getDeclaredField("random_");
+        field.setAccessible(true);
+        field.set(distribution, random);
+    }
+
+    /** The draws at, just below and just above every distinct cumulative probability in [0,1), and past the last
+     * one.
+     */
+    private static double [] boundaryDraws( double [] cumulative ) {
+        ArrayList<Double> draws = new ArrayList<Double>();
+        draws.add(0.0);
+        draws.add(Math.nextDown(1.0));
+        for( int i = 0; i < cumulative.length; ++i ) {
+            if( i > 0 && cumulative[i] == cumulative[i-1] ) continue;
+            double [] candidates = {Math.nextDown(cumulative[i]), cumulative[i], Math.nextUp(cumulative[i]),
+                    (cumulative[i] + 1.0) / 2};
+            for( double draw : candidates ) {
+                if( draw >= 0.0 && draw < 1.0 ) {
+                    draws.add(draw);
+                }
+            }
+        }
+        double [] result = new double[draws.size()];
+        for( int i = 0; i < result.length; ++i ) {
+            result[i] = draws.get(i);
+        }
+        return result;
+    }
+
+    private static void checkLookup( CumulativeBasedDegreeDistribution distribution, Configuration conf, double [] former ) throws Exception {
+        DatagenParams.aliasSampling = false;
+        distribution.initialize(conf);
+        String name = distribution.getClass().getSimpleName() + " with " + DatagenParams.numPersons + " persons";
+
+        double [] draws = boundaryDraws(former);
+        setRandom(distribution, new Draws(draws));
+        for( double draw : draws ) {
+            assertEquals(name + ", draw " + draw, formerBinarySearch(former, draw) + 1, distribution.nextDegree());
+        }
+
+        setRandom(distribution, new Random());
+        for( long seed = 0; seed < 4; ++seed ) {
+            distribution.reset(seed);
+            Random random = new Random(seed);
+            for( int i = 0; i < 100000; ++i ) {
+                double draw = random.nextDouble();
+                assertEquals(name + ", draw " + draw, formerBinarySearch(former, draw) + 1, distribution.nextDegree());
+            }
+        }
+    }
+
+    /** The histogram of floor(log2(degree)) of the degrees drawn by a distribution.**/
+    private static double [] histogram( CumulativeBasedDegreeDistribution distribution, int numDraws ) {
+        double [] histogram = new double[32];
+        for( int i = 0; i < numDraws; ++i ) {
+            long degree = distribution.nextDegree();
+            histogram[63 - Long.numberOfLeadingZeros(degree)] += 1.0 / numDraws;
+        }
+        return histogram;
+    }
+
+    private static void checkAlias( CumulativeBasedDegreeDistribution distribution ) {
+        int numDraws = 1000000;
+        DatagenParams.aliasSampling = false;
+        distribution.initialize(new Configuration());
+        distribution.reset(1);
+        double [] expected = histogram(distribution, numDraws);
+        DatagenParams.aliasSampling = true;
+        distribution.initialize(new Configuration());
+        distribution.reset(2);
+        double [] actual = histogram(distribution, numDraws);
+        double distance = 0.0;
+        for( int i = 0; i < expected.length; ++i ) {
+            distance += Math.abs(expected[i] - actual[i]) / 2;
+        }
+        String name = distribution.getClass().getSimpleName() + " with " + DatagenParams.numPersons + " persons";
+        assertTrue(name + ": alias sampling distribution differs by " + distance, distance < 0.005);
+        int maxDegree = Math.max(1, DatagenParams.numPersons - 1);
+        distribution.reset(3);
+        for( int i = 0; i < numDraws; ++i ) {
+            long degree = distribution.nextDegree();
+            assertTrue(name + ": alias sampling degree " + degree, degree >= 1 && degree <= maxDegree);
+        }
+    }
+
+    @Test
+    public void altmannLookupUnchanged() throws Exception {
+        for( int numPersons : NUM_PERSONS ) {
+            DatagenParams.numPersons = numPersons;
+            checkLookup(new AltmannDistribution(), new Configuration(), formerAltmann(0.4577, 0.0162));
+        }
+        // Parameters whose prefix stops below 1, so that the last draws fall past it.
+        Configuration conf = new Configuration();
+        conf.setDouble("ldbc.snb.datagen.generator.distribution.AltmannDistribution.alpha", 0.6);
+        conf.setDouble("ldbc.snb.datagen.generator.distribution.AltmannDistribution.beta", 0.005);
+        for( int numPersons : NUM_PERSONS ) {
+            DatagenParams.numPersons = numPersons;
+            checkLookup(new AltmannDistribution(), conf, formerAltmann(0.6, 0.005));
+        }
+    }
+
+    @Test
+    public void weibullLookupUnchanged() throws Exception {
+        for( int numPersons : NUM_PERSONS ) {
+            DatagenParams.numPersons = numPersons;
+            checkLookup(new DiscreteWeibullDistribution(), new Configuration(), formerWeibull(0.8505, 0.0205));
+        }
+    }
+
+    @Test
+    public void aliasSamplingSameDistribution() {
+        for( int numPersons : NUM_PERSONS ) {
+            DatagenParams.numPersons = numPersons;
+            checkAlias(new AltmannDistribution());
+            checkAlias(new DiscreteWeibullDistribution());
+        }
+    }
+}
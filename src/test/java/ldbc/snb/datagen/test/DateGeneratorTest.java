@@ -0,0 +1,159 @@
+package ldbc.snb.datagen.test;
+
+import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.generator.DateGenerator;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Checks the date formatting and the calendar fields of DateGenerator against the former code, which went through
+ * SimpleDateFormat and GregorianCalendar, over a range of dates that covers the simulation window, the birthdays and
+ * the edges of both.
+ */
+public class DateGeneratorTest {
+
+    private static final long ONE_DAY = DateGenerator.ONE_DAY;
+    private static final TimeZone GMT = TimeZone.getTimeZone("GMT");
+
+    private static DateGenerator dateGenerator( String dateTimeFormat, String dateFormat ) {
+        Configuration conf = new Configuration();
+        conf.set("ldbc.snb.datagen.serializer.dateFormatter", "ldbc.snb.datagen.serializer.formatter.CachedStringDateFormatter");
+        conf.setInt("ldbc.snb.datagen.generator.startYear", DatagenParams.startYear);
+        conf.setInt("ldbc.snb.datagen.generator.numYears", DatagenParams.numYears);
+        if( dateTimeFormat != null ) {
+            conf.set("ldbc.snb.datagen.serializer.formatter.StringDateFormatter.dateTimeFormat", dateTimeFormat);
+            conf.set("ldbc.snb.datagen.serializer.formatter.StringDateFormatter.dateFormat", dateFormat);
+        }
+        return new DateGenerator(conf, new GregorianCalendar(DatagenParams.startYear, DatagenParams.startMonth, DatagenParams.startDate),
+                new GregorianCalendar(DatagenParams.endYear, DatagenParams.endMonth, DatagenParams.endDate), DatagenParams.alpha, DatagenParams.deltaTime);
+    }
+
+    private static long gmt( int year, int month, int day ) {
+        GregorianCalendar calendar = new GregorianCalendar(GMT);
+        calendar.clear();
+        calendar.set(year, month, day);
+        return calendar.getTimeInMillis();
+    }
+
+    /** The dates to check: the edges of every day around the simulation window and the birthdays, the edges of the
+     * window itself, and random dates from 1970 to 2030.**/
+    private static ArrayList<Long> dates( DateGenerator dateGenerator ) {
+        ArrayList<Long> dates = new ArrayList<Long>();
+        long [] edges = { dateGenerator.getStartDateTime(), dateGenerator.getEndDateTime(), dateGenerator.getUpdateThreshold(),
+                gmt(DatagenParams.startYear, Calendar.JANUARY, 1), gmt(DatagenParams.startYear + DatagenParams.numYears + 1, Calendar.JANUARY, 1),
+                new GregorianCalendar(1980, 1, 1).getTimeInMillis(), new GregorianCalendar(1990, 1, 1).getTimeInMillis(), 0L };
+        for( long edge : edges ) {
+            for( long delta = -2; delta <= 2; ++delta ) {
+                dates.add(edge + delta);
+            }
+        }
+        for( long day = gmt(1979, Calendar.JANUARY, 1) / ONE_DAY; day < gmt(1991, Calendar.JANUARY, 1) / ONE_DAY; ++day ) {
+            dates.add(day * ONE_DAY);
+            dates.add(day * ONE_DAY - 1);
+        }
+        for( long day = gmt(DatagenParams.startYear - 1, Calendar.JANUARY, 1) / ONE_DAY; day < gmt(DatagenParams.endYear + 2, Calendar.JANUARY, 1) / ONE_DAY; ++day ) {
+            dates.add(day * ONE_DAY);
+            dates.add(day * ONE_DAY - 1);
+            dates.add(day * ONE_DAY + ONE_DAY / 2 + 999);
+        }
+        Random random = new Random(12345);
+        long from = gmt(1970, Calendar.JANUARY, 1);
+        long to = gmt(2030, Calendar.JANUARY, 1);
+        for( int i = 0; i < 30000; ++i ) {
+            dates.add(from + (long) (random.nextDouble() * (to - from)));
+        }
+        return dates;
+    }
+
+    private static SimpleDateFormat gmtFormatter( String pattern ) {
+        SimpleDateFormat formatter = new SimpleDateFormat(pattern);
+        formatter.setTimeZone(GMT);
+        return formatter;
+    }
+
+    private void checkFormat( String dateTimeFormat, String dateFormat ) {
+        DateGenerator dateGenerator = dateGenerator(dateTimeFormat, dateFormat);
+        SimpleDateFormat dateTimeFormatter = gmtFormatter(dateTimeFormat);
+        SimpleDateFormat dateFormatter = gmtFormatter(dateFormat);
+        byte [] buffer = new byte[256];
+        for( long date : dates(dateGenerator) ) {
+            String expectedDateTime = dateTimeFormatter.format(new Date(date));
+            String expectedDate = dateFormatter.format(new Date(date));
+            assertEquals("Date time of " + date, expectedDateTime, dateGenerator.formatDateTime(date));
+            assertEquals("Date of " + date, expectedDate, dateGenerator.formatDate(date));
+
+            int length = dateGenerator.formatDateTime(date, buffer, 3);
+            assertEquals("Date time bytes of " + date, expectedDateTime, new String(buffer, 3, length, StandardCharsets.UTF_8));
+            length = dateGenerator.formatDate(date, buffer, 3);
+            assertEquals("Date bytes of " + date, expectedDate, new String(buffer, 3, length, StandardCharsets.UTF_8));
+        }
+        // A buffer that is too small is reported instead of overflowed.
+        assertEquals(-1, dateGenerator.formatDateTime(dateGenerator.getStartDateTime(), new byte[4], 0));
+        assertEquals(-1, dateGenerator.formatDate(dateGenerator.getStartDateTime(), new byte[12], 8));
+    }
+
+    @Test
+    public void defaultFormat() {
+        checkFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ", "yyyy-MM-dd");
+    }
+
+    @Test
+    public void otherFormats() {
+        checkFormat("dd/MM/yy k:m:s.S z", "EEE, d MMM yyyy");
+        checkFormat("yyyy-MM-dd hh:mm:ss.SSS a", "D 'day' ''yy");
+    }
+
+    @Test
+    public void calendarFields() {
+        DateGenerator dateGenerator = dateGenerator(null, null);
+        GregorianCalendar calendar = new GregorianCalendar();
+        calendar.setTimeZone(GMT);
+        for( long date : dates(dateGenerator) ) {
+            calendar.setTimeInMillis(date);
+            int year = calendar.get(Calendar.YEAR);
+            int month = calendar.get(Calendar.MONTH);
+            assertEquals("Year of " + date, year + "", dateGenerator.formatYear(date));
+            assertEquals("Birth year of " + date, year, dateGenerator.getBirthYear(date));
+            assertEquals("Birth month of " + date, month, dateGenerator.getBirthMonth(date));
+            assertEquals("Number of months of " + date, (year - 2000) * 12 + month + 1 - 3, dateGenerator.getNumberOfMonths(date, 3, 2000));
+
+            GregorianCalendar local = new GregorianCalendar();
+            local.setTimeInMillis(date);
+            int localDay = local.get(Calendar.DAY_OF_MONTH);
+            int localMonth = local.get(Calendar.MONTH) + 1;
+            boolean travelSeason = (localMonth > 5 && localMonth < 8) || (localMonth == 12 && localDay > 23);
+            assertEquals("Travel season of " + date, travelSeason, DateGenerator.isTravelSeason(date));
+        }
+    }
+
+    @Test
+    public void birthDays() {
+        DateGenerator dateGenerator = dateGenerator(null, null);
+        long fromBirthDay = new GregorianCalendar(1980, 1, 1).getTimeInMillis();
+        long toBirthDay = new GregorianCalendar(1990, 1, 1).getTimeInMillis();
+        Random expectedRandom = new Random(42);
+        Random actualRandom = new Random(42);
+        GregorianCalendar calendar = new GregorianCalendar();
+        calendar.setTimeZone(GMT);
+        for( int i = 0; i < 100000; ++i ) {
+            calendar.setTimeInMillis((long) (expectedRandom.nextDouble() * (toBirthDay - fromBirthDay)) + fromBirthDay);
+            GregorianCalendar day = new GregorianCalendar(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH), 0, 0, 0);
+            day.setTimeZone(GMT);
+            long birthDay = dateGenerator.getBirthDay(actualRandom, 0);
+            assertEquals(day.getTimeInMillis(), birthDay);
+            assertEquals(calendar.get(Calendar.YEAR), dateGenerator.getBirthYear(birthDay));
+            assertEquals(calendar.get(Calendar.MONTH), dateGenerator.getBirthMonth(birthDay));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package ldbc.snb.datagen.test;
+
+import ldbc.snb.datagen.dictionary.Dictionaries;
+import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.generator.DistanceKnowsGenerator;
+import ldbc.snb.datagen.generator.LDBCDatagen;
+import ldbc.snb.datagen.generator.tools.EdgeStore;
+import ldbc.snb.datagen.objects.Knows;
+import ldbc.snb.datagen.objects.Person;
+import ldbc.snb.datagen.util.ConfigParser;
+import ldbc.snb.datagen.util.RandomGeneratorFarm;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checks DistanceKnowsGenerator on synthetic blocks: the default path must create exactly the edges of the former
+ * loop, which tested every candidate with Math.pow, and skip sampling must give the same distributions of degrees
+ * and of distances between the persons of an edge.
+ */
+public class DistanceKnowsGeneratorTest {
+
+    private static final ArrayList<Float> PERCENTAGES = new ArrayList<Float>(Arrays.asList(0.45f, 0.45f, 0.1f));
+
+    private static Configuration conf;
+    private double baseProbCorrelated;
+    private double limitProCorrelated;
+
+    @BeforeClass
+    public static void initialize() {
+        conf = ConfigParser.initialize();
+        ConfigParser.readConfig(conf, "./test_params.ini");
+        ConfigParser.readConfig(conf, LDBCDatagen.class.getResourceAsStream("/params.ini"));
+        LDBCDatagen.init(conf);
+    }
+
+    @Before
+    public void saveParams() {
+        baseProbCorrelated = DatagenParams.baseProbCorrelated;
+        limitProCorrelated = DatagenParams.limitProCorrelated;
+    }
+
+    @After
+    public void restoreParams() {
+        DatagenParams.baseProbCorrelated = baseProbCorrelated;
+        DatagenParams.limitProCorrelated = limitProCorrelated;
+    }
+
+    /** A block of persons with a skewed number of friends, most of them small, as the degree distributions give.**/
+    private static ArrayList<Person> block( int numPersons, long seed ) {
+        Random random = new Random(seed);
+        ArrayList<Person> persons = new ArrayList<Person>();
+        long from = Dictionaries.dates.getStartDateTime();
+        long to = Dictionaries.dates.getEndDateTime();
+        for( int i = 0; i < numPersons; ++i ) {
+            Person person = new Person();
+            person.accountId(i);
+            person.creationDate(from + (long) (random.nextDouble() * (to - from)));
+            double u = random.nextDouble();
+            person.maxNumKnows(1 + (long) (u * u * u * 300));
+            persons.add(person);
+        }
+        return persons;
+    }
+
+    /** The former DistanceKnowsGenerator.generateKnows.**/
+    private static void generateKnowsFormer( ArrayList<Person> persons, EdgeStore edges, int seed, ArrayList<Float> percentages, int step_index ) {
+        RandomGeneratorFarm randomFarm = new RandomGeneratorFarm();
+        randomFarm.resetRandomGenerators(seed);
+        for( int i = 0; i < persons.size(); ++i ) {
+            Person p = persons.get(i);
+            for( int j = i+1; ( Knows.target_edges(p, percentages, step_index) > edges.degree(i) ) && ( j < persons.size() ); ++j  ) {
+                if( edges.degree(i) >= Knows.target_edges( persons.get(i), percentages, step_index) ||
+                    edges.degree(j) >= Knows.target_edges( persons.get(j), percentages, step_index) ) continue;
+                double randProb = randomFarm.get(RandomGeneratorFarm.Aspect.UNIFORM).nextDouble();
+                double prob = Math.pow(DatagenParams.baseProbCorrelated, j - i);
+                if ((randProb < prob) || (randProb < DatagenParams.limitProCorrelated)) {
+                    edges.createKnows(randomFarm.get(RandomGeneratorFarm.Aspect.DATE), i, j);
+                }
+            }
+        }
+    }
+
+    private static EdgeStore generateKnows( ArrayList<Person> persons, int seed, int step, boolean skipSampling ) {
+        Configuration generatorConf = new Configuration(conf);
+        generatorConf.setBoolean("ldbc.snb.datagen.generator.DistanceKnowsGenerator.skipSampling", skipSampling);
+        DistanceKnowsGenerator generator = new DistanceKnowsGenerator();
+        generator.initialize(generatorConf);
+        EdgeStore edges = new EdgeStore(persons);
+        generator.generateKnows(persons, edges, seed, PERCENTAGES, step);
+        return edges;
+    }
+
+    private void checkSameEdges() {
+        for( int seed = 0; seed < 4; ++seed ) {
+            for( int step = 0; step < PERCENTAGES.size(); ++step ) {
+                ArrayList<Person> persons = block(3000, seed);
+                EdgeStore expected = new EdgeStore(persons);
+                generateKnowsFormer(persons, expected, seed, PERCENTAGES, step);
+                EdgeStore actual = generateKnows(persons, seed, step, false);
+                assertEquals(expected.numEdges(), actual.numEdges());
+                for( int i = 0; i < expected.numEdges(); ++i ) {
+                    assertEquals(expected.first(i), actual.first(i));
+                    assertEquals(expected.second(i), actual.second(i));
+                    assertEquals(expected.creationDate(i), actual.creationDate(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void defaultPathUnchanged() {
+        checkSameEdges();
+        // A limit that is reached after a few persons, and one that is never reached within the block.
+        DatagenParams.baseProbCorrelated = 0.5;
+        DatagenParams.limitProCorrelated = 0.1;
+        checkSameEdges();
+        DatagenParams.baseProbCorrelated = 0.999;
+        DatagenParams.limitProCorrelated = 0.001;
+        checkSameEdges();
+    }
+
+    /** Degrees and distances of the edges of a mode, over several seeds.**/
+    private static class Histograms {
+        long numEdges = 0;
+        long [] degrees = new long[32];              /** Persons by degree, the last bucket holds the larger ones.**/
+        long [] distances = new long[16];            /** Edges by floor(log2(distance)).**/
+
+        void add( EdgeStore edges ) {
+            numEdges += edges.numEdges();
+            for( int i = 0; i < edges.numPersons(); ++i ) {
+                degrees[Math.min(degrees.length - 1, edges.degree(i))]++;
+            }
+            for( int i = 0; i < edges.numEdges(); ++i ) {
+                int distance = Math.abs(edges.second(i) - edges.first(i));
+                distances[Math.min(distances.length - 1, 31 - Integer.numberOfLeadingZeros(distance))]++;
+            }
+        }
+    }
+
+    /** The total variation distance between two histograms.**/
+    private static double distance( long [] a, long [] b ) {
+        double totalA = 0.0;
+        double totalB = 0.0;
+        for( int i = 0; i < a.length; ++i ) {
+            totalA += a[i];
+            totalB += b[i];
+        }
+        double distance = 0.0;
+        for( int i = 0; i < a.length; ++i ) {
+            distance += Math.abs(a[i] / totalA - b[i] / totalB);
+        }
+        return distance / 2;
+    }
+
+    private void checkSameDistributions() {
+        Histograms defaultPath = new Histograms();
+        Histograms skipSampling = new Histograms();
+        for( int seed = 0; seed < 40; ++seed ) {
+            ArrayList<Person> persons = block(2000, 1000 + seed);
+            defaultPath.add(generateKnows(persons, seed, 0, false));
+            skipSampling.add(generateKnows(persons, seed, 0, true));
+        }
+        // Two runs of the default path with different seeds are up to about 0.006 apart on these distances.
+        assertEquals("Number of edges", 1.0, (double) skipSampling.numEdges / defaultPath.numEdges, 0.01);
+        assertTrue("Degree distributions differ", distance(defaultPath.degrees, skipSampling.degrees) < 0.02);
+        assertTrue("Distance distributions differ", distance(defaultPath.distances, skipSampling.distances) < 0.02);
+    }
+
+    @Test
+    public void skipSamplingSameDistributions() {
+        checkSameDistributions();
+        // A low limit, so that most edges are drawn past the distance where the probability becomes constant.
+        DatagenParams.baseProbCorrelated = 0.9;
+        DatagenParams.limitProCorrelated = 0.005;
+        checkSameDistributions();
+    }
+}
@@ -0,0 +1,145 @@
+package ldbc.snb.datagen.test;
+
+import ldbc.snb.datagen.serializer.HDFSCSVWriter;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Checks that HDFSCSVWriter writes exactly the bytes of the former path, which built each entry in a StringBuffer
+ * and encoded it with getBytes.
+ */
+public class HDFSCSVWriterTest {
+
+    private static final String [] STRINGS = {"", "Ελένη", "Müller", "北京", "😀 smile", "a|b", "null"};
+    private static final String LONG_STRING;
+
+    static {
+        // Longer than the buffer of a partition, so that it is written in several chunks.
+        StringBuilder builder = new StringBuilder();
+        for( int j = 0; j < 30000; ++j ) {
+            builder.append(STRINGS[j % STRINGS.length]);
+        }
+        LONG_STRING = builder.toString();
+    }
+
+    /** A row of fields of every type the append methods take. Fields are Strings, Longs, Integers or null.**/
+    private static ArrayList<Object> row( Random random, int index ) {
+        ArrayList<Object> row = new ArrayList<Object>();
+        int numFields = index % 7;
+        for( int i = 0; i < numFields; ++i ) {
+            switch( random.nextInt(6) ) {
+                case 0:
+                    row.add(STRINGS[random.nextInt(STRINGS.length)]);
+                    break;
+                case 1:
+                    row.add(random.nextLong());
+                    break;
+                case 2:
+                    row.add(random.nextBoolean() ? Long.MIN_VALUE : Long.MAX_VALUE);
+                    break;
+                case 3:
+                    row.add(random.nextInt(2001) - 1000);
+                    break;
+                case 4:
+                    row.add(null);
+                    break;
+                default:
+                    row.add(random.nextInt(20) == 0 ? LONG_STRING : STRINGS[random.nextInt(STRINGS.length)]);
+            }
+        }
+        return row;
+    }
+
+    /** The former HDFSCSVWriter.writeEntry and HDFSWriter.write.**/
+    private static void writeStringBuffer( OutputStream [] streams, ArrayList<ArrayList<Object>> rows, String separator, boolean endLineSeparator ) throws IOException {
+        int currentPartition = 0;
+        StringBuffer buffer = new StringBuffer(2048);
+        for( ArrayList<Object> entry : rows ) {
+            buffer.setLength(0);
+            for( int i = 0; i < entry.size(); ++i)  {
+                buffer.append(entry.get(i) == null ? null : entry.get(i).toString());
+                if((endLineSeparator && i == (entry.size() - 1)) || (i < entry.size() - 1))
+                    buffer.append(separator);
+            }
+            buffer.append("\n");
+            StringBuffer sb = new StringBuffer();
+            sb.append(buffer.toString());
+            streams[currentPartition].write(sb.toString().getBytes("UTF8"));
+            currentPartition = ++currentPartition % streams.length;
+        }
+    }
+
+    private static void writeByteBuffer( OutputStream [] streams, ArrayList<ArrayList<Object>> rows, String separator, boolean endLineSeparator ) {
+        HDFSCSVWriter writer = new HDFSCSVWriter(streams, separator, endLineSeparator);
+        for( int r = 0; r < rows.size(); ++r ) {
+            ArrayList<Object> entry = rows.get(r);
+            if( r % 5 == 0 ) {
+                // Part of the entries go through writeEntry, as the invariant serializers do.
+                ArrayList<String> strings = new ArrayList<String>();
+                for( Object field : entry ) {
+                    strings.add(field == null ? null : field.toString());
+                }
+                writer.writeEntry(strings);
+                continue;
+            }
+            for( Object field : entry ) {
+                if( field instanceof Long ) {
+                    writer.append((Long) field);
+                } else if( field instanceof Integer ) {
+                    writer.append((Integer) field);
+                } else {
+                    writer.append((String) field);
+                }
+            }
+            writer.endEntry();
+        }
+        writer.close();
+    }
+
+    private static ByteArrayOutputStream [] streams( int numPartitions ) {
+        ByteArrayOutputStream [] streams = new ByteArrayOutputStream[numPartitions];
+        for( int i = 0; i < numPartitions; ++i ) {
+            streams[i] = new ByteArrayOutputStream();
+        }
+        return streams;
+    }
+
+    private void check( int numPartitions, String separator, boolean endLineSeparator ) throws IOException {
+        Random random = new Random(numPartitions * 31 + (endLineSeparator ? 1 : 0));
+        ArrayList<ArrayList<Object>> rows = new ArrayList<ArrayList<Object>>();
+        for( int i = 0; i < 2000; ++i ) {
+            rows.add(row(random, i));
+        }
+        ByteArrayOutputStream [] expected = streams(numPartitions);
+        ByteArrayOutputStream [] actual = streams(numPartitions);
+        writeStringBuffer(expected, rows, separator, endLineSeparator);
+        writeByteBuffer(actual, rows, separator, endLineSeparator);
+        for( int i = 0; i < numPartitions; ++i ) {
+            assertArrayEquals(expected[i].toByteArray(), actual[i].toByteArray());
+        }
+    }
+
+    @Test
+    public void singlePartition() throws IOException {
+        check(1, "|", false);
+        check(1, "|", true);
+    }
+
+    @Test
+    public void severalPartitions() throws IOException {
+        check(3, "|", false);
+        check(3, "|", true);
+    }
+
+    @Test
+    public void multiByteSeparator() throws IOException {
+        check(2, " ¦ ", false);
+    }
+}
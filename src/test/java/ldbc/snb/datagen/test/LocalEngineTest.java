@@ -0,0 +1,168 @@
+package ldbc.snb.datagen.test;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Checks that the local engine writes the same files as the Hadoop path, on the network of the test scale factor,
+ * which spans two blocks. With several threads, the local engine writes one file per worker instead, which together
+ * hold the lines of the file written by the single reducer of the Hadoop path.
+ */
+public class LocalEngineTest {
+
+    final static String hadoopDir = "./test_data_engine/hadoop";
+    final static String localDir = "./test_data_engine/local";
+    final static String localThreadsDir = "./test_data_engine/local_threads";
+
+    /** The reducer and partition of a file of the social network, as in person_0_0.csv or updateStream_0_0_forum.csv.**/
+    private static final Pattern FILE_ID = Pattern.compile("_\\d+_\\d+(?=(_[a-z]+)?\\.csv$)");
+
+    @BeforeClass
+    public static void generateData() throws IOException {
+        generate(hadoopDir, false, 1);
+        generate(localDir, true, 1);
+        // More workers than blocks, so that one of them has no block.
+        generate(localThreadsDir, true, 3);
+    }
+
+    private static void generate( String outputDir, boolean localEngine, int numThreads ) throws IOException {
+        new File(outputDir).mkdirs();
+        File params = new File(outputDir, "params.ini");
+        Writer writer = new OutputStreamWriter(new FileOutputStream(params), StandardCharsets.UTF_8);
+        writer.write("ldbc.snb.datagen.generator.scaleFactor:snb.interactive.1\n");
+        writer.write("ldbc.snb.datagen.generator.numThreads:" + numThreads + "\n");
+        writer.write("ldbc.snb.datagen.generator.localEngine:" + localEngine + "\n");
+        writer.write("ldbc.snb.datagen.serializer.personSerializer:ldbc.snb.datagen.serializer.snb.interactive.CSVPersonSerializer\n");
+        writer.write("ldbc.snb.datagen.serializer.invariantSerializer:ldbc.snb.datagen.serializer.snb.interactive.CSVInvariantSerializer\n");
+        writer.write("ldbc.snb.datagen.serializer.personActivitySerializer:ldbc.snb.datagen.serializer.snb.interactive.CSVPersonActivitySerializer\n");
+        writer.write("ldbc.snb.datagen.serializer.updateStreams:true\n");
+        writer.write("ldbc.snb.datagen.serializer.outputDir:" + outputDir + "/\n");
+        writer.close();
+
+        ProcessBuilder pb = new ProcessBuilder("java", "-ea","-cp","target/ldbc_snb_datagen-0.2.5-jar-with-dependencies.jar","ldbc.snb.datagen.generator.LDBCDatagen",params.getPath());
+        pb.directory(new File("./"));
+        File log = new File("test_log");
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(ProcessBuilder.Redirect.appendTo(log));
+        try {
+            Process p = pb.start();
+            assertEquals("Exit status of the generation with localEngine=" + localEngine + " and numThreads=" + numThreads, 0, p.waitFor());
+        } catch(InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /** Collects the files of a directory and its subdirectories, by path relative to the directory. The run
+     * report is left out, since it holds timings.**/
+    private static void listFiles( File dir, String prefix, Map<String, File> files ) {
+        File [] children = dir.listFiles();
+        if( children == null ) return;
+        for( File child : children ) {
+            if( child.isDirectory() ) {
+                listFiles(child, prefix + child.getName() + "/", files);
+            } else if( !child.getName().equals("runReport.json") && !child.getName().startsWith(".") ) {
+                files.put(prefix + child.getName(), child);
+            }
+        }
+    }
+
+    @Test
+    public void sameSocialNetwork() throws IOException {
+        compareDirectories("social_network");
+    }
+
+    @Test
+    public void sameSocialNetworkWithThreads() throws IOException {
+        Map<String, File> hadoopFiles = new TreeMap<String, File>();
+        Map<String, File> localFiles = new TreeMap<String, File>();
+        listFiles(new File(hadoopDir, "social_network"), "", hadoopFiles);
+        listFiles(new File(localThreadsDir, "social_network"), "", localFiles);
+        Map<String, Lines> expected = linesByFile(hadoopFiles);
+        Map<String, Lines> actual = linesByFile(localFiles);
+        assertFalse("No files were generated", expected.isEmpty());
+        assertEquals(expected.keySet(), actual.keySet());
+        assertTrue("The workers wrote a single file", localFiles.size() > hadoopFiles.size());
+        for( Map.Entry<String, Lines> lines : expected.entrySet() ) {
+            Lines other = actual.get(lines.getKey());
+            assertEquals("Headers of " + lines.getKey(), lines.getValue().headers, other.headers);
+            assertEquals("Number of lines of " + lines.getKey(), lines.getValue().count, other.count);
+            assertEquals("Lines of " + lines.getKey(), lines.getValue().hash, other.hash);
+        }
+    }
+
+    /** The lines of the files written by every reducer and partition, in any order. The files are too large to be
+     * held in memory, so the lines are summarized by their number and the sum of their hashes.**/
+    private static class Lines {
+        TreeSet<String> headers = new TreeSet<String>();
+        long count = 0;
+        long hash = 0;
+
+        void add( String line ) {
+            long h = 0xcbf29ce484222325L;
+            for( int i = 0; i < line.length(); ++i ) {
+                h = (h ^ line.charAt(i)) * 0x100000001b3L;
+            }
+            h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+            h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            hash += h ^ (h >>> 33);
+            count++;
+        }
+    }
+
+    /** Gathers the lines of the files written by every reducer and partition, by file name without them. The
+     * header of every CSV file that has one is left out of the lines.**/
+    private static Map<String, Lines> linesByFile( Map<String, File> files ) throws IOException {
+        Map<String, Lines> lines = new TreeMap<String, Lines>();
+        for( Map.Entry<String, File> file : files.entrySet() ) {
+            String name = FILE_ID.matcher(file.getKey()).replaceFirst("");
+            if( !lines.containsKey(name) ) {
+                lines.put(name, new Lines());
+            }
+            Lines fileLines = lines.get(name);
+            BufferedReader reader = Files.newBufferedReader(file.getValue().toPath(), StandardCharsets.UTF_8);
+            try {
+                String line = reader.readLine();
+                if( line != null && name.endsWith(".csv") && !name.startsWith("updateStream") ) {
+                    fileLines.headers.add(line);
+                    line = reader.readLine();
+                }
+                for( ; line != null; line = reader.readLine() ) {
+                    fileLines.add(line);
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return lines;
+    }
+
+    private void compareDirectories( String name ) throws IOException {
+        Map<String, File> hadoopFiles = new TreeMap<String, File>();
+        Map<String, File> localFiles = new TreeMap<String, File>();
+        listFiles(new File(hadoopDir, name), "", hadoopFiles);
+        listFiles(new File(localDir, name), "", localFiles);
+        assertFalse("No files were generated in " + name, hadoopFiles.isEmpty());
+        assertEquals(hadoopFiles.keySet(), localFiles.keySet());
+        for( Map.Entry<String, File> file : hadoopFiles.entrySet() ) {
+            byte [] expected = Files.readAllBytes(file.getValue().toPath());
+            byte [] actual = Files.readAllBytes(localFiles.get(file.getKey()).toPath());
+            assertTrue("File " + name + "/" + file.getKey() + " differs between the engines", Arrays.equals(expected, actual));
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package ldbc.snb.datagen.test;
+
+import ldbc.snb.datagen.dictionary.Dictionaries;
+import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.generator.DateGenerator;
+import ldbc.snb.datagen.generator.LDBCDatagen;
+import ldbc.snb.datagen.generator.PersonActivityGenerator;
+import ldbc.snb.datagen.generator.PersonGenerator;
+import ldbc.snb.datagen.hadoop.HadoopInvariantSerializer;
+import ldbc.snb.datagen.objects.Knows;
+import ldbc.snb.datagen.objects.Person;
+import ldbc.snb.datagen.serializer.PersonActivitySerializer;
+import ldbc.snb.datagen.serializer.PersonSerializer;
+import ldbc.snb.datagen.util.ConfigParser;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Serializes the same block of persons, with its knows and its activity, and the invariant entities, with the CSV
+ * and the Parquet serializers, and checks that reading back every Parquet file gives the rows of the matching CSV
+ * file, column by column.
+ */
+public class ParquetSerializerTest {
+
+    final static String outputDir = "./test_data_parquet";
+    final static String csvDir = outputDir + "/csv";
+    final static String parquetDir = outputDir + "/parquet";
+    final static String serializers = "ldbc.snb.datagen.serializer.snb.interactive.";
+
+    private static boolean updateStreams;
+
+    @BeforeClass
+    public static void generateData() throws Exception {
+        Configuration conf = ConfigParser.initialize();
+        ConfigParser.readConfig(conf, "./test_params.ini");
+        ConfigParser.readConfig(conf, LDBCDatagen.class.getResourceAsStream("/params.ini"));
+        LDBCDatagen.init(conf);
+        // The activity is serialized without update streams, so all of it goes to the serializers.
+        updateStreams = DatagenParams.updateStreams;
+        DatagenParams.updateStreams = false;
+
+        Person [] persons = new PersonGenerator(conf, conf.get("ldbc.snb.datagen.generator.distribution.degreeDistribution")).generateUserBlock(0, 300);
+        for( int i = 0; i < persons.length; ++i ) {
+            for( int j = i + 1; j < Math.min(i + 4, persons.length); ++j ) {
+                long creationDate = Math.max(persons[i].creationDate(), persons[j].creationDate()) + DatagenParams.deltaTime;
+                persons[i].knows().add(new Knows(persons[j], creationDate, 0.0f));
+                persons[j].knows().add(new Knows(persons[i], creationDate, 0.0f));
+            }
+        }
+        delete(new File(outputDir));
+        serialize(conf, persons, csvDir, "CSV");
+        // The second run writes over the files of the first one, as a retried or speculative attempt of a task does.
+        serialize(conf, persons, parquetDir, "Parquet");
+        serialize(conf, persons, parquetDir, "Parquet");
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        DatagenParams.updateStreams = updateStreams;
+        delete(new File(outputDir));
+    }
+
+    private static void delete( File file ) {
+        File [] children = file.listFiles();
+        if( children != null ) {
+            for( File child : children ) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static void serialize( Configuration baseConf, Person [] persons, String outputDir, String format ) throws Exception {
+        new File(outputDir).mkdirs();
+        Configuration conf = new Configuration(baseConf);
+        conf.set("ldbc.snb.datagen.serializer.socialNetworkDir", outputDir);
+        conf.set("ldbc.snb.datagen.serializer.invariantSerializer", serializers + format + "InvariantSerializer");
+        new HadoopInvariantSerializer(conf).run();
+
+        PersonSerializer personSerializer = (PersonSerializer) Class.forName(serializers + format + "PersonSerializer").newInstance();
+        personSerializer.initialize(conf, 0);
+        personSerializer.reset(LDBCDatagen.context());
+        for( Person p : persons ) {
+            personSerializer.export(p);
+            for( Knows k : p.knows() ) {
+                personSerializer.export(p, k);
+            }
+        }
+        personSerializer.close();
+
+        PersonActivitySerializer activitySerializer = (PersonActivitySerializer) Class.forName(serializers + format + "PersonActivitySerializer").newInstance();
+        activitySerializer.initialize(conf, 0);
+        PersonActivityGenerator activityGenerator = new PersonActivityGenerator(LDBCDatagen.context(), activitySerializer, null);
+        ArrayList<Person> block = new ArrayList<Person>();
+        for( Person p : persons ) {
+            block.add(new Person(p));
+        }
+        activityGenerator.generateActivityForBlock(0, block, null);
+        activityGenerator.close();
+        activitySerializer.close();
+    }
+
+    /** Formats a field of a Parquet row as the CSV serializers write it.**/
+    private static String format( Group row, int field ) {
+        if( row.getFieldRepetitionCount(field) == 0 ) {
+            return "";
+        }
+        PrimitiveType type = row.getType().getType(field).asPrimitiveType();
+        OriginalType originalType = type.getOriginalType();
+        switch( type.getPrimitiveTypeName() ) {
+            case INT64:
+                long longValue = row.getLong(field, 0);
+                return originalType == OriginalType.TIMESTAMP_MILLIS ? Dictionaries.dates.formatDateTime(longValue) : Long.toString(longValue);
+            case INT32:
+                int intValue = row.getInteger(field, 0);
+                return originalType == OriginalType.DATE ? Dictionaries.dates.formatDate(intValue * DateGenerator.ONE_DAY) : Integer.toString(intValue);
+            default:
+                return row.getString(field, 0);
+        }
+    }
+
+    private static void compare( File parquetFile, File csvFile ) throws IOException {
+        BufferedReader csv = new BufferedReader(new InputStreamReader(new FileInputStream(csvFile), StandardCharsets.UTF_8));
+        ParquetReader<Group> parquet = ParquetReader.builder(new GroupReadSupport(), new Path(parquetFile.getPath())).build();
+        try {
+            assertNotNull("Empty file " + csvFile, csv.readLine());              // The header.
+            int numRows = 0;
+            Group row;
+            while( (row = parquet.read()) != null ) {
+                String line = csv.readLine();
+                assertNotNull("Missing row " + numRows + " in " + csvFile, line);
+                String [] fields = line.split("\\|", -1);
+                GroupType type = row.getType();
+                assertEquals("Number of columns of " + parquetFile, fields.length, type.getFieldCount());
+                for( int i = 0; i < fields.length; ++i ) {
+                    assertEquals("Column " + type.getFieldName(i) + " of row " + numRows + " of " + parquetFile, fields[i], format(row, i));
+                }
+                numRows++;
+            }
+            assertNull("Extra rows in " + csvFile, csv.readLine());
+        } finally {
+            parquet.close();
+            csv.close();
+        }
+    }
+
+    @Test
+    public void sameColumns() throws IOException {
+        File [] parquetFiles = new File(parquetDir).listFiles();
+        assertNotNull(parquetFiles);
+        int numFiles = 0;
+        for( File parquetFile : parquetFiles ) {
+            String name = parquetFile.getName();
+            if( !name.endsWith(".parquet") ) continue;
+            File csvFile = new File(csvDir, name.substring(0, name.length() - ".parquet".length()) + "_0.csv");
+            assertTrue("No CSV file for " + name, csvFile.exists());
+            compare(parquetFile, csvFile);
+            numFiles++;
+        }
+        // The person, knows, activity and invariant files.
+        assertEquals(33, numFiles);
+    }
+}
@@ -0,0 +1,158 @@
+package ldbc.snb.datagen.test;
+
+import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.generator.LDBCDatagen;
+import ldbc.snb.datagen.generator.PersonActivityGenerator;
+import ldbc.snb.datagen.generator.PersonGenerator;
+import ldbc.snb.datagen.objects.*;
+import ldbc.snb.datagen.serializer.PersonActivitySerializer;
+import ldbc.snb.datagen.util.ConfigParser;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Checks that the activity of a block generated by several threads, with splittable random generators, is the one
+ * generated by a single thread: the same entities, in the same order, and the same factors.
+ */
+public class PersonActivityGeneratorTest {
+
+    private static final String ACTIVITY_THREADS = "ldbc.snb.datagen.generator.activityThreads";
+
+    private static Configuration conf;
+    private static boolean splittableRandom;
+    private static boolean updateStreams;
+    private static String activityThreads;
+
+    @BeforeClass
+    public static void initialize() {
+        conf = ConfigParser.initialize();
+        ConfigParser.readConfig(conf, "./test_params.ini");
+        ConfigParser.readConfig(conf, LDBCDatagen.class.getResourceAsStream("/params.ini"));
+        LDBCDatagen.init(conf);
+        // Activity is only generated by several threads with splittable random generators.
+        splittableRandom = DatagenParams.splittableRandom;
+        DatagenParams.splittableRandom = true;
+        updateStreams = DatagenParams.updateStreams;
+        DatagenParams.updateStreams = false;
+        activityThreads = LDBCDatagen.context().conf.get(ACTIVITY_THREADS);
+    }
+
+    @AfterClass
+    public static void restoreParams() {
+        DatagenParams.splittableRandom = splittableRandom;
+        DatagenParams.updateStreams = updateStreams;
+        LDBCDatagen.context().conf.set(ACTIVITY_THREADS, activityThreads);
+    }
+
+    /** Records every field of the serialized activity as a line, as the generators reuse objects.**/
+    private static class Recorder extends PersonActivitySerializer {
+        public ArrayList<String> lines = new ArrayList<String>();
+
+        public void reset() {
+        }
+
+        public void initialize( Configuration conf, int reducerId ) {
+        }
+
+        public void close() {
+        }
+
+        private static String message( Message message ) {
+            return message.messageId() + "|" + message.creationDate() + "|" + message.author().accountId() + "|" +
+                    message.forumId() + "|" + message.content() + "|" + message.tags() + "|" + message.ipAddress() +
+                    "|" + message.browserId() + "|" + message.countryId();
+        }
+
+        protected void serialize( Forum forum ) {
+            lines.add("forum|" + forum.id() + "|" + forum.title() + "|" + forum.creationDate() + "|" +
+                    forum.moderator().accountId() + "|" + forum.tags() + "|" + forum.place() + "|" + forum.language());
+        }
+
+        protected void serialize( Post post ) {
+            lines.add("post|" + message(post) + "|" + post.language());
+        }
+
+        protected void serialize( Comment comment ) {
+            lines.add("comment|" + message(comment) + "|" + comment.postId() + "|" + comment.replyOf());
+        }
+
+        protected void serialize( Photo photo ) {
+            lines.add("photo|" + message(photo) + "|" + photo.latt() + "|" + photo.longt());
+        }
+
+        protected void serialize( ForumMembership membership ) {
+            lines.add("membership|" + membership.forumId() + "|" + membership.creationDate() + "|" +
+                    membership.person().accountId());
+        }
+
+        protected void serialize( Like like ) {
+            lines.add("like|" + like.user + "|" + like.messageId + "|" + like.date + "|" + like.type);
+        }
+    }
+
+    /** The activity and factors of two blocks, generated by one generator.**/
+    private static class Activity {
+        public ArrayList<String> lines;
+        public String activityFactors;
+        public String personFactors;
+    }
+
+    private static ArrayList<Person> block( int seed, int numPersons ) {
+        Person [] persons = new PersonGenerator(conf, conf.get("ldbc.snb.datagen.generator.distribution.degreeDistribution")).generateUserBlock(seed, numPersons);
+        for( int i = 0; i < persons.length; ++i ) {
+            for( int j = i + 1; j < Math.min(i + 8, persons.length); ++j ) {
+                long creationDate = Math.max(persons[i].creationDate(), persons[j].creationDate()) + DatagenParams.deltaTime;
+                persons[i].knows().add(new Knows(persons[j], creationDate, 0.0f));
+                persons[j].knows().add(new Knows(persons[i], creationDate, 0.0f));
+            }
+        }
+        ArrayList<Person> block = new ArrayList<Person>();
+        for( Person person : persons ) {
+            block.add(person);
+        }
+        return block;
+    }
+
+    private static Activity generate( int threads ) throws IOException {
+        LDBCDatagen.context().conf.setInt(ACTIVITY_THREADS, threads);
+        Recorder recorder = new Recorder();
+        PersonActivityGenerator generator = new PersonActivityGenerator(LDBCDatagen.context(), recorder, null);
+        try {
+            // A second block reuses the workers of the first one.
+            generator.generateActivityForBlock(0, block(0, 1000), null);
+            generator.generateActivityForBlock(1, block(1, 333), null);
+        } finally {
+            generator.close();
+        }
+        Activity activity = new Activity();
+        activity.lines = recorder.lines;
+        ByteArrayOutputStream factors = new ByteArrayOutputStream();
+        generator.writeActivityFactors(factors);
+        activity.activityFactors = factors.toString("UTF-8");
+        factors = new ByteArrayOutputStream();
+        generator.writePersonFactors(factors);
+        activity.personFactors = factors.toString("UTF-8");
+        return activity;
+    }
+
+    @Test
+    public void activityThreadsSameActivity() throws IOException {
+        Activity expected = generate(1);
+        Activity actual = generate(4);
+        assertTrue(expected.lines.size() > 10000);
+        assertEquals(expected.lines.size(), actual.lines.size());
+        for( int i = 0; i < expected.lines.size(); ++i ) {
+            assertEquals("Line " + i, expected.lines.get(i), actual.lines.get(i));
+        }
+        assertEquals(expected.activityFactors, actual.activityFactors);
+        assertEquals(expected.personFactors, actual.personFactors);
+    }
+}
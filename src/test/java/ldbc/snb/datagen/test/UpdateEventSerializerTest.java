@@ -0,0 +1,496 @@
+package ldbc.snb.datagen.test;
+
+import ldbc.snb.datagen.dictionary.Dictionaries;
+import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.generator.LDBCDatagen;
+import ldbc.snb.datagen.generator.PersonActivityGenerator;
+import ldbc.snb.datagen.generator.PersonGenerator;
+import ldbc.snb.datagen.objects.*;
+import ldbc.snb.datagen.serializer.PersonActivitySerializer;
+import ldbc.snb.datagen.serializer.UpdateEventSerializer;
+import ldbc.snb.datagen.util.ConfigParser;
+import ldbc.snb.datagen.util.RandomGeneratorFarm;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+/**
+ * Checks that the update streams written from the typed UpdateEvents are the lines of the former serializer, which
+ * joined the fields of each event as strings when the event was exported.
+ */
+public class UpdateEventSerializerTest {
+
+    final static String outputDir = "./test_data_update_events";
+
+    private static Configuration conf;
+    private static boolean updateStreams;
+
+    private UpdateEventSerializer serializer;
+    private FormerSerializer former;
+
+    @BeforeClass
+    public static void initialize() {
+        conf = ConfigParser.initialize();
+        ConfigParser.readConfig(conf, "./test_params.ini");
+        ConfigParser.readConfig(conf, LDBCDatagen.class.getResourceAsStream("/params.ini"));
+        LDBCDatagen.init(conf);
+        conf.set("ldbc.snb.datagen.serializer.socialNetworkDir", outputDir);
+        // The activity is generated without update streams, so all of it goes to the recording serializer.
+        updateStreams = DatagenParams.updateStreams;
+        DatagenParams.updateStreams = false;
+    }
+
+    @AfterClass
+    public static void restoreParams() {
+        DatagenParams.updateStreams = updateStreams;
+    }
+
+    @Before
+    public void createSerializers() throws IOException {
+        new File(outputDir).mkdirs();
+        serializer = new UpdateEventSerializer(conf, outputDir + "/temp_updateStream_0_0_test", 0, 1, "test");
+        former = new FormerSerializer();
+    }
+
+    @After
+    public void cleanUp() {
+        File [] files = new File(outputDir).listFiles();
+        if( files != null ) {
+            for( File file : files ) {
+                file.delete();
+            }
+        }
+        new File(outputDir).delete();
+    }
+
+    /** A line of the former update streams, with the date it was sorted by.**/
+    private static class Line {
+        public long date;
+        public String line;
+
+        public Line( long date, String line ) {
+            this.date = date;
+            this.line = line;
+        }
+    }
+
+    /** The former UpdateEventSerializer, which formatted each event when it was exported.**/
+    private static class FormerSerializer {
+        public ArrayList<Line> lines = new ArrayList<Line>();
+        private ArrayList<String> data_ = new ArrayList<String>();
+        private ArrayList<String> list_ = new ArrayList<String>();
+        private long date_;
+        private long dependantDate_;
+        private UpdateEvent.UpdateEventType type_;
+
+        private static String formatStringArray( ArrayList<String> array, String separator ) {
+            if( array.size() == 0 ) return "";
+            StringBuffer buffer = new StringBuffer();
+            for( String s : array ) {
+                buffer.append(s);
+                buffer.append(separator);
+            }
+            return buffer.substring(0, buffer.length() - 1);
+        }
+
+        private void beginEvent( long date, long dependantDate, UpdateEvent.UpdateEventType type ) {
+            date_ = date;
+            dependantDate_ = dependantDate;
+            type_ = type;
+            data_.clear();
+        }
+
+        private void endEvent() {
+            if( date_ <= Dictionaries.dates.getEndDateTime() ) {
+                lines.add(new Line(date_, date_ + "|" + dependantDate_ + "|" + (type_.ordinal() + 1) + "|" + formatStringArray(data_, "|")));
+            }
+        }
+
+        private void beginList() {
+            list_.clear();
+        }
+
+        private void endList() {
+            data_.add(formatStringArray(list_, ";"));
+        }
+
+        public void export( Person person ) {
+            beginEvent(person.creationDate(), 0, UpdateEvent.UpdateEventType.ADD_PERSON);
+            data_.add(Long.toString(person.accountId()));
+            data_.add(person.firstName());
+            data_.add(person.lastName());
+            data_.add(person.gender() == 1 ? "male" : "female");
+            data_.add(Long.toString(person.birthDay()));
+            data_.add(Long.toString(person.creationDate()));
+            data_.add(person.ipAddress().toString());
+            data_.add(Dictionaries.browsers.getName(person.browserId()));
+            data_.add(Integer.toString(person.cityId()));
+            beginList();
+            for( Integer l : person.languages() ) {
+                list_.add(Dictionaries.languages.getLanguageName(l));
+            }
+            endList();
+            beginList();
+            for( String e : person.emails() ) {
+                list_.add(e);
+            }
+            endList();
+            beginList();
+            for( Integer tag : person.interests() ) {
+                list_.add(Integer.toString(tag));
+            }
+            endList();
+            beginList();
+            int universityId = person.universityLocationId();
+            if( universityId != -1 && person.classYear() != -1 ) {
+                ArrayList<String> studyAtData = new ArrayList<String>();
+                studyAtData.add(Long.toString(Dictionaries.universities.getUniversityFromLocation(universityId)));
+                studyAtData.add(Dictionaries.dates.formatYear(person.classYear()));
+                list_.add(formatStringArray(studyAtData, ","));
+            }
+            endList();
+            beginList();
+            for( Long companyId : person.companies().keySet() ) {
+                ArrayList<String> workAtData = new ArrayList<String>();
+                workAtData.add(Long.toString(companyId));
+                workAtData.add(Dictionaries.dates.formatYear(person.companies().get(companyId)));
+                list_.add(formatStringArray(workAtData, ","));
+            }
+            endList();
+            endEvent();
+        }
+
+        public void export( Person p, Knows k ) {
+            if( p.accountId() < k.to().accountId() ) {
+                beginEvent(k.creationDate(), Math.max(p.creationDate(), k.to().creationDate()), UpdateEvent.UpdateEventType.ADD_FRIENDSHIP);
+                data_.add(Long.toString(p.accountId()));
+                data_.add(Long.toString(k.to().accountId()));
+                data_.add(Long.toString(k.creationDate()));
+                endEvent();
+            }
+        }
+
+        public void export( Post post ) {
+            beginEvent(post.creationDate(), post.author().creationDate(), UpdateEvent.UpdateEventType.ADD_POST);
+            data_.add(Long.toString(post.messageId()));
+            data_.add("");
+            data_.add(Long.toString(post.creationDate()));
+            data_.add(post.ipAddress().toString());
+            data_.add(Dictionaries.browsers.getName(post.browserId()));
+            data_.add(Dictionaries.languages.getLanguageName(post.language()));
+            data_.add(post.content());
+            data_.add(Long.toString(post.content().length()));
+            data_.add(Long.toString(post.author().accountId()));
+            data_.add(Long.toString(post.forumId()));
+            data_.add(Long.toString(Dictionaries.ips.getLocation(post.ipAddress())));
+            beginList();
+            for( int tag : post.tags() ) {
+                list_.add(Integer.toString(tag));
+            }
+            endList();
+            endEvent();
+        }
+
+        public void export( Like like ) {
+            beginEvent(like.date, like.userCreationDate, like.type == Like.LikeType.COMMENT ? UpdateEvent.UpdateEventType.ADD_LIKE_COMMENT : UpdateEvent.UpdateEventType.ADD_LIKE_POST);
+            data_.add(Long.toString(like.user));
+            data_.add(Long.toString(like.messageId));
+            data_.add(Long.toString(like.date));
+            endEvent();
+        }
+
+        public void export( Photo photo ) {
+            beginEvent(photo.creationDate(), photo.author().creationDate(), UpdateEvent.UpdateEventType.ADD_POST);
+            data_.add(Long.toString(photo.messageId()));
+            data_.add(photo.content());
+            data_.add(Long.toString(photo.creationDate()));
+            data_.add(photo.ipAddress().toString());
+            data_.add(Dictionaries.browsers.getName(photo.browserId()));
+            data_.add("");
+            data_.add("");
+            data_.add("0");
+            data_.add(Long.toString(photo.author().accountId()));
+            data_.add(Long.toString(photo.forumId()));
+            data_.add(Long.toString(Dictionaries.ips.getLocation(photo.ipAddress())));
+            beginList();
+            for( int tag : photo.tags() ) {
+                list_.add(Integer.toString(tag));
+            }
+            endList();
+            endEvent();
+        }
+
+        public void export( Comment comment ) {
+            beginEvent(comment.creationDate(), comment.author().creationDate(), UpdateEvent.UpdateEventType.ADD_COMMENT);
+            data_.add(Long.toString(comment.messageId()));
+            data_.add(Long.toString(comment.creationDate()));
+            data_.add(comment.ipAddress().toString());
+            data_.add(Dictionaries.browsers.getName(comment.browserId()));
+            data_.add(comment.content());
+            data_.add(Integer.toString(comment.content().length()));
+            data_.add(Long.toString(comment.author().accountId()));
+            data_.add(Long.toString(Dictionaries.ips.getLocation(comment.ipAddress())));
+            if( comment.replyOf() == comment.postId() ) {
+                data_.add(Long.toString(comment.postId()));
+                data_.add("-1");
+            } else {
+                data_.add("-1");
+                data_.add(Long.toString(comment.replyOf()));
+            }
+            beginList();
+            for( int tag : comment.tags() ) {
+                list_.add(Integer.toString(tag));
+            }
+            endList();
+            endEvent();
+        }
+
+        public void export( Forum forum ) {
+            beginEvent(forum.creationDate(), forum.moderator().creationDate(), UpdateEvent.UpdateEventType.ADD_FORUM);
+            data_.add(Long.toString(forum.id()));
+            data_.add(forum.title());
+            data_.add(Long.toString(forum.creationDate()));
+            data_.add(Long.toString(forum.moderator().accountId()));
+            beginList();
+            for( int tag : forum.tags() ) {
+                list_.add(Integer.toString(tag));
+            }
+            endList();
+            endEvent();
+        }
+
+        public void export( ForumMembership membership ) {
+            beginEvent(membership.creationDate(), membership.person().creationDate(), UpdateEvent.UpdateEventType.ADD_FORUM_MEMBERSHIP);
+            data_.add(Long.toString(membership.forumId()));
+            data_.add(Long.toString(membership.person().accountId()));
+            data_.add(Long.toString(membership.creationDate()));
+            endEvent();
+        }
+    }
+
+    /** Passes the generated activity to both serializers, as it is generated, since the generators reuse objects.**/
+    private class Recorder extends PersonActivitySerializer {
+        public void reset() {
+        }
+
+        public void initialize( Configuration conf, int reducerId ) {
+        }
+
+        public void close() {
+        }
+
+        protected void serialize( Forum forum ) {
+            try {
+                serializer.export(forum);
+            } catch( IOException e ) {
+                throw new RuntimeException(e);
+            }
+            former.export(forum);
+        }
+
+        protected void serialize( Post post ) {
+            try {
+                serializer.export(post);
+            } catch( IOException e ) {
+                throw new RuntimeException(e);
+            }
+            former.export(post);
+        }
+
+        protected void serialize( Comment comment ) {
+            try {
+                serializer.export(comment);
+            } catch( IOException e ) {
+                throw new RuntimeException(e);
+            }
+            former.export(comment);
+        }
+
+        protected void serialize( Photo photo ) {
+            try {
+                serializer.export(photo);
+            } catch( IOException e ) {
+                throw new RuntimeException(e);
+            }
+            former.export(photo);
+        }
+
+        protected void serialize( ForumMembership membership ) {
+            try {
+                serializer.export(membership);
+            } catch( IOException e ) {
+                throw new RuntimeException(e);
+            }
+            former.export(membership);
+        }
+
+        protected void serialize( Like like ) {
+            try {
+                serializer.export(like);
+            } catch( IOException e ) {
+                throw new RuntimeException(e);
+            }
+            former.export(like);
+        }
+    }
+
+    private void export( Person person ) throws IOException {
+        serializer.export(person);
+        former.export(person);
+        for( Knows k : person.knows() ) {
+            serializer.export(person, k);
+            former.export(person, k);
+        }
+    }
+
+    /** Closes the serializer and compares the stream it writes with the lines of the former serializer, in the
+     * same stable order by date.**/
+    private void checkSameLines() throws IOException {
+        serializer.close();
+        ArrayList<Line> expected = former.lines;
+        Collections.sort(expected, new Comparator<Line>() {
+            public int compare( Line a, Line b ) {
+                return Long.compare(a.date, b.date);
+            }
+        });
+        BufferedReader stream = new BufferedReader(new InputStreamReader(new FileInputStream(outputDir + "/updateStream_0_0_test.csv"), StandardCharsets.UTF_8));
+        try {
+            for( int i = 0; i < expected.size(); ++i ) {
+                assertEquals("Line " + i, expected.get(i).line, stream.readLine());
+            }
+            assertNull("Extra lines", stream.readLine());
+        } finally {
+            stream.close();
+        }
+    }
+
+    @Test
+    public void generatedEvents() throws IOException {
+        Person [] persons = new PersonGenerator(conf, conf.get("ldbc.snb.datagen.generator.distribution.degreeDistribution")).generateUserBlock(0, 300);
+        for( int i = 0; i < persons.length; ++i ) {
+            for( int j = i + 1; j < Math.min(i + 4, persons.length); ++j ) {
+                long creationDate = Math.max(persons[i].creationDate(), persons[j].creationDate()) + DatagenParams.deltaTime;
+                persons[i].knows().add(new Knows(persons[j], creationDate, 0.0f));
+                persons[j].knows().add(new Knows(persons[i], creationDate, 0.0f));
+            }
+        }
+        for( Person person : persons ) {
+            export(person);
+        }
+        PersonActivityGenerator activityGenerator = new PersonActivityGenerator(LDBCDatagen.context(), new Recorder(), null);
+        ArrayList<Person> block = new ArrayList<Person>();
+        for( Person p : persons ) {
+            block.add(new Person(p));
+        }
+        activityGenerator.generateActivityForBlock(0, block, null);
+        activityGenerator.close();
+        assertTrue(former.lines.size() > 10000);
+        checkSameLines();
+    }
+
+    private static Person person( long id, long creationDate ) {
+        Person person = new Person();
+        person.accountId(id);
+        person.creationDate(creationDate);
+        person.birthDay(creationDate - 20 * 365 * DatagenParams.deltaTime);
+        person.ipAddress(new IP(192, 168, (int) id, 255, 24));
+        person.browserId(0);
+        person.cityId(3);
+        person.universityLocationId(-1);
+        person.classYear(-1);
+        return person;
+    }
+
+    @Test
+    public void edgeCases() throws IOException {
+        long date = Dictionaries.dates.getStartDateTime() + 1000;
+
+        // No names, emails, languages, interests, university or companies.
+        Person empty = person(1, date);
+        empty.firstName(null);
+        empty.lastName("");
+        export(empty);
+
+        // Several languages, emails, interests and companies, and a university.
+        Person full = person(2, date + 1);
+        full.firstName("Ελένη");
+        full.lastName("Müller");
+        full.gender((byte) 1);
+        full.languages(new ArrayList<Integer>(Arrays.asList(0, 1, 2)));
+        full.emails(new TreeSet<String>(Arrays.asList("a@b.c", "", "北京@example.com")));
+        full.interests(new TreeSet<Integer>(Arrays.asList(0, 7, 1000)));
+        full.universityLocationId(Dictionaries.universities.getRandomUniversity(new RandomGeneratorFarm(), Dictionaries.places.getCountries().get(0)));
+        full.classYear(date - 365 * DatagenParams.deltaTime);
+        HashMap<Long, Long> companies = new HashMap<Long, Long>();
+        companies.put(5L, date);
+        companies.put(70L, date + 1);
+        full.companies(companies);
+        full.knows().add(new Knows(empty, date + 2, 0.0f));
+        export(full);
+
+        // A university without a class year.
+        Person student = person(3, date + 2);
+        student.universityLocationId(full.universityLocationId());
+        export(student);
+        // A knows exported from the person with the larger id, which has no event.
+        empty.knows().add(new Knows(full, date + 2, 0.0f));
+        serializer.export(empty, empty.knows().first());
+        former.export(empty, empty.knows().first());
+
+        Recorder recorder = new Recorder();
+        Person.PersonSummary author = new Person.PersonSummary(full);
+        Forum forum = new Forum(10, date + 3, author, "", 0, 0);
+        recorder.export(forum);
+        forum = new Forum(11, date + 3, author, "Title | with ; separators", 0, 0);
+        forum.tags(new ArrayList<Integer>(Arrays.asList(3, 1, 2)));
+        recorder.export(forum);
+        recorder.export(new ForumMembership(11, date + 4, new Person.PersonSummary(empty)));
+
+        // A post without a language, content or tags, and one with all of them.
+        recorder.export(new Post(20, date + 5, author, 11, "", new TreeSet<Integer>(), full.ipAddress(), 1, -1));
+        recorder.export(new Post(21, date + 5, author, 11, "Ωραίο 😀", new TreeSet<Integer>(Arrays.asList(4, 5)), full.ipAddress(), 1, 2));
+        recorder.export(new Photo(22, date + 6, author, 11, "photo22.jpg", new TreeSet<Integer>(Arrays.asList(6)), full.ipAddress(), 0, 0.0, 0.0));
+        recorder.export(new Photo(23, date + 6, author, 11, "", new TreeSet<Integer>(), full.ipAddress(), 0, 0.0, 0.0));
+
+        // A reply to a post and a reply to a comment.
+        recorder.export(new Comment(30, date + 7, author, 11, "ok", new TreeSet<Integer>(), full.ipAddress(), 0, 21, 21, ""));
+        recorder.export(new Comment(31, date + 8, author, 11, "", new TreeSet<Integer>(Arrays.asList(9, 8)), full.ipAddress(), 0, 21, 30, ""));
+
+        Like like = new Like();
+        like.user = 1;
+        like.userCreationDate = date;
+        like.messageId = 21;
+        like.date = date + 9;
+        like.type = Like.LikeType.POST;
+        recorder.export(like);
+        like.type = Like.LikeType.PHOTO;
+        like.messageId = 22;
+        recorder.export(like);
+        like.type = Like.LikeType.COMMENT;
+        like.messageId = 31;
+        recorder.export(like);
+
+        // Events at the same date keep their order, and events after the end of the simulation are left out.
+        recorder.export(new ForumMembership(10, date + 4, new Person.PersonSummary(student)));
+        recorder.export(new ForumMembership(10, Dictionaries.dates.getEndDateTime() + 1, new Person.PersonSummary(student)));
+        checkSameLines();
+    }
+}
@@ -0,0 +1,131 @@
+package ldbc.snb.datagen.test;
+
+import ldbc.snb.datagen.serializer.UpdateStreamSorter;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Checks that UpdateStreamSorter gives the events in the order of a stable in-memory sort by date, with runs held in
+ * memory, spilled, and merged again once there are too many of them, and that it leaves no run files behind.
+ */
+public class UpdateStreamSorterTest {
+
+    /** An event added to the sorter, identified by the order in which it was added.**/
+    private static class Event {
+        public long date;
+        public int index;
+
+        public Event( long date, int index ) {
+            this.date = date;
+            this.index = index;
+        }
+    }
+
+    private static class Recorder implements UpdateStreamSorter.EventWriter {
+        public ArrayList<Event> events = new ArrayList<Event>();
+
+        public void write( long date, byte [] data ) throws IOException {
+            events.add(new Event(date, ByteBuffer.wrap(data).getInt()));
+        }
+    }
+
+    /** Events almost in date order, as the serializers emit them, with many dates shared by several events.**/
+    private static ArrayList<Event> events( int numEvents, long seed ) {
+        Random random = new Random(seed);
+        ArrayList<Event> events = new ArrayList<Event>();
+        for( int i = 0; i < numEvents; ++i ) {
+            events.add(new Event(i / 3 + random.nextInt(40), i));
+        }
+        return events;
+    }
+
+    private static int numRunFiles() {
+        String [] files = new File(System.getProperty("java.io.tmpdir")).list(new FilenameFilter() {
+            public boolean accept( File dir, String name ) {
+                return name.startsWith("updateStream") && name.endsWith(".run");
+            }
+        });
+        return files == null ? 0 : files.length;
+    }
+
+    private static UpdateStreamSorter sorter( ArrayList<Event> events, int runSize ) throws IOException {
+        UpdateStreamSorter sorter = new UpdateStreamSorter(runSize);
+        for( Event event : events ) {
+            sorter.add(event.date, ByteBuffer.allocate(4).putInt(event.index).array());
+        }
+        return sorter;
+    }
+
+    private void check( int numEvents, int runSize ) throws IOException {
+        int numRunFiles = numRunFiles();
+        ArrayList<Event> expected = events(numEvents, numEvents + runSize);
+        UpdateStreamSorter sorter = sorter(expected, runSize);
+        assertEquals(numEvents == 0, sorter.isEmpty());
+        Collections.sort(expected, new Comparator<Event>() {
+            public int compare( Event a, Event b ) {
+                return Long.compare(a.date, b.date);
+            }
+        });
+        Recorder recorder = new Recorder();
+        sorter.writeSorted(recorder);
+        assertEquals(expected.size(), recorder.events.size());
+        for( int i = 0; i < expected.size(); ++i ) {
+            assertEquals("Date of event " + i, expected.get(i).date, recorder.events.get(i).date);
+            assertEquals("Event " + i, expected.get(i).index, recorder.events.get(i).index);
+        }
+        assertTrue(sorter.isEmpty());
+        assertEquals("Run files left", numRunFiles, numRunFiles());
+    }
+
+    @Test
+    public void inMemory() throws IOException {
+        check(0, 10);
+        check(1000, 100000);
+    }
+
+    @Test
+    public void spilledRuns() throws IOException {
+        // Runs of 10 events, with and without a partial run in memory at the end.
+        check(600, 10);
+        check(605, 10);
+    }
+
+    @Test
+    public void mergedRuns() throws IOException {
+        // More than 64 runs, so that the spilled runs are merged again, several times.
+        check(640, 10);
+        check(5003, 10);
+        check(20000, 7);
+    }
+
+    @Test
+    public void failedMerge() throws IOException {
+        int numRunFiles = numRunFiles();
+        UpdateStreamSorter sorter = sorter(events(1000, 0), 10);
+        try {
+            sorter.writeSorted(new UpdateStreamSorter.EventWriter() {
+                private int count = 0;
+
+                public void write( long date, byte [] data ) throws IOException {
+                    if( ++count == 500 ) {
+                        throw new IOException("Failed write");
+                    }
+                }
+            });
+            fail("The failure of the writer is not reported");
+        } catch( IOException e ) {
+            assertEquals("Failed write", e.getMessage());
+        }
+        assertEquals("Run files left", numRunFiles, numRunFiles());
+    }
+}